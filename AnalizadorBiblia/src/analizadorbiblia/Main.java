@@ -1,7 +1,19 @@
 package analizadorbiblia;
 
 import modelo.AnalizadorBiblia;
+import modelo.CargadorComprimido;
+import modelo.CargadorParalelo;
+import modelo.CargadorPorEtapas;
+import modelo.ContadorNGramas;
+import modelo.Corpus;
+import modelo.Frecuencia;
+import modelo.IndiceInvertido;
+import modelo.Instantanea;
+import modelo.Lista;
+import modelo.TablaOrdenada;
+import java.nio.charset.Charset;
 import java.util.Scanner;
+import util.AnalisisLexico;
     
 /**
  * Clase principal del sistema Analizador de Textos.
@@ -10,11 +22,13 @@ import java.util.Scanner;
  * 
  * <p>El programa permite:
  * <ul>
- *   <li>Cargar y procesar archivos de texto</li>
+ *   <li>Cargar y procesar archivos de texto; cada archivo es un documento
+ *       de un {@link Corpus} y volver a cargarlo reemplaza su versión anterior</li>
  *   <li>Obtener estadísticas completas del texto</li>
  *   <li>Buscar frecuencia de palabras específicas</li>
- *   <li>Filtrar palabras por letra inicial</li>
+ *   <li>Filtrar palabras por letra inicial o prefijo</li>
  *   <li>Mostrar todas las palabras ordenadas alfabéticamente</li>
+ *   <li>Buscar versículos con consultas booleanas sobre un índice invertido</li>
  * </ul>
  * 
  * @author Camilo
@@ -23,25 +37,56 @@ import java.util.Scanner;
  */
 public class Main {
     
-     /**
+    /**
+     * Peso máximo de la caché de consultas del modo interactivo, en
+     * elementos de las listas guardadas.
+     */
+    private static final int PESO_CACHE = 100_000;
+
+    /**
      * Scanner para manejar la entrada del usuario desde la consola.
      */
     private static Scanner scanner = new Scanner(System.in);
 
+    /**
+     * Índice de versículos del último archivo cargado con índice, o null.
+     */
+    private static IndiceInvertido indice = null;
+
+    /**
+     * Ruta del archivo indexado en {@link #indice}.
+     */
+    private static String rutaIndice = null;
+
+    /**
+     * Codificación con que se cargó el archivo indexado en {@link #indice}.
+     */
+    private static Charset codificacionIndice = null;
+
     /**
      * Método principal que inicia la aplicación.
      * Carga un archivo inicial y presenta el menú principal al usuario.
+     * Con argumentos se ejecuta sin menú, en el modo de {@link ModoLotes}.
      * 
-     * @param args Argumentos de línea de comandos (no utilizados)
+     * @param args Archivos y opciones del modo no interactivo, o ninguno
      */
     public static void main(String[] args) {
-        AnalizadorBiblia analizador = new AnalizadorBiblia();
+        if (args.length > 0) {
+            int codigo = ModoLotes.ejecutar(args);
+            if (codigo != 0) System.exit(codigo);
+            return;
+        }
         
         System.out.println("ANALIZADOR DE TEXTOS BÍBLICOS");
         System.out.println("=============================\n");
         
+        System.out.print("Raíces y palabras vacías (es = español, en = inglés, Enter = ninguno): ");
+        Corpus corpus = new Corpus(leerAnalisis(scanner.nextLine()));
+        AnalizadorBiblia analizador = corpus.getGlobal();
+        analizador.activarCache(PESO_CACHE);
+        
         // Paso 1: Cargar archivo
-        cargarArchivo(analizador);
+        cargarArchivo(corpus);
         
         // Menú principal
         int opcion;
@@ -57,26 +102,32 @@ public class Main {
                     buscarPalabra(analizador);
                     break;
                 case 3:
-                    buscarPorLetraInicial(analizador);
+                    buscarPorPrefijo(analizador);
                     break;
                 case 4:
                     mostrarPalabrasOrdenadas(analizador);
                     break;
                 case 5:
-                    procesarNuevoArchivo(analizador);
+                    procesarNuevoArchivo(corpus);
                     break;
                 case 6:
+                    buscarVersiculos();
+                    break;
+                case 7:
+                    mostrarFrasesFrecuentes(analizador);
+                    break;
+                case 8:
                     System.out.println("\nSaliendo del programa...");
                     break;
                 default:
                     System.out.println("\nOpción no válida. Intente nuevamente.");
             }
             
-            if (opcion != 6) {
+            if (opcion != 8) {
                 System.out.println("\nPresione Enter para continuar...");
                 scanner.nextLine();
             }
-        } while (opcion != 6);
+        } while (opcion != 8);
         
         scanner.close();
     }
@@ -85,32 +136,138 @@ public class Main {
      * Carga y procesa un archivo de texto especificado por el usuario.
      * Muestra el progreso del procesamiento y mide el tiempo de ejecución.
      * 
-     * @param analizador Instancia del analizador donde se procesará el texto
+     * <p>Permite elegir entre la lectura línea por línea, que lee, tokeniza
+     * y cuenta en etapas concurrentes con {@link CargadorPorEtapas}, y la
+     * carga paralela con {@link CargadorParalelo}, que divide el archivo en
+     * bloques. Ambas producen el mismo resultado que procesar el archivo
+     * línea por línea en un solo hilo.
+     * 
+     * <p>Los archivos comprimidos con gzip o zip se reconocen por su
+     * contenido y se descomprimen al vuelo con {@link CargadorComprimido},
+     * sin escribir el texto a disco; la carga paralela y el índice sólo
+     * admiten texto sin comprimir (el índice, también gzip). La
+     * codificación del texto se pregunta al usuario.
+     * 
+     * <p>El archivo se procesa en un analizador propio y se agrega al
+     * corpus con su ruta como nombre; si esa ruta ya estaba cargada, la
+     * versión anterior se reemplaza sin volver a procesar los demás.
+     * 
+     * <p>Si el usuario lo pide y junto al archivo existe una
+     * {@link Instantanea} vigente, se carga la instantánea en lugar de
+     * volver a tokenizar el texto; si no existe, se guarda una al terminar
+     * de procesar el archivo. Sin ese pedido no se lee ni se escribe
+     * ninguna instantánea ni se calcula el CRC32 del texto. Con análisis
+     * léxico no se usan instantáneas, ya que éstas guardan las palabras
+     * sólo normalizadas.
+     * 
+     * <p>Opcionalmente construye un {@link IndiceInvertido} de las líneas
+     * durante la lectura línea por línea; en ese caso no se usan la carga
+     * paralela ni la instantánea, que no recorren el texto línea por línea.
+     * En un zip, cuyas entradas se cuentan en paralelo, el índice se
+     * construye en una segunda lectura de las entradas en orden.
+     * 
+     * <p>También a pedido del usuario cuenta las frases de dos y tres
+     * palabras con un {@link ContadorNGramas}. La carga paralela y las
+     * instantáneas no cuentan frases, así que en ese caso no se usan.
+     * 
+     * @param corpus Corpus al que se agregará el documento
      * @throws RuntimeException Si ocurre un error al leer el archivo
      */
-    private static void cargarArchivo(AnalizadorBiblia analizador) {
+    private static void cargarArchivo(Corpus corpus) {
         System.out.print("Ingrese la ruta del archivo a analizar: ");
         String rutaArchivo = scanner.nextLine();
+        System.out.print("¿Usar carga paralela? (s/n): ");
+        boolean paralela = scanner.nextLine().equalsIgnoreCase("s");
+        System.out.print("¿Construir índice de versículos? (s/n): ");
+        boolean indexar = scanner.nextLine().equalsIgnoreCase("s");
+        if (indexar && paralela) {
+            System.out.println("El índice se construye con la lectura línea por línea.");
+            paralela = false;
+        }
+        System.out.print("¿Contar frases de dos y tres palabras? (s/n): ");
+        boolean ngramas = scanner.nextLine().equalsIgnoreCase("s");
+        if (ngramas && paralela) {
+            System.out.println("Las frases se cuentan con la lectura línea por línea.");
+            paralela = false;
+        }
+        System.out.print("Codificación del archivo (Enter para " + Charset.defaultCharset().name() + "): ");
+        Charset codificacion = leerCodificacion(scanner.nextLine());
+        
+        AnalisisLexico analisis = corpus.getGlobal().getAnalisis();
+        AnalizadorBiblia analizador = new AnalizadorBiblia();
+        analizador.setAnalisis(analisis);
+        if (ngramas) {
+            analizador.activarNGramas();
+        }
+        boolean usarInstantanea = false;
+        if (analisis == null && !ngramas) {
+            System.out.print("¿Usar y guardar instantánea " + Instantanea.EXTENSION + " junto al archivo? (s/n): ");
+            usarInstantanea = scanner.nextLine().equalsIgnoreCase("s");
+        }
+        String rutaInstantanea = rutaArchivo + Instantanea.EXTENSION;
         
         try {
             long startTime = System.currentTimeMillis();
+            CargadorComprimido.Formato formato = CargadorComprimido.detectar(rutaArchivo);
+            if (formato != CargadorComprimido.Formato.TEXTO && paralela) {
+                System.out.println("La carga paralela sólo admite texto sin comprimir; se descomprime en etapas.");
+                paralela = false;
+            }
+            if (!indexar && usarInstantanea && cargarInstantanea(analizador, rutaInstantanea, rutaArchivo, codificacion)) {
+                agregarAlCorpus(corpus, rutaArchivo, analizador);
+                long endTime = System.currentTimeMillis();
+                System.out.println("\n¡Instantánea cargada con éxito!");
+                System.out.printf("Tiempo de carga: %.2f segundos%n", (endTime - startTime) / 1000.0);
+                return;
+            }
             
-            // Procesar archivo línea por línea
-            try (java.io.BufferedReader br = new java.io.BufferedReader(new java.io.FileReader(rutaArchivo))) {
-                String linea;
-                int numLinea = 1;
+            if (paralela) {
+                System.out.println("\nProcesando archivo en paralelo...");
+                CargadorParalelo.cargar(analizador, rutaArchivo, codificacion);
+            } else {
+                // Procesar archivo línea por línea: descompresión (si hace
+                // falta), lectura, tokenización y conteo en etapas
+                IndiceInvertido nuevoIndice = indexar ? new IndiceInvertido(analisis) : null;
+                boolean zip = formato == CargadorComprimido.Formato.ZIP;
+                CargadorPorEtapas etapas = new CargadorPorEtapas();
+                etapas.setIndice(zip ? null : nuevoIndice);
+                CargadorComprimido cargador = new CargadorComprimido(etapas,
+                        Runtime.getRuntime().availableProcessors());
+                long tamano = CargadorComprimido.tamanoDescomprimido(rutaArchivo);
+                cargador.setProgreso(bytes -> mostrarProgreso(bytes, tamano));
                 
-                System.out.println("\nProcesando archivo...");
-                while ((linea = br.readLine()) != null) {
-                    analizador.procesarTexto(linea);
-                    System.out.print("."); // Mostrar progreso
-                    if (numLinea % 50 == 0) System.out.println();
-                    numLinea++;
+                System.out.println(formato == CargadorComprimido.Formato.TEXTO
+                        ? "\nProcesando archivo..." : "\nDescomprimiendo y procesando archivo " + formato + "...");
+                cargador.cargar(analizador, rutaArchivo, codificacion);
+                if (nuevoIndice != null) {
+                    if (zip) {
+                        // Las entradas se cuentan en paralelo; el índice se
+                        // construye aparte, con las líneas en el mismo orden
+                        // en que las relee buscarVersiculos
+                        CargadorComprimido.leerLineas(rutaArchivo, codificacion, nuevoIndice::agregarLinea);
+                    }
+                    nuevoIndice.compactar();
+                    indice = nuevoIndice;
+                    rutaIndice = rutaArchivo;
+                    codificacionIndice = codificacion;
                 }
-                
-                long endTime = System.currentTimeMillis();
-                System.out.println("\n\n¡Archivo procesado con éxito!");
-                System.out.printf("Tiempo de procesamiento: %.2f segundos%n", (endTime - startTime) / 1000.0);
+            }
+            
+            agregarAlCorpus(corpus, rutaArchivo, analizador);
+            
+            long endTime = System.currentTimeMillis();
+            System.out.println("\n\n¡Archivo procesado con éxito!");
+            System.out.printf("Tiempo de procesamiento: %.2f segundos%n", (endTime - startTime) / 1000.0);
+            System.out.print(analizador.getMetricas());
+            
+            if (indexar) {
+                System.out.printf("Índice de versículos: %d líneas, %d apariciones, %.2f bytes por aparición%n",
+                        indice.getNumeroLineas(), indice.getTotalApariciones(),
+                        indice.getBytesApariciones() / (double) Math.max(1, indice.getTotalApariciones()));
+            }
+            
+            if (usarInstantanea) {
+                guardarInstantanea(analizador, rutaInstantanea, rutaArchivo, codificacion);
             }
         } catch (Exception e) {
             System.err.println("\nError al procesar el archivo: " + e.getMessage());
@@ -118,6 +275,118 @@ public class Main {
         }
     }
     
+    /**
+     * Obtiene el análisis léxico elegido por el usuario.
+     * 
+     * @param idioma "es" para español, "en" para inglés; cualquier otra
+     *               respuesta deja las palabras sólo normalizadas
+     * @return Análisis léxico, o null si no se usa ninguno
+     */
+    private static AnalisisLexico leerAnalisis(String idioma) {
+        switch (idioma.trim().toLowerCase()) {
+            case "es":
+                return AnalisisLexico.espanol();
+            case "en":
+                return AnalisisLexico.ingles();
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Obtiene la codificación indicada por el usuario. Si la deja vacía o
+     * no es válida, usa la codificación por defecto de la plataforma.
+     * 
+     * @param nombre Nombre de la codificación, por ejemplo UTF-8 o ISO-8859-1
+     * @return Codificación a usar
+     */
+    private static Charset leerCodificacion(String nombre) {
+        nombre = nombre.trim();
+        if (nombre.isEmpty()) return Charset.defaultCharset();
+        try {
+            return Charset.forName(nombre);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Codificación no válida; se usa " + Charset.defaultCharset().name() + ".");
+            return Charset.defaultCharset();
+        }
+    }
+    
+    /**
+     * Muestra en una sola línea, reescribiéndola, el porcentaje del
+     * archivo procesado. El cargador limita la frecuencia de los avisos.
+     * 
+     * @param bytes Bytes procesados
+     * @param tamano Tamaño del archivo en bytes
+     */
+    private static void mostrarProgreso(long bytes, long tamano) {
+        double porcentaje = tamano > 0 ? Math.min(100.0, 100.0 * bytes / tamano) : 100.0;
+        System.out.printf("\r%5.1f%% (%.1f de %.1f MB)", porcentaje, bytes / 1e6, tamano / 1e6);
+    }
+    
+    /**
+     * Agrega un documento al corpus, o reemplaza su versión anterior si la
+     * ruta ya estaba cargada.
+     * 
+     * @param corpus Corpus donde agregar el documento
+     * @param rutaArchivo Ruta del archivo, usada como nombre del documento
+     * @param documento Analizador con el archivo procesado
+     */
+    private static void agregarAlCorpus(Corpus corpus, String rutaArchivo, AnalizadorBiblia documento) {
+        if (corpus.contieneDocumento(rutaArchivo)) {
+            corpus.reemplazarDocumento(rutaArchivo, documento);
+            System.out.println("\nEl archivo ya estaba cargado: se reemplazó su versión anterior.");
+        } else {
+            corpus.agregarDocumento(rutaArchivo, documento);
+        }
+    }
+    
+    /**
+     * Carga la instantánea de un archivo si existe y corresponde al
+     * contenido actual del texto y a la codificación elegida.
+     * 
+     * @param analizador Analizador vacío donde cargar la instantánea
+     * @param rutaInstantanea Ruta de la instantánea
+     * @param rutaArchivo Ruta del archivo de texto
+     * @param codificacion Codificación del archivo de texto
+     * @return true si se cargó la instantánea
+     */
+    private static boolean cargarInstantanea(AnalizadorBiblia analizador, String rutaInstantanea,
+                                             String rutaArchivo, Charset codificacion) {
+        if (!new java.io.File(rutaInstantanea).isFile()) return false;
+        try {
+            // Sin mapear el archivo: si está desactualizado se reemplaza al guardar
+            if (!Instantanea.esVigente(rutaInstantanea, rutaArchivo, codificacion)) {
+                System.out.println("\nLa instantánea está desactualizada, se procesará el texto.");
+                return false;
+            }
+            System.out.println("\nCargando instantánea " + rutaInstantanea + "...");
+            analizador.cargarInstantanea(Instantanea.leer(rutaInstantanea));
+            return true;
+        } catch (java.io.IOException e) {
+            System.err.println("\nNo se pudo leer la instantánea: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Guarda la instantánea del analizador junto al archivo de texto.
+     * Un error al guardarla no interrumpe el programa.
+     * 
+     * @param analizador Analizador con el texto ya procesado
+     * @param rutaInstantanea Ruta de la instantánea
+     * @param rutaArchivo Ruta del archivo de texto
+     * @param codificacion Codificación con que se leyó el archivo
+     */
+    private static void guardarInstantanea(AnalizadorBiblia analizador, String rutaInstantanea,
+                                           String rutaArchivo, Charset codificacion) {
+        try {
+            Instantanea.guardar(analizador, rutaInstantanea, rutaArchivo, codificacion);
+            System.out.println("Instantánea guardada en " + rutaInstantanea);
+        } catch (java.io.IOException e) {
+            System.err.println("No se pudo guardar la instantánea: " + e.getMessage());
+        }
+    }
+    
     /**
      * Muestra el menú principal de opciones disponibles para el usuario.
      */
@@ -125,10 +394,12 @@ public class Main {
         System.out.println("\nMENÚ PRINCIPAL");
         System.out.println("1. Mostrar estadísticas completas");
         System.out.println("2. Buscar frecuencia de una palabra");
-        System.out.println("3. Buscar palabras por letra inicial");
+        System.out.println("3. Buscar palabras por letra inicial o prefijo");
         System.out.println("4. Mostrar todas las palabras ordenadas");
         System.out.println("5. Procesar un nuevo archivo");
-        System.out.println("6. Salir");
+        System.out.println("6. Buscar versículos (AND, OR, NOT, \"frase\")");
+        System.out.println("7. Frases más frecuentes (bigramas y trigramas)");
+        System.out.println("8. Salir");
         System.out.print("Seleccione una opción: ");
     }
     
@@ -150,7 +421,8 @@ public class Main {
     
     /**
      * Muestra las estadísticas completas del texto procesado.
-     * Incluye total de palabras, palabras únicas y la palabra más repetida.
+     * Incluye total de palabras, palabras únicas, la palabra más repetida
+     * y las palabras más frecuentes.
      * 
      * @param analizador Instancia del analizador con el texto procesado
      */
@@ -160,10 +432,22 @@ public class Main {
         System.out.println("- Total de palabras (con repeticiones): " + analizador.getTotalPalabras());
         System.out.println("- Palabras únicas (sin repeticiones): " + analizador.getPalabrasUnicas());
         System.out.println("- Palabra más repetida: " + analizador.getPalabraMasRepetida());
+        if (analizador.getCache() != null) {
+            System.out.println("- Caché de consultas: " + analizador.getCache());
+        }
+        
+        System.out.println("\nPalabras más frecuentes:");
+        int posicion = 1;
+        for (Frecuencia frecuencia : analizador.getTopK()) {
+            System.out.printf("%2d. %s%n", posicion++, frecuencia);
+        }
     }
     
     /**
      * Permite al usuario buscar la frecuencia de una palabra específica.
+     * Si la palabra no aparece, muestra hasta 10 palabras a distancia de
+     * edición de a lo sumo 2, las más cercanas primero, por si está mal
+     * escrita o tiene otra ortografía.
      * 
      * @param analizador Instancia del analizador donde buscar la palabra
      */
@@ -174,37 +458,53 @@ public class Main {
         int frecuencia = analizador.obtenerRepeticiones(palabra);
         System.out.printf("\nLa palabra '%s' aparece %d veces en el texto.%n", 
                          palabra, frecuencia);
+        if (analizador.getAnalisis() != null) {
+            String raiz = analizador.normalizar(palabra);
+            System.out.println(raiz.isEmpty() ? "Es una palabra vacía: no se cuenta."
+                                              : "Se contaron todas las formas con la raíz '" + raiz + "'.");
+        }
+        
+        if (frecuencia == 0) {
+            Lista<Frecuencia> similares = analizador.palabrasSimilares(palabra, 2);
+            if (!similares.estaVacia()) {
+                System.out.println("\nPalabras parecidas:");
+                for (int i = 0; i < Math.min(similares.tamano(), 10); i++) {
+                    Frecuencia similar = similares.obtenerDe(i);
+                    System.out.printf("- %s (%d repeticiones)%n",
+                                    similar.getPalabra(), similar.getRepeticiones());
+                }
+            }
+        }
     }
     
     /**
-     * Busca y muestra todas las palabras que comienzan con una letra específica.
-     * Valida que la entrada sea una única letra válida.
+     * Busca y muestra todas las palabras que comienzan con una letra
+     * o un prefijo específico, junto con sus repeticiones.
+     * Valida que la entrada contenga sólo letras.
      * 
      * @param analizador Instancia del analizador donde buscar las palabras
      */
-    private static void buscarPorLetraInicial(AnalizadorBiblia analizador) {
-        System.out.print("\nIngrese la letra inicial: ");
-        String input = scanner.nextLine();
+    private static void buscarPorPrefijo(AnalizadorBiblia analizador) {
+        System.out.print("\nIngrese la letra inicial o el prefijo: ");
+        String input = scanner.nextLine().trim();
         
-        if (input.length() != 1 || !Character.isLetter(input.charAt(0))) {
-            System.out.println("Debe ingresar una sola letra válida.");
+        if (input.isEmpty() || !input.chars().allMatch(Character::isLetter)) {
+            System.out.println("Debe ingresar sólo letras.");
             return;
         }
         
-        char letra = input.toLowerCase().charAt(0);
-        System.out.printf("\nPalabras que empiezan con '%c':%n", letra);
+        String prefijo = input.toLowerCase();
+        System.out.printf("\nPalabras que empiezan con '%s':%n", prefijo);
         
         int contador = 0;
-        for (String palabra : analizador.getPalabrasOrdenadas()) {
-            if (!palabra.isEmpty() && Character.toLowerCase(palabra.charAt(0)) == letra) {
-                System.out.printf("- %s (%d repeticiones)%n", 
-                                palabra, analizador.obtenerRepeticiones(palabra));
-                contador++;
-            }
+        for (Frecuencia frecuencia : analizador.palabrasConPrefijo(prefijo)) {
+            System.out.printf("- %s (%d repeticiones)%n", 
+                            frecuencia.getPalabra(), frecuencia.getRepeticiones());
+            contador++;
         }
         
         if (contador == 0) {
-            System.out.println("No se encontraron palabras con esta letra inicial.");
+            System.out.println("No se encontraron palabras con este prefijo.");
         } else {
             System.out.println("\nTotal encontradas: " + contador);
         }
@@ -226,9 +526,9 @@ public class Main {
             System.out.println("-----------------------------------");
             
             int contador = 0;
-            for (String palabra : analizador.getPalabrasOrdenadas()) {
+            for (TablaOrdenada.Entrada<String, Integer> entrada : analizador.entradas()) {
                 System.out.printf("%-15s (%d repeticiones)%n", 
-                                palabra, analizador.obtenerRepeticiones(palabra));
+                                entrada.getClave(), entrada.getValor());
                 contador++;
                 
                 if (contador % 20 == 0) {
@@ -241,17 +541,89 @@ public class Main {
     }
     
     /**
-     * Permite al usuario procesar un nuevo archivo, reemplazando el actual.
+     * Muestra los bigramas y trigramas más frecuentes de todos los
+     * archivos cargados y, si el usuario escribe una frase de dos o tres
+     * palabras, cuántas veces aparece. Sólo hay frases si todos los
+     * archivos se cargaron contándolas.
+     * 
+     * @param analizador Vista global del corpus
+     */
+    private static void mostrarFrasesFrecuentes(AnalizadorBiblia analizador) {
+        ContadorNGramas ngramas = analizador.getNGramas();
+        if (ngramas == null) {
+            System.out.println("\nNo se contaron frases: elija contarlas al cargar cada archivo.");
+            return;
+        }
+        for (int n = 2; n <= 3; n++) {
+            System.out.println(n == 2 ? "\nBigramas más frecuentes:" : "\nTrigramas más frecuentes:");
+            int posicion = 1;
+            for (Frecuencia frecuencia : ngramas.getTopK(n, AnalizadorBiblia.K_POR_DEFECTO)) {
+                System.out.printf("%2d. %s%n", posicion++, frecuencia);
+            }
+        }
+        
+        System.out.print("\nFrase a buscar (Enter para omitir): ");
+        String frase = scanner.nextLine().trim();
+        if (!frase.isEmpty()) {
+            System.out.println("La frase \"" + frase + "\" aparece " + ngramas.obtenerRepeticiones(frase) + " veces");
+        }
+    }
+    
+    /**
+     * Busca los versículos (líneas) que cumplen una consulta booleana en
+     * el índice del último archivo cargado con índice y muestra los primeros.
+     * El texto de las líneas se relee con la codificación de la carga y,
+     * si el archivo está comprimido, descomprimiéndolo igual que al cargarlo.
+     */
+    private static void buscarVersiculos() {
+        if (indice == null) {
+            System.out.println("\nNo hay índice de versículos. Cargue un archivo respondiendo 's' a construir el índice.");
+            return;
+        }
+        System.out.println("\nEjemplos: dios tierra | dios OR señor | dios NOT tierra | \"en el principio\"");
+        System.out.print("Ingrese la consulta: ");
+        String consulta = scanner.nextLine();
+        
+        try {
+            Lista<Integer> lineas = indice.consultar(consulta);
+            int total = lineas.tamano();
+            int mostrar = Math.min(total, 20);
+            System.out.printf("%nVersículos encontrados en %s: %d%n", rutaIndice, total);
+            if (mostrar == 0) return;
+            
+            // Releer el archivo para mostrar el texto de las primeras líneas
+            int[] numLinea = {0};
+            int[] siguiente = {0};
+            CargadorComprimido.leerLineas(rutaIndice, codificacionIndice, linea -> {
+                numLinea[0]++;
+                if (siguiente[0] < mostrar && numLinea[0] == lineas.obtenerDe(siguiente[0])) {
+                    System.out.printf("%6d: %s%n", numLinea[0], linea);
+                    siguiente[0]++;
+                }
+            });
+            if (total > mostrar) {
+                System.out.println("... (" + (total - mostrar) + " más)");
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Consulta inválida: " + e.getMessage());
+        } catch (java.io.IOException e) {
+            System.err.println("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Permite al usuario agregar un nuevo archivo al corpus, o recargar
+     * uno ya procesado para reemplazar su versión anterior.
      * Solicita confirmación antes de proceder con la operación.
      * 
-     * @param analizador Instancia del analizador donde cargar el nuevo archivo
+     * @param corpus Corpus donde cargar el nuevo archivo
      */
-    private static void procesarNuevoArchivo(AnalizadorBiblia analizador) {
+    private static void procesarNuevoArchivo(Corpus corpus) {
         System.out.print("\n¿Está seguro que desea procesar un nuevo archivo? (s/n): ");
         String confirmacion = scanner.nextLine();
         
         if (confirmacion.equalsIgnoreCase("s")) {
-            cargarArchivo(analizador);
+            cargarArchivo(corpus);
         } else {
             System.out.println("Operación cancelada.");
         }
@@ -0,0 +1,1159 @@
+package analizadorbiblia;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import modelo.AnalizadorAproximado;
+import modelo.AnalizadorBiblia;
+import modelo.ArenaPalabras;
+import modelo.CargadorParalelo;
+import modelo.CargadorPorEtapas;
+import modelo.CacheConsultas;
+import modelo.CargadorComprimido;
+import modelo.ContadorExterno;
+import modelo.ContadorNGramas;
+import modelo.Corpus;
+import modelo.ExportadorFrecuencias;
+import modelo.Frecuencia;
+import modelo.Instantanea;
+import modelo.Lista;
+import modelo.TablaHash;
+import modelo.TopKExacto;
+import util.AnalisisLexico;
+import util.ExtractorRaices;
+import util.PalabrasVacias;
+import util.ProcesadorTexto;
+import util.RaicesEspanol;
+import util.RaicesIngles;
+
+/**
+ * Modo no interactivo del analizador, para scripts y tareas programadas.
+ *
+ * <pre>
+ * java -jar AnalizadorBiblia.jar [opciones] archivo...
+ *
+ *   --consultas &lt;ruta&gt;   Archivo con una consulta por línea ("-" para la
+ *                        entrada estándar). Una línea que termina en '*'
+ *                        busca las palabras con ese prefijo; una que
+ *                        termina en '~' o '~k' busca las palabras a
+ *                        distancia de edición de a lo sumo k (1 si se
+ *                        omite); cualquier otra busca la frecuencia de la
+ *                        palabra. Las líneas vacías y las que empiezan con
+ *                        '#' se omiten.
+ *   --formato tsv|json   Formato de salida (por defecto tsv). json escribe
+ *                        un objeto JSON por línea (JSON Lines).
+ *   --salida &lt;ruta&gt;      Archivo de salida (por defecto la salida estándar).
+ *   --limite &lt;n&gt;         Máximo de palabras por consulta de prefijo o
+ *                        de palabras similares.
+ *   --estadisticas       Escribe también el total, las palabras únicas y
+ *                        las más frecuentes.
+ *   --paralelo           Carga los archivos con {@link CargadorParalelo}.
+ *                        Los archivos gzip y zip se cargan siempre con
+ *                        {@link CargadorComprimido}.
+ *   --codificacion &lt;c&gt;   Codificación de los archivos (por defecto la de
+ *                        la plataforma), por ejemplo UTF-8 o ISO-8859-1.
+ *   --hilos &lt;n&gt;          Hilos de tokenización de {@link CargadorPorEtapas}.
+ *   --instantanea        Lee la {@link Instantanea} vigente de cada archivo
+ *                        en lugar de procesarlo y, si no hay, la guarda.
+ *                        Con un único archivo las consultas se responden
+ *                        directamente sobre la instantánea mapeada.
+ *   --sin-instantanea    No lee ni guarda instantáneas (por defecto).
+ *   --exportar &lt;ruta&gt;    Exporta la tabla completa de frecuencias con
+ *                        {@link ExportadorFrecuencias}: CSV si la ruta
+ *                        termina en .csv, JSON Lines si termina en .json o
+ *                        .jsonl, TSV en otro caso.
+ *   --minimo &lt;n&gt;         Repeticiones mínimas de las palabras exportadas.
+ *   --por-frecuencia     Exporta de mayor a menor frecuencia.
+ *   --cache &lt;peso&gt;       Guarda los resultados de las consultas repetidas
+ *                        de prefijo y de palabras similares en una
+ *                        {@link CacheConsultas} de ese peso (elementos) e
+ *                        informa su tasa de aciertos.
+ *   --raices es|en       Cuenta las palabras por su raíz, con el
+ *                        {@link ExtractorRaices} del español o del inglés.
+ *   --vacias &lt;v&gt;         Omite las {@link PalabrasVacias} del español
+ *                        (es), del inglés (en) o las de un archivo.
+ *   --fuera-del-heap     Guarda las palabras de cada archivo en una
+ *                        {@link ArenaPalabras}, fuera del heap.
+ *   --aproximado         Cuenta con un {@link AnalizadorAproximado}, en
+ *                        memoria fija: sólo estadísticas y consultas de
+ *                        una palabra, con conteos estimados.
+ *   --memoria-externa &lt;n&gt; Cuenta con un {@link ContadorExterno} que
+ *                        guarda a lo sumo n palabras distintas en
+ *                        memoria y vuelca el resto a disco: sólo
+ *                        estadísticas y exportación alfabética, exactas.
+ *   --ngramas            Cuenta también las frases de dos y tres palabras
+ *                        con un {@link ContadorNGramas}: las estadísticas
+ *                        incluyen los bigramas y trigramas más frecuentes
+ *                        y una consulta de varias palabras busca la frase.
+ *                        No admite --paralelo, --aproximado ni
+ *                        --memoria-externa y no usa instantáneas.
+ * </pre>
+ *
+ * <p>Con {@code --raices} o {@code --vacias} las palabras pasan por un
+ * {@link AnalisisLexico} y no se leen ni se guardan instantáneas, que
+ * contienen las palabras sólo normalizadas. Las consultas de palabras
+ * pasan por el mismo análisis.
+ *
+ * <p>Los archivos se cargan como documentos de un {@link Corpus} y las
+ * consultas se responden sobre su vista global. Con {@code --instantanea},
+ * un único archivo con instantánea vigente y sin {@code --cache} ni
+ * exportación por frecuencia, no se construye ninguna tabla: las
+ * estadísticas, las consultas de palabra y de prefijo y la exportación
+ * leen la instantánea mapeada, y sólo la primera consulta de palabras
+ * similares carga sus palabras en un analizador. Toda la salida pasa por
+ * un único {@link BufferedWriter} en UTF-8, sin formatear cada línea con
+ * {@code printf}; los mensajes de avance y de error van a la salida de
+ * errores para no mezclarse con los resultados.
+ *
+ * <p>Salida TSV, con una fila por resultado:
+ * <pre>
+ * palabra  &lt;consulta&gt;  &lt;palabra normalizada&gt;  &lt;repeticiones&gt;
+ * prefijo  &lt;consulta&gt;  &lt;palabra&gt;              &lt;repeticiones&gt;
+ * similar  &lt;consulta&gt;  &lt;palabra&gt;              &lt;repeticiones&gt;
+ * frase    &lt;consulta&gt;  &lt;frase&gt;                &lt;repeticiones&gt;
+ * bigrama  &lt;vacío&gt;     &lt;frase&gt;                &lt;repeticiones&gt;
+ * trigrama &lt;vacío&gt;     &lt;frase&gt;                &lt;repeticiones&gt;
+ * </pre>
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+final class ModoLotes {
+
+    /**
+     * Código de salida cuando los argumentos no son válidos.
+     */
+    static final int ERROR_USO = 2;
+
+    /**
+     * Código de salida cuando falla la lectura o escritura de un archivo.
+     */
+    static final int ERROR_ARCHIVO = 1;
+
+    /**
+     * Tamaño del buffer de salida en caracteres.
+     */
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    /**
+     * Archivos de texto a cargar.
+     */
+    private final Lista<String> archivos = new Lista<>(4);
+    /**
+     * Ruta del archivo de consultas, "-" para la entrada estándar, o null.
+     */
+    private String rutaConsultas;
+    /**
+     * Ruta del archivo de salida, o null para la salida estándar.
+     */
+    private String rutaSalida;
+    /**
+     * Indica si la salida es JSON Lines en lugar de TSV.
+     */
+    private boolean json;
+    /**
+     * Máximo de palabras por consulta de prefijo o de palabras similares.
+     */
+    private int limite = Integer.MAX_VALUE;
+    /**
+     * Indica si se escriben las estadísticas generales.
+     */
+    private boolean estadisticas;
+    /**
+     * Indica si se usa la carga paralela.
+     */
+    private boolean paralela;
+    /**
+     * Codificación de los archivos de texto.
+     */
+    private Charset codificacion = Charset.defaultCharset();
+    /**
+     * Hilos de tokenización, o 0 para uno por núcleo.
+     */
+    private int hilos;
+    /**
+     * Indica si se leen y guardan instantáneas.
+     */
+    private boolean usarInstantanea;
+    /**
+     * Peso máximo de la caché de consultas, o 0 para no usarla.
+     */
+    private int pesoCache;
+    /**
+     * Ruta del archivo de exportación, o null.
+     */
+    private String rutaExportacion;
+    /**
+     * Repeticiones mínimas de las palabras exportadas.
+     */
+    private int minimo = 1;
+    /**
+     * Indica si la exportación se ordena por frecuencia.
+     */
+    private boolean porFrecuencia;
+    /**
+     * Idioma de las raíces ("es" o "en"), o null para no usarlas.
+     */
+    private String idiomaRaices;
+    /**
+     * Palabras vacías: "es", "en" o la ruta de un archivo; null para no
+     * omitir ninguna.
+     */
+    private String vacias;
+    /**
+     * Indica si las palabras de cada archivo se guardan fuera del heap.
+     */
+    private boolean fueraDelHeap;
+    /**
+     * Indica si se cuenta con resúmenes probabilísticos en lugar de
+     * guardar las palabras.
+     */
+    private boolean aproximado;
+    /**
+     * Máximo de palabras distintas en memoria con {@code --memoria-externa},
+     * o 0 para guardar todo el vocabulario en memoria.
+     */
+    private int memoriaExterna;
+    /**
+     * Indica si se cuentan las frases de dos y tres palabras.
+     */
+    private boolean ngramas;
+    /**
+     * Análisis léxico de los archivos, o null.
+     */
+    private AnalisisLexico analisis;
+
+    private ModoLotes() {
+    }
+
+    /**
+     * Ejecuta el modo no interactivo.
+     *
+     * @param args Argumentos de línea de comandos
+     * @return Código de salida: 0 si todo fue bien
+     */
+    static int ejecutar(String[] args) {
+        ModoLotes modo = new ModoLotes();
+        try {
+            modo.leerArgumentos(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            mostrarUso();
+            return ERROR_USO;
+        }
+
+        try {
+            modo.analisis = modo.crearAnalisis();
+            if (modo.aproximado) {
+                modo.responderAproximado(modo.cargarAproximado());
+                return 0;
+            }
+            if (modo.memoriaExterna > 0) {
+                try (ContadorExterno contador = modo.cargarExterno()) {
+                    modo.responderExterno(contador);
+                }
+                return 0;
+            }
+            Instantanea instantanea = modo.abrirInstantanea();
+            if (instantanea != null) {
+                modo.responder(instantanea);
+                if (modo.rutaExportacion != null) {
+                    modo.exportar(instantanea);
+                }
+                return 0;
+            }
+            Corpus corpus = new Corpus(modo.analisis);
+            for (String archivo : modo.archivos) {
+                if (!corpus.contieneDocumento(archivo)) {
+                    corpus.agregarDocumento(archivo, modo.cargar(archivo));
+                }
+            }
+            if (modo.pesoCache > 0) {
+                corpus.getGlobal().activarCache(modo.pesoCache);
+            }
+            modo.responder(corpus.getGlobal());
+            if (modo.pesoCache > 0) {
+                System.err.println("Caché: " + corpus.getGlobal().getCache());
+            }
+            if (modo.rutaExportacion != null) {
+                modo.exportar(corpus.getGlobal());
+            }
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            return ERROR_ARCHIVO;
+        }
+    }
+
+    /**
+     * Interpreta los argumentos.
+     *
+     * @param args Argumentos de línea de comandos
+     * @throws IllegalArgumentException si algún argumento no es válido
+     */
+    private void leerArgumentos(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--consultas":
+                    rutaConsultas = valor(args, ++i, arg);
+                    break;
+                case "--salida":
+                    rutaSalida = valor(args, ++i, arg);
+                    break;
+                case "--formato":
+                    String formato = valor(args, ++i, arg);
+                    if (!formato.equals("tsv") && !formato.equals("json")) {
+                        throw new IllegalArgumentException("Formato desconocido: " + formato);
+                    }
+                    json = formato.equals("json");
+                    break;
+                case "--limite":
+                    limite = entero(valor(args, ++i, arg), arg);
+                    break;
+                case "--hilos":
+                    hilos = entero(valor(args, ++i, arg), arg);
+                    break;
+                case "--estadisticas":
+                    estadisticas = true;
+                    break;
+                case "--paralelo":
+                    paralela = true;
+                    break;
+                case "--codificacion":
+                    String nombre = valor(args, ++i, arg);
+                    try {
+                        codificacion = Charset.forName(nombre);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Codificación desconocida: " + nombre);
+                    }
+                    break;
+                case "--instantanea":
+                    usarInstantanea = true;
+                    break;
+                case "--sin-instantanea":
+                    usarInstantanea = false;
+                    break;
+                case "--cache":
+                    pesoCache = entero(valor(args, ++i, arg), arg);
+                    break;
+                case "--exportar":
+                    rutaExportacion = valor(args, ++i, arg);
+                    break;
+                case "--minimo":
+                    minimo = entero(valor(args, ++i, arg), arg);
+                    break;
+                case "--por-frecuencia":
+                    porFrecuencia = true;
+                    break;
+                case "--raices":
+                    idiomaRaices = valor(args, ++i, arg);
+                    if (!idiomaRaices.equals("es") && !idiomaRaices.equals("en")) {
+                        throw new IllegalArgumentException("Idioma desconocido: " + idiomaRaices);
+                    }
+                    break;
+                case "--vacias":
+                    vacias = valor(args, ++i, arg);
+                    break;
+                case "--fuera-del-heap":
+                    fueraDelHeap = true;
+                    break;
+                case "--aproximado":
+                    aproximado = true;
+                    break;
+                case "--memoria-externa":
+                    memoriaExterna = entero(valor(args, ++i, arg), arg);
+                    break;
+                case "--ngramas":
+                    ngramas = true;
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Opción desconocida: " + arg);
+                    }
+                    archivos.agregarAlFinal(arg);
+            }
+        }
+        if (archivos.tamano() == 0) {
+            throw new IllegalArgumentException("Debe indicar al menos un archivo de texto");
+        }
+        if (rutaConsultas == null && !estadisticas && rutaExportacion == null) {
+            throw new IllegalArgumentException("Indique --consultas, --estadisticas o --exportar");
+        }
+        if (aproximado && (rutaExportacion != null || pesoCache > 0 || fueraDelHeap)) {
+            throw new IllegalArgumentException("--aproximado no admite --exportar, --cache ni --fuera-del-heap");
+        }
+        if (memoriaExterna > 0 && (rutaConsultas != null || porFrecuencia || aproximado || pesoCache > 0
+                                   || fueraDelHeap)) {
+            throw new IllegalArgumentException("--memoria-externa no admite --consultas, --por-frecuencia, "
+                                               + "--aproximado, --cache ni --fuera-del-heap");
+        }
+        if (ngramas && (paralela || aproximado || memoriaExterna > 0)) {
+            throw new IllegalArgumentException("--ngramas no admite --paralelo, --aproximado ni --memoria-externa");
+        }
+    }
+
+    /**
+     * Crea el análisis léxico indicado con {@code --raices} y {@code --vacias}.
+     *
+     * @return Análisis léxico, o null si no se indicó ninguna de las dos
+     * @throws IOException Si ocurre un error al leer el archivo de
+     *                     palabras vacías
+     */
+    private AnalisisLexico crearAnalisis() throws IOException {
+        if (idiomaRaices == null && vacias == null) return null;
+        ExtractorRaices raices = idiomaRaices == null ? null
+                : idiomaRaices.equals("es") ? new RaicesEspanol() : new RaicesIngles();
+        PalabrasVacias palabrasVacias;
+        if (vacias == null) {
+            palabrasVacias = null;
+        } else if (vacias.equals("es")) {
+            palabrasVacias = PalabrasVacias.espanol();
+        } else if (vacias.equals("en")) {
+            palabrasVacias = PalabrasVacias.ingles();
+        } else {
+            palabrasVacias = PalabrasVacias.leer(vacias, codificacion);
+        }
+        return new AnalisisLexico(palabrasVacias, raices);
+    }
+
+    /**
+     * Obtiene el valor de una opción.
+     *
+     * @param args Argumentos de línea de comandos
+     * @param i Posición del valor
+     * @param opcion Nombre de la opción
+     * @return Valor de la opción
+     * @throws IllegalArgumentException si falta el valor
+     */
+    private static String valor(String[] args, int i, String opcion) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Falta el valor de " + opcion);
+        }
+        return args[i];
+    }
+
+    /**
+     * Interpreta el valor entero positivo de una opción.
+     *
+     * @param texto Valor de la opción
+     * @param opcion Nombre de la opción
+     * @return Valor entero
+     * @throws IllegalArgumentException si no es un entero positivo
+     */
+    private static int entero(String texto, String opcion) {
+        try {
+            int n = Integer.parseInt(texto);
+            if (n > 0) return n;
+        } catch (NumberFormatException e) {
+            // Se informa abajo
+        }
+        throw new IllegalArgumentException(opcion + " debe ser un entero positivo: " + texto);
+    }
+
+    /**
+     * Muestra la forma de uso en la salida de errores.
+     */
+    private static void mostrarUso() {
+        System.err.println("Uso: java -jar AnalizadorBiblia.jar [opciones] archivo...");
+        System.err.println("  --consultas <ruta>   consultas, una por línea ('-' = entrada estándar);");
+        System.err.println("                       'pre*' busca por prefijo, 'palabra~2' busca palabras");
+        System.err.println("                       similares, otra línea busca la palabra");
+        System.err.println("  --formato tsv|json   formato de salida (por defecto tsv)");
+        System.err.println("  --salida <ruta>      archivo de salida (por defecto la salida estándar)");
+        System.err.println("  --limite <n>         máximo de palabras por consulta de prefijo o similar");
+        System.err.println("  --estadisticas       escribe total, palabras únicas y más frecuentes");
+        System.err.println("  --paralelo           carga paralela por bloques (sólo texto sin comprimir)");
+        System.err.println("  --codificacion <c>   codificación de los archivos (por defecto " + Charset.defaultCharset().name() + ")");
+        System.err.println("  --hilos <n>          hilos de tokenización de la carga por etapas");
+        System.err.println("  --instantanea        lee o guarda una instantánea junto a cada archivo");
+        System.err.println("  --sin-instantanea    no lee ni guarda instantáneas (por defecto)");
+        System.err.println("  --exportar <ruta>    exporta todas las frecuencias (.csv, .json/.jsonl o tsv)");
+        System.err.println("  --minimo <n>         repeticiones mínimas de las palabras exportadas");
+        System.err.println("  --por-frecuencia     exporta de mayor a menor frecuencia");
+        System.err.println("  --cache <peso>       guarda los resultados de consultas repetidas");
+        System.err.println("  --raices es|en       cuenta las palabras por su raíz");
+        System.err.println("  --vacias <v>         omite las palabras vacías: es, en o un archivo");
+        System.err.println("  --fuera-del-heap     guarda las palabras fuera del heap");
+        System.err.println("  --aproximado         cuenta en memoria fija, con estimaciones");
+        System.err.println("  --memoria-externa <n> guarda a lo sumo n palabras en memoria y el resto en disco");
+        System.err.println("  --ngramas            cuenta también las frases de dos y tres palabras");
+        System.err.println("Sin argumentos se inicia el menú interactivo.");
+    }
+
+    /**
+     * Carga un archivo en un analizador nuevo, desde su instantánea si
+     * está vigente.
+     *
+     * @param rutaArchivo Ruta del archivo
+     * @return Analizador con el archivo procesado
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    private AnalizadorBiblia cargar(String rutaArchivo) throws IOException {
+        long inicio = System.nanoTime();
+        AnalizadorBiblia analizador = fueraDelHeap ? new AnalizadorBiblia(new ArenaPalabras())
+                                                   : new AnalizadorBiblia();
+        analizador.setAnalisis(analisis);
+        if (ngramas) {
+            analizador.activarNGramas();
+        }
+        // Las instantáneas no guardan n-gramas
+        boolean conInstantanea = usarInstantanea && analisis == null && !ngramas;
+        String rutaInstantanea = rutaArchivo + Instantanea.EXTENSION;
+
+        if (conInstantanea && new File(rutaInstantanea).isFile()) {
+            try {
+                // La cabecera se lee sin mapear el archivo, que así se
+                // puede reemplazar si está desactualizado
+                if (Instantanea.esVigente(rutaInstantanea, rutaArchivo, codificacion)) {
+                    analizador.cargarInstantanea(Instantanea.leer(rutaInstantanea));
+                    informar(rutaArchivo, "instantánea", inicio);
+                    return analizador;
+                }
+            } catch (IOException e) {
+                System.err.println("No se pudo leer la instantánea: " + e.getMessage());
+            }
+        }
+
+        CargadorComprimido.Formato formato = CargadorComprimido.detectar(rutaArchivo);
+        String forma;
+        if (paralela && formato == CargadorComprimido.Formato.TEXTO) {
+            CargadorParalelo.cargar(analizador, rutaArchivo, codificacion);
+            forma = "paralelo";
+        } else {
+            CargadorPorEtapas etapas = hilos > 0 ? new CargadorPorEtapas(hilos) : new CargadorPorEtapas();
+            new CargadorComprimido(etapas, etapas.getTrabajadores()).cargar(analizador, rutaArchivo, codificacion);
+            forma = formato == CargadorComprimido.Formato.TEXTO ? "etapas" : formato.name().toLowerCase();
+        }
+        informar(rutaArchivo, forma, inicio);
+
+        if (conInstantanea) {
+            try {
+                Instantanea.guardar(analizador, rutaInstantanea, rutaArchivo, codificacion);
+            } catch (IOException e) {
+                System.err.println("No se pudo guardar la instantánea: " + e.getMessage());
+            }
+        }
+        return analizador;
+    }
+
+    /**
+     * Abre mapeada la instantánea vigente del único archivo, si las
+     * opciones permiten responder directamente sobre ella.
+     *
+     * @return Instantánea abierta, o null si hay que cargar los archivos
+     */
+    private Instantanea abrirInstantanea() {
+        if (!usarInstantanea || analisis != null || ngramas || pesoCache > 0 || archivos.tamano() == 0
+                || (rutaExportacion != null && porFrecuencia)) {
+            return null;
+        }
+        String rutaArchivo = archivos.obtenerDe(0);
+        for (String archivo : archivos) {
+            if (!archivo.equals(rutaArchivo)) return null;
+        }
+        String rutaInstantanea = rutaArchivo + Instantanea.EXTENSION;
+        if (!new File(rutaInstantanea).isFile()) return null;
+        long inicio = System.nanoTime();
+        try {
+            if (!Instantanea.esVigente(rutaInstantanea, rutaArchivo, codificacion)) return null;
+            Instantanea instantanea = Instantanea.abrir(rutaInstantanea);
+            informar(rutaArchivo, "instantánea mapeada", inicio);
+            return instantanea;
+        } catch (IOException e) {
+            System.err.println("No se pudo leer la instantánea: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Carga todos los archivos distintos en analizadores aproximados, uno
+     * por archivo, y los fusiona.
+     *
+     * @return Analizador aproximado con todos los archivos
+     * @throws IOException Si ocurre un error al leer algún archivo
+     */
+    private AnalizadorAproximado cargarAproximado() throws IOException {
+        AnalizadorAproximado total = new AnalizadorAproximado();
+        total.setAnalisis(analisis);
+        TablaHash<String, Boolean> cargados = new TablaHash<>(archivos.tamano());
+        for (String archivo : archivos) {
+            if (cargados.contains(archivo)) continue;
+            long inicio = System.nanoTime();
+            AnalizadorAproximado documento = new AnalizadorAproximado();
+            documento.setAnalisis(analisis);
+            documento.cargar(archivo, codificacion);
+            total.fusionar(documento);
+            cargados.put(archivo, Boolean.TRUE);
+            informar(archivo, "aproximado", inicio);
+        }
+        return total;
+    }
+
+    /**
+     * Carga todos los archivos distintos en un contador con memoria externa.
+     *
+     * @return Contador con todos los archivos; debe cerrarse
+     * @throws IOException Si ocurre un error al leer algún archivo o al
+     *                     escribir una corrida
+     */
+    private ContadorExterno cargarExterno() throws IOException {
+        ContadorExterno contador = new ContadorExterno(memoriaExterna);
+        try {
+            contador.setAnalisis(analisis);
+            TablaHash<String, Boolean> cargados = new TablaHash<>(archivos.tamano());
+            for (String archivo : archivos) {
+                if (cargados.contains(archivo)) continue;
+                long inicio = System.nanoTime();
+                contador.cargar(archivo, codificacion);
+                cargados.put(archivo, Boolean.TRUE);
+                informar(archivo, "memoria externa", inicio);
+            }
+            System.err.println(contador.getCorridas() + " corridas en disco");
+            return contador;
+        } catch (IOException | RuntimeException e) {
+            contador.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Informa en la salida de errores que un archivo se cargó.
+     *
+     * @param rutaArchivo Ruta del archivo
+     * @param forma Forma de carga
+     * @param inicio Instante de inicio en nanosegundos
+     */
+    private static void informar(String rutaArchivo, String forma, long inicio) {
+        System.err.printf("%s: cargado (%s) en %.2f s%n", rutaArchivo, forma, (System.nanoTime() - inicio) / 1e9);
+    }
+
+    /**
+     * Escribe las estadísticas y las respuestas a las consultas.
+     *
+     * @param analizador Analizador con todos los archivos
+     * @throws IOException Si ocurre un error al leer las consultas o al escribir
+     */
+    private void responder(AnalizadorBiblia analizador) throws IOException {
+        OutputStream destino = rutaSalida != null ? new FileOutputStream(rutaSalida) : System.out;
+        Writer salida = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANO_BUFFER);
+        try {
+            if (estadisticas) {
+                escribirEstadisticas(analizador, salida);
+            }
+            if (rutaConsultas != null) {
+                long consultas = 0;
+                try (BufferedReader lector = abrirConsultas()) {
+                    String linea;
+                    while ((linea = lector.readLine()) != null) {
+                        String consulta = linea.trim();
+                        if (consulta.isEmpty() || consulta.startsWith("#")) continue;
+                        if (consulta.endsWith("*")) {
+                            escribirPrefijo(analizador, consulta, salida);
+                        } else if (consulta.indexOf('~') > 0) {
+                            escribirSimilares(analizador, consulta, salida);
+                        } else if (ngramas && consulta.indexOf(' ') > 0) {
+                            escribirFrase(analizador.getNGramas(), consulta, salida);
+                        } else {
+                            escribirPalabra(analizador, consulta, salida);
+                        }
+                        consultas++;
+                    }
+                }
+                System.err.println(consultas + " consultas respondidas");
+            }
+        } finally {
+            if (rutaSalida != null) {
+                salida.close();
+            } else {
+                salida.flush();
+            }
+        }
+    }
+
+    /**
+     * Escribe las estadísticas y las respuestas a las consultas leyendo
+     * directamente una instantánea. Las palabras más frecuentes se
+     * calculan con un {@link TopKExacto} en una pasada por el diccionario.
+     * Las palabras similares necesitan la tabla en memoria: la primera
+     * consulta de ese tipo carga la instantánea en un analizador.
+     *
+     * @param instantanea Instantánea del único archivo
+     * @throws IOException Si ocurre un error al leer las consultas o al escribir
+     */
+    private void responder(Instantanea instantanea) throws IOException {
+        OutputStream destino = rutaSalida != null ? new FileOutputStream(rutaSalida) : System.out;
+        Writer salida = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANO_BUFFER);
+        try {
+            if (estadisticas) {
+                TopKExacto top = new TopKExacto(AnalizadorBiblia.K_POR_DEFECTO);
+                for (Frecuencia frecuencia : instantanea.frecuencias()) {
+                    top.registrar(frecuencia.getPalabra(), frecuencia.getRepeticiones(),
+                                  frecuencia.getRepeticiones());
+                }
+                escribirEstadisticas(instantanea.getTotalPalabras(), instantanea.getPalabrasUnicas(),
+                                     top.getTopK(), salida);
+            }
+            if (rutaConsultas != null) {
+                long consultas = 0;
+                AnalizadorBiblia analizador = null;
+                try (BufferedReader lector = abrirConsultas()) {
+                    String linea;
+                    while ((linea = lector.readLine()) != null) {
+                        String consulta = linea.trim();
+                        if (consulta.isEmpty() || consulta.startsWith("#")) continue;
+                        if (consulta.endsWith("*")) {
+                            String prefijo = consulta.substring(0, consulta.length() - 1);
+                            escribirPrefijo(consulta, instantanea.palabrasConPrefijo(prefijo, 0, limite),
+                                            json ? instantanea.contarPalabrasConPrefijo(prefijo) : 0, salida);
+                        } else if (consulta.indexOf('~') > 0) {
+                            if (analizador == null) {
+                                analizador = new AnalizadorBiblia();
+                                analizador.cargarInstantanea(instantanea);
+                            }
+                            escribirSimilares(analizador, consulta, salida);
+                        } else {
+                            escribirPalabra(ProcesadorTexto.normalizarPalabra(consulta), consulta,
+                                            instantanea.obtenerRepeticiones(consulta), salida);
+                        }
+                        consultas++;
+                    }
+                }
+                System.err.println(consultas + " consultas respondidas");
+            }
+        } finally {
+            if (rutaSalida != null) {
+                salida.close();
+            } else {
+                salida.flush();
+            }
+        }
+    }
+
+    /**
+     * Escribe las estadísticas estimadas y las respuestas a las consultas
+     * de una palabra. Las consultas de prefijo y de palabras similares no
+     * se pueden responder sin las palabras y se informan como errores.
+     *
+     * @param analizador Analizador aproximado con todos los archivos
+     * @throws IOException Si ocurre un error al leer las consultas o al escribir
+     */
+    private void responderAproximado(AnalizadorAproximado analizador) throws IOException {
+        OutputStream destino = rutaSalida != null ? new FileOutputStream(rutaSalida) : System.out;
+        Writer salida = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8), TAMANO_BUFFER);
+        try {
+            if (estadisticas) {
+                escribirEstadisticas(analizador.getTotalPalabras(), analizador.getPalabrasUnicas(),
+                                     analizador.getTopK(), salida);
+                System.err.println(analizador.getEstadisticas());
+            }
+            if (rutaConsultas != null) {
+                long consultas = 0;
+                try (BufferedReader lector = abrirConsultas()) {
+                    String linea;
+                    while ((linea = lector.readLine()) != null) {
+                        String consulta = linea.trim();
+                        if (consulta.isEmpty() || consulta.startsWith("#")) continue;
+                        if (consulta.endsWith("*") || consulta.indexOf('~') > 0) {
+                            System.err.println("Consulta no disponible con --aproximado: " + consulta);
+                            continue;
+                        }
+                        escribirPalabra(analizador.normalizar(consulta), consulta,
+                                        analizador.obtenerRepeticiones(consulta), salida);
+                        consultas++;
+                    }
+                }
+                System.err.println(consultas + " consultas respondidas");
+            }
+        } finally {
+            if (rutaSalida != null) {
+                salida.close();
+            } else {
+                salida.flush();
+            }
+        }
+    }
+
+    /**
+     * Escribe las estadísticas y exporta la tabla de un contador con
+     * memoria externa. Cada una es una pasada por la mezcla de las
+     * corridas; las palabras más frecuentes se calculan con un
+     * {@link TopKExacto} durante la pasada.
+     *
+     * @param contador Contador con todos los archivos
+     * @throws IOException Si ocurre un error al leer las corridas o al escribir
+     */
+    private void responderExterno(ContadorExterno contador) throws IOException {
+        if (estadisticas) {
+            TopKExacto top = new TopKExacto(AnalizadorBiblia.K_POR_DEFECTO);
+            long unicas;
+            try (ContadorExterno.Fusion fusion = contador.fusion()) {
+                Frecuencia frecuencia;
+                while ((frecuencia = fusion.siguiente()) != null) {
+                    top.registrar(frecuencia.getPalabra(), frecuencia.getRepeticiones(),
+                                  frecuencia.getRepeticiones());
+                }
+                unicas = fusion.getPalabrasUnicas();
+            }
+            OutputStream destino = rutaSalida != null ? new FileOutputStream(rutaSalida) : System.out;
+            Writer salida = new BufferedWriter(new OutputStreamWriter(destino, StandardCharsets.UTF_8),
+                                               TAMANO_BUFFER);
+            try {
+                escribirEstadisticas(contador.getTotalPalabras(), unicas, top.getTopK(), salida);
+            } finally {
+                if (rutaSalida != null) {
+                    salida.close();
+                } else {
+                    salida.flush();
+                }
+            }
+        }
+        if (rutaExportacion != null) {
+            ExportadorFrecuencias exportador = new ExportadorFrecuencias(formatoExportacion());
+            exportador.setMinimo(minimo);
+            long palabras = exportador.exportar(contador, rutaExportacion);
+            System.err.println(palabras + " palabras exportadas a " + rutaExportacion);
+        }
+    }
+
+    /**
+     * Exporta la tabla de frecuencias al archivo indicado, con el formato
+     * que corresponde a su extensión.
+     *
+     * @param analizador Analizador a exportar
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void exportar(AnalizadorBiblia analizador) throws IOException {
+        ExportadorFrecuencias exportador = new ExportadorFrecuencias(formatoExportacion());
+        exportador.setMinimo(minimo);
+        exportador.setPorFrecuencia(porFrecuencia);
+        long palabras = exportador.exportar(analizador, rutaExportacion);
+        System.err.println(palabras + " palabras exportadas a " + rutaExportacion);
+    }
+
+    /**
+     * Exporta en orden alfabético la tabla de frecuencias de una
+     * instantánea, sin cargarla en memoria.
+     *
+     * @param instantanea Instantánea a exportar
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void exportar(Instantanea instantanea) throws IOException {
+        ExportadorFrecuencias exportador = new ExportadorFrecuencias(formatoExportacion());
+        exportador.setMinimo(minimo);
+        long palabras = exportador.exportar(instantanea, rutaExportacion);
+        System.err.println(palabras + " palabras exportadas a " + rutaExportacion);
+    }
+
+    /**
+     * Obtiene el formato de exportación que corresponde a la extensión de
+     * la ruta de exportación.
+     *
+     * @return CSV para .csv, JSON Lines para .json o .jsonl, TSV en otro caso
+     */
+    private ExportadorFrecuencias.Formato formatoExportacion() {
+        String ruta = rutaExportacion.toLowerCase();
+        return ruta.endsWith(".csv") ? ExportadorFrecuencias.Formato.CSV
+                : ruta.endsWith(".json") || ruta.endsWith(".jsonl") ? ExportadorFrecuencias.Formato.JSON
+                : ExportadorFrecuencias.Formato.TSV;
+    }
+
+    /**
+     * Abre el archivo de consultas o la entrada estándar, en UTF-8.
+     *
+     * @return Lector de consultas
+     * @throws IOException Si no se puede abrir el archivo
+     */
+    private BufferedReader abrirConsultas() throws IOException {
+        Charset utf8 = StandardCharsets.UTF_8;
+        if (rutaConsultas.equals("-")) {
+            return new BufferedReader(new InputStreamReader(System.in, utf8), TAMANO_BUFFER);
+        }
+        return Files.newBufferedReader(Paths.get(rutaConsultas), utf8);
+    }
+
+    /**
+     * Escribe la frecuencia de una palabra.
+     *
+     * @param analizador Analizador consultado
+     * @param consulta Palabra tal como aparece en las consultas
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirPalabra(AnalizadorBiblia analizador, String consulta, Writer salida) throws IOException {
+        escribirPalabra(analizador.normalizar(consulta), consulta, analizador.obtenerRepeticiones(consulta), salida);
+    }
+
+    /**
+     * Escribe la frecuencia ya calculada de una palabra.
+     *
+     * @param palabra Palabra normalizada
+     * @param consulta Palabra tal como aparece en las consultas
+     * @param repeticiones Repeticiones de la palabra
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirPalabra(String palabra, String consulta, int repeticiones, Writer salida)
+            throws IOException {
+        if (json) {
+            salida.write("{\"tipo\":\"palabra\",\"consulta\":");
+            ExportadorFrecuencias.escribirJson(consulta, salida);
+            salida.write(",\"palabra\":");
+            ExportadorFrecuencias.escribirJson(palabra, salida);
+            salida.write(",\"repeticiones\":");
+            salida.write(Integer.toString(repeticiones));
+            salida.write("}\n");
+        } else {
+            escribirFila(salida, "palabra", consulta, palabra, repeticiones);
+        }
+    }
+
+    /**
+     * Escribe las palabras que comienzan con un prefijo.
+     *
+     * @param analizador Analizador consultado
+     * @param consulta Prefijo seguido de '*'
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirPrefijo(AnalizadorBiblia analizador, String consulta, Writer salida) throws IOException {
+        String prefijo = consulta.substring(0, consulta.length() - 1);
+        escribirPrefijo(consulta, analizador.palabrasConPrefijo(prefijo, 0, limite),
+                        json ? analizador.contarPalabrasConPrefijo(prefijo) : 0, salida);
+    }
+
+    /**
+     * Escribe las palabras ya encontradas de una consulta de prefijo.
+     *
+     * @param consulta Prefijo seguido de '*'
+     * @param resultado Palabras con el prefijo, a lo sumo el límite
+     * @param total Número total de palabras con el prefijo; sólo se usa en JSON
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirPrefijo(String consulta, Lista<Frecuencia> resultado, int total, Writer salida)
+            throws IOException {
+        if (json) {
+            salida.write("{\"tipo\":\"prefijo\",\"consulta\":");
+            ExportadorFrecuencias.escribirJson(consulta, salida);
+            salida.write(",\"total\":");
+            salida.write(Integer.toString(total));
+            salida.write(",\"palabras\":[");
+            for (int i = 0; i < resultado.tamano(); i++) {
+                Frecuencia f = resultado.obtenerDe(i);
+                salida.write(i == 0 ? "{\"palabra\":" : ",{\"palabra\":");
+                ExportadorFrecuencias.escribirJson(f.getPalabra(), salida);
+                salida.write(",\"repeticiones\":");
+                salida.write(Integer.toString(f.getRepeticiones()));
+                salida.write('}');
+            }
+            salida.write("]}\n");
+        } else {
+            for (Frecuencia f : resultado) {
+                escribirFila(salida, "prefijo", consulta, f.getPalabra(), f.getRepeticiones());
+            }
+        }
+    }
+
+    /**
+     * Escribe las palabras a distancia de edición de a lo sumo k de una
+     * palabra, de la más cercana a la más lejana. Si lo que sigue a '~' no
+     * es un número, la consulta completa se busca con distancia 1.
+     *
+     * @param analizador Analizador consultado
+     * @param consulta Palabra seguida de '~' y, opcionalmente, de k
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirSimilares(AnalizadorBiblia analizador, String consulta, Writer salida) throws IOException {
+        int separador = consulta.lastIndexOf('~');
+        String palabra = consulta.substring(0, separador);
+        String distancia = consulta.substring(separador + 1);
+        int k = 1;
+        if (!distancia.isEmpty()) {
+            try {
+                k = Integer.parseInt(distancia);
+            } catch (NumberFormatException e) {
+                palabra = consulta;
+            }
+        }
+        if (k < 0) {
+            palabra = consulta;
+            k = 1;
+        }
+        Lista<Frecuencia> resultado = analizador.palabrasSimilares(palabra, k);
+        int cantidad = Math.min(resultado.tamano(), limite);
+        if (json) {
+            salida.write("{\"tipo\":\"similar\",\"consulta\":");
+            ExportadorFrecuencias.escribirJson(consulta, salida);
+            salida.write(",\"total\":");
+            salida.write(Integer.toString(resultado.tamano()));
+            salida.write(",\"palabras\":[");
+            for (int i = 0; i < cantidad; i++) {
+                Frecuencia f = resultado.obtenerDe(i);
+                salida.write(i == 0 ? "{\"palabra\":" : ",{\"palabra\":");
+                ExportadorFrecuencias.escribirJson(f.getPalabra(), salida);
+                salida.write(",\"repeticiones\":");
+                salida.write(Integer.toString(f.getRepeticiones()));
+                salida.write('}');
+            }
+            salida.write("]}\n");
+        } else {
+            for (int i = 0; i < cantidad; i++) {
+                Frecuencia f = resultado.obtenerDe(i);
+                escribirFila(salida, "similar", consulta, f.getPalabra(), f.getRepeticiones());
+            }
+        }
+    }
+
+    /**
+     * Escribe el total de palabras, las palabras únicas y las más frecuentes.
+     *
+     * @param analizador Analizador consultado
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirEstadisticas(AnalizadorBiblia analizador, Writer salida) throws IOException {
+        escribirEstadisticas(analizador.getTotalPalabras(), analizador.getPalabrasUnicas(),
+                             analizador.getTopK(), salida);
+        ContadorNGramas contador = analizador.getNGramas();
+        if (contador != null) {
+            escribirFrases("bigrama", contador.getTopK(2, AnalizadorBiblia.K_POR_DEFECTO), salida);
+            escribirFrases("trigrama", contador.getTopK(3, AnalizadorBiblia.K_POR_DEFECTO), salida);
+        }
+    }
+
+    /**
+     * Escribe las frases más frecuentes de una longitud.
+     *
+     * @param tipo "bigrama" o "trigrama"
+     * @param top Frases más frecuentes
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirFrases(String tipo, Lista<Frecuencia> top, Writer salida) throws IOException {
+        if (json) {
+            salida.write("{\"tipo\":\"");
+            salida.write(tipo);
+            salida.write("s\",\"frecuentes\":[");
+            for (int i = 0; i < top.tamano(); i++) {
+                Frecuencia f = top.obtenerDe(i);
+                salida.write(i == 0 ? "{\"frase\":" : ",{\"frase\":");
+                ExportadorFrecuencias.escribirJson(f.getPalabra(), salida);
+                salida.write(",\"repeticiones\":");
+                salida.write(Integer.toString(f.getRepeticiones()));
+                salida.write('}');
+            }
+            salida.write("]}\n");
+        } else {
+            for (Frecuencia f : top) {
+                escribirFila(salida, tipo, "", f.getPalabra(), f.getRepeticiones());
+            }
+        }
+    }
+
+    /**
+     * Escribe las repeticiones de una frase de dos o tres palabras.
+     *
+     * @param contador Contador de n-gramas consultado
+     * @param consulta Frase tal como aparece en las consultas
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirFrase(ContadorNGramas contador, String consulta, Writer salida) throws IOException {
+        int repeticiones = contador.obtenerRepeticiones(consulta);
+        if (json) {
+            salida.write("{\"tipo\":\"frase\",\"consulta\":");
+            ExportadorFrecuencias.escribirJson(consulta, salida);
+            salida.write(",\"repeticiones\":");
+            salida.write(Integer.toString(repeticiones));
+            salida.write("}\n");
+        } else {
+            escribirFila(salida, "frase", consulta, consulta, repeticiones);
+        }
+    }
+
+    /**
+     * Escribe estadísticas ya calculadas, exactas o estimadas.
+     *
+     * @param total Total de palabras
+     * @param unicas Palabras únicas
+     * @param top Palabras más frecuentes
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirEstadisticas(long total, long unicas, Lista<Frecuencia> top, Writer salida)
+            throws IOException {
+        if (json) {
+            salida.write("{\"tipo\":\"estadisticas\",\"total\":");
+            salida.write(Long.toString(total));
+            salida.write(",\"unicas\":");
+            salida.write(Long.toString(unicas));
+            salida.write(",\"frecuentes\":[");
+            for (int i = 0; i < top.tamano(); i++) {
+                Frecuencia f = top.obtenerDe(i);
+                salida.write(i == 0 ? "{\"palabra\":" : ",{\"palabra\":");
+                ExportadorFrecuencias.escribirJson(f.getPalabra(), salida);
+                salida.write(",\"repeticiones\":");
+                salida.write(Integer.toString(f.getRepeticiones()));
+                salida.write('}');
+            }
+            salida.write("]}\n");
+        } else {
+            escribirFila(salida, "total", "", "", total);
+            escribirFila(salida, "unicas", "", "", unicas);
+            for (Frecuencia f : top) {
+                escribirFila(salida, "frecuente", "", f.getPalabra(), f.getRepeticiones());
+            }
+        }
+    }
+
+    /**
+     * Escribe una fila TSV. Los tabuladores y saltos de línea de los
+     * textos se reemplazan por espacios para no romper las columnas.
+     *
+     * @param salida Salida
+     * @param tipo Tipo de fila
+     * @param consulta Consulta original
+     * @param palabra Palabra del resultado
+     * @param repeticiones Repeticiones de la palabra
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private static void escribirFila(Writer salida, String tipo, String consulta, String palabra,
+                                     long repeticiones) throws IOException {
+        salida.write(tipo);
+        salida.write('\t');
+        escribirTsv(consulta, salida);
+        salida.write('\t');
+        escribirTsv(palabra, salida);
+        salida.write('\t');
+        salida.write(Long.toString(repeticiones));
+        salida.write('\n');
+    }
+
+    /**
+     * Escribe un texto como campo TSV.
+     *
+     * @param texto Texto a escribir
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private static void escribirTsv(String texto, Writer salida) throws IOException {
+        if (texto.indexOf('\t') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            salida.write(texto);
+            return;
+        }
+        salida.write(texto.replace('\t', ' ').replace('\n', ' ').replace('\r', ' '));
+    }
+}
@@ -0,0 +1,353 @@
+package modelo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import util.AnalisisLexico;
+import util.ProcesadorTexto;
+import util.Tokenizador;
+
+/**
+ * Alternativa a {@link AnalizadorBiblia} para textos cuyo vocabulario no
+ * cabe en memoria: no guarda las palabras, sino resúmenes probabilísticos
+ * de tamaño fijo, elegido al construirlo.
+ *
+ * <ul>
+ *   <li>Palabras únicas: {@link HyperLogLog}; error estándar relativo
+ *       1.04 / &radic;m con m registros</li>
+ *   <li>Repeticiones de una palabra: {@link CountMin} con actualización
+ *       conservadora; nunca subestima y, con probabilidad 1 - &delta;,
+ *       sobreestima a lo sumo &epsilon;N</li>
+ *   <li>Palabras más frecuentes: {@link TopKAproximado} (Space-Saving);
+ *       toda palabra con más de N / m apariciones está vigilada y su
+ *       conteo sobreestima a lo sumo N / m</li>
+ * </ul>
+ * El total de palabras es exacto. No hay consultas por prefijo, de
+ * palabras similares ni en orden alfabético, porque requieren las
+ * palabras.
+ *
+ * <p>Los analizadores con la misma configuración se fusionan con
+ * {@link #fusionar(AnalizadorAproximado)}: cada hilo o cada ejecución
+ * puede cargar su parte y los resultados se combinan al final, con las
+ * mismas garantías sobre el total.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class AnalizadorAproximado {
+
+    /**
+     * Precisión por defecto del {@link HyperLogLog}: 16 KiB, error
+     * estándar del 0.8 %.
+     */
+    public static final int PRECISION_POR_DEFECTO = 14;
+
+    /**
+     * Error por defecto del {@link CountMin}, como fracción del total.
+     */
+    public static final double EPSILON_POR_DEFECTO = 1e-4;
+
+    /**
+     * Probabilidad por defecto de que el {@link CountMin} supere su error.
+     */
+    public static final double DELTA_POR_DEFECTO = 1e-3;
+
+    /**
+     * Contadores vigilados por defecto en el top-K.
+     */
+    public static final int CONTADORES_POR_DEFECTO = 1000;
+
+    /**
+     * Estimador del número de palabras distintas.
+     */
+    private final HyperLogLog distintas;
+
+    /**
+     * Resumen de las repeticiones de cada palabra.
+     */
+    private final CountMin frecuencias;
+
+    /**
+     * Palabras más frecuentes.
+     */
+    private final TopKAproximado frecuentes;
+
+    /**
+     * Contador total de palabras procesadas (incluyendo repeticiones).
+     */
+    private long totalPalabras;
+
+    /**
+     * Número de líneas procesadas.
+     */
+    private long lineasProcesadas;
+
+    /**
+     * Tokenizador reutilizable que separa y normaliza cada línea.
+     */
+    private Tokenizador tokenizador;
+
+    /**
+     * Análisis léxico que se aplica a cada palabra, o null si no hay.
+     */
+    private AnalisisLexico analisis;
+
+    /**
+     * Constructor con los resúmenes por defecto: alrededor de 1.5 MB en
+     * total.
+     */
+    public AnalizadorAproximado() {
+        this(new HyperLogLog(PRECISION_POR_DEFECTO),
+             CountMin.conError(EPSILON_POR_DEFECTO, DELTA_POR_DEFECTO),
+             new TopKAproximado(AnalizadorBiblia.K_POR_DEFECTO, CONTADORES_POR_DEFECTO));
+    }
+
+    /**
+     * Constructor con resúmenes dados, que fijan la memoria y el error.
+     *
+     * @param distintas Estimador vacío de palabras distintas
+     * @param frecuencias Resumen vacío de repeticiones
+     * @param frecuentes Top-K aproximado vacío
+     * @throws IllegalArgumentException si algún resumen es null
+     */
+    public AnalizadorAproximado(HyperLogLog distintas, CountMin frecuencias, TopKAproximado frecuentes) {
+        if (distintas == null || frecuencias == null || frecuentes == null) {
+            throw new IllegalArgumentException("Los resúmenes no pueden ser null");
+        }
+        this.distintas = distintas;
+        this.frecuencias = frecuencias;
+        this.frecuentes = frecuentes;
+        this.tokenizador = new Tokenizador();
+    }
+
+    /**
+     * Procesa una línea de texto dividiéndola en palabras individuales
+     * y agregándolas a los resúmenes.
+     *
+     * @param texto Línea de texto a procesar
+     */
+    public void procesarTexto(String texto) {
+        lineasProcesadas++;
+        tokenizador.reiniciar(texto);
+        String palabra;
+        while ((palabra = tokenizador.siguiente()) != null) {
+            long hash = HashPalabras.hash64(palabra);
+            distintas.agregarHash(hash);
+            long estimado = frecuencias.agregarHash(hash, 1);
+            frecuentes.registrar(palabra, 1, (int) Math.min(estimado, Integer.MAX_VALUE));
+            totalPalabras++;
+        }
+    }
+
+    /**
+     * Carga un archivo de texto, comprimido con gzip o agrupado en un zip,
+     * línea por línea. El formato se reconoce con
+     * {@link CargadorComprimido#detectar(String)}; las entradas de un zip
+     * se cargan en orden.
+     *
+     * @param rutaArchivo Ruta del archivo
+     * @param codificacion Codificación del texto descomprimido
+     * @throws IOException Si ocurre un error al leer o descomprimir
+     */
+    public void cargar(String rutaArchivo, Charset codificacion) throws IOException {
+        CargadorComprimido.leerLineas(rutaArchivo, codificacion, this::procesarTexto);
+    }
+
+    /**
+     * Carga un flujo de texto línea por línea, sin cerrarlo.
+     *
+     * @param entrada Flujo de texto
+     * @param codificacion Codificación del texto
+     * @throws IOException Si ocurre un error al leer
+     */
+    public void cargar(InputStream entrada, Charset codificacion) throws IOException {
+        CargadorComprimido.leerLineas(entrada, codificacion, this::procesarTexto);
+    }
+
+    /**
+     * Suma a este analizador los resúmenes de otro, sin modificar el otro.
+     *
+     * @param otro Analizador con resúmenes de la misma configuración
+     * @throws IllegalArgumentException si algún resumen tiene otra configuración
+     */
+    public void fusionar(AnalizadorAproximado otro) {
+        if (otro.distintas.getPrecision() != distintas.getPrecision()
+                || otro.frecuencias.getAncho() != frecuencias.getAncho()
+                || otro.frecuencias.getProfundidad() != frecuencias.getProfundidad()
+                || otro.frecuentes.getContadores() != frecuentes.getContadores()) {
+            throw new IllegalArgumentException("Sólo se fusionan analizadores con la misma configuración");
+        }
+        distintas.fusionar(otro.distintas);
+        frecuencias.fusionar(otro.frecuencias);
+        frecuentes.fusionar(otro.frecuentes);
+        totalPalabras += otro.totalPalabras;
+        lineasProcesadas += otro.lineasProcesadas;
+    }
+
+    /**
+     * Establece el análisis léxico que se aplica a cada palabra después de
+     * normalizarla, igual que {@link AnalizadorBiblia#setAnalisis(AnalisisLexico)}.
+     * Para fusionar analizadores, todos deben usar el mismo análisis.
+     *
+     * @param analisis Análisis léxico, o null para contar las palabras
+     *                 sólo normalizadas
+     * @throws IllegalStateException si el analizador ya procesó texto
+     */
+    public void setAnalisis(AnalisisLexico analisis) {
+        if (lineasProcesadas > 0 || totalPalabras > 0) {
+            throw new IllegalStateException("El análisis léxico sólo se puede cambiar en un analizador vacío");
+        }
+        this.analisis = analisis;
+        tokenizador = new Tokenizador(analisis);
+    }
+
+    /**
+     * Obtiene el análisis léxico del analizador.
+     *
+     * @return Análisis léxico, o null si las palabras sólo se normalizan
+     */
+    public AnalisisLexico getAnalisis() {
+        return analisis;
+    }
+
+    /**
+     * Lleva una palabra a la forma con que se cuenta: la normaliza y le
+     * aplica el análisis léxico, si hay uno.
+     *
+     * @param palabra Palabra a convertir
+     * @return Forma contada de la palabra; cadena vacía si no es válida o
+     *         es una palabra vacía
+     */
+    public String normalizar(String palabra) {
+        String normalizada = ProcesadorTexto.normalizarPalabra(palabra);
+        if (!ProcesadorTexto.esPalabraValida(normalizada)) return "";
+        if (analisis == null) return normalizada;
+        String analizada = analisis.analizar(normalizada);
+        return analizada != null ? analizada : "";
+    }
+
+    /**
+     * Estima el número de repeticiones de una palabra. Nunca es menor que
+     * el real; ver {@link #getErrorRepeticiones()}.
+     *
+     * @param palabra Palabra a buscar; se convierte con {@link #normalizar(String)}
+     * @return Repeticiones estimadas, hasta {@link Integer#MAX_VALUE}; 0 si
+     *         la palabra no es válida
+     */
+    public int obtenerRepeticiones(String palabra) {
+        String forma = normalizar(palabra);
+        return forma.isEmpty() ? 0 : (int) Math.min(frecuencias.estimar(forma), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene el total exacto de palabras procesadas incluyendo repeticiones.
+     *
+     * @return Número total de palabras procesadas
+     */
+    public long getTotalPalabras() {
+        return totalPalabras;
+    }
+
+    /**
+     * Estima el número de palabras únicas; ver {@link #getErrorPalabrasUnicas()}.
+     *
+     * @return Palabras únicas estimadas
+     */
+    public long getPalabrasUnicas() {
+        return distintas.estimar();
+    }
+
+    /**
+     * Obtiene información sobre la palabra más repetida, con su conteo
+     * estimado.
+     *
+     * @return String con la palabra más repetida y su frecuencia,
+     *         o mensaje indicando que no hay palabras procesadas
+     */
+    public String getPalabraMasRepetida() {
+        Lista<Frecuencia> top = frecuentes.getTopK();
+        if (top.tamano() == 0) return "No hay palabras procesadas";
+        Frecuencia primera = top.obtenerDe(0);
+        return String.format("%s (~%d repeticiones)", primera.getPalabra(), primera.getRepeticiones());
+    }
+
+    /**
+     * Obtiene las palabras más frecuentes con sus conteos estimados, de
+     * mayor a menor y, a igual conteo, en orden alfabético.
+     *
+     * @return Lista con hasta K pares palabra-repeticiones
+     */
+    public Lista<Frecuencia> getTopK() {
+        return frecuentes.getTopK();
+    }
+
+    /**
+     * Obtiene el error estándar relativo de {@link #getPalabrasUnicas()}.
+     *
+     * @return Error estándar relativo, por ejemplo 0.008 para un 0.8 %
+     */
+    public double getErrorPalabrasUnicas() {
+        return distintas.getErrorEstandar();
+    }
+
+    /**
+     * Obtiene la sobreestimación máxima de {@link #obtenerRepeticiones(String)},
+     * que se cumple con probabilidad {@link #getConfianzaRepeticiones()}.
+     *
+     * @return Error máximo en repeticiones
+     */
+    public long getErrorRepeticiones() {
+        return frecuencias.getErrorMaximo();
+    }
+
+    /**
+     * Obtiene la probabilidad de que una estimación de repeticiones no
+     * supere {@link #getErrorRepeticiones()}.
+     *
+     * @return Probabilidad, 1 - &delta;
+     */
+    public double getConfianzaRepeticiones() {
+        return 1 - frecuencias.getProbabilidadFallo();
+    }
+
+    /**
+     * Obtiene la memoria fija de los tres resúmenes, sin contar las
+     * palabras vigiladas por el top-K.
+     *
+     * @return Bytes de los resúmenes
+     */
+    public long getBytesResumenes() {
+        return distintas.getBytes() + frecuencias.getBytes();
+    }
+
+    /**
+     * Obtiene el número de líneas procesadas.
+     *
+     * @return Líneas procesadas
+     */
+    public long getLineasProcesadas() {
+        return lineasProcesadas;
+    }
+
+    /**
+     * Genera un resumen con las estadísticas estimadas y sus errores.
+     *
+     * @return String formateado con las estadísticas del texto
+     */
+    public String getEstadisticas() {
+        return String.format(
+            "=== ESTADÍSTICAS (APROXIMADAS) ===\n" +
+            "Total palabras: %d\n" +
+            "Palabras únicas: ~%d (error estándar %.2f %%)\n" +
+            "Palabra más repetida: %s\n" +
+            "Error de repeticiones: hasta %d (confianza %.3f %%)\n",
+            getTotalPalabras(),
+            getPalabrasUnicas(),
+            100 * getErrorPalabrasUnicas(),
+            getPalabraMasRepetida(),
+            getErrorRepeticiones(),
+            100 * getConfianzaRepeticiones()
+        );
+    }
+}
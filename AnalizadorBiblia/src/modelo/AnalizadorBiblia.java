@@ -1,11 +1,21 @@
 package modelo;
 
+import java.util.Iterator;
+import util.AnalisisLexico;
 import util.ProcesadorTexto;
+import util.Tokenizador;
 
 /**
  * Clase principal para el análisis de textos.
- * Utiliza una tabla de símbolos (ST) para almacenar y gestionar
- * las palabras del texto junto con sus frecuencias de aparición.
+ * Las frecuencias de las palabras se guardan en un {@link Vocabulario},
+ * que asigna a cada palabra un identificador y cuenta sobre arreglos
+ * primitivos. Una tabla de símbolos ordenada ({@link TablaOrdenada}) de
+ * palabra a identificador resuelve las consultas en orden alfabético; sólo
+ * se modifica cuando aparece una palabra nueva. Por defecto es una
+ * {@link TablaVocabulario}, que ordena los identificadores del vocabulario
+ * sin guardar las palabras otra vez; puede recibir otra implementación,
+ * como {@link STRojoNegro}, en el constructor, o guardar las palabras fuera
+ * del heap en una {@link ArenaPalabras}.
  * 
  * <p>Esta clase proporciona funcionalidades para:
  * <ul>
@@ -13,6 +23,13 @@ import util.ProcesadorTexto;
  *   <li>Obtener estadísticas del texto analizado</li>
  *   <li>Buscar palabras específicas y sus frecuencias</li>
  *   <li>Filtrar palabras por criterios específicos</li>
+ *   <li>Consultar por prefijo, con paginación, en O(log n + k)</li>
+ *   <li>Buscar palabras parecidas por distancia de edición ({@link BuscadorAproximado})</li>
+ *   <li>Guardar, opcionalmente, los resultados de las consultas repetidas
+ *       en una {@link CacheConsultas}</li>
+ *   <li>Mantener incrementalmente las K palabras más frecuentes</li>
+ *   <li>Guardar y recuperar su estado como {@link Instantanea}</li>
+ *   <li>Contar, opcionalmente, bigramas y trigramas ({@link ContadorNGramas})</li>
  * </ul>
  * 
  * @author Camilo
@@ -22,10 +39,15 @@ import util.ProcesadorTexto;
 public class AnalizadorBiblia {
     
     /**
-     * Tabla de símbolos que almacena las palabras como claves
-     * y sus frecuencias como valores.
+     * Tabla de símbolos ordenada que almacena las palabras como claves
+     * y sus identificadores en el vocabulario como valores.
      */
-    private final ST<String, Integer> tablaPalabras;
+    private final TablaOrdenada<String, Integer> tablaPalabras;
+    
+    /**
+     * Vocabulario con el identificador y las repeticiones de cada palabra.
+     */
+    private final Vocabulario vocabulario;
     
     /**
      * Contador total de palabras procesadas (incluyendo repeticiones).
@@ -41,15 +63,143 @@ public class AnalizadorBiblia {
      * Número máximo de repeticiones encontradas para una palabra.
      */
     private int maxRepeticiones;
+    
+    /**
+     * Número de palabras más frecuentes que se mantienen por defecto.
+     */
+    public static final int K_POR_DEFECTO = 10;
+    
+    /**
+     * Estructura que mantiene las K palabras más frecuentes.
+     */
+    private TopK topK;
+    
+    /**
+     * Tokenizador reutilizable que separa y normaliza cada línea.
+     */
+    private Tokenizador tokenizador;
+    
+    /**
+     * Análisis léxico que se aplica a cada palabra, o null si no hay.
+     */
+    private AnalisisLexico analisis;
+    
+    /**
+     * Contador de bigramas y trigramas, o null si no está activado.
+     */
+    private ContadorNGramas ngramas;
+    
+    /**
+     * Número de líneas procesadas.
+     */
+    private long lineasProcesadas;
+    
+    /**
+     * Métricas registradas por los cargadores de archivos.
+     */
+    private final MetricasCarga.Acumulador metricas;
+    
+    /**
+     * Buscador de palabras por distancia de edición, o null si no se ha
+     * construido o si desde entonces apareció una palabra nueva.
+     */
+    private BuscadorAproximado buscadorSimilares;
+    
+    /**
+     * Versión de los conteos: aumenta cada vez que cambian las
+     * repeticiones de alguna palabra.
+     */
+    private long version;
+    
+    /**
+     * Caché de resultados de consultas, o null si no está activada.
+     */
+    private CacheConsultas<Consulta, Object> cache;
 
     /**
-     * Constructor que inicializa el analizador con estructuras de datos vacías.
+     * Constructor que inicializa el analizador con estructuras de datos
+     * vacías. Cada palabra se guarda una sola vez, en el vocabulario; la
+     * tabla ordenada ({@link TablaVocabulario}) sólo guarda identificadores.
      */
     public AnalizadorBiblia() {
-        tablaPalabras = new ST<>();
+        this(new Vocabulario());
+    }
+
+    /**
+     * Constructor que inicializa el analizador sobre una tabla ordenada
+     * específica, por ejemplo {@link STRojoNegro} cuando se van a
+     * eliminar palabras con frecuencia.
+     * 
+     * @param tabla Tabla vacía donde se guardarán las palabras
+     * @throws IllegalArgumentException si la tabla es null o no está vacía
+     */
+    public AnalizadorBiblia(TablaOrdenada<String, Integer> tabla) {
+        this(tabla, new Vocabulario());
+    }
+
+    /**
+     * Constructor que inicializa un analizador que guarda las palabras
+     * fuera del heap, codificadas en UTF-8 en una {@link ArenaPalabras}.
+     * El vocabulario y la tabla ordenada ({@link TablaVocabulario}) sólo
+     * guardan enteros, de modo que el tamaño del heap y el trabajo del
+     * recolector no crecen con el número de palabras distintas. A cambio,
+     * las consultas que devuelven palabras las decodifican de la arena.
+     * 
+     * @param arena Arena donde se guardarán las palabras; no debe
+     *              compartirse con analizadores de otros hilos
+     * @throws IllegalArgumentException si la arena es null
+     */
+    public AnalizadorBiblia(ArenaPalabras arena) {
+        this(new Vocabulario(validarArena(arena)));
+    }
+
+    /**
+     * Constructor que usa una tabla ordenada sobre los identificadores
+     * de un vocabulario.
+     * 
+     * @param vocabulario Vocabulario vacío
+     */
+    private AnalizadorBiblia(Vocabulario vocabulario) {
+        this(new TablaVocabulario(vocabulario), vocabulario);
+    }
+
+    /**
+     * Constructor común que recibe la tabla ordenada y el vocabulario.
+     * 
+     * @param tabla Tabla vacía donde se guardarán las palabras
+     * @param vocabulario Vocabulario vacío
+     * @throws IllegalArgumentException si la tabla es null o no está vacía
+     */
+    private AnalizadorBiblia(TablaOrdenada<String, Integer> tabla, Vocabulario vocabulario) {
+        if (tabla == null || !tabla.isEmpty()) {
+            throw new IllegalArgumentException("La tabla debe existir y estar vacía");
+        }
+        tablaPalabras = tabla;
+        this.vocabulario = vocabulario;
+        topK = new TopKExacto(K_POR_DEFECTO);
         totalPalabras = 0;
         palabraMasRepetida = null;
         maxRepeticiones = 0;
+        tokenizador = new Tokenizador();
+        analisis = null;
+        ngramas = null;
+        lineasProcesadas = 0;
+        metricas = new MetricasCarga.Acumulador();
+        buscadorSimilares = null;
+        version = 0;
+        cache = null;
+    }
+
+    /**
+     * Verifica la arena recibida por el constructor.
+     * 
+     * @param arena Arena a verificar
+     * @return La misma arena
+     * @throws IllegalArgumentException si la arena es null
+     */
+    private static ArenaPalabras validarArena(ArenaPalabras arena) {
+        if (arena == null) throw new IllegalArgumentException("La arena no puede ser null");
+        return arena;
     }
 
     /**
@@ -59,44 +209,442 @@ public class AnalizadorBiblia {
      * @param texto Línea de texto a procesar
      */
     public void procesarTexto(String texto) {
-        String[] palabras = texto.split("\\s+");
-        for (String palabra : palabras) {
-            agregarPalabra(palabra);
+        lineasProcesadas++;
+        tokenizador.reiniciar(texto);
+        if (ngramas != null) ngramas.iniciarLinea();
+        String palabra;
+        while ((palabra = tokenizador.siguiente()) != null) {
+            int id = agregarPalabra(palabra);
+            if (ngramas != null) ngramas.agregar(id);
         }
     }
 
     /**
-     * Agrega una palabra individual al análisis.
-     * La palabra es normalizada antes de ser agregada y se actualizan
-     * las estadísticas correspondientes.
+     * Procesa una línea ya separada en palabras normalizadas, con el mismo
+     * efecto que {@link #procesarTexto(String)} sobre la línea original.
+     * La usan las cargas que tokenizan en otros hilos.
      * 
-     * @param palabra Palabra a agregar al análisis
+     * @param palabras Arreglo con las palabras normalizadas y válidas
+     * @param desde Posición de la primera palabra de la línea (inclusiva)
+     * @param hasta Posición final de la línea (exclusiva)
      */
-    private void agregarPalabra(String palabra) {
-        palabra = ProcesadorTexto.normalizarPalabra(palabra);
-        if (!ProcesadorTexto.esPalabraValida(palabra)) return;
+    void procesarPalabras(String[] palabras, int desde, int hasta) {
+        lineasProcesadas++;
+        if (ngramas != null) ngramas.iniciarLinea();
+        for (int i = desde; i < hasta; i++) {
+            int id = agregarPalabra(palabras[i]);
+            if (ngramas != null) ngramas.agregar(id);
+        }
+    }
 
-        Integer contador = tablaPalabras.get(palabra);
-        int nuevoContador = (contador == null) ? 1 : contador + 1;
-        tablaPalabras.put(palabra, nuevoContador);
+    /**
+     * Activa el conteo de bigramas y trigramas en {@link #procesarTexto(String)}.
+     * Sólo se cuentan las líneas procesadas después de activarlo. Las
+     * cargas con {@link CargadorPorEtapas} y {@link CargadorComprimido}
+     * (también de zip) los cuentan; {@link CargadorParalelo} y
+     * {@link #cargarInstantanea(Instantanea)} no pueden contarlos y
+     * rechazan un analizador que los tenga activados.
+     * 
+     * @return Contador de n-gramas del analizador
+     */
+    public ContadorNGramas activarNGramas() {
+        if (ngramas == null) {
+            ngramas = new ContadorNGramas(vocabulario);
+            ngramas.setAnalisis(analisis);
+        }
+        return ngramas;
+    }
+    
+    /**
+     * Establece el análisis léxico que se aplica a cada palabra después de
+     * normalizarla: las palabras vacías no se cuentan y las demás se
+     * cuentan por su raíz. Las consultas de
+     * {@link #obtenerRepeticiones(String)} pasan por el mismo análisis;
+     * las de prefijo y de palabras similares comparan directamente con
+     * las raíces guardadas.
+     * 
+     * <p>Los cargadores de archivos crean sus tokenizadores con este
+     * análisis, de modo que el resultado no depende de cómo se cargue el
+     * texto.
+     * 
+     * @param analisis Análisis léxico, o null para contar las palabras
+     *                 sólo normalizadas
+     * @throws IllegalStateException si el analizador ya procesó texto
+     */
+    public void setAnalisis(AnalisisLexico analisis) {
+        if (lineasProcesadas > 0 || totalPalabras > 0) {
+            throw new IllegalStateException("El análisis léxico sólo se puede cambiar en un analizador vacío");
+        }
+        this.analisis = analisis;
+        tokenizador = new Tokenizador(analisis);
+        if (ngramas != null) ngramas.setAnalisis(analisis);
+    }
+    
+    /**
+     * Obtiene el análisis léxico del analizador.
+     * 
+     * @return Análisis léxico, o null si las palabras sólo se normalizan
+     */
+    public AnalisisLexico getAnalisis() {
+        return analisis;
+    }
+    
+    /**
+     * Lleva una palabra a la forma con que se cuenta: la normaliza y le
+     * aplica el análisis léxico, si hay uno.
+     * 
+     * @param palabra Palabra a convertir
+     * @return Forma de la palabra en la tabla; cadena vacía si no es
+     *         válida o es una palabra vacía
+     */
+    public String normalizar(String palabra) {
+        String normalizada = ProcesadorTexto.normalizarPalabra(palabra);
+        if (analisis == null || !ProcesadorTexto.esPalabraValida(normalizada)) return normalizada;
+        String analizada = analisis.analizar(normalizada);
+        return analizada != null ? analizada : "";
+    }
+
+    /**
+     * Obtiene el contador de bigramas y trigramas.
+     * 
+     * @return Contador de n-gramas, o null si no está activado
+     */
+    public ContadorNGramas getNGramas() {
+        return ngramas;
+    }
+
+    /**
+     * Deja de contar bigramas y trigramas y descarta sus conteos.
+     */
+    void desactivarNGramas() {
+        ngramas = null;
+    }
+
+    /**
+     * Activa la caché de resultados de las consultas que construyen listas:
+     * {@link #palabrasQueEmpiezanCon(char)},
+     * {@link #palabrasConPrefijo(String, int, int)},
+     * {@link #palabrasSimilares(String, int)} y {@link #getPalabrasOrdenadas()}.
+     * {@link #obtenerRepeticiones(String)} no se guarda: normalizar y
+     * buscar en el {@link Vocabulario} cuesta menos que consultar la caché.
+     * 
+     * <p>Cada lista pesa su número de elementos más 1. La caché se vacía
+     * en la primera consulta posterior a cualquier cambio de los conteos,
+     * de modo que los resultados siempre coinciden con los que se
+     * obtendrían sin ella. Las listas se devuelven como
+     * copias, así que quien las recibe puede modificarlas.
+     * 
+     * @param pesoMaximo Peso máximo de los resultados guardados
+     * @return Caché del analizador, con sus estadísticas
+     * @throws IllegalArgumentException si el peso máximo no es positivo
+     */
+    public CacheConsultas<?, ?> activarCache(long pesoMaximo) {
+        cache = new CacheConsultas<>(pesoMaximo);
+        return cache;
+    }
+
+    /**
+     * Obtiene la caché de resultados de consultas.
+     * 
+     * @return Caché, o null si no está activada
+     */
+    public CacheConsultas<?, ?> getCache() {
+        return cache;
+    }
+
+    /**
+     * Obtiene la versión de los conteos, que aumenta cada vez que cambian
+     * las repeticiones de alguna palabra. Dos consultas hechas con la misma
+     * versión ven los mismos datos.
+     * 
+     * @return Versión actual
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Busca el resultado de una consulta en la caché, después de vaciarla
+     * si los conteos cambiaron.
+     * 
+     * @param <T> Tipo del resultado
+     * @param consulta Consulta, o null si no se usa la caché
+     * @return Resultado guardado, o null si no hay
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T buscarEnCache(Consulta consulta) {
+        if (consulta == null) return null;
+        cache.validar(version);
+        return (T) cache.obtener(consulta);
+    }
+
+    /**
+     * Guarda el resultado de una consulta en la caché, si está activada.
+     * 
+     * @param consulta Consulta, o null si no se usa la caché
+     * @param resultado Resultado de la consulta
+     * @param peso Peso del resultado
+     */
+    private void guardarEnCache(Consulta consulta, Object resultado, int peso) {
+        if (consulta != null) cache.guardar(consulta, resultado, peso);
+    }
+
+    /**
+     * Crea la clave de una consulta para la caché.
+     * 
+     * @param tipo Tipo de consulta
+     * @param texto Texto de la consulta
+     * @param a Primer parámetro numérico
+     * @param b Segundo parámetro numérico
+     * @return Clave, o null si la caché no está activada o el texto es null
+     */
+    private Consulta consulta(char tipo, String texto, int a, int b) {
+        return cache != null && texto != null ? new Consulta(tipo, texto, a, b) : null;
+    }
+
+    /**
+     * Obtiene una copia de las métricas de carga del analizador. Puede
+     * llamarse durante una carga para seguir su avance, aunque entonces
+     * los valores de distintas etapas pueden no corresponder al mismo
+     * instante.
+     * 
+     * @return Métricas de carga
+     */
+    public MetricasCarga getMetricas() {
+        return new MetricasCarga(metricas, lineasProcesadas, totalPalabras,
+                                 tokenizador.getRechazadas(), getPalabrasUnicas());
+    }
+
+    /**
+     * Obtiene el acumulador donde los cargadores registran sus métricas.
+     * 
+     * @return Acumulador de métricas
+     */
+    MetricasCarga.Acumulador acumuladorMetricas() {
+        return metricas;
+    }
+
+    /**
+     * Agrega una palabra individual al análisis y actualiza
+     * las estadísticas correspondientes.
+     * 
+     * @param palabra Palabra ya normalizada y válida
+     * @return Identificador de la palabra en el vocabulario
+     */
+    private int agregarPalabra(String palabra) {
+        int id = registrar(palabra);
+        int nuevoContador = vocabulario.sumar(id, 1);
         totalPalabras++;
+        version++;
+        topK.registrar(palabra, 1, nuevoContador);
 
         if (nuevoContador > maxRepeticiones) {
             maxRepeticiones = nuevoContador;
             palabraMasRepetida = palabra;
         }
+        return id;
+    }
+
+    /**
+     * Obtiene el identificador de una palabra y, si todavía no tiene
+     * repeticiones, la agrega a la tabla ordenada. Para las palabras ya
+     * conocidas no modifica la tabla ni crea objetos.
+     * 
+     * @param palabra Palabra ya normalizada y válida
+     * @return Identificador de la palabra en el vocabulario
+     */
+    private int registrar(String palabra) {
+        int id = vocabulario.id(palabra);
+        if (id < 0) {
+            id = vocabulario.agregar(palabra);
+        }
+        if (vocabulario.repeticiones(id) == 0) {
+            tablaPalabras.put(palabra, id);
+            buscadorSimilares = null;
+        }
+        return id;
+    }
+
+    /**
+     * Suma un número de apariciones de una palabra a la tabla y al total,
+     * sin modificar la palabra más repetida. Se usa para fusionar conteos
+     * parciales calculados fuera del analizador.
+     * 
+     * @param palabra Palabra ya normalizada y válida
+     * @param cantidad Número de apariciones a sumar, mayor que cero
+     * @return Número de repeticiones de la palabra después de sumar
+     */
+    int sumarRepeticiones(String palabra, int cantidad) {
+        int nuevoContador = vocabulario.sumar(registrar(palabra), cantidad);
+        totalPalabras += cantidad;
+        version++;
+        topK.registrar(palabra, cantidad, nuevoContador);
+        return nuevoContador;
+    }
+
+    /**
+     * Suma a este analizador los conteos de otro, sin modificar el otro.
+     * Se usa para reunir documentos o partes de un archivo cargadas por
+     * separado. Si este analizador cuenta n-gramas, suma también los del
+     * documento.
+     * 
+     * @param documento Analizador cuyos conteos se suman
+     * @throws IllegalStateException si este analizador cuenta n-gramas y
+     *                               el documento no
+     */
+    void fusionar(AnalizadorBiblia documento) {
+        if (ngramas != null && documento.ngramas == null) {
+            throw new IllegalStateException("El documento no cuenta n-gramas");
+        }
+        // La palabra más repetida del documento se propone primero, con el
+        // conteo que tendrá al terminar, para que los empates se resuelvan
+        // igual que al cargar el documento solo
+        String masRepetida = documento.getPalabraMasRepetidaSola();
+        if (masRepetida != null) {
+            proponerMasRepetida(masRepetida, repeticiones(masRepetida) + documento.getMaxRepeticiones());
+        }
+        for (TablaOrdenada.Entrada<String, Integer> entrada : documento.entradas()) {
+            int nuevo = sumarRepeticiones(entrada.getClave(), entrada.getValor());
+            proponerMasRepetida(entrada.getClave(), nuevo);
+        }
+        // Las palabras ya están en el vocabulario: se pueden traducir los n-gramas
+        if (ngramas != null) {
+            ngramas.fusionar(documento.ngramas);
+        }
+    }
+
+    /**
+     * Resta un número de apariciones de una palabra de la tabla y del
+     * total. Si el conteo llega a cero, la palabra se elimina. No modifica
+     * la palabra más repetida ni el top-K; ver {@link #recalcularEstadisticas()}.
+     * 
+     * @param palabra Palabra ya normalizada
+     * @param cantidad Número de apariciones a restar, mayor que cero
+     * @return Número de repeticiones de la palabra después de restar
+     * @throws IllegalStateException si la palabra no tiene tantas apariciones
+     */
+    int restarRepeticiones(String palabra, int cantidad) {
+        int id = vocabulario.id(palabra);
+        if (id < 0 || vocabulario.repeticiones(id) < cantidad) {
+            throw new IllegalStateException("No se pueden restar " + cantidad + " apariciones de " + palabra);
+        }
+        int nuevoContador = vocabulario.restar(id, cantidad);
+        if (nuevoContador == 0) {
+            tablaPalabras.delete(palabra);
+        }
+        totalPalabras -= cantidad;
+        version++;
+        return nuevoContador;
+    }
+
+    /**
+     * Recalcula la palabra más repetida y el top-K recorriendo la tabla.
+     * Es necesario después de restar apariciones; a igual frecuencia, la
+     * palabra más repetida pasa a ser la primera en orden alfabético.
+     */
+    void recalcularEstadisticas() {
+        palabraMasRepetida = null;
+        maxRepeticiones = 0;
+        topK.reiniciar();
+        for (TablaOrdenada.Entrada<String, Integer> entrada : tablaPalabras.entries()) {
+            int repeticiones = vocabulario.repeticiones(entrada.getValor());
+            proponerMasRepetida(entrada.getClave(), repeticiones);
+            topK.registrar(entrada.getClave(), repeticiones, repeticiones);
+        }
+    }
+
+    /**
+     * Obtiene el número de identificadores del vocabulario cuyas palabras
+     * ya no tienen repeticiones, por haberse restado.
+     * 
+     * @return Identificadores sin palabra en la tabla
+     */
+    int getIdentificadoresLibres() {
+        return vocabulario.size() - tablaPalabras.size();
+    }
+
+    /**
+     * Descarta del vocabulario las palabras sin repeticiones y renumera
+     * las demás en la tabla ordenada. Como los n-gramas se guardan por
+     * identificador, sus conteos se descartan: quien compacta debe
+     * volver a sumarlos.
+     */
+    void compactarVocabulario() {
+        int[] traduccion = vocabulario.compactar();
+        if (tablaPalabras instanceof TablaVocabulario) {
+            ((TablaVocabulario) tablaPalabras).traducir(traduccion);
+        } else {
+            Lista<String> palabras = new Lista<>(Math.max(10, tablaPalabras.size()));
+            for (String palabra : tablaPalabras.keys()) {
+                palabras.agregarAlFinal(palabra);
+            }
+            for (String palabra : palabras) {
+                tablaPalabras.put(palabra, traduccion[tablaPalabras.get(palabra)]);
+            }
+        }
+        if (ngramas != null) {
+            ngramas.reiniciar();
+        }
+        buscadorSimilares = null;
+        version++;
+    }
+
+    /**
+     * Propone una palabra como la más repetida. Sólo la reemplaza si
+     * supera estrictamente el máximo actual, igual que al agregar
+     * palabras una por una.
+     * 
+     * @param palabra Palabra candidata
+     * @param repeticiones Número de repeticiones de la candidata
+     */
+    void proponerMasRepetida(String palabra, int repeticiones) {
+        if (repeticiones > maxRepeticiones) {
+            maxRepeticiones = repeticiones;
+            palabraMasRepetida = palabra;
+        }
+    }
+
+    /**
+     * Carga en el analizador el contenido de una instantánea, sin volver a
+     * leer ni tokenizar el texto de origen.
+     * 
+     * @param instantanea Instantánea abierta con {@link Instantanea#leer(String)} o {@link Instantanea#abrir(String)}
+     * @throws IllegalStateException si el analizador ya tiene palabras o
+     *                               cuenta n-gramas, que la instantánea no guarda
+     */
+    public void cargarInstantanea(Instantanea instantanea) {
+        if (!tablaPalabras.isEmpty()) {
+            throw new IllegalStateException("La instantánea sólo se puede cargar en un analizador vacío");
+        }
+        if (ngramas != null) {
+            throw new IllegalStateException("La instantánea no guarda n-gramas");
+        }
+        for (Frecuencia frecuencia : instantanea.frecuencias()) {
+            sumarRepeticiones(frecuencia.getPalabra(), frecuencia.getRepeticiones());
+        }
+        proponerMasRepetida(instantanea.getPalabraMasRepetidaSola(), instantanea.getMaxRepeticiones());
     }
 
     /**
      * Obtiene el número de repeticiones de una palabra específica.
      * 
-     * @param palabra Palabra a buscar
+     * @param palabra Palabra a buscar; se convierte con {@link #normalizar(String)}
      * @return Número de veces que aparece la palabra, 0 si no existe
      */
     public int obtenerRepeticiones(String palabra) {
-        palabra = ProcesadorTexto.normalizarPalabra(palabra);
-        Integer contador = tablaPalabras.get(palabra);
-        return contador != null ? contador : 0;
+        return repeticiones(normalizar(palabra));
+    }
+    
+    /**
+     * Obtiene el número de repeticiones de una palabra tal como está en
+     * la tabla, sin normalizarla ni analizarla.
+     * 
+     * @param palabra Palabra de la tabla
+     * @return Número de repeticiones, 0 si no existe
+     */
+    private int repeticiones(String palabra) {
+        int id = vocabulario.id(palabra);
+        return id >= 0 ? vocabulario.repeticiones(id) : 0;
     }
 
     /**
@@ -129,6 +677,56 @@ public class AnalizadorBiblia {
                "No hay palabras procesadas";
     }
 
+    /**
+     * Obtiene la palabra más repetida sin formato.
+     * 
+     * @return Palabra más repetida, o null si no hay palabras procesadas
+     */
+    String getPalabraMasRepetidaSola() {
+        return palabraMasRepetida;
+    }
+
+    /**
+     * Obtiene el número de repeticiones de la palabra más repetida.
+     * 
+     * @return Repeticiones de la palabra más repetida, 0 si no hay palabras
+     */
+    int getMaxRepeticiones() {
+        return maxRepeticiones;
+    }
+
+    /**
+     * Obtiene las palabras más frecuentes, mantenidas incrementalmente
+     * mientras se procesa el texto: la consulta no recorre el vocabulario.
+     * A igual frecuencia, las palabras se ordenan alfabéticamente.
+     * 
+     * @return Lista con hasta K pares palabra-repeticiones, de mayor a menor
+     */
+    public Lista<Frecuencia> getTopK() {
+        return topK.getTopK();
+    }
+
+    /**
+     * Reemplaza la estructura de palabras más frecuentes, por ejemplo para
+     * cambiar K o para usar el modo aproximado ({@link TopKAproximado}).
+     * Las palabras ya procesadas se registran en la nueva estructura.
+     * 
+     * <p>El modo aproximado sólo acota la memoria del top-K: el analizador
+     * sigue guardando todo el vocabulario con sus conteos exactos. Para
+     * contar en memoria fija está {@link AnalizadorAproximado}.
+     * 
+     * @param nuevo Estructura vacía de palabras más frecuentes
+     * @throws IllegalArgumentException si la estructura es null
+     */
+    public void setTopK(TopK nuevo) {
+        if (nuevo == null) throw new IllegalArgumentException("TopK no puede ser null");
+        for (TablaOrdenada.Entrada<String, Integer> entrada : tablaPalabras.entries()) {
+            int repeticiones = vocabulario.repeticiones(entrada.getValor());
+            nuevo.registrar(entrada.getClave(), repeticiones, repeticiones);
+        }
+        topK = nuevo;
+    }
+
     /**
      * Busca todas las palabras que comienzan con una letra específica.
      * 
@@ -136,15 +734,172 @@ public class AnalizadorBiblia {
      * @return Lista de palabras que comienzan con la letra especificada
      */
     public Lista<String> palabrasQueEmpiezanCon(char letra) {
-        Lista<String> resultado = new Lista<>(10);
-        letra = Character.toLowerCase(letra);
+        String prefijo = String.valueOf(Character.toLowerCase(letra));
+        Consulta consulta = consulta('l', prefijo, 0, 0);
+        Lista<String> guardada = buscarEnCache(consulta);
+        if (guardada != null) return guardada.copia();
         
-        for (String palabra : tablaPalabras) {
-            if (!palabra.isEmpty() && Character.toLowerCase(palabra.charAt(0)) == letra) {
-                resultado.agregarAlFinal(palabra);
-            }
+        int inicio = tablaPalabras.rank(prefijo);
+        int fin = finRangoPrefijo(prefijo);
+        
+        Lista<String> resultado = new Lista<>(Math.max(10, fin - inicio));
+        for (int k = inicio; k < fin; k++) {
+            resultado.agregarAlFinal(tablaPalabras.select(k));
         }
-        return resultado;
+        if (consulta == null) return resultado;
+        guardarEnCache(consulta, resultado, resultado.tamano() + 1);
+        return resultado.copia();
+    }
+
+    /**
+     * Busca todas las palabras que comienzan con un prefijo, junto con
+     * su número de repeticiones, en orden alfabético.
+     * 
+     * @param prefijo Prefijo a buscar; se normaliza igual que las palabras
+     * @return Lista de pares palabra-repeticiones con el prefijo dado
+     */
+    public Lista<Frecuencia> palabrasConPrefijo(String prefijo) {
+        return palabrasConPrefijo(prefijo, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene una página de las palabras que comienzan con un prefijo,
+     * junto con su número de repeticiones, en orden alfabético.
+     * 
+     * <p>Como las palabras con un mismo prefijo son contiguas en el orden
+     * de la tabla, el rango se localiza con dos búsquedas binarias y sólo
+     * se recorren las palabras de la página: O(log n + limite).
+     * 
+     * @param prefijo Prefijo a buscar; se normaliza igual que las palabras
+     * @param desde Número de palabras del rango a omitir
+     * @param limite Número máximo de palabras a devolver
+     * @return Lista de pares palabra-repeticiones con el prefijo dado
+     * @throws IllegalArgumentException si desde o limite son negativos
+     */
+    public Lista<Frecuencia> palabrasConPrefijo(String prefijo, int desde, int limite) {
+        if (desde < 0 || limite < 0) throw new IllegalArgumentException("Paginación inválida");
+        prefijo = ProcesadorTexto.normalizarPalabra(prefijo);
+        Consulta consulta = consulta('p', prefijo, desde, limite);
+        Lista<Frecuencia> guardada = buscarEnCache(consulta);
+        if (guardada != null) return guardada.copia();
+        
+        int inicio = tablaPalabras.rank(prefijo);
+        int fin = finRangoPrefijo(prefijo);
+        
+        int primero = (int) Math.min(fin, (long) inicio + desde);
+        int ultimo = (int) Math.min(fin, (long) primero + limite);
+        Lista<Frecuencia> resultado = new Lista<>(Math.max(10, ultimo - primero));
+        for (int k = primero; k < ultimo; k++) {
+            String palabra = tablaPalabras.select(k);
+            resultado.agregarAlFinal(new Frecuencia(palabra, vocabulario.repeticiones(tablaPalabras.get(palabra))));
+        }
+        if (consulta == null) return resultado;
+        guardarEnCache(consulta, resultado, resultado.tamano() + 1);
+        return resultado.copia();
+    }
+
+    /**
+     * Busca las palabras del texto a distancia de edición de a lo sumo k
+     * de una palabra, por ejemplo para encontrar variantes ortográficas.
+     * 
+     * <p>La primera búsqueda construye un {@link BuscadorAproximado} con
+     * las palabras actuales, y las siguientes lo reutilizan mientras no
+     * aparezcan palabras nuevas; cada búsqueda sólo recorre los prefijos
+     * del vocabulario cercanos a la palabra.
+     * 
+     * @param palabra Palabra a buscar; se normaliza igual que las palabras
+     * @param k Distancia de edición máxima
+     * @return Pares palabra-repeticiones ordenados por distancia y luego
+     *         de mayor a menor frecuencia
+     * @throws IllegalArgumentException si k es negativo
+     */
+    public Lista<Frecuencia> palabrasSimilares(String palabra, int k) {
+        // Las variantes de mayúsculas y acentos comparten la entrada de la caché
+        palabra = ProcesadorTexto.normalizarPalabra(palabra);
+        Consulta consulta = consulta('s', palabra, k, 0);
+        Lista<Frecuencia> guardada = buscarEnCache(consulta);
+        if (guardada != null) return guardada.copia();
+        
+        if (buscadorSimilares == null) {
+            buscadorSimilares = new BuscadorAproximado(this);
+        }
+        Lista<Frecuencia> resultado = buscadorSimilares.buscar(palabra, k);
+        if (consulta == null) return resultado;
+        guardarEnCache(consulta, resultado, resultado.tamano() + 1);
+        return resultado.copia();
+    }
+
+    /**
+     * Cuenta las palabras que comienzan con un prefijo en O(log n).
+     * 
+     * @param prefijo Prefijo a buscar; se normaliza igual que las palabras
+     * @return Número de palabras distintas con el prefijo dado
+     */
+    public int contarPalabrasConPrefijo(String prefijo) {
+        prefijo = ProcesadorTexto.normalizarPalabra(prefijo);
+        return finRangoPrefijo(prefijo) - tablaPalabras.rank(prefijo);
+    }
+
+    /**
+     * Obtiene la posición, en el orden de la tabla, de la primera palabra
+     * posterior a todas las que comienzan con el prefijo.
+     * 
+     * @param prefijo Prefijo ya normalizado
+     * @return Posición final (exclusiva) del rango del prefijo
+     */
+    private int finRangoPrefijo(String prefijo) {
+        // El sucesor es la menor cadena mayor que todas las que empiezan
+        // con el prefijo: se incrementa el último carácter incrementable
+        int i = prefijo.length() - 1;
+        while (i >= 0 && prefijo.charAt(i) == Character.MAX_VALUE) i--;
+        if (i < 0) return tablaPalabras.size();
+        String sucesor = prefijo.substring(0, i) + (char) (prefijo.charAt(i) + 1);
+        return tablaPalabras.rank(sucesor);
+    }
+
+    /**
+     * Obtiene una vista de las palabras del texto en orden alfabético.
+     * A diferencia de {@link #getPalabrasOrdenadas()}, no copia las
+     * palabras: el recorrido lee directamente la tabla.
+     * 
+     * @return Iterable con las palabras únicas ordenadas alfabéticamente
+     */
+    public Iterable<String> palabras() {
+        return tablaPalabras.keys();
+    }
+
+    /**
+     * Obtiene una vista de los pares palabra-repeticiones en orden
+     * alfabético, sin copiar la tabla: cada par se construye al recorrerlo.
+     * 
+     * @return Iterable con los pares de la tabla de palabras
+     */
+    public Iterable<TablaOrdenada.Entrada<String, Integer>> entradas() {
+        return () -> new Iterator<TablaOrdenada.Entrada<String, Integer>>() {
+            private final Iterator<TablaOrdenada.Entrada<String, Integer>> recorrido =
+                    tablaPalabras.entries().iterator();
+
+            @Override
+            public boolean hasNext() {
+                return recorrido.hasNext();
+            }
+
+            @Override
+            public TablaOrdenada.Entrada<String, Integer> next() {
+                TablaOrdenada.Entrada<String, Integer> entrada = recorrido.next();
+                return new Frecuencia(entrada.getClave(), vocabulario.repeticiones(entrada.getValor()));
+            }
+        };
+    }
+
+    /**
+     * Obtiene el vocabulario del analizador, con el identificador y las
+     * repeticiones de cada palabra vista.
+     * 
+     * @return Vocabulario del analizador
+     */
+    public Vocabulario getVocabulario() {
+        return vocabulario;
     }
 
     /**
@@ -153,11 +908,17 @@ public class AnalizadorBiblia {
      * @return Lista de todas las palabras únicas ordenadas alfabéticamente
      */
     public Lista<String> getPalabrasOrdenadas() {
+        Consulta consulta = consulta('o', "", 0, 0);
+        Lista<String> guardada = buscarEnCache(consulta);
+        if (guardada != null) return guardada.copia();
+        
         Lista<String> resultado = new Lista<>(tablaPalabras.size());
         for (String palabra : tablaPalabras) {
             resultado.agregarAlFinal(palabra);
         }
-        return resultado;
+        if (consulta == null) return resultado;
+        guardarEnCache(consulta, resultado, resultado.tamano() + 1);
+        return resultado.copia();
     }
 
     /**
@@ -176,4 +937,59 @@ public class AnalizadorBiblia {
             getPalabraMasRepetida()
         );
     }
+
+    /**
+     * Clave de una consulta en la caché: el tipo de consulta, su texto y
+     * hasta dos parámetros numéricos (paginación o distancia).
+     */
+    private static final class Consulta {
+        /**
+         * Tipo de consulta.
+         */
+        private final char tipo;
+        /**
+         * Texto de la consulta.
+         */
+        private final String texto;
+        /**
+         * Primer parámetro numérico.
+         */
+        private final int a;
+        /**
+         * Segundo parámetro numérico.
+         */
+        private final int b;
+        /**
+         * Código hash precalculado.
+         */
+        private final int hash;
+
+        /**
+         * Constructor de la clave.
+         * 
+         * @param tipo Tipo de consulta
+         * @param texto Texto de la consulta
+         * @param a Primer parámetro numérico
+         * @param b Segundo parámetro numérico
+         */
+        Consulta(char tipo, String texto, int a, int b) {
+            this.tipo = tipo;
+            this.texto = texto;
+            this.a = a;
+            this.b = b;
+            this.hash = ((texto.hashCode() * 31 + tipo) * 31 + a) * 31 + b;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object otro) {
+            if (!(otro instanceof Consulta)) return false;
+            Consulta c = (Consulta) otro;
+            return hash == c.hash && tipo == c.tipo && a == c.a && b == c.b && texto.equals(c.texto);
+        }
+    }
 }
\ No newline at end of file
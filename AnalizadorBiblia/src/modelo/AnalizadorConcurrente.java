@@ -0,0 +1,440 @@
+package modelo;
+
+import java.util.Arrays;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import util.ProcesadorTexto;
+import util.Tokenizador;
+
+/**
+ * Variante de {@link AnalizadorBiblia} segura para uso concurrente: varios
+ * hilos pueden procesar texto a la vez mientras otros consultan.
+ *
+ * <p>No hay un candado global:
+ * <ul>
+ *   <li>Cada palabra tiene un contador atómico que se incrementa con CAS.
+ *       Las palabras nuevas se insertan en un mapa concurrente y, sólo
+ *       entonces, en un conjunto ordenado concurrente que resuelve las
+ *       consultas alfabéticas.</li>
+ *   <li>El total de palabras es un contador repartido en celdas
+ *       ({@link LongAdder}), de modo que los productores no compiten por
+ *       la misma variable.</li>
+ *   <li>La palabra más repetida es un par inmutable publicado con CAS: un
+ *       hilo sólo lo reemplaza si su conteo es estrictamente mayor, y los
+ *       conteos sólo crecen, así que el máximo nunca retrocede ni se pierde.</li>
+ * </ul>
+ *
+ * <p>{@link #procesarTexto(String)} se puede llamar desde cualquier hilo
+ * y, al volver, sus palabras ya se ven en las consultas; cada aparición
+ * es una operación atómica sobre el contador compartido. Para cargas
+ * grandes, cada hilo productor carga el texto con su propio {@link Productor},
+ * obtenido con {@link #productor()} y cerrado al terminar. El productor
+ * acumula los conteos en un lote (con su propio {@link Tokenizador} y
+ * {@link Vocabulario}) y los vuelca a los contadores compartidos cada
+ * {@value #TAMANO_LOTE} palabras, una vez por palabra distinta del lote.
+ * Así las palabras más frecuentes, que aparecen en casi todas las líneas,
+ * reciben una operación atómica por lote y no una por aparición, y la
+ * carga escala casi linealmente con el número de hilos.
+ *
+ * <p>Las consultas hechas durante la carga ven los lotes ya volcados; el
+ * total y los conteos de un lote que se está volcando pueden verse
+ * parcialmente. Una palabra cuenta como única desde que su contador
+ * compartido supera cero, no desde que se crea. A igual número de repeticiones, la palabra más repetida
+ * es la primera que alcanzó ese conteo, que puede variar entre ejecuciones.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class AnalizadorConcurrente {
+
+    /**
+     * Número de palabras que un productor acumula antes de volcarlas.
+     */
+    static final int TAMANO_LOTE = 1 << 14;
+
+    /**
+     * Palabras distintas que un productor recuerda entre lotes; al
+     * superarlas, olvida su vocabulario local para no crecer sin límite.
+     */
+    static final int MAX_PALABRAS_PRODUCTOR = 1 << 16;
+
+    /**
+     * Tokenizador de cada hilo para {@link #procesarTexto(String)}.
+     */
+    private static final ThreadLocal<Tokenizador> TOKENIZADORES = ThreadLocal.withInitial(Tokenizador::new);
+
+    /**
+     * Contador de cada palabra.
+     */
+    private final ConcurrentHashMap<String, AtomicInteger> conteos;
+
+    /**
+     * Palabras en orden alfabético.
+     */
+    private final ConcurrentSkipListSet<String> orden;
+
+    /**
+     * Total de palabras procesadas (incluyendo repeticiones).
+     */
+    private final LongAdder totalPalabras;
+
+    /**
+     * Palabras con al menos una repetición volcada.
+     */
+    private final LongAdder palabrasUnicas;
+
+    /**
+     * Palabra más repetida y su número de repeticiones, o null.
+     */
+    private final AtomicReference<Frecuencia> masRepetida;
+
+    /**
+     * Constructor que inicializa un analizador concurrente vacío.
+     */
+    public AnalizadorConcurrente() {
+        conteos = new ConcurrentHashMap<>();
+        orden = new ConcurrentSkipListSet<>();
+        totalPalabras = new LongAdder();
+        palabrasUnicas = new LongAdder();
+        masRepetida = new AtomicReference<>();
+    }
+
+    /**
+     * Procesa una línea de texto desde cualquier hilo. Al volver, todas
+     * sus palabras ya son visibles para las consultas. Cada aparición
+     * incrementa el contador compartido de su palabra, así que con muchos
+     * hilos las palabras más frecuentes se disputan; para cargar mucho
+     * texto conviene un {@link Productor}.
+     *
+     * @param texto Línea de texto a procesar
+     */
+    public void procesarTexto(String texto) {
+        Tokenizador tokenizador = TOKENIZADORES.get();
+        tokenizador.reiniciar(texto);
+        int palabras = 0;
+        String palabra;
+        while ((palabra = tokenizador.siguiente()) != null) {
+            sumar(contador(palabra), palabra, 1);
+            palabras++;
+        }
+        totalPalabras.add(palabras);
+    }
+
+    /**
+     * Crea un productor para cargar texto desde un hilo. Cada hilo debe
+     * usar el suyo y cerrarlo al terminar, para volcar el último lote.
+     *
+     * <p>Las palabras de un productor no se ven en las consultas hasta
+     * que vuelca su lote: cada {@value #TAMANO_LOTE} palabras, al llamar
+     * a {@link Productor#volcar()} y al cerrarlo. Mientras tanto, los
+     * conteos y el total pueden ir atrasados hasta un lote por productor.
+     *
+     * @return Productor nuevo, sin palabras pendientes
+     */
+    public Productor productor() {
+        return new Productor(this);
+    }
+
+    /**
+     * Procesa varias líneas de texto con un productor temporal. Al volver,
+     * todas las palabras ya son visibles para las consultas. Para cargar
+     * muchas llamadas desde un mismo hilo conviene reutilizar un
+     * {@link Productor}.
+     *
+     * @param lineas Líneas de texto a procesar
+     */
+    public void procesarLineas(Iterable<String> lineas) {
+        try (Productor productor = productor()) {
+            productor.procesarLineas(lineas);
+        }
+    }
+
+    /**
+     * Obtiene el número de repeticiones de una palabra específica.
+     *
+     * @param palabra Palabra a buscar
+     * @return Número de veces que aparece la palabra, 0 si no existe
+     */
+    public int obtenerRepeticiones(String palabra) {
+        AtomicInteger contador = conteos.get(ProcesadorTexto.normalizarPalabra(palabra));
+        return contador != null ? contador.get() : 0;
+    }
+
+    /**
+     * Obtiene el total de palabras procesadas incluyendo repeticiones.
+     *
+     * @return Número total de palabras procesadas
+     */
+    public long getTotalPalabras() {
+        return totalPalabras.sum();
+    }
+
+    /**
+     * Obtiene el número de palabras únicas (sin repeticiones).
+     *
+     * @return Número de palabras únicas
+     */
+    public int getPalabrasUnicas() {
+        return palabrasUnicas.intValue();
+    }
+
+    /**
+     * Obtiene información sobre la palabra más repetida.
+     *
+     * @return String con la palabra más repetida y su frecuencia,
+     *         o mensaje indicando que no hay palabras procesadas
+     */
+    public String getPalabraMasRepetida() {
+        Frecuencia actual = masRepetida.get();
+        return actual != null ? actual.toString() : "No hay palabras procesadas";
+    }
+
+    /**
+     * Obtiene una vista de las palabras en orden alfabético. El recorrido
+     * es débilmente consistente: no falla si otros hilos agregan palabras
+     * y puede incluir o no las agregadas durante el recorrido, incluso
+     * alguna cuyo contador todavía está en cero.
+     *
+     * @return Iterable con las palabras ordenadas alfabéticamente
+     */
+    public Iterable<String> palabras() {
+        return orden;
+    }
+
+    /**
+     * Busca todas las palabras que comienzan con un prefijo, junto con
+     * su número de repeticiones, en orden alfabético.
+     *
+     * @param prefijo Prefijo a buscar; se normaliza igual que las palabras
+     * @return Lista de pares palabra-repeticiones con el prefijo dado
+     */
+    public Lista<Frecuencia> palabrasConPrefijo(String prefijo) {
+        prefijo = ProcesadorTexto.normalizarPalabra(prefijo);
+        NavigableSet<String> rango = orden.tailSet(prefijo, true);
+        Lista<Frecuencia> resultado = new Lista<>(10);
+        for (String palabra : rango) {
+            if (!palabra.startsWith(prefijo)) break;
+            int repeticiones = conteos.get(palabra).get();
+            if (repeticiones > 0) {
+                resultado.agregarAlFinal(new Frecuencia(palabra, repeticiones));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Copia el estado actual en un {@link AnalizadorBiblia} secuencial, por
+     * ejemplo para guardarlo como {@link Instantanea} o consultarlo con
+     * todas sus operaciones. Debe llamarse cuando no haya hilos procesando
+     * texto para obtener una copia consistente.
+     *
+     * @return Analizador con los mismos conteos
+     */
+    public AnalizadorBiblia aAnalizadorBiblia() {
+        AnalizadorBiblia copia = new AnalizadorBiblia();
+        for (String palabra : orden) {
+            int repeticiones = conteos.get(palabra).get();
+            if (repeticiones > 0) {
+                copia.sumarRepeticiones(palabra, repeticiones);
+            }
+        }
+        Frecuencia actual = masRepetida.get();
+        if (actual != null) {
+            copia.proponerMasRepetida(actual.getPalabra(), actual.getRepeticiones());
+        }
+        return copia;
+    }
+
+    /**
+     * Obtiene el contador compartido de una palabra, creándolo si no existe.
+     *
+     * @param palabra Palabra normalizada
+     * @return Contador de la palabra
+     */
+    private AtomicInteger contador(String palabra) {
+        AtomicInteger contador = conteos.get(palabra);
+        if (contador == null) {
+            AtomicInteger nuevo = new AtomicInteger();
+            contador = conteos.putIfAbsent(palabra, nuevo);
+            if (contador == null) {
+                contador = nuevo;
+                orden.add(palabra);
+            }
+        }
+        return contador;
+    }
+
+    /**
+     * Suma repeticiones al contador compartido de una palabra, cuenta la
+     * palabra como única si es su primera repetición y la propone como
+     * la más repetida.
+     *
+     * @param contador Contador compartido de la palabra
+     * @param palabra Palabra normalizada
+     * @param delta Repeticiones a sumar, positivas
+     */
+    private void sumar(AtomicInteger contador, String palabra, int delta) {
+        int nuevo = contador.addAndGet(delta);
+        // Los contadores sólo crecen: sólo un hilo ve el paso desde cero
+        if (nuevo == delta) {
+            palabrasUnicas.increment();
+        }
+        proponerMasRepetida(palabra, nuevo);
+    }
+
+    /**
+     * Propone una palabra como la más repetida. La reemplaza con CAS sólo
+     * si supera estrictamente el máximo publicado; si otro hilo publicó
+     * antes, se vuelve a comparar con el nuevo valor.
+     *
+     * @param palabra Palabra candidata
+     * @param repeticiones Repeticiones de la candidata
+     */
+    private void proponerMasRepetida(String palabra, int repeticiones) {
+        while (true) {
+            Frecuencia actual = masRepetida.get();
+            if (actual != null && repeticiones <= actual.getRepeticiones()) return;
+            if (masRepetida.compareAndSet(actual, new Frecuencia(palabra, repeticiones))) return;
+        }
+    }
+
+    /**
+     * Carga de texto de un hilo productor: acumula los conteos en un lote
+     * y los vuelca a los contadores compartidos del analizador cada
+     * {@value #TAMANO_LOTE} palabras, al llamar a {@link #volcar()} y al
+     * cerrarse. Sólo debe usarlo un hilo a la vez; las palabras de un lote
+     * no volcado todavía no se ven en las consultas.
+     *
+     * <p>Entre lotes recuerda el contador compartido de cada palabra local
+     * para no buscarlo de nuevo, hasta {@value #MAX_PALABRAS_PRODUCTOR}
+     * palabras distintas; al superarlas empieza con un vocabulario vacío.
+     */
+    public static final class Productor implements AutoCloseable {
+        /**
+         * Analizador al que se vuelcan los lotes.
+         */
+        private final AnalizadorConcurrente destino;
+        /**
+         * Tokenizador del productor.
+         */
+        private final Tokenizador tokenizador = new Tokenizador();
+        /**
+         * Vocabulario del productor; las repeticiones son las del lote actual.
+         */
+        private Vocabulario local = new Vocabulario();
+        /**
+         * Contador compartido de cada identificador local, o null si aún
+         * no se buscó.
+         */
+        private AtomicInteger[] compartidos = new AtomicInteger[1024];
+        /**
+         * Identificadores con repeticiones en el lote actual.
+         */
+        private int[] tocados = new int[1024];
+        /**
+         * Número de identificadores en {@link #tocados}.
+         */
+        private int cantidadTocados;
+        /**
+         * Número de palabras del lote actual.
+         */
+        private int palabras;
+
+        /**
+         * Constructor de un productor sin palabras pendientes.
+         *
+         * @param destino Analizador al que se vuelcan los lotes
+         */
+        private Productor(AnalizadorConcurrente destino) {
+            this.destino = destino;
+        }
+
+        /**
+         * Procesa una línea de texto. Sus palabras se ven en las consultas
+         * cuando se vuelca el lote.
+         *
+         * @param texto Línea de texto a procesar
+         */
+        public void procesarTexto(String texto) {
+            agregar(texto);
+            if (palabras >= TAMANO_LOTE) {
+                volcar();
+            }
+        }
+
+        /**
+         * Procesa varias líneas de texto y vuelca el lote al terminar. Al
+         * volver, todas las palabras ya son visibles para las consultas.
+         *
+         * @param lineas Líneas de texto a procesar
+         */
+        public void procesarLineas(Iterable<String> lineas) {
+            for (String linea : lineas) {
+                procesarTexto(linea);
+            }
+            volcar();
+        }
+
+        /**
+         * Agrega al lote las palabras de una línea.
+         *
+         * @param linea Línea de texto
+         */
+        private void agregar(String linea) {
+            tokenizador.reiniciar(linea);
+            String palabra;
+            while ((palabra = tokenizador.siguiente()) != null) {
+                int id = local.agregar(palabra);
+                if (local.sumar(id, 1) == 1) {
+                    if (cantidadTocados == tocados.length) {
+                        tocados = Arrays.copyOf(tocados, cantidadTocados * 2);
+                    }
+                    tocados[cantidadTocados++] = id;
+                }
+                palabras++;
+            }
+        }
+
+        /**
+         * Suma los conteos del lote a los contadores compartidos y deja
+         * el lote vacío. Al volver, las palabras procesadas por este
+         * productor ya son visibles para las consultas.
+         */
+        public void volcar() {
+            for (int i = 0; i < cantidadTocados; i++) {
+                int id = tocados[i];
+                int delta = local.repeticiones(id);
+                local.restar(id, delta);
+                if (id >= compartidos.length) {
+                    compartidos = Arrays.copyOf(compartidos, Math.max(id + 1, compartidos.length * 2));
+                }
+                AtomicInteger contador = compartidos[id];
+                if (contador == null) {
+                    contador = destino.contador(local.palabra(id));
+                    compartidos[id] = contador;
+                }
+                destino.sumar(contador, local.palabra(id), delta);
+            }
+            destino.totalPalabras.add(palabras);
+            cantidadTocados = 0;
+            palabras = 0;
+            if (local.size() > MAX_PALABRAS_PRODUCTOR) {
+                local = new Vocabulario();
+                compartidos = new AtomicInteger[1024];
+            }
+        }
+
+        /**
+         * Vuelca el último lote.
+         */
+        @Override
+        public void close() {
+            volcar();
+        }
+    }
+}
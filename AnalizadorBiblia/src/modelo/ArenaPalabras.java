@@ -0,0 +1,260 @@
+package modelo;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Almacén de palabras fuera del heap: las guarda codificadas en UTF-8,
+ * una tras otra, en bloques de memoria directa ({@link ByteBuffer#allocateDirect(int)}).
+ * Cada palabra se identifica con una referencia entera (bloque y
+ * desplazamiento), de modo que quien la usa sólo guarda enteros.
+ *
+ * <p>Cada registro tiene el hash de la palabra (el de {@link String#hashCode()}),
+ * su largo en bytes y los bytes, alineado a 4 bytes. Las búsquedas
+ * comparan el hash guardado y luego los bytes directamente contra los
+ * caracteres de la palabra buscada, sin crear un String; sólo las palabras
+ * con caracteres fuera de ASCII, raras una vez normalizadas, se comparan
+ * decodificándolas. Las comparaciones dan el mismo orden que
+ * {@link String#compareTo(String)}.
+ *
+ * <p>Las palabras no se eliminan ni se mueven. Los bloques se liberan
+ * cuando la arena deja de usarse y el recolector reclama sus
+ * {@link ByteBuffer}; como el heap sólo contiene el arreglo de bloques,
+ * su tamaño y el trabajo del recolector no crecen con el vocabulario.
+ *
+ * <p>No es segura para agregar palabras desde varios hilos; las lecturas
+ * concurrentes sin escrituras sí lo son.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public final class ArenaPalabras {
+    /**
+     * Bits de la referencia que indican el desplazamiento dentro del bloque.
+     */
+    private static final int BITS_DESPLAZAMIENTO = 20;
+    /**
+     * Tamaño de un bloque normal, 1 MiB.
+     */
+    private static final int TAMANO_BLOQUE = 1 << BITS_DESPLAZAMIENTO;
+    /**
+     * Máscara del desplazamiento dentro de la referencia.
+     */
+    private static final int MASCARA = TAMANO_BLOQUE - 1;
+    /**
+     * Número máximo de bloques que caben en una referencia positiva.
+     */
+    private static final int MAX_BLOQUES = 1 << (31 - BITS_DESPLAZAMIENTO);
+    /**
+     * Bytes de la cabecera de cada registro: hash y largo.
+     */
+    private static final int CABECERA = 8;
+
+    /**
+     * Bloques reservados, en orden.
+     */
+    private ByteBuffer[] bloques;
+    /**
+     * Número de bloques reservados.
+     */
+    private int cantidadBloques;
+    /**
+     * Posición libre en el último bloque.
+     */
+    private int libre;
+    /**
+     * Número de palabras guardadas.
+     */
+    private int cantidad;
+    /**
+     * Bytes ocupados por los registros.
+     */
+    private long bytesUsados;
+    /**
+     * Bytes de memoria directa reservados.
+     */
+    private long bytesReservados;
+
+    /**
+     * Constructor que inicializa una arena vacía, sin reservar memoria.
+     */
+    public ArenaPalabras() {
+        bloques = new ByteBuffer[8];
+        cantidadBloques = 0;
+        libre = TAMANO_BLOQUE;
+        cantidad = 0;
+    }
+
+    /**
+     * Guarda una palabra al final de la arena.
+     *
+     * @param palabra Palabra a guardar
+     * @return Referencia de la palabra
+     * @throws IllegalStateException si la arena llegó a su tamaño máximo
+     */
+    public int agregar(String palabra) {
+        byte[] bytes = palabra.getBytes(StandardCharsets.UTF_8);
+        int tamano = (CABECERA + bytes.length + 3) & ~3;
+        if (tamano > TAMANO_BLOQUE) {
+            // Una palabra más grande que un bloque ocupa un bloque propio
+            nuevoBloque(tamano);
+        } else if (libre + tamano > TAMANO_BLOQUE) {
+            nuevoBloque(TAMANO_BLOQUE);
+        }
+        ByteBuffer bloque = bloques[cantidadBloques - 1];
+        int posicion = libre;
+        bloque.putInt(posicion, palabra.hashCode());
+        bloque.putInt(posicion + 4, bytes.length);
+        bloque.put(posicion + CABECERA, bytes);
+        libre += tamano;
+        cantidad++;
+        bytesUsados += tamano;
+        return (cantidadBloques - 1) << BITS_DESPLAZAMIENTO | posicion;
+    }
+
+    /**
+     * Reserva un bloque nuevo y lo deja como bloque actual.
+     *
+     * @param tamano Capacidad del bloque en bytes
+     * @throws IllegalStateException si no caben más bloques
+     */
+    private void nuevoBloque(int tamano) {
+        if (cantidadBloques == MAX_BLOQUES) {
+            throw new IllegalStateException("La arena de palabras llegó a su tamaño máximo");
+        }
+        if (cantidadBloques == bloques.length) {
+            bloques = java.util.Arrays.copyOf(bloques, Math.min(MAX_BLOQUES, bloques.length * 2));
+        }
+        bloques[cantidadBloques++] = ByteBuffer.allocateDirect(tamano);
+        libre = 0;
+        bytesReservados += tamano;
+    }
+
+    /**
+     * Obtiene el hash de una palabra guardada, igual a su {@link String#hashCode()}.
+     *
+     * @param referencia Referencia de la palabra
+     * @return Hash de la palabra
+     */
+    public int hash(int referencia) {
+        return bloques[referencia >>> BITS_DESPLAZAMIENTO].getInt(referencia & MASCARA);
+    }
+
+    /**
+     * Decodifica una palabra guardada.
+     *
+     * @param referencia Referencia de la palabra
+     * @return Nuevo String con la palabra
+     */
+    public String palabra(int referencia) {
+        ByteBuffer bloque = bloques[referencia >>> BITS_DESPLAZAMIENTO];
+        int posicion = referencia & MASCARA;
+        byte[] bytes = new byte[bloque.getInt(posicion + 4)];
+        bloque.get(posicion + CABECERA, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indica si una palabra guardada es igual a un String.
+     *
+     * @param referencia Referencia de la palabra guardada
+     * @param palabra Palabra a comparar
+     * @return true si contienen los mismos caracteres
+     */
+    public boolean igual(int referencia, String palabra) {
+        ByteBuffer bloque = bloques[referencia >>> BITS_DESPLAZAMIENTO];
+        int posicion = (referencia & MASCARA) + CABECERA;
+        int largo = bloque.getInt(posicion - 4);
+        int n = palabra.length();
+        // Cada carácter ocupa al menos un byte
+        if (largo < n) return false;
+        for (int i = 0; i < n; i++) {
+            byte b = bloque.get(posicion + i);
+            if (b < 0) return palabra(referencia).equals(palabra);
+            if (b != palabra.charAt(i)) return false;
+        }
+        return largo == n;
+    }
+
+    /**
+     * Compara una palabra guardada con un String, en el orden de
+     * {@link String#compareTo(String)}.
+     *
+     * @param referencia Referencia de la palabra guardada
+     * @param palabra Palabra a comparar
+     * @return Negativo, cero o positivo si la guardada es menor, igual o
+     *         mayor que la palabra
+     */
+    public int comparar(int referencia, String palabra) {
+        ByteBuffer bloque = bloques[referencia >>> BITS_DESPLAZAMIENTO];
+        int posicion = (referencia & MASCARA) + CABECERA;
+        int largo = bloque.getInt(posicion - 4);
+        int n = palabra.length();
+        int comun = Math.min(largo, n);
+        for (int i = 0; i < comun; i++) {
+            byte b = bloque.get(posicion + i);
+            if (b < 0) return palabra(referencia).compareTo(palabra);
+            char c = palabra.charAt(i);
+            if (b != c) return b - c;
+        }
+        // Si quedan bytes, la guardada tiene más caracteres; si no, todos
+        // eran ASCII y el largo en bytes es el largo en caracteres
+        return largo - n;
+    }
+
+    /**
+     * Compara dos palabras guardadas, en el orden de
+     * {@link String#compareTo(String)}.
+     *
+     * @param a Referencia de la primera palabra
+     * @param b Referencia de la segunda palabra
+     * @return Negativo, cero o positivo si la primera es menor, igual o
+     *         mayor que la segunda
+     */
+    public int comparar(int a, int b) {
+        if (a == b) return 0;
+        ByteBuffer bloqueA = bloques[a >>> BITS_DESPLAZAMIENTO];
+        ByteBuffer bloqueB = bloques[b >>> BITS_DESPLAZAMIENTO];
+        int posicionA = (a & MASCARA) + CABECERA;
+        int posicionB = (b & MASCARA) + CABECERA;
+        int largoA = bloqueA.getInt(posicionA - 4);
+        int largoB = bloqueB.getInt(posicionB - 4);
+        int comun = Math.min(largoA, largoB);
+        for (int i = 0; i < comun; i++) {
+            byte x = bloqueA.get(posicionA + i);
+            byte y = bloqueB.get(posicionB + i);
+            if (x == y) continue;
+            if (x < 0 || y < 0) return palabra(a).compareTo(palabra(b));
+            return x - y;
+        }
+        return largoA == largoB ? 0 : largoA - largoB;
+    }
+
+    /**
+     * Obtiene el número de palabras guardadas.
+     *
+     * @return Número de palabras
+     */
+    public int size() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene los bytes ocupados por las palabras, con sus cabeceras.
+     *
+     * @return Bytes usados
+     */
+    public long getBytesUsados() {
+        return bytesUsados;
+    }
+
+    /**
+     * Obtiene los bytes de memoria directa reservados por la arena.
+     *
+     * @return Bytes reservados
+     */
+    public long getBytesReservados() {
+        return bytesReservados;
+    }
+}
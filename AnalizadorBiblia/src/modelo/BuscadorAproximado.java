@@ -0,0 +1,246 @@
+package modelo;
+
+import java.util.Arrays;
+import util.ProcesadorTexto;
+
+/**
+ * Búsqueda aproximada sobre el vocabulario de un {@link AnalizadorBiblia}:
+ * encuentra las palabras que están a una distancia de edición
+ * (Levenshtein) de a lo sumo k de una consulta, por ejemplo variantes
+ * ortográficas o formas antiguas de una palabra.
+ *
+ * <p>Las palabras se copian una vez, en orden alfabético, a un arreglo. La
+ * consulta se evalúa como un autómata de Levenshtein simulado con filas de
+ * la tabla de programación dinámica: la fila i describe los estados del
+ * autómata después de leer los primeros i caracteres de una palabra. Al
+ * recorrer el arreglo en orden:
+ * <ul>
+ *   <li>las palabras consecutivas comparten prefijo, así que sólo se
+ *       calculan las filas de los caracteres a partir del prefijo común,
+ *       como al recorrer un trie; la longitud del prefijo común con la
+ *       palabra anterior se calcula una vez al construir el buscador;</li>
+ *   <li>si todas las casillas de una fila superan k, ninguna palabra con
+ *       ese prefijo puede estar a distancia k, y se salta el rango completo
+ *       de palabras con el prefijo sin compararlas.</li>
+ * </ul>
+ * Así una consulta no calcula la distancia contra cada palabra: sólo visita
+ * los prefijos cercanos a la consulta.
+ *
+ * <p>Las repeticiones se leen del {@link Vocabulario} al buscar, por lo que
+ * siempre están al día; las palabras nuevas posteriores a la construcción
+ * no aparecen hasta crear otro buscador, y las que quedan en 0
+ * repeticiones se omiten.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class BuscadorAproximado {
+
+    /**
+     * Vocabulario del que provienen las palabras.
+     */
+    private final Vocabulario vocabulario;
+    /**
+     * Palabras en orden alfabético.
+     */
+    private final String[] palabras;
+    /**
+     * Identificador en el vocabulario de cada palabra.
+     */
+    private final int[] ids;
+    /**
+     * Longitud del prefijo común de cada palabra con la anterior.
+     */
+    private final int[] comun;
+    /**
+     * Longitud de la palabra más larga, para dimensionar las filas.
+     */
+    private final int longitudMaxima;
+
+    /**
+     * Construye el buscador con las palabras actuales de un analizador.
+     *
+     * @param analizador Analizador cuyo vocabulario se indexa
+     * @throws IllegalArgumentException si el analizador es null
+     */
+    public BuscadorAproximado(AnalizadorBiblia analizador) {
+        if (analizador == null) {
+            throw new IllegalArgumentException("El analizador no puede ser null");
+        }
+        vocabulario = analizador.getVocabulario();
+        int unicas = analizador.getPalabrasUnicas();
+        palabras = new String[unicas];
+        ids = new int[unicas];
+        comun = new int[unicas];
+        int i = 0;
+        int maxima = 0;
+        for (String palabra : analizador.palabras()) {
+            palabras[i] = palabra;
+            ids[i] = vocabulario.id(palabra);
+            comun[i] = i > 0 ? prefijoComun(palabras[i - 1], palabra) : 0;
+            maxima = Math.max(maxima, palabra.length());
+            i++;
+        }
+        longitudMaxima = maxima;
+    }
+
+    /**
+     * Busca las palabras a distancia de edición de a lo sumo k de una
+     * consulta, incluida la propia consulta si está en el vocabulario.
+     *
+     * @param consulta Palabra a buscar; se normaliza igual que las palabras
+     * @param k Distancia máxima
+     * @return Pares palabra-repeticiones ordenados por distancia, luego de
+     *         mayor a menor frecuencia y luego alfabéticamente
+     * @throws IllegalArgumentException si k es negativo
+     */
+    public Lista<Frecuencia> buscar(String consulta, int k) {
+        if (k < 0) throw new IllegalArgumentException("La distancia no puede ser negativa");
+        String q = ProcesadorTexto.normalizarPalabra(consulta);
+        int m = q.length();
+
+        // filas[i] son los estados del autómata tras leer i caracteres. Una
+        // casilla con |i - j| > k ya supera k, así que sólo se calcula la
+        // banda diagonal de ancho 2k + 1 y los valores se saturan en k + 1.
+        int tope = k + 1;
+        int[][] filas = new int[longitudMaxima + 1][m + 1];
+        for (int j = 0; j <= m; j++) filas[0][j] = Math.min(j, tope);
+        int[] encontrados = new int[16];
+        int[] distancias = new int[16];
+        int total = 0;
+
+        // Número de filas válidas para el prefijo de la palabra anterior
+        int validas = 0;
+        int i = 0;
+        while (i < palabras.length) {
+            String palabra = palabras[i];
+            int largo = palabra.length();
+            int fila = Math.min(validas, comun[i]);
+            boolean descartada = false;
+            while (fila < largo) {
+                int[] previa = filas[fila];
+                int[] actual = filas[++fila];
+                int desde = Math.max(1, fila - k);
+                int hasta = Math.min(m, fila + k);
+                int minimo = desde == 1 ? Math.min(fila, tope) : tope;
+                actual[desde - 1] = minimo;
+                char c = palabra.charAt(fila - 1);
+                for (int j = desde; j <= hasta; j++) {
+                    int valor = previa[j - 1] + (q.charAt(j - 1) == c ? 0 : 1);
+                    int otro = Math.min(previa[j], actual[j - 1]) + 1;
+                    if (otro < valor) valor = otro;
+                    if (valor > tope) valor = tope;
+                    actual[j] = valor;
+                    if (valor < minimo) minimo = valor;
+                }
+                if (hasta < m) actual[hasta + 1] = tope;
+                if (minimo > k) {
+                    descartada = true;
+                    break;
+                }
+            }
+            validas = fila;
+            if (descartada) {
+                // Ninguna palabra con este prefijo puede estar a distancia k.
+                // Las que lo comparten son las siguientes con un prefijo
+                // común de al menos fila caracteres con su anterior, y la
+                // primera que no lo comparte tiene con esta palabra el mismo
+                // prefijo común que con su anterior.
+                do {
+                    i++;
+                } while (i < palabras.length && comun[i] >= fila);
+                continue;
+            }
+            int d = Math.abs(largo - m) <= k ? filas[largo][m] : tope;
+            if (d <= k && vocabulario.repeticiones(ids[i]) > 0) {
+                if (total == encontrados.length) {
+                    encontrados = Arrays.copyOf(encontrados, total * 2);
+                    distancias = Arrays.copyOf(distancias, total * 2);
+                }
+                encontrados[total] = ids[i];
+                distancias[total] = d;
+                total++;
+            }
+            i++;
+        }
+        return ordenar(encontrados, distancias, total);
+    }
+
+    /**
+     * Obtiene la longitud del prefijo común de dos palabras.
+     *
+     * @param a Primera palabra
+     * @param b Segunda palabra
+     * @return Número de caracteres iniciales iguales
+     */
+    private static int prefijoComun(String a, String b) {
+        int limite = Math.min(a.length(), b.length());
+        int n = 0;
+        while (n < limite && a.charAt(n) == b.charAt(n)) n++;
+        return n;
+    }
+
+    /**
+     * Ordena los resultados por distancia, repeticiones descendentes y
+     * palabra.
+     *
+     * @param encontrados Identificadores encontrados
+     * @param distancias Distancia de cada identificador a la consulta
+     * @param total Número de resultados
+     * @return Lista ordenada de pares palabra-repeticiones
+     */
+    private Lista<Frecuencia> ordenar(int[] encontrados, int[] distancias, int total) {
+        Integer[] orden = new Integer[total];
+        for (int i = 0; i < total; i++) orden[i] = i;
+        Arrays.sort(orden, (a, b) -> {
+            if (distancias[a] != distancias[b]) return Integer.compare(distancias[a], distancias[b]);
+            int ra = vocabulario.repeticiones(encontrados[a]);
+            int rb = vocabulario.repeticiones(encontrados[b]);
+            if (ra != rb) return Integer.compare(rb, ra);
+            return vocabulario.comparar(encontrados[a], encontrados[b]);
+        });
+        Lista<Frecuencia> resultado = new Lista<>(Math.max(1, total));
+        for (int i : orden) {
+            int id = encontrados[i];
+            resultado.agregarAlFinal(new Frecuencia(vocabulario.palabra(id), vocabulario.repeticiones(id)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene el número de palabras del buscador.
+     *
+     * @return Número de palabras
+     */
+    public int size() {
+        return palabras.length;
+    }
+
+    /**
+     * Calcula la distancia de edición de Levenshtein (inserciones,
+     * eliminaciones y sustituciones de un carácter) entre dos palabras.
+     *
+     * @param a Primera palabra
+     * @param b Segunda palabra
+     * @return Distancia de edición
+     */
+    public static int distancia(String a, String b) {
+        int m = b.length();
+        int[] anterior = new int[m + 1];
+        int[] fila = new int[m + 1];
+        for (int j = 0; j <= m; j++) anterior[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            char c = a.charAt(i - 1);
+            fila[0] = i;
+            for (int j = 1; j <= m; j++) {
+                int sustitucion = anterior[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                fila[j] = Math.min(sustitucion, Math.min(anterior[j], fila[j - 1]) + 1);
+            }
+            int[] temporal = anterior;
+            anterior = fila;
+            fila = temporal;
+        }
+        return anterior[m];
+    }
+}
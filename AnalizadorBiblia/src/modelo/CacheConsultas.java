@@ -0,0 +1,256 @@
+package modelo;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché LRU (menos usado recientemente) de resultados de consultas,
+ * acotada por peso en lugar de por número de entradas: cada resultado
+ * pesa lo que indica quien lo guarda, por ejemplo 1 por un conteo y el
+ * número de elementos por una lista. Al superar el peso máximo se
+ * descartan los resultados usados hace más tiempo.
+ *
+ * <p>Los resultados valen para una versión de los datos. Antes de
+ * consultar, el dueño de la caché llama a {@link #validar(long)} con su
+ * versión actual; si cambió desde la última llamada, la caché se vacía
+ * completa, así que nunca devuelve un resultado calculado sobre datos
+ * anteriores.
+ *
+ * <p>Lleva estadísticas de aciertos, fallos, descartes e invalidaciones.
+ * No es segura para usar desde varios hilos a la vez.
+ *
+ * @param <K> Tipo de las consultas, debe implementar equals y hashCode
+ * @param <V> Tipo de los resultados
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class CacheConsultas<K, V> {
+
+    /**
+     * Resultado guardado junto con su peso.
+     *
+     * @param <V> Tipo del resultado
+     */
+    private static final class Entrada<V> {
+        /**
+         * Resultado de la consulta.
+         */
+        final V valor;
+        /**
+         * Peso del resultado.
+         */
+        final int peso;
+
+        /**
+         * Constructor de la entrada.
+         *
+         * @param valor Resultado de la consulta
+         * @param peso Peso del resultado
+         */
+        Entrada(V valor, int peso) {
+            this.valor = valor;
+            this.peso = peso;
+        }
+    }
+
+    /**
+     * Entradas en orden de uso: la primera es la usada hace más tiempo.
+     */
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+    /**
+     * Peso máximo de la suma de las entradas.
+     */
+    private final long pesoMaximo;
+    /**
+     * Peso actual de la suma de las entradas.
+     */
+    private long pesoTotal;
+    /**
+     * Versión de los datos a la que corresponden las entradas.
+     */
+    private long version;
+    /**
+     * Consultas respondidas desde la caché.
+     */
+    private long aciertos;
+    /**
+     * Consultas que no estaban en la caché.
+     */
+    private long fallos;
+    /**
+     * Entradas descartadas por falta de espacio.
+     */
+    private long descartes;
+    /**
+     * Veces que la caché se vació por un cambio de versión.
+     */
+    private long invalidaciones;
+
+    /**
+     * Constructor de una caché vacía.
+     *
+     * @param pesoMaximo Peso máximo de la suma de las entradas
+     * @throws IllegalArgumentException si el peso máximo no es positivo
+     */
+    public CacheConsultas(long pesoMaximo) {
+        if (pesoMaximo <= 0) {
+            throw new IllegalArgumentException("El peso máximo debe ser positivo");
+        }
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true);
+        this.pesoMaximo = pesoMaximo;
+        this.pesoTotal = 0;
+        this.version = 0;
+    }
+
+    /**
+     * Comprueba la versión de los datos y vacía la caché si cambió desde
+     * la última comprobación.
+     *
+     * @param versionActual Versión actual de los datos
+     */
+    public void validar(long versionActual) {
+        if (versionActual != version) {
+            if (!entradas.isEmpty()) {
+                entradas.clear();
+                pesoTotal = 0;
+                invalidaciones++;
+            }
+            version = versionActual;
+        }
+    }
+
+    /**
+     * Obtiene el resultado de una consulta y la marca como usada.
+     *
+     * @param consulta Consulta a buscar
+     * @return Resultado guardado, o null si no está en la caché
+     */
+    public V obtener(K consulta) {
+        Entrada<V> entrada = entradas.get(consulta);
+        if (entrada == null) {
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        return entrada.valor;
+    }
+
+    /**
+     * Guarda el resultado de una consulta y descarta las entradas usadas
+     * hace más tiempo hasta volver al peso máximo. Un resultado que por
+     * sí solo supera el peso máximo no se guarda.
+     *
+     * @param consulta Consulta
+     * @param valor Resultado de la consulta
+     * @param peso Peso del resultado, al menos 1
+     */
+    public void guardar(K consulta, V valor, int peso) {
+        if (peso > pesoMaximo) return;
+        Entrada<V> anterior = entradas.put(consulta, new Entrada<>(valor, peso));
+        if (anterior != null) pesoTotal -= anterior.peso;
+        pesoTotal += peso;
+        Iterator<Map.Entry<K, Entrada<V>>> recorrido = entradas.entrySet().iterator();
+        while (pesoTotal > pesoMaximo) {
+            pesoTotal -= recorrido.next().getValue().peso;
+            recorrido.remove();
+            descartes++;
+        }
+    }
+
+    /**
+     * Vacía la caché sin modificar las estadísticas.
+     */
+    public void limpiar() {
+        entradas.clear();
+        pesoTotal = 0;
+    }
+
+    /**
+     * Obtiene el número de resultados guardados.
+     *
+     * @return Número de entradas
+     */
+    public int size() {
+        return entradas.size();
+    }
+
+    /**
+     * Obtiene la suma de los pesos de los resultados guardados.
+     *
+     * @return Peso actual
+     */
+    public long getPeso() {
+        return pesoTotal;
+    }
+
+    /**
+     * Obtiene el peso máximo de la caché.
+     *
+     * @return Peso máximo
+     */
+    public long getPesoMaximo() {
+        return pesoMaximo;
+    }
+
+    /**
+     * Obtiene el número de consultas respondidas desde la caché.
+     *
+     * @return Número de aciertos
+     */
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Obtiene el número de consultas que no estaban en la caché.
+     *
+     * @return Número de fallos
+     */
+    public long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Obtiene el número de entradas descartadas por falta de espacio.
+     *
+     * @return Número de descartes
+     */
+    public long getDescartes() {
+        return descartes;
+    }
+
+    /**
+     * Obtiene el número de veces que la caché se vació porque cambiaron
+     * los datos.
+     *
+     * @return Número de invalidaciones
+     */
+    public long getInvalidaciones() {
+        return invalidaciones;
+    }
+
+    /**
+     * Obtiene la proporción de consultas respondidas desde la caché.
+     *
+     * @return Tasa de aciertos entre 0 y 1, o 0 si no hubo consultas
+     */
+    public double getTasaAciertos() {
+        long consultas = aciertos + fallos;
+        return consultas == 0 ? 0 : (double) aciertos / consultas;
+    }
+
+    /**
+     * Devuelve un resumen de las estadísticas de la caché.
+     *
+     * @return Resumen en una línea
+     */
+    @Override
+    public String toString() {
+        return String.format("%d aciertos, %d fallos (%.1f%%), %d entradas, peso %d/%d, %d descartes, %d invalidaciones",
+                aciertos, fallos, 100 * getTasaAciertos(), entradas.size(), pesoTotal, pesoMaximo,
+                descartes, invalidaciones);
+    }
+}
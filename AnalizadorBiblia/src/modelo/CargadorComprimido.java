@@ -0,0 +1,589 @@
+package modelo;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import util.AnalisisLexico;
+
+/**
+ * Carga archivos de texto plano, comprimidos con gzip o agrupados en un
+ * zip, sin descomprimirlos antes a disco. El formato se reconoce por los
+ * primeros bytes del archivo, no por su extensión.
+ *
+ * <ul>
+ *   <li><b>Texto:</b> se carga con {@link CargadorPorEtapas}.</li>
+ *   <li><b>gzip:</b> un hilo propio descomprime el archivo en bloques y
+ *       los pasa por una cola acotada a {@link CargadorPorEtapas}, cuya
+ *       lectura separa las líneas mientras sus trabajadores tokenizan; así
+ *       la descompresión, la lectura de líneas y la tokenización trabajan a
+ *       la vez.</li>
+ *   <li><b>zip:</b> cada entrada (por ejemplo, un libro) se descomprime y
+ *       se cuenta en su propio analizador, con varias entradas a la vez en
+ *       un grupo de hilos. Los resultados se suman al analizador en el
+ *       orden de las entradas del archivo, a medida que terminan; nunca
+ *       hay más entradas en vuelo que hilos.</li>
+ * </ul>
+ *
+ * <p>Con texto y gzip el resultado es idéntico al de procesar el texto
+ * descomprimido línea por línea. Con zip los conteos también lo son; la
+ * palabra más repetida puede diferir en caso de empate, igual que al
+ * reunir documentos en un {@link Corpus}, y no se construyen índice ni
+ * n-gramas.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class CargadorComprimido {
+
+    /**
+     * Formato de un archivo de entrada.
+     */
+    public enum Formato {
+        /** Texto sin comprimir. */
+        TEXTO,
+        /** Texto comprimido con gzip. */
+        GZIP,
+        /** Archivo zip con uno o más textos. */
+        ZIP
+    }
+
+    /**
+     * Tamaño de los bloques que pasa el hilo de descompresión.
+     */
+    private static final int TAMANO_BLOQUE = 1 << 16;
+
+    /**
+     * Bloques descomprimidos que pueden esperar en la cola.
+     */
+    private static final int BLOQUES_EN_VUELO = 16;
+
+    /**
+     * Cargador de texto plano y gzip.
+     */
+    private final CargadorPorEtapas etapas;
+    /**
+     * Número de entradas de un zip que se cargan a la vez.
+     */
+    private final int hilosZip;
+    /**
+     * Recibe los bytes descomprimidos procesados hasta el momento, o null.
+     */
+    private LongConsumer progreso;
+
+    /**
+     * Constructor que usa un {@link CargadorPorEtapas} por defecto y carga
+     * tantas entradas de zip a la vez como núcleos disponibles.
+     */
+    public CargadorComprimido() {
+        this(new CargadorPorEtapas(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor con un cargador por etapas y un número de hilos dados.
+     *
+     * @param etapas Cargador de texto plano y gzip, con su índice y su
+     *               número de trabajadores ya configurados
+     * @param hilosZip Número de entradas de un zip que se cargan a la vez
+     * @throws IllegalArgumentException si etapas es null o hilosZip no es positivo
+     */
+    public CargadorComprimido(CargadorPorEtapas etapas, int hilosZip) {
+        if (etapas == null) {
+            throw new IllegalArgumentException("El cargador por etapas no puede ser null");
+        }
+        if (hilosZip < 1) {
+            throw new IllegalArgumentException("Debe haber al menos un hilo");
+        }
+        this.etapas = etapas;
+        this.hilosZip = hilosZip;
+    }
+
+    /**
+     * Establece una función que recibe periódicamente el número de bytes
+     * descomprimidos ya procesados, por ejemplo para compararlo con
+     * {@link #tamanoDescomprimido(String)}.
+     *
+     * @param progreso Función de progreso, o null
+     */
+    public void setProgreso(LongConsumer progreso) {
+        this.progreso = progreso;
+        etapas.setProgreso(progreso);
+    }
+
+    /**
+     * Reconoce el formato de un archivo por sus primeros bytes.
+     *
+     * @param rutaArchivo Ruta del archivo
+     * @return Formato del archivo; {@link Formato#TEXTO} si no es gzip ni zip
+     * @throws IOException Si no se puede leer el archivo
+     */
+    public static Formato detectar(String rutaArchivo) throws IOException {
+        byte[] cabecera = new byte[4];
+        int leidos;
+        try (InputStream entrada = new FileInputStream(rutaArchivo)) {
+            leidos = entrada.readNBytes(cabecera, 0, cabecera.length);
+        }
+        if (leidos >= 2 && (cabecera[0] & 0xff) == 0x1f && (cabecera[1] & 0xff) == 0x8b) {
+            return Formato.GZIP;
+        }
+        if (leidos == 4 && cabecera[0] == 'P' && cabecera[1] == 'K'
+                && ((cabecera[2] == 3 && cabecera[3] == 4) || (cabecera[2] == 5 && cabecera[3] == 6))) {
+            return Formato.ZIP;
+        }
+        return Formato.TEXTO;
+    }
+
+    /**
+     * Estima el tamaño del texto descomprimido de un archivo. En gzip usa
+     * el tamaño que guarda el final del archivo, que es exacto para un
+     * solo miembro de menos de 4 GB; en zip suma los tamaños declarados de
+     * las entradas.
+     *
+     * @param rutaArchivo Ruta del archivo
+     * @return Tamaño estimado en bytes
+     * @throws IOException Si no se puede leer el archivo
+     */
+    public static long tamanoDescomprimido(String rutaArchivo) throws IOException {
+        switch (detectar(rutaArchivo)) {
+            case GZIP:
+                try (RandomAccessFile archivo = new RandomAccessFile(rutaArchivo, "r")) {
+                    if (archivo.length() < 4) return 0;
+                    archivo.seek(archivo.length() - 4);
+                    return Integer.reverseBytes(archivo.readInt()) & 0xffffffffL;
+                }
+            case ZIP:
+                long total = 0;
+                try (ZipFile zip = new ZipFile(rutaArchivo)) {
+                    for (ZipEntry entrada : entradasDeTexto(zip)) {
+                        total += Math.max(0, entrada.getSize());
+                    }
+                }
+                return total;
+            default:
+                return new java.io.File(rutaArchivo).length();
+        }
+    }
+
+    /**
+     * Lee un archivo de texto, gzip o zip línea por línea, en un solo hilo,
+     * y pasa cada línea a un destino. Las entradas de un zip se leen en
+     * orden. La usan los contadores que no son un {@link AnalizadorBiblia}
+     * y quien necesita releer las líneas que numeró un {@link IndiceInvertido}.
+     *
+     * @param rutaArchivo Ruta del archivo
+     * @param codificacion Codificación del texto descomprimido
+     * @param destino Recibe cada línea
+     * @throws IOException Si ocurre un error al leer o descomprimir
+     */
+    public static void leerLineas(String rutaArchivo, Charset codificacion, Consumer<String> destino)
+            throws IOException {
+        switch (detectar(rutaArchivo)) {
+            case GZIP:
+                try (InputStream entrada = new GZIPInputStream(new FileInputStream(rutaArchivo), TAMANO_BLOQUE)) {
+                    leerLineas(entrada, codificacion, destino);
+                }
+                break;
+            case ZIP:
+                try (ZipFile zip = new ZipFile(rutaArchivo)) {
+                    for (ZipEntry entrada : entradasDeTexto(zip)) {
+                        try (InputStream contenido = zip.getInputStream(entrada)) {
+                            leerLineas(contenido, codificacion, destino);
+                        }
+                    }
+                }
+                break;
+            default:
+                try (InputStream entrada = new FileInputStream(rutaArchivo)) {
+                    leerLineas(entrada, codificacion, destino);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Lee un flujo de texto línea por línea, sin cerrarlo.
+     *
+     * @param entrada Flujo de texto
+     * @param codificacion Codificación del texto
+     * @param destino Recibe cada línea
+     * @throws IOException Si ocurre un error al leer
+     */
+    static void leerLineas(InputStream entrada, Charset codificacion, Consumer<String> destino)
+            throws IOException {
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, codificacion), TAMANO_BLOQUE);
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            destino.accept(linea);
+        }
+    }
+
+    /**
+     * Carga un archivo de texto, gzip o zip.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param rutaArchivo Ruta del archivo
+     * @param codificacion Codificación del texto descomprimido
+     * @return Formato reconocido
+     * @throws IOException Si ocurre un error al leer o descomprimir el
+     *                     archivo, o si el hilo que llama es interrumpido
+     */
+    public Formato cargar(AnalizadorBiblia analizador, String rutaArchivo, Charset codificacion)
+            throws IOException {
+        Formato formato = detectar(rutaArchivo);
+        switch (formato) {
+            case GZIP:
+                cargarGzip(analizador, rutaArchivo, codificacion);
+                break;
+            case ZIP:
+                cargarZip(analizador, rutaArchivo, codificacion);
+                break;
+            default:
+                etapas.cargar(analizador, rutaArchivo, codificacion);
+                break;
+        }
+        return formato;
+    }
+
+    /**
+     * Carga un archivo gzip, descomprimiéndolo en un hilo propio.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param rutaArchivo Ruta del archivo
+     * @param codificacion Codificación del texto descomprimido
+     * @throws IOException Si ocurre un error al leer o descomprimir
+     */
+    private void cargarGzip(AnalizadorBiblia analizador, String rutaArchivo, Charset codificacion)
+            throws IOException {
+        try (InputStream archivo = new FileInputStream(rutaArchivo);
+             InputStream descomprimida = new EntradaEnHilo(
+                     new GZIPInputStream(archivo, TAMANO_BLOQUE), "cargador-descompresion")) {
+            etapas.cargar(analizador, descomprimida, codificacion, rutaArchivo);
+        }
+    }
+
+    /**
+     * Carga las entradas de un zip en paralelo y las suma en orden. Si el
+     * analizador cuenta n-gramas, cada entrada los cuenta y se suman con
+     * las palabras; ninguno cruza de una entrada a otra.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param rutaArchivo Ruta del archivo
+     * @param codificacion Codificación de las entradas
+     * @throws IOException Si ocurre un error al leer o descomprimir
+     */
+    private void cargarZip(AnalizadorBiblia analizador, String rutaArchivo, Charset codificacion)
+            throws IOException {
+        EventoCarga evento = new EventoCarga();
+        evento.begin();
+        MetricasCarga antes = analizador.getMetricas();
+        MetricasCarga.Acumulador metricas = analizador.acumuladorMetricas();
+        long inicio = System.nanoTime();
+
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ExecutorService grupo = Executors.newFixedThreadPool(hilosZip, tarea -> {
+            Thread hilo = new Thread(tarea, "cargador-zip-" + numeroHilo.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try (ZipFile zip = new ZipFile(rutaArchivo)) {
+            // A lo sumo hilosZip entradas en vuelo: la siguiente se envía al
+            // recoger la más antigua, de modo que sólo hay en memoria los
+            // analizadores de las entradas que se están cargando
+            Iterator<ZipEntry> entradas = entradasDeTexto(zip).iterator();
+            boolean ngramas = analizador.getNGramas() != null;
+            ArrayDeque<Future<AnalizadorBiblia>> pendientes = new ArrayDeque<>(hilosZip);
+            while (pendientes.size() < hilosZip && entradas.hasNext()) {
+                pendientes.add(enviarEntrada(grupo, zip, entradas.next(), codificacion, metricas,
+                                             analizador.getAnalisis(), ngramas));
+            }
+            long procesados = 0;
+            while (!pendientes.isEmpty()) {
+                AnalizadorBiblia documento = pendientes.poll().get();
+                if (entradas.hasNext()) {
+                    pendientes.add(enviarEntrada(grupo, zip, entradas.next(), codificacion, metricas,
+                                                 analizador.getAnalisis(), ngramas));
+                }
+                long inicioInsercion = System.nanoTime();
+                analizador.fusionar(documento);
+                metricas.nanosInsercion.add(System.nanoTime() - inicioInsercion);
+
+                MetricasCarga parcial = documento.getMetricas();
+                metricas.lineas.add(parcial.getLineas());
+                metricas.palabrasRechazadas.add(parcial.getPalabrasRechazadas());
+                procesados += parcial.getBytesLeidos();
+                if (progreso != null) progreso.accept(procesados);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Carga interrumpida");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) throw (IOException) causa;
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            if (causa instanceof Error) throw (Error) causa;
+            throw new IOException(causa);
+        } finally {
+            grupo.shutdownNow();
+            metricas.nanosTotal.add(System.nanoTime() - inicio);
+        }
+        evento.registrar(rutaArchivo, "zip", antes, analizador.getMetricas());
+    }
+
+    /**
+     * Envía al grupo de hilos la carga de una entrada de un zip.
+     *
+     * @param grupo Grupo de hilos de la carga
+     * @param zip Archivo zip abierto
+     * @param entrada Entrada a cargar
+     * @param codificacion Codificación de la entrada
+     * @param metricas Métricas del analizador destino
+     * @param analisis Análisis léxico del analizador destino, o null
+     * @param ngramas Indica si el analizador destino cuenta n-gramas
+     * @return Resultado pendiente con el analizador de la entrada
+     */
+    private static Future<AnalizadorBiblia> enviarEntrada(ExecutorService grupo, ZipFile zip, ZipEntry entrada,
+                                                          Charset codificacion, MetricasCarga.Acumulador metricas,
+                                                          AnalisisLexico analisis, boolean ngramas) {
+        return grupo.submit(() -> cargarEntrada(zip, entrada, codificacion, metricas, analisis, ngramas));
+    }
+
+    /**
+     * Descomprime y cuenta una entrada de un zip en un analizador nuevo.
+     * Los bytes y los tiempos se registran en el acumulador del analizador
+     * destino; las líneas y las palabras rechazadas, en el del nuevo.
+     *
+     * @param zip Archivo zip abierto
+     * @param entrada Entrada a cargar
+     * @param codificacion Codificación de la entrada
+     * @param metricas Métricas del analizador destino
+     * @param analisis Análisis léxico del analizador destino, o null
+     * @param ngramas Indica si se cuentan también los n-gramas
+     * @return Analizador con la entrada
+     * @throws IOException Si ocurre un error al leer o descomprimir
+     */
+    private static AnalizadorBiblia cargarEntrada(ZipFile zip, ZipEntry entrada, Charset codificacion,
+                                                  MetricasCarga.Acumulador metricas, AnalisisLexico analisis,
+                                                  boolean ngramas) throws IOException {
+        long asignadosInicio = MetricasCarga.bytesAsignadosHiloActual();
+        long inicio = System.nanoTime();
+        AnalizadorBiblia documento = new AnalizadorBiblia();
+        documento.setAnalisis(analisis);
+        if (ngramas) documento.activarNGramas();
+        try (CargadorPorEtapas.EntradaContada contada =
+                     new CargadorPorEtapas.EntradaContada(zip.getInputStream(entrada));
+             BufferedReader lector = new BufferedReader(new InputStreamReader(contada, codificacion),
+                                                        TAMANO_BLOQUE)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                documento.procesarTexto(linea);
+            }
+            documento.acumuladorMetricas().bytesLeidos.add(contada.leidos);
+            metricas.bytesLeidos.add(contada.leidos);
+        }
+        // La lectura y la tokenización se intercalan por línea: se registra
+        // el tiempo de la entrada completa como tokenización
+        metricas.nanosTokenizacion.add(System.nanoTime() - inicio);
+        metricas.sumarAsignados(asignadosInicio);
+        return documento;
+    }
+
+    /**
+     * Obtiene las entradas de un zip que no son directorios, en el orden
+     * del archivo.
+     *
+     * @param zip Archivo zip abierto
+     * @return Entradas con contenido
+     */
+    static List<ZipEntry> entradasDeTexto(ZipFile zip) {
+        List<ZipEntry> entradas = new ArrayList<>();
+        Enumeration<? extends ZipEntry> todas = zip.entries();
+        while (todas.hasMoreElements()) {
+            ZipEntry entrada = todas.nextElement();
+            if (!entrada.isDirectory()) entradas.add(entrada);
+        }
+        return entradas;
+    }
+
+    /**
+     * Flujo que lee otro flujo en un hilo propio, por bloques, y entrega
+     * los bloques a través de una cola acotada. Con un flujo de
+     * descompresión como origen, la descompresión trabaja mientras el
+     * lector procesa los bloques anteriores. Los bloques consumidos se
+     * reutilizan.
+     */
+    private static final class EntradaEnHilo extends InputStream {
+        /**
+         * Marca de fin del flujo.
+         */
+        private static final byte[] FIN = new byte[0];
+
+        /**
+         * Flujo de origen.
+         */
+        private final InputStream origen;
+        /**
+         * Bloques leídos pendientes de entregar.
+         */
+        private final BlockingQueue<byte[]> bloques = new ArrayBlockingQueue<>(BLOQUES_EN_VUELO);
+        /**
+         * Bloques ya entregados que el hilo puede reutilizar.
+         */
+        private final BlockingQueue<byte[]> libres = new ArrayBlockingQueue<>(BLOQUES_EN_VUELO);
+        /**
+         * Error del hilo de lectura, o null.
+         */
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        /**
+         * Hilo que lee el origen.
+         */
+        private final Thread hilo;
+        /**
+         * Bloque que se está entregando.
+         */
+        private byte[] actual = FIN;
+        /**
+         * Posición del siguiente byte a entregar en el bloque actual.
+         */
+        private int posicion;
+        /**
+         * Indica si ya se recibió la marca de fin.
+         */
+        private boolean terminado;
+
+        /**
+         * Constructor que empieza a leer el origen en un hilo nuevo.
+         *
+         * @param origen Flujo a leer
+         * @param nombre Nombre del hilo
+         */
+        EntradaEnHilo(InputStream origen, String nombre) {
+            this.origen = origen;
+            hilo = new Thread(this::producir, nombre);
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+
+        /**
+         * Lee el origen en bloques hasta el final o hasta un error, y
+         * encola siempre la marca de fin. Cualquier error, también uno no
+         * comprobado del descompresor, queda registrado para el lector.
+         */
+        private void producir() {
+            boolean cerrado = false;
+            try {
+                while (true) {
+                    byte[] bloque = libres.poll();
+                    if (bloque == null) bloque = new byte[TAMANO_BLOQUE];
+                    int n = origen.readNBytes(bloque, 0, bloque.length);
+                    if (n == 0) break;
+                    // Sólo el último bloque queda incompleto
+                    bloques.put(n == bloque.length ? bloque : Arrays.copyOf(bloque, n));
+                    if (n < bloque.length) break;
+                }
+            } catch (InterruptedException e) {
+                // El flujo se cerró antes de terminar; nadie espera la marca
+                cerrado = true;
+            } catch (Throwable e) {
+                error.set(e);
+            } finally {
+                if (!cerrado) {
+                    try {
+                        bloques.put(FIN);
+                    } catch (InterruptedException ignorada) {
+                        // El flujo se cerró; nadie espera la marca
+                    }
+                }
+            }
+        }
+
+        /**
+         * Pasa al siguiente bloque.
+         *
+         * @return false si el flujo terminó
+         * @throws IOException Si el hilo de lectura falló o el hilo que lee
+         *                     es interrumpido
+         */
+        private boolean siguiente() throws IOException {
+            if (terminado) return false;
+            if (actual.length == TAMANO_BLOQUE) libres.offer(actual);
+            try {
+                actual = bloques.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Lectura interrumpida");
+            }
+            posicion = 0;
+            if (actual == FIN) {
+                terminado = true;
+                Throwable causa = error.get();
+                if (causa instanceof IOException) throw (IOException) causa;
+                if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+                if (causa instanceof Error) throw (Error) causa;
+                if (causa != null) throw new IOException(causa);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (posicion == actual.length && !siguiente()) return -1;
+            return actual[posicion++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int desde, int largo) throws IOException {
+            if (largo == 0) return 0;
+            if (posicion == actual.length && !siguiente()) return -1;
+            int n = Math.min(largo, actual.length - posicion);
+            System.arraycopy(actual, posicion, b, desde, n);
+            posicion += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return actual.length - posicion;
+        }
+
+        /**
+         * Detiene el hilo de lectura y cierra el origen.
+         *
+         * @throws IOException Si ocurre un error al cerrar el origen
+         */
+        @Override
+        public void close() throws IOException {
+            hilo.interrupt();
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            origen.close();
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package modelo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import util.AnalisisLexico;
+import util.ProcesadorTexto;
+import util.Tokenizador;
+
+/**
+ * Carga paralela de archivos de texto mediante mapeo en memoria.
+ *
+ * <p>El archivo se divide en bloques cuyos límites caen siempre sobre un
+ * byte separador (espacio, tabulación o salto de línea). Como esos bytes
+ * nunca forman parte de una secuencia multibyte en UTF-8 ni en las
+ * codificaciones de un byte, cada bloque puede decodificarse y
+ * tokenizarse por separado. Cada bloque se mapea con
+ * {@link FileChannel#map} y se procesa en un hilo del
+ * {@link ForkJoinPool} común con su propio {@link Tokenizador} y su
+ * propia tabla de conteos; las tablas parciales se fusionan en árbol y
+ * el resultado se suma al analizador.
+ *
+ * <p>El resultado es idéntico al de procesar el archivo línea por línea:
+ * además del número de apariciones, cada conteo parcial guarda la
+ * posición de la última aparición de la palabra, que permite desempatar
+ * la palabra más repetida igual que la carga secuencial (gana la que
+ * alcanzó primero el máximo).
+ *
+ * <p>Cada bloque registra en las {@link MetricasCarga} del analizador sus
+ * tiempos de decodificación y tokenización, sus saltos de línea y sus
+ * palabras rechazadas; al terminar se emite un {@link EventoCarga} de JFR.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class CargadorParalelo {
+
+    /**
+     * Tamaño mínimo de un bloque en bytes. Archivos más pequeños se
+     * procesan en un solo bloque.
+     */
+    private static final long TAMANO_MINIMO_BLOQUE = 1L << 20;
+
+    /**
+     * Tamaño máximo de un bloque en bytes, limitado por el tamaño máximo
+     * de un {@link MappedByteBuffer}.
+     */
+    private static final long TAMANO_MAXIMO_BLOQUE = 1L << 30;
+
+    /**
+     * Número de bloques por hilo disponible, para repartir mejor la carga
+     * cuando los bloques tardan distinto.
+     */
+    private static final int BLOQUES_POR_HILO = 4;
+
+    /**
+     * Capacidad inicial, en caracteres, del buffer de decodificación.
+     */
+    private static final int CAPACIDAD_CARACTERES = 1 << 16;
+
+    /**
+     * Conteo parcial de una palabra dentro de uno o varios bloques.
+     */
+    private static class Conteo {
+        /**
+         * Palabra normalizada.
+         */
+        final String palabra;
+        /**
+         * Número de apariciones de la palabra.
+         */
+        int cantidad;
+        /**
+         * Posición de la última aparición: índice de bloque en los 32 bits
+         * altos y número de palabra dentro del bloque en los bajos.
+         */
+        long ultimaAparicion;
+
+        /**
+         * Constructor de un conteo vacío.
+         *
+         * @param palabra Palabra normalizada
+         */
+        Conteo(String palabra) {
+            this.palabra = palabra;
+        }
+    }
+
+    /**
+     * Tabla parcial de conteos producida por uno o varios bloques.
+     * Los conteos se guardan también en orden de aparición para poder
+     * recorrerlos sin iterar la tabla hash.
+     */
+    private static class Parcial {
+        /**
+         * Conteos indexados por palabra.
+         */
+        final TablaHash<String, Conteo> tabla = new TablaHash<>();
+        /**
+         * Conteos en orden de primera aparición.
+         */
+        final Lista<Conteo> conteos = new Lista<>(1024);
+        /**
+         * Total de palabras contadas.
+         */
+        long total;
+
+        /**
+         * Suma otro parcial a éste. El otro debe corresponder a bloques
+         * posteriores del archivo, de modo que sus últimas apariciones
+         * reemplazan a las de éste.
+         *
+         * @param otro Parcial de bloques posteriores
+         */
+        void fusionar(Parcial otro) {
+            for (Conteo c : otro.conteos) {
+                Conteo propio = tabla.get(c.palabra);
+                if (propio == null) {
+                    tabla.put(c.palabra, c);
+                    conteos.agregarAlFinal(c);
+                } else {
+                    propio.cantidad += c.cantidad;
+                    propio.ultimaAparicion = c.ultimaAparicion;
+                }
+            }
+            total += otro.total;
+        }
+    }
+
+    /**
+     * Tarea que procesa un rango de bloques, dividiéndolo en dos mitades
+     * mientras contenga más de un bloque.
+     */
+    private static class TareaBloques extends RecursiveTask<Parcial> {
+        /**
+         * Versión de serialización; las tareas nunca se serializan.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Canal del archivo, compartido por todas las tareas.
+         */
+        private final transient FileChannel canal;
+        /**
+         * Codificación del archivo.
+         */
+        private final transient Charset codificacion;
+        /**
+         * Posiciones de inicio de los bloques; el bloque i termina donde
+         * empieza el i + 1. La última posición es el tamaño del archivo.
+         */
+        private final transient long[] limites;
+        /**
+         * Primer bloque del rango (inclusivo).
+         */
+        private final transient int desde;
+        /**
+         * Último bloque del rango (exclusivo).
+         */
+        private final transient int hasta;
+        /**
+         * Métricas del analizador destino.
+         */
+        private final transient MetricasCarga.Acumulador metricas;
+        /**
+         * Análisis léxico del analizador destino, o null.
+         */
+        private final transient AnalisisLexico analisis;
+
+        /**
+         * Constructor de la tarea.
+         *
+         * @param canal Canal del archivo
+         * @param codificacion Codificación del archivo
+         * @param limites Límites de los bloques
+         * @param desde Primer bloque (inclusivo)
+         * @param hasta Último bloque (exclusivo)
+         * @param metricas Métricas del analizador destino
+         * @param analisis Análisis léxico del analizador destino, o null
+         */
+        TareaBloques(FileChannel canal, Charset codificacion, long[] limites, int desde, int hasta,
+                     MetricasCarga.Acumulador metricas, AnalisisLexico analisis) {
+            this.canal = canal;
+            this.codificacion = codificacion;
+            this.limites = limites;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.metricas = metricas;
+            this.analisis = analisis;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if (hasta - desde == 1) {
+                try {
+                    return contarBloque(canal, codificacion, limites[desde], limites[desde + 1], desde,
+                                        metricas, analisis);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int medio = (desde + hasta) >>> 1;
+            TareaBloques derecha = new TareaBloques(canal, codificacion, limites, medio, hasta, metricas, analisis);
+            derecha.fork();
+            Parcial resultado = new TareaBloques(canal, codificacion, limites, desde, medio, metricas, analisis).compute();
+            resultado.fusionar(derecha.join());
+            return resultado;
+        }
+    }
+
+    /**
+     * Carga un archivo en el analizador usando todos los núcleos
+     * disponibles. El archivo se lee con la codificación por defecto
+     * de la plataforma, igual que la carga secuencial.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param rutaArchivo Ruta del archivo a cargar
+     * @throws IOException Si ocurre un error al leer el archivo
+     * @throws IllegalStateException si el analizador cuenta n-gramas
+     */
+    public static void cargar(AnalizadorBiblia analizador, String rutaArchivo) throws IOException {
+        cargar(analizador, rutaArchivo, Charset.defaultCharset());
+    }
+
+    /**
+     * Carga un archivo en el analizador usando todos los núcleos disponibles.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param rutaArchivo Ruta del archivo a cargar
+     * @param codificacion Codificación del archivo; no debe usar bytes
+     *                     de separador dentro de caracteres multibyte
+     * @throws IOException Si ocurre un error al leer el archivo
+     * @throws IllegalStateException si el analizador cuenta n-gramas, que
+     *                               los bloques no conservan
+     */
+    public static void cargar(AnalizadorBiblia analizador, String rutaArchivo, Charset codificacion)
+            throws IOException {
+        if (analizador.getNGramas() != null) {
+            throw new IllegalStateException("La carga paralela no cuenta n-gramas; use CargadorPorEtapas");
+        }
+        EventoCarga evento = new EventoCarga();
+        evento.begin();
+        MetricasCarga antes = analizador.getMetricas();
+        MetricasCarga.Acumulador metricas = analizador.acumuladorMetricas();
+        long inicio = System.nanoTime();
+        try (FileChannel canal = FileChannel.open(Paths.get(rutaArchivo), StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano == 0) return;
+
+            long[] limites = calcularLimites(canal, tamano, ForkJoinPool.getCommonPoolParallelism());
+            Parcial parcial;
+            try {
+                parcial = ForkJoinPool.commonPool().invoke(
+                        new TareaBloques(canal, codificacion, limites, 0, limites.length - 1, metricas,
+                                         analizador.getAnalisis()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            metricas.bytesLeidos.add(tamano);
+            if (!terminaEnSalto(canal, tamano)) {
+                metricas.lineas.increment();
+            }
+
+            long inicioInsercion = System.nanoTime();
+            long asignadosInicio = MetricasCarga.bytesAsignadosHiloActual();
+            fusionarEn(analizador, parcial);
+            metricas.sumarAsignados(asignadosInicio);
+            metricas.nanosInsercion.add(System.nanoTime() - inicioInsercion);
+        } finally {
+            metricas.nanosTotal.add(System.nanoTime() - inicio);
+        }
+        evento.registrar(rutaArchivo, "paralelo", antes, analizador.getMetricas());
+    }
+
+    /**
+     * Indica si el archivo termina con un salto de línea. Si no, su
+     * última línea no tiene salto y se cuenta aparte.
+     *
+     * @param canal Canal del archivo
+     * @param tamano Tamaño del archivo en bytes, mayor que cero
+     * @return true si el último byte es un salto de línea
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    private static boolean terminaEnSalto(FileChannel canal, long tamano) throws IOException {
+        ByteBuffer ultimo = ByteBuffer.allocate(1);
+        canal.read(ultimo, tamano - 1);
+        return ultimo.get(0) == '\n';
+    }
+
+    /**
+     * Divide el archivo en bloques que terminan justo después de un byte
+     * separador (o al final del archivo).
+     *
+     * @param canal Canal del archivo
+     * @param tamano Tamaño del archivo en bytes
+     * @param hilos Número de hilos disponibles
+     * @return Posiciones de inicio de cada bloque seguidas del tamaño del archivo
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    private static long[] calcularLimites(FileChannel canal, long tamano, int hilos) throws IOException {
+        long bloques = Math.max(1, Math.min(tamano / TAMANO_MINIMO_BLOQUE, (long) hilos * BLOQUES_POR_HILO));
+        bloques = Math.max(bloques, (tamano + TAMANO_MAXIMO_BLOQUE - 1) / TAMANO_MAXIMO_BLOQUE);
+        long tamanoBloque = (tamano + bloques - 1) / bloques;
+
+        Lista<Long> inicios = new Lista<>((int) bloques + 1);
+        inicios.agregarAlFinal(0L);
+        ByteBuffer sonda = ByteBuffer.allocate(4096);
+        long anterior = 0;
+        while (true) {
+            long corte = siguienteSeparador(canal, anterior + tamanoBloque, tamano, sonda);
+            if (corte >= tamano) break;
+            inicios.agregarAlFinal(corte);
+            anterior = corte;
+        }
+        inicios.agregarAlFinal(tamano);
+
+        long[] limites = new long[inicios.tamano()];
+        for (int i = 0; i < limites.length; i++) {
+            limites[i] = inicios.obtenerDe(i);
+        }
+        return limites;
+    }
+
+    /**
+     * Busca, a partir de una posición, la primera posición que sigue
+     * a un byte separador.
+     *
+     * @param canal Canal del archivo
+     * @param desde Posición desde la que buscar
+     * @param tamano Tamaño del archivo en bytes
+     * @param sonda Buffer auxiliar de lectura
+     * @return Posición inmediatamente posterior al separador, o el tamaño
+     *         del archivo si no hay más separadores
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    private static long siguienteSeparador(FileChannel canal, long desde, long tamano, ByteBuffer sonda)
+            throws IOException {
+        long posicion = desde;
+        while (posicion < tamano) {
+            sonda.clear();
+            int leidos = canal.read(sonda, posicion);
+            if (leidos <= 0) break;
+            for (int i = 0; i < leidos; i++) {
+                byte b = sonda.get(i);
+                if (b >= 0 && ProcesadorTexto.esSeparador((char) b)) {
+                    return posicion + i + 1;
+                }
+            }
+            posicion += leidos;
+        }
+        return tamano;
+    }
+
+    /**
+     * Mapea, decodifica y cuenta las palabras de un bloque.
+     *
+     * @param canal Canal del archivo
+     * @param codificacion Codificación del archivo
+     * @param inicio Posición inicial del bloque
+     * @param fin Posición final del bloque (exclusiva)
+     * @param indiceBloque Número de bloque dentro del archivo
+     * @param metricas Métricas del analizador destino
+     * @param analisis Análisis léxico del analizador destino, o null
+     * @return Conteos del bloque
+     * @throws IOException Si ocurre un error al mapear el archivo
+     */
+    private static Parcial contarBloque(FileChannel canal, Charset codificacion, long inicio, long fin,
+                                        int indiceBloque, MetricasCarga.Acumulador metricas,
+                                        AnalisisLexico analisis)
+            throws IOException {
+        long asignadosInicio = MetricasCarga.bytesAsignadosHiloActual();
+        long nanosLectura = 0, nanosTokenizacion = 0;
+        long saltos = 0;
+        MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio);
+        CharsetDecoder decodificador = codificacion.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        Parcial parcial = new Parcial();
+        Tokenizador tokenizador = new Tokenizador(analisis);
+        long base = (long) indiceBloque << 32;
+        CharBuffer caracteres = CharBuffer.allocate(CAPACIDAD_CARACTERES);
+        boolean terminado = false;
+
+        while (!terminado) {
+            long t0 = System.nanoTime();
+            CoderResult resultado = decodificador.decode(datos, caracteres, true);
+            if (resultado.isUnderflow()) {
+                decodificador.flush(caracteres);
+                terminado = true;
+            }
+            caracteres.flip();
+            long t1 = System.nanoTime();
+            nanosLectura += t1 - t0;
+
+            // Procesar hasta el último separador; el resto es una palabra incompleta
+            int corte = caracteres.limit();
+            if (!terminado) {
+                while (corte > caracteres.position()
+                        && !ProcesadorTexto.esSeparador(caracteres.get(corte - 1))) {
+                    corte--;
+                }
+            }
+            if (corte > caracteres.position()) {
+                char[] arreglo = caracteres.array();
+                for (int i = caracteres.position(); i < corte; i++) {
+                    if (arreglo[i] == '\n') saltos++;
+                }
+                tokenizador.reiniciar(new String(caracteres.array(), caracteres.position(),
+                                                  corte - caracteres.position()));
+                String palabra;
+                while ((palabra = tokenizador.siguiente()) != null) {
+                    Conteo c = parcial.tabla.get(palabra);
+                    if (c == null) {
+                        c = new Conteo(palabra);
+                        parcial.tabla.put(palabra, c);
+                        parcial.conteos.agregarAlFinal(c);
+                    }
+                    c.cantidad++;
+                    c.ultimaAparicion = base + parcial.total;
+                    parcial.total++;
+                }
+                caracteres.position(corte);
+            }
+            nanosTokenizacion += System.nanoTime() - t1;
+
+            if (!terminado && caracteres.position() == 0) {
+                // Palabra más larga que el buffer: ampliarlo
+                CharBuffer mayor = CharBuffer.allocate(caracteres.capacity() * 2);
+                mayor.put(caracteres);
+                caracteres = mayor;
+            } else {
+                caracteres.compact();
+            }
+        }
+        metricas.lineas.add(saltos);
+        metricas.palabrasRechazadas.add(tokenizador.getRechazadas());
+        metricas.nanosLectura.add(nanosLectura);
+        metricas.nanosTokenizacion.add(nanosTokenizacion);
+        metricas.sumarAsignados(asignadosInicio);
+        return parcial;
+    }
+
+    /**
+     * Suma los conteos fusionados al analizador y actualiza la palabra
+     * más repetida. Entre las palabras que terminan con el mayor número
+     * de repeticiones gana la de última aparición más temprana, que es
+     * la que alcanzó ese número primero.
+     *
+     * @param analizador Analizador destino
+     * @param parcial Conteos de todo el archivo
+     */
+    private static void fusionarEn(AnalizadorBiblia analizador, Parcial parcial) {
+        String mejorPalabra = null;
+        int mejorCantidad = 0;
+        long mejorAparicion = Long.MAX_VALUE;
+
+        for (Conteo c : parcial.conteos) {
+            int total = analizador.sumarRepeticiones(c.palabra, c.cantidad);
+            if (total > mejorCantidad || (total == mejorCantidad && c.ultimaAparicion < mejorAparicion)) {
+                mejorPalabra = c.palabra;
+                mejorCantidad = total;
+                mejorAparicion = c.ultimaAparicion;
+            }
+        }
+        if (mejorPalabra != null) {
+            analizador.proponerMasRepetida(mejorPalabra, mejorCantidad);
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package modelo;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+import util.AnalisisLexico;
+import util.Tokenizador;
+
+/**
+ * Carga de archivos de texto en tres etapas que trabajan a la vez:
+ * <ol>
+ *   <li><b>Lectura:</b> un hilo lee el archivo y agrupa las líneas en
+ *       lotes numerados de {@value #LINEAS_POR_LOTE} líneas. Es la etapa
+ *       que espera por la entrada/salida, por lo que corre en un hilo
+ *       virtual.</li>
+ *   <li><b>Tokenización:</b> varios hilos trabajadores separan y
+ *       normalizan las palabras de cada lote, cada uno con su propio
+ *       {@link Tokenizador}.</li>
+ *   <li><b>Agregación:</b> el hilo que llamó a {@code cargar} suma las
+ *       palabras al {@link AnalizadorBiblia} (y al {@link IndiceInvertido},
+ *       si se indicó uno) en el orden original de los lotes.</li>
+ * </ol>
+ *
+ * <p>Las etapas se comunican con colas acotadas, y un semáforo limita el
+ * número total de lotes en vuelo: si la agregación se retrasa, la lectura
+ * se detiene en lugar de acumular el archivo en memoria. Como los lotes se
+ * aplican en orden, el resultado (conteos, palabra más repetida, n-gramas
+ * e índice) es idéntico al de llamar a
+ * {@link AnalizadorBiblia#procesarTexto(String)} línea por línea.
+ *
+ * <p>Cada etapa registra en las {@link MetricasCarga} del analizador los
+ * bytes leídos, el tiempo que trabajó (sin contar las esperas en las
+ * colas) y la memoria que asignó; al terminar se emite un
+ * {@link EventoCarga} de JFR.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class CargadorPorEtapas {
+
+    /**
+     * Número de líneas de cada lote.
+     */
+    public static final int LINEAS_POR_LOTE = 256;
+
+    /**
+     * Lotes en vuelo permitidos por cada trabajador.
+     */
+    private static final int LOTES_POR_TRABAJADOR = 4;
+
+    /**
+     * Intervalo mínimo entre dos avisos de progreso, en milisegundos.
+     */
+    public static final int INTERVALO_PROGRESO_MS = 200;
+
+    /**
+     * Lote que marca el fin de la entrada en las colas.
+     */
+    private static final Lote FIN = new Lote(-1, new String[0], 0, 0);
+
+    /**
+     * Líneas de un tramo del archivo y, una vez tokenizadas, sus palabras.
+     */
+    private static class Lote {
+        /**
+         * Posición del lote dentro del archivo, desde 0.
+         */
+        final long numero;
+        /**
+         * Líneas del lote; se liberan al tokenizarlo.
+         */
+        String[] lineas;
+        /**
+         * Número de líneas del lote.
+         */
+        final int cantidadLineas;
+        /**
+         * Palabras normalizadas de todas las líneas, en orden.
+         */
+        String[] palabras;
+        /**
+         * Posición en {@link #palabras} donde termina cada línea.
+         */
+        int[] finLinea;
+        /**
+         * Bytes del archivo leídos al terminar de leer el lote.
+         */
+        final long bytes;
+
+        /**
+         * Constructor de un lote sin tokenizar.
+         *
+         * @param numero Posición del lote
+         * @param lineas Líneas del lote
+         * @param cantidadLineas Número de líneas usadas del arreglo
+         * @param bytes Bytes leídos al terminar de leer el lote
+         */
+        Lote(long numero, String[] lineas, int cantidadLineas, long bytes) {
+            this.numero = numero;
+            this.lineas = lineas;
+            this.cantidadLineas = cantidadLineas;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Flujo que cuenta los bytes que se leen de otro. Sólo lo usa el hilo
+     * que lee de él.
+     */
+    static class EntradaContada extends FilterInputStream {
+        /**
+         * Bytes leídos hasta el momento.
+         */
+        long leidos;
+
+        /**
+         * Constructor del flujo.
+         *
+         * @param entrada Flujo original
+         */
+        EntradaContada(InputStream entrada) {
+            super(entrada);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) leidos++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int desde, int largo) throws IOException {
+            int n = super.read(b, desde, largo);
+            if (n > 0) leidos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long saltados = super.skip(n);
+            leidos += saltados;
+            return saltados;
+        }
+    }
+
+    /**
+     * Número de hilos de la etapa de tokenización.
+     */
+    private final int trabajadores;
+    /**
+     * Indica si la etapa de lectura usa un hilo virtual cuando existen.
+     */
+    private boolean hilosVirtuales;
+    /**
+     * Índice que se construye durante la carga, o null.
+     */
+    private IndiceInvertido indice;
+    /**
+     * Recibe los bytes agregados hasta el momento, o null.
+     */
+    private LongConsumer progreso;
+
+    /**
+     * Constructor con un trabajador por núcleo disponible.
+     */
+    public CargadorPorEtapas() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor con un número dado de trabajadores.
+     *
+     * @param trabajadores Número de hilos que tokenizan
+     * @throws IllegalArgumentException si trabajadores no es positivo
+     */
+    public CargadorPorEtapas(int trabajadores) {
+        if (trabajadores <= 0) {
+            throw new IllegalArgumentException("El número de trabajadores debe ser positivo");
+        }
+        this.trabajadores = trabajadores;
+        this.hilosVirtuales = true;
+    }
+
+    /**
+     * Establece si la etapa de lectura usa un hilo virtual o uno de
+     * plataforma.
+     *
+     * @param hilosVirtuales true para usar un hilo virtual
+     */
+    public void setHilosVirtuales(boolean hilosVirtuales) {
+        this.hilosVirtuales = hilosVirtuales;
+    }
+
+    /**
+     * Establece un índice de versículos que se construirá con las mismas
+     * líneas durante la carga. El índice recibe las palabras ya
+     * analizadas, por lo que debe tener el mismo análisis léxico que el
+     * analizador.
+     *
+     * @param indice Índice vacío, o null para no indexar
+     */
+    public void setIndice(IndiceInvertido indice) {
+        this.indice = indice;
+    }
+
+    /**
+     * Establece una función que recibe los bytes del archivo ya leídos
+     * y agregados al analizador. Se llama desde el hilo de agregación
+     * como máximo una vez cada {@value #INTERVALO_PROGRESO_MS} ms, y una
+     * última vez al terminar con el total de bytes.
+     *
+     * @param progreso Función de progreso, o null
+     */
+    public void setProgreso(LongConsumer progreso) {
+        this.progreso = progreso;
+    }
+
+    /**
+     * Obtiene el número de hilos de la etapa de tokenización.
+     *
+     * @return Número de trabajadores
+     */
+    public int getTrabajadores() {
+        return trabajadores;
+    }
+
+    /**
+     * Carga un archivo con la codificación por defecto de la plataforma,
+     * igual que la carga secuencial.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param rutaArchivo Ruta del archivo a cargar
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    public void cargar(AnalizadorBiblia analizador, String rutaArchivo) throws IOException {
+        cargar(analizador, rutaArchivo, Charset.defaultCharset());
+    }
+
+    /**
+     * Carga un archivo con una codificación dada.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param rutaArchivo Ruta del archivo a cargar
+     * @param codificacion Codificación del archivo
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    public void cargar(AnalizadorBiblia analizador, String rutaArchivo, Charset codificacion)
+            throws IOException {
+        try (InputStream entrada = Files.newInputStream(Paths.get(rutaArchivo))) {
+            cargar(analizador, entrada, codificacion, rutaArchivo);
+        }
+    }
+
+    /**
+     * Carga todas las líneas de un flujo de bytes. El flujo no se cierra.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param entrada Flujo con el texto
+     * @param codificacion Codificación del texto
+     * @throws IOException Si ocurre un error al leer o si el hilo que
+     *                     llama es interrumpido
+     */
+    public void cargar(AnalizadorBiblia analizador, InputStream entrada, Charset codificacion)
+            throws IOException {
+        cargar(analizador, entrada, codificacion, "(flujo)");
+    }
+
+    /**
+     * Carga todas las líneas de un flujo de bytes y registra sus métricas.
+     *
+     * @param analizador Analizador donde se agregan las palabras
+     * @param entrada Flujo con el texto
+     * @param codificacion Codificación del texto
+     * @param nombre Nombre del origen para el evento de JFR
+     * @throws IOException Si ocurre un error al leer o si el hilo que
+     *                     llama es interrumpido
+     * @throws IllegalArgumentException si el índice y el analizador no
+     *                                  tienen el mismo análisis léxico
+     */
+    void cargar(AnalizadorBiblia analizador, InputStream entrada, Charset codificacion, String nombre)
+            throws IOException {
+        if (indice != null && indice.getAnalisis() != analizador.getAnalisis()) {
+            throw new IllegalArgumentException("El índice y el analizador deben tener el mismo análisis léxico");
+        }
+        EventoCarga evento = new EventoCarga();
+        evento.begin();
+        MetricasCarga antes = analizador.getMetricas();
+        MetricasCarga.Acumulador metricas = analizador.acumuladorMetricas();
+        long inicio = System.nanoTime();
+        long asignadosInicio = MetricasCarga.bytesAsignadosHiloActual();
+
+        EntradaContada contada = new EntradaContada(entrada);
+        BufferedReader lector = new BufferedReader(new InputStreamReader(contada, codificacion));
+        int enVuelo = trabajadores * LOTES_POR_TRABAJADOR;
+        Semaphore permisos = new Semaphore(enVuelo);
+        BlockingQueue<Lote> porTokenizar = new ArrayBlockingQueue<>(enVuelo + trabajadores);
+        BlockingQueue<Lote> tokenizados = new ArrayBlockingQueue<>(enVuelo + trabajadores);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        AnalisisLexico analisis = analizador.getAnalisis();
+
+        Thread[] hilos = new Thread[trabajadores + 1];
+        hilos[0] = nuevoHilo(() -> leer(lector, contada, porTokenizar, permisos, error, metricas),
+                "cargador-lectura", hilosVirtuales);
+        for (int i = 1; i < hilos.length; i++) {
+            hilos[i] = nuevoHilo(() -> tokenizar(porTokenizar, tokenizados, error, metricas, analisis),
+                    "cargador-tokenizacion-" + i, false);
+        }
+        for (Thread hilo : hilos) {
+            hilo.start();
+        }
+
+        try {
+            agregar(analizador, tokenizados, permisos, enVuelo, error);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Carga interrumpida");
+        } finally {
+            // Si la agregación terminó antes de tiempo, liberar a las demás etapas
+            for (Thread hilo : hilos) {
+                hilo.interrupt();
+            }
+            metricas.sumarAsignados(asignadosInicio);
+            metricas.nanosTotal.add(System.nanoTime() - inicio);
+        }
+
+        Throwable causa = error.get();
+        if (causa instanceof IOException) throw (IOException) causa;
+        if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+        if (causa instanceof Error) throw (Error) causa;
+
+        if (progreso != null) progreso.accept(contada.leidos);
+        evento.registrar(nombre, "etapas", antes, analizador.getMetricas());
+    }
+
+    /**
+     * Etapa de lectura: agrupa las líneas en lotes y los encola. Antes de
+     * cada lote espera un permiso, que la agregación devuelve al aplicarlo.
+     * Al terminar, o ante un error, encola una marca de fin por trabajador;
+     * las colas tienen lugar para los lotes en vuelo más esas marcas, así
+     * que encolarlas nunca bloquea.
+     *
+     * @param lector Lector de líneas
+     * @param contada Flujo que cuenta los bytes leídos por el lector
+     * @param porTokenizar Cola hacia los trabajadores
+     * @param permisos Permisos de lotes en vuelo
+     * @param error Primer error de cualquier etapa
+     * @param metricas Métricas del analizador
+     */
+    private void leer(BufferedReader lector, EntradaContada contada, BlockingQueue<Lote> porTokenizar,
+                      Semaphore permisos, AtomicReference<Throwable> error, MetricasCarga.Acumulador metricas) {
+        long asignadosInicio = MetricasCarga.bytesAsignadosHiloActual();
+        long bytesAnteriores = 0;
+        try {
+            long numero = 0;
+            String[] lineas = new String[LINEAS_POR_LOTE];
+            int cantidad = 0;
+            long inicioLote = System.nanoTime();
+            String linea;
+            while (error.get() == null && (linea = lector.readLine()) != null) {
+                lineas[cantidad++] = linea;
+                if (cantidad == LINEAS_POR_LOTE) {
+                    metricas.nanosLectura.add(System.nanoTime() - inicioLote);
+                    metricas.bytesLeidos.add(contada.leidos - bytesAnteriores);
+                    bytesAnteriores = contada.leidos;
+                    permisos.acquire();
+                    porTokenizar.put(new Lote(numero++, lineas, cantidad, contada.leidos));
+                    lineas = new String[LINEAS_POR_LOTE];
+                    cantidad = 0;
+                    inicioLote = System.nanoTime();
+                }
+            }
+            metricas.nanosLectura.add(System.nanoTime() - inicioLote);
+            metricas.bytesLeidos.add(contada.leidos - bytesAnteriores);
+            if (cantidad > 0 && error.get() == null) {
+                permisos.acquire();
+                porTokenizar.put(new Lote(numero, lineas, cantidad, contada.leidos));
+            }
+        } catch (InterruptedException e) {
+            // La agregación terminó o fue interrumpida; no queda nadie esperando
+        } catch (IOException | RuntimeException | Error e) {
+            error.compareAndSet(null, e);
+        } finally {
+            try {
+                for (int i = 0; i < trabajadores; i++) {
+                    porTokenizar.put(FIN);
+                }
+            } catch (InterruptedException e) {
+                // Sólo la agregación interrumpe, al terminar; nadie espera las marcas
+            }
+            metricas.sumarAsignados(asignadosInicio);
+        }
+    }
+
+    /**
+     * Etapa de tokenización: separa y normaliza las palabras de cada lote
+     * hasta recibir la marca de fin, que reenvía a la agregación. Si falla,
+     * también envía la marca para que la agregación no espere su lote.
+     *
+     * @param porTokenizar Cola desde la lectura
+     * @param tokenizados Cola hacia la agregación
+     * @param error Primer error de cualquier etapa
+     * @param metricas Métricas del analizador
+     * @param analisis Análisis léxico del analizador, o null
+     */
+    private static void tokenizar(BlockingQueue<Lote> porTokenizar, BlockingQueue<Lote> tokenizados,
+                                  AtomicReference<Throwable> error, MetricasCarga.Acumulador metricas,
+                                  AnalisisLexico analisis) {
+        long asignadosInicio = MetricasCarga.bytesAsignadosHiloActual();
+        Tokenizador tokenizador = new Tokenizador(analisis);
+        try {
+            Lote lote;
+            while ((lote = porTokenizar.take()) != FIN) {
+                long inicio = System.nanoTime();
+                long rechazadas = tokenizador.getRechazadas();
+                String[] palabras = new String[lote.cantidadLineas * 16];
+                int[] finLinea = new int[lote.cantidadLineas];
+                int cantidad = 0;
+                for (int i = 0; i < lote.cantidadLineas; i++) {
+                    tokenizador.reiniciar(lote.lineas[i]);
+                    String palabra;
+                    while ((palabra = tokenizador.siguiente()) != null) {
+                        if (cantidad == palabras.length) {
+                            palabras = java.util.Arrays.copyOf(palabras, cantidad * 2);
+                        }
+                        palabras[cantidad++] = palabra;
+                    }
+                    finLinea[i] = cantidad;
+                }
+                lote.lineas = null;
+                lote.palabras = palabras;
+                lote.finLinea = finLinea;
+                metricas.palabrasRechazadas.add(tokenizador.getRechazadas() - rechazadas);
+                metricas.nanosTokenizacion.add(System.nanoTime() - inicio);
+                tokenizados.put(lote);
+            }
+        } catch (InterruptedException e) {
+            // La agregación terminó o fue interrumpida; no queda nadie esperando
+        } catch (RuntimeException | Error e) {
+            error.compareAndSet(null, e);
+        } finally {
+            try {
+                tokenizados.put(FIN);
+            } catch (InterruptedException e) {
+                // Sólo la agregación interrumpe, al terminar; nadie espera la marca
+            }
+            metricas.sumarAsignados(asignadosInicio);
+        }
+    }
+
+    /**
+     * Etapa de agregación: aplica los lotes en orden de número. Los lotes
+     * que llegan adelantados esperan en un búfer circular; como nunca hay
+     * más de {@code enVuelo} lotes sin aplicar, cada número pendiente
+     * ocupa una casilla distinta.
+     *
+     * @param analizador Analizador destino
+     * @param tokenizados Cola desde los trabajadores
+     * @param permisos Permisos de lotes en vuelo
+     * @param enVuelo Número máximo de lotes en vuelo
+     * @param error Primer error de cualquier etapa
+     * @throws InterruptedException Si el hilo es interrumpido
+     */
+    private void agregar(AnalizadorBiblia analizador, BlockingQueue<Lote> tokenizados, Semaphore permisos,
+                         int enVuelo, AtomicReference<Throwable> error) throws InterruptedException {
+        MetricasCarga.Acumulador metricas = analizador.acumuladorMetricas();
+        Lote[] pendientes = new Lote[enVuelo];
+        long siguiente = 0;
+        long ultimoProgreso = System.nanoTime();
+        int finales = 0;
+        while (finales < trabajadores) {
+            Lote lote = tokenizados.take();
+            if (lote == FIN) {
+                // Ante un error no se esperan los lotes que faltan
+                if (error.get() != null) return;
+                finales++;
+                continue;
+            }
+            pendientes[(int) (lote.numero % enVuelo)] = lote;
+
+            int casilla;
+            while ((lote = pendientes[casilla = (int) (siguiente % enVuelo)]) != null
+                    && lote.numero == siguiente) {
+                pendientes[casilla] = null;
+                long inicio = System.nanoTime();
+                aplicar(analizador, lote);
+                long fin = System.nanoTime();
+                metricas.nanosInsercion.add(fin - inicio);
+                permisos.release();
+                siguiente++;
+                if (progreso != null && fin - ultimoProgreso >= INTERVALO_PROGRESO_MS * 1_000_000L) {
+                    progreso.accept(lote.bytes);
+                    ultimoProgreso = fin;
+                }
+            }
+        }
+    }
+
+    /**
+     * Suma las palabras de un lote al analizador y al índice, línea por línea.
+     *
+     * @param analizador Analizador destino
+     * @param lote Lote tokenizado
+     */
+    private void aplicar(AnalizadorBiblia analizador, Lote lote) {
+        int desde = 0;
+        for (int i = 0; i < lote.cantidadLineas; i++) {
+            int hasta = lote.finLinea[i];
+            analizador.procesarPalabras(lote.palabras, desde, hasta);
+            if (indice != null) indice.agregarPalabras(lote.palabras, desde, hasta);
+            desde = hasta;
+        }
+    }
+
+    /**
+     * Crea un hilo sin iniciarlo.
+     *
+     * @param tarea Tarea del hilo
+     * @param nombre Nombre del hilo
+     * @param virtual true para un hilo virtual, false para un hilo de
+     *                plataforma de tipo daemon
+     * @return Hilo sin iniciar
+     */
+    private static Thread nuevoHilo(Runnable tarea, String nombre, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(nombre).unstarted(tarea);
+        }
+        Thread hilo = new Thread(tarea, nombre);
+        hilo.setDaemon(true);
+        return hilo;
+    }
+}
@@ -0,0 +1,570 @@
+package modelo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import util.AnalisisLexico;
+import util.Tokenizador;
+
+/**
+ * Conteo exacto de palabras con memoria acotada, para textos cuyo
+ * vocabulario no cabe en el heap.
+ *
+ * <p>Las palabras se cuentan en un {@link Vocabulario} en memoria. Cuando
+ * éste llega al número máximo de palabras distintas, se vuelca a disco
+ * como una corrida: los pares (palabra, repeticiones) en orden
+ * alfabético, y se empieza un vocabulario vacío. {@link #fusion()} combina
+ * las corridas con una mezcla de k vías que suma las repeticiones de las
+ * palabras iguales y entrega la tabla de frecuencias exacta, en orden
+ * alfabético, en una sola pasada secuencial sobre las corridas.
+ *
+ * <p>La memoria no depende del tamaño del texto: el vocabulario tiene a
+ * lo sumo el máximo de palabras y la mezcla guarda una palabra y un
+ * buffer por corrida. Para que tampoco crezca el número de corridas, se
+ * organizan por niveles: cuando hay {@value #CORRIDAS_POR_MEZCLA}
+ * corridas de un mismo nivel, se mezclan en una del nivel siguiente. Así
+ * cada palabra se reescribe a lo sumo una vez por nivel y quedan menos de
+ * {@value #CORRIDAS_POR_MEZCLA} corridas por nivel, con un número de
+ * niveles logarítmico en el tamaño del texto.
+ *
+ * <p>Formato de una corrida:
+ * <pre>
+ * int     magia "ABCX"
+ * por registro: palabra (DataOutput.writeUTF), int repeticiones
+ * palabra vacía como marca de fin
+ * </pre>
+ *
+ * <p>Las corridas se crean como archivos temporales y se borran con
+ * {@link #close()}. No debe procesarse texto mientras haya una
+ * {@link Fusion} abierta.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class ContadorExterno implements Closeable {
+
+    /**
+     * Número de corridas de un mismo nivel que se mezclan en una del
+     * nivel siguiente.
+     */
+    public static final int CORRIDAS_POR_MEZCLA = 16;
+
+    /**
+     * Número mágico al inicio de cada corrida.
+     */
+    private static final int MAGIA = 0x41424358;
+
+    /**
+     * Tamaño del buffer de lectura y escritura de cada corrida.
+     */
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    /**
+     * Número máximo de palabras distintas en memoria.
+     */
+    private final int maxPalabras;
+
+    /**
+     * Directorio de las corridas.
+     */
+    private final Path directorio;
+
+    /**
+     * Palabras contadas desde la última corrida.
+     */
+    private Vocabulario vocabulario;
+
+    /**
+     * Corridas en orden de creación; sus niveles nunca aumentan de una a
+     * la siguiente.
+     */
+    private Lista<Corrida> corridas;
+
+    /**
+     * Contador total de palabras procesadas (incluyendo repeticiones).
+     */
+    private long totalPalabras;
+
+    /**
+     * Tokenizador reutilizable que separa y normaliza cada línea.
+     */
+    private Tokenizador tokenizador;
+
+    /**
+     * Análisis léxico que se aplica a cada palabra, o null si no hay.
+     */
+    private AnalisisLexico analisis;
+
+    /**
+     * Constructor que guarda las corridas en el directorio temporal del
+     * sistema.
+     *
+     * @param maxPalabras Número máximo de palabras distintas en memoria
+     * @throws IllegalArgumentException si maxPalabras no es positivo
+     */
+    public ContadorExterno(int maxPalabras) {
+        this(maxPalabras, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Constructor que guarda las corridas en un directorio dado.
+     *
+     * @param maxPalabras Número máximo de palabras distintas en memoria
+     * @param directorio Directorio existente de las corridas
+     * @throws IllegalArgumentException si maxPalabras no es positivo o el
+     *         directorio es null
+     */
+    public ContadorExterno(int maxPalabras, Path directorio) {
+        if (maxPalabras <= 0) {
+            throw new IllegalArgumentException("El máximo de palabras debe ser positivo");
+        }
+        if (directorio == null) {
+            throw new IllegalArgumentException("El directorio no puede ser null");
+        }
+        this.maxPalabras = maxPalabras;
+        this.directorio = directorio;
+        this.vocabulario = new Vocabulario();
+        this.corridas = new Lista<>(CORRIDAS_POR_MEZCLA);
+        this.tokenizador = new Tokenizador();
+    }
+
+    /**
+     * Establece el análisis léxico que se aplica a cada palabra después de
+     * normalizarla, igual que {@link AnalizadorBiblia#setAnalisis(AnalisisLexico)}.
+     *
+     * @param analisis Análisis léxico, o null para contar las palabras
+     *                 sólo normalizadas
+     * @throws IllegalStateException si el contador ya procesó texto
+     */
+    public void setAnalisis(AnalisisLexico analisis) {
+        if (totalPalabras > 0) {
+            throw new IllegalStateException("El análisis léxico sólo se puede cambiar en un contador vacío");
+        }
+        this.analisis = analisis;
+        tokenizador = new Tokenizador(analisis);
+    }
+
+    /**
+     * Obtiene el análisis léxico del contador.
+     *
+     * @return Análisis léxico, o null si las palabras sólo se normalizan
+     */
+    public AnalisisLexico getAnalisis() {
+        return analisis;
+    }
+
+    /**
+     * Procesa una línea de texto dividiéndola en palabras individuales
+     * y contándolas. Si el vocabulario en memoria supera el máximo, lo
+     * vuelca a una corrida.
+     *
+     * @param texto Línea de texto a procesar
+     * @throws IOException Si ocurre un error al escribir una corrida
+     */
+    public void procesarTexto(String texto) throws IOException {
+        tokenizador.reiniciar(texto);
+        String palabra;
+        while ((palabra = tokenizador.siguiente()) != null) {
+            vocabulario.sumar(vocabulario.agregar(palabra), 1);
+            totalPalabras++;
+            if (vocabulario.size() >= maxPalabras) {
+                volcar();
+            }
+        }
+    }
+
+    /**
+     * Carga un archivo de texto, comprimido con gzip o agrupado en un zip,
+     * línea por línea.
+     *
+     * @param rutaArchivo Ruta del archivo
+     * @param codificacion Codificación del texto descomprimido
+     * @throws IOException Si ocurre un error al leer el archivo o al
+     *                     escribir una corrida
+     */
+    public void cargar(String rutaArchivo, Charset codificacion) throws IOException {
+        try {
+            CargadorComprimido.leerLineas(rutaArchivo, codificacion, linea -> {
+                try {
+                    procesarTexto(linea);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Escribe el vocabulario en memoria como una corrida ordenada y lo
+     * reemplaza por uno vacío, y luego mezcla las corridas de los niveles
+     * que se llenaron.
+     *
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void volcar() throws IOException {
+        int cantidad = vocabulario.size();
+        if (cantidad == 0) return;
+        String[] palabras = new String[cantidad];
+        for (int id = 0; id < cantidad; id++) {
+            palabras[id] = vocabulario.palabra(id);
+        }
+        Arrays.sort(palabras);
+
+        Path ruta = Files.createTempFile(directorio, "corrida", ".run");
+        try (DataOutputStream salida = abrirEscritura(ruta)) {
+            for (String palabra : palabras) {
+                salida.writeUTF(palabra);
+                salida.writeInt(vocabulario.repeticiones(vocabulario.id(palabra)));
+            }
+            salida.writeUTF("");
+        }
+        corridas.agregarAlFinal(new Corrida(ruta, 0));
+        vocabulario = new Vocabulario();
+        compactar();
+    }
+
+    /**
+     * Mientras las últimas {@value #CORRIDAS_POR_MEZCLA} corridas sean del
+     * mismo nivel, las mezcla en una del nivel siguiente y borra las
+     * originales. Como los niveles no aumentan a lo largo de la lista, las
+     * corridas de un nivel siempre están juntas al final.
+     *
+     * @throws IOException Si ocurre un error al leer o escribir
+     */
+    private void compactar() throws IOException {
+        while (corridas.tamano() >= CORRIDAS_POR_MEZCLA) {
+            int primera = corridas.tamano() - CORRIDAS_POR_MEZCLA;
+            int nivel = corridas.obtenerDe(corridas.tamano() - 1).nivel;
+            if (corridas.obtenerDe(primera).nivel != nivel) return;
+
+            Path[] rutas = new Path[CORRIDAS_POR_MEZCLA];
+            for (int i = 0; i < rutas.length; i++) {
+                rutas[i] = corridas.obtenerDe(primera + i).ruta;
+            }
+            Path ruta = Files.createTempFile(directorio, "corrida", ".run");
+            try (Fusion fusion = new Fusion(rutas);
+                 DataOutputStream salida = abrirEscritura(ruta)) {
+                Frecuencia frecuencia;
+                while ((frecuencia = fusion.siguiente()) != null) {
+                    salida.writeUTF(frecuencia.getPalabra());
+                    salida.writeInt(frecuencia.getRepeticiones());
+                }
+                salida.writeUTF("");
+            }
+            for (Path mezclada : rutas) {
+                Files.deleteIfExists(mezclada);
+                corridas.eliminarDe(corridas.tamano() - 1);
+            }
+            corridas.agregarAlFinal(new Corrida(ruta, nivel + 1));
+        }
+    }
+
+    /**
+     * Abre una corrida para escribir y escribe su cabecera.
+     *
+     * @param ruta Archivo de la corrida
+     * @return Flujo de escritura con buffer
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private static DataOutputStream abrirEscritura(Path ruta) throws IOException {
+        DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(ruta), TAMANO_BUFFER));
+        salida.writeInt(MAGIA);
+        return salida;
+    }
+
+    /**
+     * Vuelca las palabras en memoria y abre una mezcla de todas las
+     * corridas.
+     *
+     * @return Fusión que entrega la tabla de frecuencias en orden
+     *         alfabético; debe cerrarse
+     * @throws IOException Si ocurre un error al escribir o abrir las corridas
+     */
+    public Fusion fusion() throws IOException {
+        volcar();
+        Path[] rutas = new Path[corridas.tamano()];
+        for (int i = 0; i < rutas.length; i++) {
+            rutas[i] = corridas.obtenerDe(i).ruta;
+        }
+        return new Fusion(rutas);
+    }
+
+    /**
+     * Obtiene el total de palabras procesadas incluyendo repeticiones.
+     *
+     * @return Número total de palabras procesadas
+     */
+    public long getTotalPalabras() {
+        return totalPalabras;
+    }
+
+    /**
+     * Obtiene el número de corridas en disco.
+     *
+     * @return Número de corridas
+     */
+    public int getCorridas() {
+        return corridas.tamano();
+    }
+
+    /**
+     * Obtiene el número máximo de palabras distintas en memoria.
+     *
+     * @return Máximo de palabras
+     */
+    public int getMaxPalabras() {
+        return maxPalabras;
+    }
+
+    /**
+     * Borra las corridas del disco y descarta los conteos.
+     *
+     * @throws IOException Si no se puede borrar alguna corrida
+     */
+    @Override
+    public void close() throws IOException {
+        for (Corrida corrida : corridas) {
+            Files.deleteIfExists(corrida.ruta);
+        }
+        corridas = new Lista<>(CORRIDAS_POR_MEZCLA);
+        vocabulario = new Vocabulario();
+        totalPalabras = 0;
+    }
+
+    /**
+     * Mezcla de k vías de un conjunto de corridas. Un montículo de mínimos
+     * ordena las corridas por su palabra actual; en cada paso se retiran
+     * todas las que tienen la palabra menor y se suman sus repeticiones.
+     */
+    public static final class Fusion implements Closeable {
+        /**
+         * Corridas abiertas organizadas como montículo por palabra actual.
+         */
+        private final Lector[] monticulo;
+        /**
+         * Número de corridas con registros pendientes.
+         */
+        private int cantidad;
+        /**
+         * Palabras distintas entregadas hasta el momento.
+         */
+        private long palabrasUnicas;
+
+        /**
+         * Constructor que abre todas las corridas.
+         *
+         * @param rutas Archivos de las corridas
+         * @throws IOException Si alguna corrida no se puede abrir o no es válida
+         */
+        private Fusion(Path[] rutas) throws IOException {
+            monticulo = new Lector[rutas.length];
+            try {
+                for (Path corrida : rutas) {
+                    Lector lector = new Lector(corrida);
+                    if (lector.avanzar()) {
+                        monticulo[cantidad++] = lector;
+                        flotar(cantidad - 1);
+                    } else {
+                        lector.close();
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Obtiene la siguiente palabra en orden alfabético, con la suma de
+         * sus repeticiones en todas las corridas.
+         *
+         * @return Par palabra-repeticiones, o null si no quedan palabras
+         * @throws IOException Si ocurre un error al leer una corrida
+         */
+        public Frecuencia siguiente() throws IOException {
+            if (cantidad == 0) return null;
+            String palabra = monticulo[0].palabra;
+            int repeticiones = 0;
+            while (cantidad > 0 && monticulo[0].palabra.equals(palabra)) {
+                Lector menor = monticulo[0];
+                repeticiones += menor.repeticiones;
+                if (!menor.avanzar()) {
+                    menor.close();
+                    monticulo[0] = monticulo[--cantidad];
+                    monticulo[cantidad] = null;
+                }
+                if (cantidad > 0) hundir(0);
+            }
+            palabrasUnicas++;
+            return new Frecuencia(palabra, repeticiones);
+        }
+
+        /**
+         * Obtiene el número de palabras distintas entregadas hasta el
+         * momento; al terminar, el de toda la tabla.
+         *
+         * @return Palabras distintas entregadas
+         */
+        public long getPalabrasUnicas() {
+            return palabrasUnicas;
+        }
+
+        /**
+         * Sube una corrida mientras su palabra sea menor que la de su padre.
+         *
+         * @param k Posición de la corrida
+         */
+        private void flotar(int k) {
+            while (k > 0) {
+                int padre = (k - 1) / 2;
+                if (monticulo[k].palabra.compareTo(monticulo[padre].palabra) >= 0) break;
+                intercambiar(k, padre);
+                k = padre;
+            }
+        }
+
+        /**
+         * Baja una corrida mientras alguno de sus hijos tenga una palabra menor.
+         *
+         * @param k Posición de la corrida
+         */
+        private void hundir(int k) {
+            while (2 * k + 1 < cantidad) {
+                int hijo = 2 * k + 1;
+                if (hijo + 1 < cantidad && monticulo[hijo + 1].palabra.compareTo(monticulo[hijo].palabra) < 0) {
+                    hijo++;
+                }
+                if (monticulo[hijo].palabra.compareTo(monticulo[k].palabra) >= 0) break;
+                intercambiar(k, hijo);
+                k = hijo;
+            }
+        }
+
+        /**
+         * Intercambia dos corridas del montículo.
+         *
+         * @param i Posición de la primera corrida
+         * @param j Posición de la segunda corrida
+         */
+        private void intercambiar(int i, int j) {
+            Lector t = monticulo[i];
+            monticulo[i] = monticulo[j];
+            monticulo[j] = t;
+        }
+
+        /**
+         * Cierra las corridas que quedan abiertas.
+         *
+         * @throws IOException Si ocurre un error al cerrar
+         */
+        @Override
+        public void close() throws IOException {
+            for (int i = 0; i < cantidad; i++) {
+                monticulo[i].close();
+                monticulo[i] = null;
+            }
+            cantidad = 0;
+        }
+    }
+
+    /**
+     * Archivo de una corrida y su nivel: 0 si viene directamente de la
+     * memoria, n + 1 si mezcla corridas de nivel n.
+     */
+    private static final class Corrida {
+        /**
+         * Archivo de la corrida.
+         */
+        final Path ruta;
+        /**
+         * Nivel de la corrida.
+         */
+        final int nivel;
+
+        /**
+         * Constructor de una corrida.
+         *
+         * @param ruta Archivo de la corrida
+         * @param nivel Nivel de la corrida
+         */
+        Corrida(Path ruta, int nivel) {
+            this.ruta = ruta;
+            this.nivel = nivel;
+        }
+    }
+
+    /**
+     * Lector secuencial de una corrida, con su registro actual.
+     */
+    private static final class Lector implements Closeable {
+        /**
+         * Flujo de la corrida.
+         */
+        private final DataInputStream entrada;
+        /**
+         * Indica si ya se leyó la marca de fin.
+         */
+        private boolean terminada;
+        /**
+         * Palabra del registro actual.
+         */
+        private String palabra;
+        /**
+         * Repeticiones del registro actual.
+         */
+        private int repeticiones;
+
+        /**
+         * Constructor que abre una corrida y lee su cabecera.
+         *
+         * @param ruta Archivo de la corrida
+         * @throws IOException Si no se puede abrir o no es una corrida
+         */
+        Lector(Path ruta) throws IOException {
+            entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta), TAMANO_BUFFER));
+            try {
+                if (entrada.readInt() != MAGIA) {
+                    throw new IOException("No es una corrida válida: " + ruta);
+                }
+            } catch (IOException e) {
+                entrada.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Lee el siguiente registro.
+         *
+         * @return true si había un registro, false al final de la corrida
+         * @throws IOException Si ocurre un error al leer
+         */
+        boolean avanzar() throws IOException {
+            if (terminada) return false;
+            palabra = entrada.readUTF();
+            if (palabra.isEmpty()) {
+                terminada = true;
+                return false;
+            }
+            repeticiones = entrada.readInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            entrada.close();
+        }
+    }
+}
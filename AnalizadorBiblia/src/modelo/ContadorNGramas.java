@@ -0,0 +1,439 @@
+package modelo;
+
+import java.util.Arrays;
+import util.AnalisisLexico;
+import util.Tokenizador;
+
+/**
+ * Contador de bigramas y trigramas (secuencias de dos y tres palabras
+ * consecutivas dentro de una misma línea).
+ *
+ * <p>Las palabras se identifican con su identificador en el
+ * {@link Vocabulario} del analizador. Un n-grama se representa como un
+ * {@code long} que empaqueta los identificadores de sus palabras, y los
+ * conteos se guardan en una
+ * {@link TablaLongInt} por cada n, de modo que contar una frase no crea
+ * Strings concatenados ni objetos por aparición.
+ *
+ * <p>Empaquetado:
+ * <ul>
+ *   <li>bigrama: {@code (id1 << 32) | id2}</li>
+ *   <li>trigrama: {@code (id1 << 42) | (id2 << 21) | id3}; admite
+ *       identificadores menores que 2<sup>21</sup>. Los trigramas con
+ *       palabras de identificador mayor no se cuentan y se informan en
+ *       {@link #getTrigramasOmitidos()}</li>
+ * </ul>
+ *
+ * <p>Los n-gramas no cruzan líneas: al empezar cada línea se llama a
+ * {@link #iniciarLinea()}. Por eso los contadores de partes del texto
+ * cortadas en límites de línea, como las entradas de un zip o los
+ * documentos de un {@link Corpus}, se pueden sumar con
+ * {@link #fusionar(ContadorNGramas)}.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class ContadorNGramas {
+
+    /**
+     * Bits por identificador en un trigrama.
+     */
+    private static final int BITS_TRIGRAMA = 21;
+
+    /**
+     * Máscara de un identificador dentro de un trigrama.
+     */
+    private static final long MASCARA_TRIGRAMA = (1L << BITS_TRIGRAMA) - 1;
+
+    /**
+     * Vocabulario que asigna los identificadores de las palabras.
+     */
+    private final Vocabulario vocabulario;
+    /**
+     * Conteos de bigramas.
+     */
+    private TablaLongInt bigramas;
+    /**
+     * Conteos de trigramas.
+     */
+    private TablaLongInt trigramas;
+    /**
+     * Identificadores de las dos palabras anteriores de la línea actual,
+     * -1 si no existen.
+     */
+    private int anterior, antepenultima;
+    /**
+     * Total de bigramas y trigramas contados, con repeticiones.
+     */
+    private long totalBigramas, totalTrigramas;
+    /**
+     * Trigramas no contados por tener identificadores demasiado grandes.
+     */
+    private long trigramasOmitidos;
+    /**
+     * Análisis léxico de las frases consultadas, el mismo del analizador.
+     */
+    private AnalisisLexico analisis;
+
+    /**
+     * Constructor que inicializa un contador vacío.
+     *
+     * @param vocabulario Vocabulario de las palabras que se contarán
+     */
+    ContadorNGramas(Vocabulario vocabulario) {
+        this.vocabulario = vocabulario;
+        bigramas = new TablaLongInt();
+        trigramas = new TablaLongInt();
+        iniciarLinea();
+    }
+
+    /**
+     * Indica que empieza una nueva línea: la siguiente palabra no forma
+     * n-gramas con las de la línea anterior.
+     */
+    void iniciarLinea() {
+        anterior = -1;
+        antepenultima = -1;
+    }
+
+    /**
+     * Registra la siguiente palabra de la línea y cuenta los n-gramas que
+     * termina.
+     *
+     * @param id Identificador de la palabra en el vocabulario
+     */
+    void agregar(int id) {
+        if (anterior >= 0) {
+            bigramas.sumar(((long) anterior << 32) | id, 1);
+            totalBigramas++;
+            if (antepenultima >= 0) {
+                if ((antepenultima | anterior | id) <= MASCARA_TRIGRAMA) {
+                    trigramas.sumar(empaquetar(antepenultima, anterior, id), 1);
+                    totalTrigramas++;
+                } else {
+                    trigramasOmitidos++;
+                }
+            }
+        }
+        antepenultima = anterior;
+        anterior = id;
+    }
+
+    /**
+     * Suma a este contador los n-gramas de otro, traduciendo los
+     * identificadores del vocabulario del otro a los de este. Todas las
+     * palabras del otro deben estar ya en este vocabulario, por lo que se
+     * llama después de sumar sus palabras. Cada palabra se busca una sola
+     * vez. Los trigramas cuyos identificadores traducidos no caben en el
+     * empaquetado se suman a los omitidos.
+     *
+     * @param otro Contador a sumar; no se modifica
+     */
+    void fusionar(ContadorNGramas otro) {
+        int[] traduccion = new int[otro.vocabulario.size()];
+        Arrays.fill(traduccion, -1);
+        for (int i = 0; i < otro.bigramas.capacidad(); i++) {
+            int conteo = otro.bigramas.valorEn(i);
+            if (conteo == 0) continue;
+            long clave = otro.bigramas.claveEn(i);
+            long a = traducir(otro, traduccion, idEn(2, clave, 0));
+            long b = traducir(otro, traduccion, idEn(2, clave, 1));
+            bigramas.sumar((a << 32) | b, conteo);
+        }
+        for (int i = 0; i < otro.trigramas.capacidad(); i++) {
+            int conteo = otro.trigramas.valorEn(i);
+            if (conteo == 0) continue;
+            long clave = otro.trigramas.claveEn(i);
+            long a = traducir(otro, traduccion, idEn(3, clave, 0));
+            long b = traducir(otro, traduccion, idEn(3, clave, 1));
+            long c = traducir(otro, traduccion, idEn(3, clave, 2));
+            if ((a | b | c) <= MASCARA_TRIGRAMA) {
+                trigramas.sumar(empaquetar(a, b, c), conteo);
+                totalTrigramas += conteo;
+            } else {
+                trigramasOmitidos += conteo;
+            }
+        }
+        totalBigramas += otro.totalBigramas;
+        trigramasOmitidos += otro.trigramasOmitidos;
+    }
+
+    /**
+     * Traduce un identificador del vocabulario de otro contador al de este.
+     *
+     * @param otro Contador de origen
+     * @param traduccion Identificadores ya traducidos, -1 si falta
+     * @param id Identificador en el vocabulario del otro
+     * @return Identificador en este vocabulario
+     * @throws IllegalStateException si la palabra no está en este vocabulario
+     */
+    private int traducir(ContadorNGramas otro, int[] traduccion, int id) {
+        if (traduccion[id] < 0) {
+            String palabra = otro.vocabulario.palabra(id);
+            traduccion[id] = vocabulario.id(palabra);
+            if (traduccion[id] < 0) {
+                throw new IllegalStateException("La palabra " + palabra + " no está en el vocabulario");
+            }
+        }
+        return traduccion[id];
+    }
+
+    /**
+     * Descarta todos los conteos, para volver a sumar contadores con
+     * {@link #fusionar(ContadorNGramas)}.
+     */
+    void reiniciar() {
+        bigramas = new TablaLongInt();
+        trigramas = new TablaLongInt();
+        totalBigramas = 0;
+        totalTrigramas = 0;
+        trigramasOmitidos = 0;
+        iniciarLinea();
+    }
+
+    /**
+     * Empaqueta los identificadores de un trigrama.
+     *
+     * @param a Identificador de la primera palabra
+     * @param b Identificador de la segunda palabra
+     * @param c Identificador de la tercera palabra
+     * @return Clave del trigrama
+     */
+    private static long empaquetar(long a, long b, long c) {
+        return (a << (2 * BITS_TRIGRAMA)) | (b << BITS_TRIGRAMA) | c;
+    }
+
+    /**
+     * Establece el análisis léxico con que se separan las frases
+     * consultadas, que debe ser el del texto contado.
+     *
+     * @param analisis Análisis léxico, o null
+     */
+    void setAnalisis(AnalisisLexico analisis) {
+        this.analisis = analisis;
+    }
+
+    /**
+     * Obtiene el número de repeticiones de una frase de dos o tres palabras.
+     *
+     * @param frase Frase; se separa y normaliza igual que el texto
+     * @return Número de veces que aparece la frase, 0 si no existe o si no
+     *         tiene dos o tres palabras
+     */
+    public int obtenerRepeticiones(String frase) {
+        Tokenizador separador = new Tokenizador(analisis);
+        separador.reiniciar(frase);
+        long[] id = new long[4];
+        int n = 0;
+        String palabra;
+        while (n < id.length && (palabra = separador.siguiente()) != null) {
+            int existente = vocabulario.id(palabra);
+            if (existente < 0) return 0;
+            id[n++] = existente;
+        }
+        if (n == 2) return bigramas.get((id[0] << 32) | id[1]);
+        if (n == 3 && (id[0] | id[1] | id[2]) <= MASCARA_TRIGRAMA) {
+            return trigramas.get(empaquetar(id[0], id[1], id[2]));
+        }
+        return 0;
+    }
+
+    /**
+     * Obtiene el número de n-gramas distintos.
+     *
+     * @param n Longitud de los n-gramas, 2 o 3
+     * @return Número de n-gramas distintos
+     * @throws IllegalArgumentException si n no es 2 ni 3
+     */
+    public int getDistintos(int n) {
+        return tabla(n).size();
+    }
+
+    /**
+     * Obtiene el número de n-gramas contados, incluyendo repeticiones.
+     *
+     * @param n Longitud de los n-gramas, 2 o 3
+     * @return Número total de n-gramas
+     * @throws IllegalArgumentException si n no es 2 ni 3
+     */
+    public long getTotal(int n) {
+        tabla(n);
+        return n == 2 ? totalBigramas : totalTrigramas;
+    }
+
+    /**
+     * Obtiene el número de trigramas no contados porque alguna de sus
+     * palabras tiene un identificador mayor que 2<sup>21</sup> - 1.
+     *
+     * @return Número de trigramas omitidos
+     */
+    public long getTrigramasOmitidos() {
+        return trigramasOmitidos;
+    }
+
+    /**
+     * Obtiene los K n-gramas más frecuentes. Recorre la tabla una vez
+     * con un montículo de mínimos de tamaño K sobre arreglos primitivos,
+     * y sólo construye los Strings de las frases del resultado. A igual
+     * frecuencia, las frases se ordenan alfabéticamente.
+     *
+     * @param n Longitud de los n-gramas, 2 o 3
+     * @param k Número de frases a devolver
+     * @return Lista con hasta K pares frase-repeticiones, de mayor a menor
+     * @throws IllegalArgumentException si n no es 2 ni 3 o k no es positivo
+     */
+    public Lista<Frecuencia> getTopK(int n, int k) {
+        TablaLongInt tabla = tabla(n);
+        if (k <= 0) throw new IllegalArgumentException("K debe ser positivo");
+
+        long[] claves = new long[Math.min(k, Math.max(1, tabla.size()))];
+        int[] conteos = new int[claves.length];
+        int cantidad = 0;
+        for (int i = 0; i < tabla.capacidad(); i++) {
+            int conteo = tabla.valorEn(i);
+            if (conteo == 0) continue;
+            long clave = tabla.claveEn(i);
+            if (cantidad < claves.length) {
+                claves[cantidad] = clave;
+                conteos[cantidad] = conteo;
+                flotar(n, claves, conteos, cantidad++);
+            } else if (peor(n, conteos[0], claves[0], conteo, clave)) {
+                claves[0] = clave;
+                conteos[0] = conteo;
+                hundir(n, claves, conteos, 0, cantidad);
+            }
+        }
+
+        // Extraer del montículo de peor a mejor y llenar desde el final
+        Frecuencia[] ordenadas = new Frecuencia[cantidad];
+        for (int restantes = cantidad; restantes > 0; restantes--) {
+            ordenadas[restantes - 1] = new Frecuencia(frase(n, claves[0]), conteos[0]);
+            claves[0] = claves[restantes - 1];
+            conteos[0] = conteos[restantes - 1];
+            hundir(n, claves, conteos, 0, restantes - 1);
+        }
+        Lista<Frecuencia> resultado = new Lista<>(Math.max(1, cantidad));
+        for (Frecuencia f : ordenadas) {
+            resultado.agregarAlFinal(f);
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la tabla de una longitud de n-grama.
+     *
+     * @param n Longitud de los n-gramas
+     * @return Tabla de conteos
+     * @throws IllegalArgumentException si n no es 2 ni 3
+     */
+    private TablaLongInt tabla(int n) {
+        if (n == 2) return bigramas;
+        if (n == 3) return trigramas;
+        throw new IllegalArgumentException("Sólo se cuentan bigramas y trigramas");
+    }
+
+    /**
+     * Obtiene el identificador de la palabra i-ésima de un n-grama.
+     *
+     * @param n Longitud del n-grama
+     * @param clave Clave empaquetada
+     * @param i Posición de la palabra (0-indexada)
+     * @return Identificador de la palabra
+     */
+    private static int idEn(int n, long clave, int i) {
+        if (n == 2) return (int) (i == 0 ? clave >>> 32 : clave & 0xFFFFFFFFL);
+        return (int) ((clave >>> (BITS_TRIGRAMA * (2 - i))) & MASCARA_TRIGRAMA);
+    }
+
+    /**
+     * Construye el texto de un n-grama.
+     *
+     * @param n Longitud del n-grama
+     * @param clave Clave empaquetada
+     * @return Palabras del n-grama separadas por espacios
+     */
+    private String frase(int n, long clave) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(vocabulario.palabra(idEn(n, clave, i)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Indica si un n-grama es peor que otro: menos repeticiones o, con
+     * las mismas, posterior en orden alfabético palabra por palabra.
+     *
+     * @param n Longitud de los n-gramas
+     * @param conteo Repeticiones del primero
+     * @param clave Clave del primero
+     * @param otroConteo Repeticiones del segundo
+     * @param otraClave Clave del segundo
+     * @return true si el primero es peor que el segundo
+     */
+    private boolean peor(int n, int conteo, long clave, int otroConteo, long otraClave) {
+        if (conteo != otroConteo) return conteo < otroConteo;
+        for (int i = 0; i < n; i++) {
+            int cmp = vocabulario.comparar(idEn(n, clave, i), idEn(n, otraClave, i));
+            if (cmp != 0) return cmp > 0;
+        }
+        return false;
+    }
+
+    /**
+     * Sube un elemento del montículo mientras sea peor que su padre.
+     *
+     * @param n Longitud de los n-gramas
+     * @param claves Claves del montículo
+     * @param conteos Conteos del montículo
+     * @param k Posición del elemento
+     */
+    private void flotar(int n, long[] claves, int[] conteos, int k) {
+        while (k > 0) {
+            int padre = (k - 1) / 2;
+            if (!peor(n, conteos[k], claves[k], conteos[padre], claves[padre])) break;
+            intercambiar(claves, conteos, k, padre);
+            k = padre;
+        }
+    }
+
+    /**
+     * Baja un elemento del montículo mientras algún hijo sea peor.
+     *
+     * @param n Longitud de los n-gramas
+     * @param claves Claves del montículo
+     * @param conteos Conteos del montículo
+     * @param k Posición del elemento
+     * @param cantidad Número de elementos del montículo
+     */
+    private void hundir(int n, long[] claves, int[] conteos, int k, int cantidad) {
+        while (2 * k + 1 < cantidad) {
+            int hijo = 2 * k + 1;
+            if (hijo + 1 < cantidad && peor(n, conteos[hijo + 1], claves[hijo + 1], conteos[hijo], claves[hijo])) {
+                hijo++;
+            }
+            if (!peor(n, conteos[hijo], claves[hijo], conteos[k], claves[k])) break;
+            intercambiar(claves, conteos, k, hijo);
+            k = hijo;
+        }
+    }
+
+    /**
+     * Intercambia dos elementos del montículo.
+     *
+     * @param claves Claves del montículo
+     * @param conteos Conteos del montículo
+     * @param i Primera posición
+     * @param j Segunda posición
+     */
+    private static void intercambiar(long[] claves, int[] conteos, int i, int j) {
+        long clave = claves[i];
+        claves[i] = claves[j];
+        claves[j] = clave;
+        int conteo = conteos[i];
+        conteos[i] = conteos[j];
+        conteos[j] = conteo;
+    }
+}
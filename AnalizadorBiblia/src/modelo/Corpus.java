@@ -0,0 +1,242 @@
+package modelo;
+
+import util.AnalisisLexico;
+
+/**
+ * Colección de documentos analizados por separado, con una vista global
+ * que se mantiene actualizada de forma incremental.
+ *
+ * <p>Cada documento tiene su propio {@link AnalizadorBiblia}. El analizador
+ * global no se reconstruye al cambiar un documento: agregar un documento
+ * suma sus conteos como un delta y quitarlo los resta, sin volver a leer
+ * los demás. Reemplazar un documento (por ejemplo, al recargar un libro
+ * modificado) equivale a quitar la versión anterior y agregar la nueva.
+ *
+ * <p>Al sumar, la palabra más repetida y el top-K se actualizan como en
+ * cualquier carga. Al restar sólo se recalculan, recorriendo la tabla
+ * global, si alguna palabra afectada era la más repetida o estaba en el
+ * top-K; en otro caso siguen siendo válidos.
+ *
+ * <p>La tabla global usa {@link STRojoNegro}, ya que quitar documentos
+ * elimina palabras con frecuencia.
+ *
+ * <p>La vista global cuenta bigramas y trigramas ({@link ContadorNGramas})
+ * mientras todos los documentos los cuenten. Los n-gramas no se pueden
+ * restar: al quitar un documento se vuelven a sumar los de los demás.
+ *
+ * <p>El vocabulario global no reutiliza los identificadores de las
+ * palabras que se quedan sin repeticiones. Cuando éstos superan a las
+ * palabras vigentes, el vocabulario se compacta y los n-gramas, que se
+ * guardan por identificador, se vuelven a sumar. Así, reemplazar muchas
+ * veces un documento no hace crecer el vocabulario sin límite.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class Corpus {
+
+    /**
+     * Documentos del corpus, ordenados por nombre.
+     */
+    private final TablaOrdenada<String, AnalizadorBiblia> documentos;
+
+    /**
+     * Analizador con los conteos sumados de todos los documentos.
+     */
+    private final AnalizadorBiblia global;
+
+    /**
+     * Constructor que inicializa un corpus sin documentos.
+     */
+    public Corpus() {
+        this(null);
+    }
+
+    /**
+     * Constructor que inicializa un corpus sin documentos cuyas palabras
+     * pasan por un análisis léxico. Todos los documentos deben cargarse
+     * con ese mismo análisis.
+     *
+     * @param analisis Análisis léxico de los documentos, o null
+     */
+    public Corpus(AnalisisLexico analisis) {
+        documentos = new ST<>();
+        global = new AnalizadorBiblia(new STRojoNegro<>());
+        global.setAnalisis(analisis);
+    }
+
+    /**
+     * Agrega un documento al corpus y suma sus conteos a la vista global.
+     *
+     * @param nombre Nombre único del documento, por ejemplo su ruta
+     * @param documento Analizador con el texto del documento ya procesado;
+     *                  no debe modificarse mientras pertenezca al corpus
+     * @throws IllegalArgumentException si algún argumento es null, ya
+     *                                  existe un documento con ese nombre
+     *                                  o el documento tiene otro análisis
+     *                                  léxico
+     */
+    public void agregarDocumento(String nombre, AnalizadorBiblia documento) {
+        if (nombre == null || documento == null) {
+            throw new IllegalArgumentException("El nombre y el documento no pueden ser null");
+        }
+        if (documento.getAnalisis() != global.getAnalisis()) {
+            throw new IllegalArgumentException("El documento " + nombre + " tiene otro análisis léxico");
+        }
+        if (documentos.contains(nombre)) {
+            throw new IllegalArgumentException("Ya existe el documento " + nombre);
+        }
+        documentos.put(nombre, documento);
+        sumar(documento);
+    }
+
+    /**
+     * Quita un documento del corpus y resta sus conteos de la vista global.
+     *
+     * @param nombre Nombre del documento
+     * @return true si el documento existía
+     */
+    public boolean eliminarDocumento(String nombre) {
+        AnalizadorBiblia documento = documentos.get(nombre);
+        if (documento == null) return false;
+        documentos.delete(nombre);
+        restar(documento);
+        return true;
+    }
+
+    /**
+     * Reemplaza un documento por una nueva versión, o lo agrega si no
+     * existía. Sólo se recorren los conteos del documento anterior y del
+     * nuevo.
+     *
+     * @param nombre Nombre del documento
+     * @param documento Analizador con la nueva versión del documento
+     * @throws IllegalArgumentException si algún argumento es null o el
+     *                                  documento tiene otro análisis léxico
+     */
+    public void reemplazarDocumento(String nombre, AnalizadorBiblia documento) {
+        if (nombre == null || documento == null) {
+            throw new IllegalArgumentException("El nombre y el documento no pueden ser null");
+        }
+        if (documento.getAnalisis() != global.getAnalisis()) {
+            throw new IllegalArgumentException("El documento " + nombre + " tiene otro análisis léxico");
+        }
+        eliminarDocumento(nombre);
+        agregarDocumento(nombre, documento);
+    }
+
+    /**
+     * Obtiene el analizador de un documento.
+     *
+     * @param nombre Nombre del documento
+     * @return Analizador del documento, o null si no existe
+     */
+    public AnalizadorBiblia getDocumento(String nombre) {
+        return documentos.get(nombre);
+    }
+
+    /**
+     * Verifica si el corpus contiene un documento.
+     *
+     * @param nombre Nombre del documento
+     * @return true si el documento existe
+     */
+    public boolean contieneDocumento(String nombre) {
+        return documentos.contains(nombre);
+    }
+
+    /**
+     * Obtiene los nombres de los documentos en orden alfabético.
+     *
+     * @return Iterable con los nombres de los documentos
+     */
+    public Iterable<String> documentos() {
+        return documentos.keys();
+    }
+
+    /**
+     * Obtiene el número de documentos del corpus.
+     *
+     * @return Número de documentos
+     */
+    public int getNumeroDocumentos() {
+        return documentos.size();
+    }
+
+    /**
+     * Obtiene el analizador global, con los conteos de todos los
+     * documentos. Se usa para consultar; no debe modificarse directamente.
+     *
+     * @return Analizador global del corpus
+     */
+    public AnalizadorBiblia getGlobal() {
+        return global;
+    }
+
+    /**
+     * Suma los conteos de un documento a la vista global.
+     *
+     * @param documento Documento a sumar
+     */
+    private void sumar(AnalizadorBiblia documento) {
+        if (documentos.size() == 1 && documento.getNGramas() != null) {
+            global.activarNGramas();
+        } else if (documento.getNGramas() == null) {
+            global.desactivarNGramas();
+        }
+        global.fusionar(documento);
+    }
+
+    /**
+     * Resta los conteos de un documento de la vista global y recalcula las
+     * estadísticas si alguna palabra afectada las determinaba.
+     *
+     * @param documento Documento a restar
+     */
+    private void restar(AnalizadorBiblia documento) {
+        Lista<Frecuencia> mejores = global.getTopK();
+        TablaHash<String, Boolean> destacadas = new TablaHash<>(mejores.tamano() + 1);
+        for (int i = 0; i < mejores.tamano(); i++) {
+            destacadas.put(mejores.obtenerDe(i).getPalabra(), Boolean.TRUE);
+        }
+        String masRepetida = global.getPalabraMasRepetidaSola();
+        if (masRepetida != null) destacadas.put(masRepetida, Boolean.TRUE);
+
+        boolean recalcular = false;
+        for (TablaOrdenada.Entrada<String, Integer> entrada : documento.entradas()) {
+            global.restarRepeticiones(entrada.getClave(), entrada.getValor());
+            recalcular |= destacadas.contains(entrada.getClave());
+        }
+        if (recalcular) {
+            global.recalcularEstadisticas();
+        }
+        boolean compactar = global.getIdentificadoresLibres() > global.getPalabrasUnicas();
+        if (compactar) {
+            global.compactarVocabulario();
+        }
+        if (compactar || global.getNGramas() != null || documento.getNGramas() == null) {
+            recalcularNGramas();
+        }
+    }
+
+    /**
+     * Vuelve a sumar los n-gramas de todos los documentos en la vista
+     * global, o deja de contarlos si algún documento no los cuenta.
+     */
+    private void recalcularNGramas() {
+        boolean todos = !documentos.isEmpty();
+        for (String nombre : documentos.keys()) {
+            todos &= documentos.get(nombre).getNGramas() != null;
+        }
+        if (!todos) {
+            global.desactivarNGramas();
+            return;
+        }
+        ContadorNGramas ngramas = global.activarNGramas();
+        ngramas.reiniciar();
+        for (String nombre : documentos.keys()) {
+            ngramas.fusionar(documentos.get(nombre).getNGramas());
+        }
+    }
+}
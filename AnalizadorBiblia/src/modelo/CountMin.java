@@ -0,0 +1,231 @@
+package modelo;
+
+/**
+ * Estimación de la frecuencia de cada palabra con un resumen Count-Min
+ * (Cormode y Muthukrishnan) con actualización conservadora, en memoria
+ * fija: d filas de w contadores.
+ *
+ * <p>Cada palabra tiene un contador en cada fila, elegido por un hash
+ * distinto, y su estimación es el mínimo de sus d contadores. Al sumar
+ * apariciones, la actualización conservadora sólo sube los contadores que
+ * quedarían por debajo del nuevo mínimo, lo que reduce el error sin
+ * perder las garantías. Siendo N el total de apariciones registradas,
+ * &epsilon; = e / w y &delta; = e<sup>-d</sup>:
+ * <ul>
+ *   <li>Nunca subestima: real &le; estimado</li>
+ *   <li>Con probabilidad al menos 1 - &delta;, estimado &le; real + &epsilon;N</li>
+ * </ul>
+ * {@link #conError(double, double)} elige w y d a partir de &epsilon; y &delta;.
+ *
+ * <p>Dos resúmenes con las mismas dimensiones se fusionan sumando sus
+ * contadores. Con actualización conservadora cada contador es a lo sumo
+ * el del Count-Min normal, y la suma de resúmenes normales es el resumen
+ * normal de todo el texto, así que las dos garantías se mantienen para el
+ * total fusionado.
+ *
+ * <p>Los contadores son enteros de 64 bits, para que ni textos enormes ni
+ * la suma de muchos resúmenes fusionados los desborden. Las consultas no
+ * modifican el resumen y pueden hacerse desde varios hilos a la vez; las
+ * actualizaciones y fusiones no son seguras entre hilos.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class CountMin {
+    /**
+     * Número de contadores por fila (w).
+     */
+    private final int ancho;
+    /**
+     * Número de filas (d).
+     */
+    private final int profundidad;
+    /**
+     * Contadores, fila por fila.
+     */
+    private final long[] contadores;
+    /**
+     * Total de apariciones registradas (N).
+     */
+    private long total;
+
+    /**
+     * Constructor de un resumen vacío.
+     *
+     * @param ancho Contadores por fila (w); a mayor ancho, menor error
+     * @param profundidad Filas (d); a mayor profundidad, menor probabilidad
+     *                    de superar el error
+     * @throws IllegalArgumentException si alguna dimensión no es positiva o
+     *         el resumen no cabe en un arreglo
+     */
+    public CountMin(int ancho, int profundidad) {
+        if (ancho <= 0 || profundidad <= 0) {
+            throw new IllegalArgumentException("El ancho y la profundidad deben ser positivos");
+        }
+        if ((long) ancho * profundidad > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("El resumen es demasiado grande");
+        }
+        this.ancho = ancho;
+        this.profundidad = profundidad;
+        this.contadores = new long[ancho * profundidad];
+    }
+
+    /**
+     * Crea un resumen con error relativo al total a lo sumo epsilon, con
+     * probabilidad al menos 1 - delta.
+     *
+     * @param epsilon Error máximo como fracción del total, en (0, 1)
+     * @param delta Probabilidad de superar el error, en (0, 1)
+     * @return Resumen vacío con w = &lceil;e / &epsilon;&rceil; y
+     *         d = &lceil;ln(1 / &delta;)&rceil;
+     * @throws IllegalArgumentException si epsilon o delta están fuera de (0, 1)
+     */
+    public static CountMin conError(double epsilon, double delta) {
+        if (!(epsilon > 0 && epsilon < 1) || !(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Epsilon y delta deben estar entre 0 y 1");
+        }
+        return new CountMin((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / delta)));
+    }
+
+    /**
+     * Calcula la posición de una palabra en una fila, con doble hash
+     * sobre las dos mitades de su hash de 64 bits.
+     *
+     * @param hash Hash de 64 bits de la palabra
+     * @param fila Fila del resumen
+     * @return Índice del contador de la palabra en esa fila
+     */
+    private int posicion(long hash, int fila) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return fila * ancho + ((h1 + fila * h2) & Integer.MAX_VALUE) % ancho;
+    }
+
+    /**
+     * Suma apariciones de una palabra con actualización conservadora.
+     *
+     * @param palabra Palabra normalizada
+     * @param cantidad Apariciones a sumar, mayor que cero
+     * @return Estimación de la palabra después de sumar
+     */
+    public long agregar(String palabra, int cantidad) {
+        return agregarHash(HashPalabras.hash64(palabra), cantidad);
+    }
+
+    /**
+     * Suma apariciones de una palabra cuyo hash de 64 bits ya se calculó.
+     *
+     * @param hash Hash de la palabra
+     * @param cantidad Apariciones a sumar, mayor que cero
+     * @return Estimación de la palabra después de sumar
+     */
+    long agregarHash(long hash, int cantidad) {
+        long nuevo = estimarHash(hash) + cantidad;
+        for (int fila = 0; fila < profundidad; fila++) {
+            int i = posicion(hash, fila);
+            if (contadores[i] < nuevo) {
+                contadores[i] = nuevo;
+            }
+        }
+        total += cantidad;
+        return nuevo;
+    }
+
+    /**
+     * Estima las apariciones de una palabra.
+     *
+     * @param palabra Palabra normalizada
+     * @return Estimación, mayor o igual que las apariciones reales
+     */
+    public long estimar(String palabra) {
+        return estimarHash(HashPalabras.hash64(palabra));
+    }
+
+    /**
+     * Estima las apariciones de una palabra cuyo hash de 64 bits ya se
+     * calculó: el mínimo de sus contadores.
+     *
+     * @param hash Hash de la palabra
+     * @return Estimación, mayor o igual que las apariciones reales
+     */
+    private long estimarHash(long hash) {
+        long minimo = Long.MAX_VALUE;
+        for (int fila = 0; fila < profundidad; fila++) {
+            minimo = Math.min(minimo, contadores[posicion(hash, fila)]);
+        }
+        return minimo;
+    }
+
+    /**
+     * Suma a este resumen los contadores de otro, sin modificar el otro.
+     *
+     * @param otro Resumen con el mismo ancho y la misma profundidad
+     * @throws IllegalArgumentException si las dimensiones difieren
+     */
+    public void fusionar(CountMin otro) {
+        if (otro.ancho != ancho || otro.profundidad != profundidad) {
+            throw new IllegalArgumentException("Sólo se fusionan resúmenes con las mismas dimensiones");
+        }
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] += otro.contadores[i];
+        }
+        total += otro.total;
+    }
+
+    /**
+     * Obtiene la sobreestimación máxima, &epsilon;N, que no se supera con
+     * probabilidad al menos 1 - {@link #getProbabilidadFallo()}.
+     *
+     * @return Error máximo en apariciones
+     */
+    public long getErrorMaximo() {
+        return (long) Math.ceil(Math.E * total / ancho);
+    }
+
+    /**
+     * Obtiene la probabilidad de que una estimación supere
+     * {@link #getErrorMaximo()}, &delta; = e<sup>-d</sup>.
+     *
+     * @return Probabilidad de fallo
+     */
+    public double getProbabilidadFallo() {
+        return Math.exp(-profundidad);
+    }
+
+    /**
+     * Obtiene el total de apariciones registradas.
+     *
+     * @return Total de apariciones
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtiene el número de contadores por fila.
+     *
+     * @return Ancho del resumen
+     */
+    public int getAncho() {
+        return ancho;
+    }
+
+    /**
+     * Obtiene el número de filas.
+     *
+     * @return Profundidad del resumen
+     */
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    /**
+     * Obtiene la memoria de los contadores.
+     *
+     * @return Bytes de los contadores
+     */
+    public long getBytes() {
+        return 8L * contadores.length;
+    }
+}
@@ -0,0 +1,96 @@
+package modelo;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de Java Flight Recorder que registra una carga de texto hecha
+ * por {@link CargadorPorEtapas} o {@link CargadorParalelo}, con las
+ * mismas métricas que {@link MetricasCarga} limitadas a esa carga.
+ *
+ * <p>Sólo se registra si JFR está activo, por ejemplo con
+ * {@code -XX:StartFlightRecording}; en otro caso crear y descartar el
+ * evento no tiene costo apreciable. El evento se llama
+ * {@code analizadorbiblia.Carga} y se puede consultar con
+ * {@code jfr print --events analizadorbiblia.Carga grabacion.jfr}.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+@Name("analizadorbiblia.Carga")
+@Label("Carga de texto")
+@Category("Analizador Biblia")
+@Description("Carga de un archivo en un AnalizadorBiblia")
+@StackTrace(false)
+class EventoCarga extends jdk.jfr.Event {
+
+    @Label("Archivo")
+    String archivo;
+
+    @Label("Cargador")
+    String cargador;
+
+    @Label("Bytes leídos")
+    @DataAmount
+    long bytesLeidos;
+
+    @Label("Líneas")
+    long lineas;
+
+    @Label("Palabras")
+    long palabras;
+
+    @Label("Palabras rechazadas")
+    long palabrasRechazadas;
+
+    @Label("Palabras distintas")
+    int palabrasDistintas;
+
+    @Label("Lectura")
+    @Timespan
+    long nanosLectura;
+
+    @Label("Tokenización")
+    @Timespan
+    long nanosTokenizacion;
+
+    @Label("Inserción")
+    @Timespan
+    long nanosInsercion;
+
+    @Label("Memoria asignada")
+    @DataAmount
+    long bytesAsignados;
+
+    /**
+     * Completa el evento con la diferencia entre las métricas de antes y
+     * de después de la carga y lo registra, si JFR lo está grabando.
+     *
+     * @param archivo Ruta del archivo cargado
+     * @param cargador Nombre del cargador
+     * @param antes Métricas del analizador antes de la carga
+     * @param despues Métricas del analizador después de la carga
+     */
+    void registrar(String archivo, String cargador, MetricasCarga antes, MetricasCarga despues) {
+        if (!shouldCommit()) return;
+        this.archivo = archivo;
+        this.cargador = cargador;
+        bytesLeidos = despues.getBytesLeidos() - antes.getBytesLeidos();
+        lineas = despues.getLineas() - antes.getLineas();
+        palabras = despues.getPalabras() - antes.getPalabras();
+        palabrasRechazadas = despues.getPalabrasRechazadas() - antes.getPalabrasRechazadas();
+        palabrasDistintas = despues.getPalabrasDistintas();
+        nanosLectura = despues.getNanosLectura() - antes.getNanosLectura();
+        nanosTokenizacion = despues.getNanosTokenizacion() - antes.getNanosTokenizacion();
+        nanosInsercion = despues.getNanosInsercion() - antes.getNanosInsercion();
+        bytesAsignados = despues.getBytesAsignados() < 0 ? -1
+                : despues.getBytesAsignados() - antes.getBytesAsignados();
+        commit();
+    }
+}
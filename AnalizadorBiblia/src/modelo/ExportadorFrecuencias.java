@@ -0,0 +1,346 @@
+package modelo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Exporta la tabla completa de frecuencias de un {@link AnalizadorBiblia}
+ * en CSV, TSV o JSON Lines.
+ *
+ * <p>En orden alfabético la exportación es una sola pasada sobre
+ * {@link AnalizadorBiblia#entradas()}: cada entrada ya trae su número de
+ * repeticiones, así que no se vuelve a normalizar ni a buscar cada
+ * palabra, y las filas se escriben directamente en el {@link Writer}
+ * sin construir el resultado completo en memoria.
+ *
+ * <p>En orden de frecuencia las entradas que pasan el filtro se copian a
+ * arreglos y se ordenan como {@code long} que combinan las repeticiones
+ * (de mayor a menor) con la posición alfabética, de modo que a igual
+ * frecuencia las palabras quedan en orden alfabético sin comparar Strings.
+ *
+ * <p>También exporta la tabla de un {@link ContadorExterno}, en orden
+ * alfabético, directamente desde la mezcla de sus corridas.
+ *
+ * <p>Formatos:
+ * <ul>
+ *   <li>CSV: encabezado {@code palabra,repeticiones}; las palabras con
+ *       comas o comillas se escriben entre comillas.</li>
+ *   <li>TSV: encabezado {@code palabra\trepeticiones}.</li>
+ *   <li>JSON Lines: un objeto {@code {"palabra":...,"repeticiones":...}}
+ *       por línea, sin encabezado.</li>
+ * </ul>
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class ExportadorFrecuencias {
+
+    /**
+     * Formato de salida.
+     */
+    public enum Formato {
+        /** Valores separados por comas. */
+        CSV,
+        /** Valores separados por tabuladores. */
+        TSV,
+        /** Un objeto JSON por línea. */
+        JSON
+    }
+
+    /**
+     * Tamaño del buffer de escritura en caracteres.
+     */
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    /**
+     * Formato de salida.
+     */
+    private final Formato formato;
+    /**
+     * Repeticiones mínimas para exportar una palabra.
+     */
+    private int minimo;
+    /**
+     * Indica si se ordena por frecuencia en lugar de alfabéticamente.
+     */
+    private boolean porFrecuencia;
+
+    /**
+     * Constructor de un exportador que escribe todas las palabras en
+     * orden alfabético.
+     *
+     * @param formato Formato de salida
+     * @throws IllegalArgumentException si el formato es null
+     */
+    public ExportadorFrecuencias(Formato formato) {
+        if (formato == null) {
+            throw new IllegalArgumentException("El formato no puede ser null");
+        }
+        this.formato = formato;
+        this.minimo = 1;
+        this.porFrecuencia = false;
+    }
+
+    /**
+     * Establece el número mínimo de repeticiones para exportar una palabra.
+     *
+     * @param minimo Repeticiones mínimas
+     * @throws IllegalArgumentException si minimo es negativo
+     */
+    public void setMinimo(int minimo) {
+        if (minimo < 0) {
+            throw new IllegalArgumentException("El mínimo no puede ser negativo");
+        }
+        this.minimo = minimo;
+    }
+
+    /**
+     * Establece si las palabras se ordenan por frecuencia, de mayor a
+     * menor, en lugar de alfabéticamente.
+     *
+     * @param porFrecuencia true para ordenar por frecuencia
+     */
+    public void setPorFrecuencia(boolean porFrecuencia) {
+        this.porFrecuencia = porFrecuencia;
+    }
+
+    /**
+     * Exporta las frecuencias a un archivo en UTF-8, reemplazándolo si existe.
+     *
+     * @param analizador Analizador a exportar
+     * @param ruta Ruta del archivo de salida
+     * @return Número de palabras exportadas
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public long exportar(AnalizadorBiblia analizador, String ruta) throws IOException {
+        try (Writer salida = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(Paths.get(ruta)), StandardCharsets.UTF_8), TAMANO_BUFFER)) {
+            return exportar(analizador, salida);
+        }
+    }
+
+    /**
+     * Exporta las frecuencias a un {@link Writer}. El writer no se cierra
+     * ni se vacía; conviene que tenga buffer.
+     *
+     * @param analizador Analizador a exportar
+     * @param salida Destino de la exportación
+     * @return Número de palabras exportadas
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public long exportar(AnalizadorBiblia analizador, Writer salida) throws IOException {
+        escribirEncabezado(salida);
+        if (!porFrecuencia) {
+            long escritas = 0;
+            for (TablaOrdenada.Entrada<String, Integer> entrada : analizador.entradas()) {
+                int repeticiones = entrada.getValor();
+                if (repeticiones >= minimo) {
+                    escribirFila(salida, entrada.getClave(), repeticiones);
+                    escritas++;
+                }
+            }
+            return escritas;
+        }
+
+        // Copiar las entradas que pasan el filtro, ya en orden alfabético
+        int unicas = analizador.getPalabrasUnicas();
+        String[] palabras = new String[unicas];
+        int[] repeticiones = new int[unicas];
+        int cantidad = 0;
+        for (TablaOrdenada.Entrada<String, Integer> entrada : analizador.entradas()) {
+            if (entrada.getValor() >= minimo) {
+                palabras[cantidad] = entrada.getClave();
+                repeticiones[cantidad] = entrada.getValor();
+                cantidad++;
+            }
+        }
+
+        // Repeticiones complementadas en los 32 bits altos, posición alfabética en los bajos
+        long[] orden = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            orden[i] = ((long) (Integer.MAX_VALUE - repeticiones[i]) << 32) | i;
+        }
+        Arrays.sort(orden);
+        for (long clave : orden) {
+            int i = (int) clave;
+            escribirFila(salida, palabras[i], repeticiones[i]);
+        }
+        return cantidad;
+    }
+
+    /**
+     * Exporta las frecuencias de un {@link ContadorExterno} a un archivo en
+     * UTF-8, reemplazándolo si existe.
+     *
+     * @param contador Contador a exportar
+     * @param ruta Ruta del archivo de salida
+     * @return Número de palabras exportadas
+     * @throws IOException Si ocurre un error al leer las corridas o al escribir
+     * @throws IllegalStateException si se pidió el orden por frecuencia
+     */
+    public long exportar(ContadorExterno contador, String ruta) throws IOException {
+        try (Writer salida = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(Paths.get(ruta)), StandardCharsets.UTF_8), TAMANO_BUFFER)) {
+            return exportar(contador, salida);
+        }
+    }
+
+    /**
+     * Exporta las frecuencias de un {@link ContadorExterno} a un
+     * {@link Writer}, en una sola pasada sobre sus corridas. El orden por
+     * frecuencia no se admite, porque requiere toda la tabla en memoria.
+     *
+     * @param contador Contador a exportar
+     * @param salida Destino de la exportación
+     * @return Número de palabras exportadas
+     * @throws IOException Si ocurre un error al leer las corridas o al escribir
+     * @throws IllegalStateException si se pidió el orden por frecuencia
+     */
+    public long exportar(ContadorExterno contador, Writer salida) throws IOException {
+        if (porFrecuencia) {
+            throw new IllegalStateException("El orden por frecuencia requiere la tabla en memoria");
+        }
+        escribirEncabezado(salida);
+        long escritas = 0;
+        try (ContadorExterno.Fusion fusion = contador.fusion()) {
+            Frecuencia frecuencia;
+            while ((frecuencia = fusion.siguiente()) != null) {
+                if (frecuencia.getRepeticiones() >= minimo) {
+                    escribirFila(salida, frecuencia.getPalabra(), frecuencia.getRepeticiones());
+                    escritas++;
+                }
+            }
+        }
+        return escritas;
+    }
+
+    /**
+     * Exporta las frecuencias de una {@link Instantanea} a un archivo en
+     * UTF-8, reemplazándolo si existe.
+     *
+     * @param instantanea Instantánea a exportar
+     * @param ruta Ruta del archivo de salida
+     * @return Número de palabras exportadas
+     * @throws IOException Si ocurre un error al escribir
+     * @throws IllegalStateException si se pidió el orden por frecuencia
+     */
+    public long exportar(Instantanea instantanea, String ruta) throws IOException {
+        try (Writer salida = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(Paths.get(ruta)), StandardCharsets.UTF_8), TAMANO_BUFFER)) {
+            return exportar(instantanea, salida);
+        }
+    }
+
+    /**
+     * Exporta las frecuencias de una {@link Instantanea} a un
+     * {@link Writer}, recorriendo su diccionario en orden alfabético sin
+     * construir la tabla en el heap. El orden por frecuencia no se admite.
+     *
+     * @param instantanea Instantánea a exportar
+     * @param salida Destino de la exportación
+     * @return Número de palabras exportadas
+     * @throws IOException Si ocurre un error al escribir
+     * @throws IllegalStateException si se pidió el orden por frecuencia
+     */
+    public long exportar(Instantanea instantanea, Writer salida) throws IOException {
+        if (porFrecuencia) {
+            throw new IllegalStateException("El orden por frecuencia requiere la tabla en memoria");
+        }
+        escribirEncabezado(salida);
+        long escritas = 0;
+        for (Frecuencia frecuencia : instantanea.frecuencias()) {
+            if (frecuencia.getRepeticiones() >= minimo) {
+                escribirFila(salida, frecuencia.getPalabra(), frecuencia.getRepeticiones());
+                escritas++;
+            }
+        }
+        return escritas;
+    }
+
+    /**
+     * Escribe el encabezado del formato, si tiene.
+     *
+     * @param salida Destino
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirEncabezado(Writer salida) throws IOException {
+        if (formato == Formato.CSV) {
+            salida.write("palabra,repeticiones\n");
+        } else if (formato == Formato.TSV) {
+            salida.write("palabra\trepeticiones\n");
+        }
+    }
+
+    /**
+     * Escribe una palabra y sus repeticiones en el formato elegido. Las
+     * palabras normalizadas sólo contienen letras, dígitos y algunos
+     * signos, pero se escapan igualmente los caracteres especiales de
+     * cada formato.
+     *
+     * @param salida Destino
+     * @param palabra Palabra
+     * @param repeticiones Repeticiones de la palabra
+     * @throws IOException Si ocurre un error al escribir
+     */
+    private void escribirFila(Writer salida, String palabra, int repeticiones) throws IOException {
+        switch (formato) {
+            case CSV:
+                if (palabra.indexOf(',') >= 0 || palabra.indexOf('"') >= 0) {
+                    salida.write('"');
+                    salida.write(palabra.replace("\"", "\"\""));
+                    salida.write('"');
+                } else {
+                    salida.write(palabra);
+                }
+                salida.write(',');
+                break;
+            case TSV:
+                salida.write(palabra);
+                salida.write('\t');
+                break;
+            default:
+                salida.write("{\"palabra\":");
+                escribirJson(palabra, salida);
+                salida.write(",\"repeticiones\":");
+                break;
+        }
+        salida.write(Integer.toString(repeticiones));
+        salida.write(formato == Formato.JSON ? "}\n" : "\n");
+    }
+
+    /**
+     * Escribe un texto como cadena JSON, con comillas y escapes: comillas,
+     * barras invertidas y caracteres de control, estos últimos como
+     * secuencias de escape Unicode.
+     *
+     * @param texto Texto a escribir
+     * @param salida Salida
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public static void escribirJson(String texto, Writer salida) throws IOException {
+        salida.write('"');
+        int inicio = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                salida.write(texto, inicio, i - inicio);
+                if (c < 0x20) {
+                    salida.write(String.format("\\u%04x", (int) c));
+                } else {
+                    salida.write('\\');
+                    salida.write(c);
+                }
+                inicio = i + 1;
+            }
+        }
+        salida.write(texto, inicio, texto.length() - inicio);
+        salida.write('"');
+    }
+}
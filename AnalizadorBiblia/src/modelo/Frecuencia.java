@@ -0,0 +1,74 @@
+package modelo;
+
+/**
+ * Par inmutable formado por una palabra y su número de repeticiones.
+ * Es el resultado de las consultas que devuelven varias palabras junto
+ * con su frecuencia, evitando una segunda búsqueda por cada palabra.
+ * También sirve como {@link TablaOrdenada.Entrada} en los recorridos de
+ * pares palabra-repeticiones.
+ * 
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class Frecuencia implements TablaOrdenada.Entrada<String, Integer> {
+    /**
+     * Palabra normalizada.
+     */
+    private final String palabra;
+    
+    /**
+     * Número de veces que aparece la palabra.
+     */
+    private final int repeticiones;
+
+    /**
+     * Constructor del par palabra-repeticiones.
+     * 
+     * @param palabra Palabra normalizada
+     * @param repeticiones Número de veces que aparece la palabra
+     */
+    public Frecuencia(String palabra, int repeticiones) {
+        this.palabra = palabra;
+        this.repeticiones = repeticiones;
+    }
+
+    /**
+     * Obtiene la palabra.
+     * 
+     * @return Palabra normalizada
+     */
+    public String getPalabra() {
+        return palabra;
+    }
+
+    /**
+     * Obtiene el número de repeticiones de la palabra.
+     * 
+     * @return Número de veces que aparece la palabra
+     */
+    public int getRepeticiones() {
+        return repeticiones;
+    }
+
+    @Override
+    public String getClave() {
+        return palabra;
+    }
+
+    @Override
+    public Integer getValor() {
+        return repeticiones;
+    }
+
+    /**
+     * Representación textual del par, en el mismo formato que
+     * {@link AnalizadorBiblia#getPalabraMasRepetida()}.
+     * 
+     * @return Palabra seguida de su número de repeticiones
+     */
+    @Override
+    public String toString() {
+        return String.format("%s (%d repeticiones)", palabra, repeticiones);
+    }
+}
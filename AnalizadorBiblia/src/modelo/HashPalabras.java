@@ -0,0 +1,40 @@
+package modelo;
+
+/**
+ * Función hash de 64 bits para palabras, común a los resúmenes
+ * probabilísticos ({@link HyperLogLog}, {@link CountMin}).
+ *
+ * <p>Recorre los caracteres con FNV-1a de 64 bits y mezcla el resultado
+ * con el paso final de MurmurHash3, de modo que todos los bits dependen
+ * de todos los caracteres. No depende de la ejecución ni de la JVM: dos
+ * resúmenes construidos por separado con la misma configuración se
+ * pueden fusionar.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+final class HashPalabras {
+
+    private HashPalabras() {
+    }
+
+    /**
+     * Calcula el hash de 64 bits de una palabra.
+     *
+     * @param palabra Palabra normalizada
+     * @return Hash de la palabra
+     */
+    static long hash64(String palabra) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < palabra.length(); i++) {
+            h = (h ^ palabra.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
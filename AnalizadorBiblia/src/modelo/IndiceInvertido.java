@@ -0,0 +1,1018 @@
+package modelo;
+
+import util.AnalisisLexico;
+import util.ProcesadorTexto;
+import util.Tokenizador;
+
+/**
+ * Índice invertido posicional de las líneas (versículos) de un texto.
+ *
+ * <p>Para cada palabra guarda en qué líneas aparece y en qué posición
+ * dentro de la línea. Las apariciones se codifican en un arreglo de bytes
+ * por palabra, en orden de aparición, como dos números en formato varint:
+ * la diferencia con la línea anterior y la posición (o, si la línea no
+ * cambió, la diferencia con la posición anterior). Con números pequeños
+ * cada aparición ocupa normalmente dos bytes.
+ *
+ * <p>Cada {@value #INTERVALO_SALTOS} líneas distintas se guarda un punto de
+ * salto (línea, posición en el arreglo) que permite avanzar hasta una
+ * línea sin decodificar las anteriores. Las intersecciones y diferencias
+ * avanzan cada lista hasta la línea actual de la otra usando esos saltos.
+ *
+ * <p>Sintaxis de las consultas de {@link #consultar(String)}:
+ * <ul>
+ *   <li>{@code dios tierra} o {@code dios AND tierra}: líneas con ambas</li>
+ *   <li>{@code dios OR señor}: líneas con alguna</li>
+ *   <li>{@code dios NOT tierra}: líneas con la primera y sin la segunda</li>
+ *   <li>{@code "en el principio"}: líneas con las palabras consecutivas</li>
+ *   <li>paréntesis para agrupar; NOT tiene mayor precedencia que AND y
+ *       AND mayor que OR</li>
+ * </ul>
+ *
+ * <p>Las palabras vacías del análisis léxico no se indexan, así que en la
+ * consulta no restringen nada: se omiten de AND y NOT, igual que dentro
+ * de las frases, y un OR formado sólo por palabras vacías no tiene líneas.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class IndiceInvertido {
+
+    /**
+     * Número de líneas distintas entre dos puntos de salto.
+     */
+    static final int INTERVALO_SALTOS = 32;
+
+    /**
+     * Lista de apariciones de una palabra.
+     */
+    private static class Postings {
+        /**
+         * Apariciones codificadas.
+         */
+        byte[] datos = new byte[8];
+        /**
+         * Número de bytes usados.
+         */
+        int largo;
+        /**
+         * Línea de la última aparición.
+         */
+        int ultimaLinea;
+        /**
+         * Posición de la última aparición.
+         */
+        int ultimaPosicion;
+        /**
+         * Número de líneas distintas en las que aparece la palabra.
+         */
+        int lineas;
+        /**
+         * Número de apariciones.
+         */
+        int apariciones;
+        /**
+         * Línea de cada punto de salto.
+         */
+        int[] saltoLinea;
+        /**
+         * Línea anterior a cada punto de salto, base para decodificar.
+         */
+        int[] saltoBase;
+        /**
+         * Posición en el arreglo de cada punto de salto.
+         */
+        int[] saltoOffset;
+        /**
+         * Número de puntos de salto.
+         */
+        int saltos;
+
+        /**
+         * Agrega una aparición. Las líneas deben llegar en orden creciente
+         * y, dentro de una línea, las posiciones también.
+         *
+         * @param linea Número de línea
+         * @param posicion Posición de la palabra dentro de la línea
+         */
+        void agregar(int linea, int posicion) {
+            if (linea != ultimaLinea) {
+                if (lineas % INTERVALO_SALTOS == 0 && lineas > 0) {
+                    agregarSalto(linea);
+                }
+                escribir(linea - ultimaLinea);
+                escribir(posicion);
+                lineas++;
+            } else {
+                escribir(0);
+                escribir(posicion - ultimaPosicion);
+            }
+            ultimaLinea = linea;
+            ultimaPosicion = posicion;
+            apariciones++;
+        }
+
+        /**
+         * Registra un punto de salto antes de la aparición que se va a escribir.
+         *
+         * @param linea Línea de la aparición
+         */
+        private void agregarSalto(int linea) {
+            if (saltoLinea == null) {
+                saltoLinea = new int[4];
+                saltoBase = new int[4];
+                saltoOffset = new int[4];
+            } else if (saltos == saltoLinea.length) {
+                saltoLinea = java.util.Arrays.copyOf(saltoLinea, saltos * 2);
+                saltoBase = java.util.Arrays.copyOf(saltoBase, saltos * 2);
+                saltoOffset = java.util.Arrays.copyOf(saltoOffset, saltos * 2);
+            }
+            saltoLinea[saltos] = linea;
+            saltoBase[saltos] = ultimaLinea;
+            saltoOffset[saltos] = largo;
+            saltos++;
+        }
+
+        /**
+         * Escribe un entero no negativo en formato varint.
+         *
+         * @param valor Valor a escribir
+         */
+        private void escribir(int valor) {
+            if (largo + 5 > datos.length) {
+                datos = java.util.Arrays.copyOf(datos, datos.length * 2);
+            }
+            while ((valor & ~0x7F) != 0) {
+                datos[largo++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            datos[largo++] = (byte) valor;
+        }
+
+        /**
+         * Ajusta los arreglos a su tamaño exacto.
+         */
+        void compactar() {
+            datos = java.util.Arrays.copyOf(datos, largo);
+            if (saltoLinea != null) {
+                saltoLinea = java.util.Arrays.copyOf(saltoLinea, saltos);
+                saltoBase = java.util.Arrays.copyOf(saltoBase, saltos);
+                saltoOffset = java.util.Arrays.copyOf(saltoOffset, saltos);
+            }
+        }
+    }
+
+    /**
+     * Listas de apariciones por palabra.
+     */
+    private final TablaHash<String, Postings> postings;
+    /**
+     * Todas las listas de apariciones, en orden de creación.
+     */
+    private final Lista<Postings> listas;
+    /**
+     * Tokenizador de las líneas indexadas.
+     */
+    private final Tokenizador tokenizador;
+    /**
+     * Análisis léxico de las líneas y las consultas, o null.
+     */
+    private final AnalisisLexico analisis;
+    /**
+     * Número de líneas indexadas.
+     */
+    private int numLineas;
+    /**
+     * Número total de apariciones indexadas.
+     */
+    private long totalApariciones;
+
+    /**
+     * Constructor que inicializa un índice vacío.
+     */
+    public IndiceInvertido() {
+        this(null);
+    }
+
+    /**
+     * Constructor que inicializa un índice vacío cuyas líneas y consultas
+     * pasan por un análisis léxico, que debe ser el del
+     * {@link AnalizadorBiblia} que se carga junto con el índice. Las
+     * palabras vacías no ocupan posición: una frase las omite igual que
+     * el texto indexado.
+     *
+     * @param analisis Análisis léxico, o null
+     */
+    public IndiceInvertido(AnalisisLexico analisis) {
+        this.analisis = analisis;
+        postings = new TablaHash<>();
+        listas = new Lista<>(1024);
+        tokenizador = new Tokenizador(analisis);
+        numLineas = 0;
+        totalApariciones = 0;
+    }
+
+    /**
+     * Indexa la siguiente línea del texto. Las líneas se numeran desde 1
+     * en el orden en que se agregan. Las palabras se separan y normalizan
+     * igual que en {@link AnalizadorBiblia#procesarTexto(String)}.
+     *
+     * @param linea Línea de texto
+     */
+    public void agregarLinea(String linea) {
+        numLineas++;
+        tokenizador.reiniciar(linea);
+        String palabra;
+        int posicion = 0;
+        while ((palabra = tokenizador.siguiente()) != null) {
+            Postings lista = postings.get(palabra);
+            if (lista == null) {
+                lista = new Postings();
+                postings.put(palabra, lista);
+                listas.agregarAlFinal(lista);
+            }
+            lista.agregar(numLineas, posicion++);
+            totalApariciones++;
+        }
+    }
+
+    /**
+     * Indexa la siguiente línea del texto, ya separada en palabras
+     * normalizadas. Equivale a {@link #agregarLinea(String)} sobre la
+     * línea original.
+     *
+     * @param palabras Arreglo con las palabras normalizadas y válidas
+     * @param desde Posición de la primera palabra de la línea (inclusiva)
+     * @param hasta Posición final de la línea (exclusiva)
+     */
+    void agregarPalabras(String[] palabras, int desde, int hasta) {
+        numLineas++;
+        for (int i = desde; i < hasta; i++) {
+            Postings lista = postings.get(palabras[i]);
+            if (lista == null) {
+                lista = new Postings();
+                postings.put(palabras[i], lista);
+                listas.agregarAlFinal(lista);
+            }
+            lista.agregar(numLineas, i - desde);
+            totalApariciones++;
+        }
+    }
+
+    /**
+     * Obtiene el número de líneas indexadas.
+     *
+     * @return Número de líneas
+     */
+    public int getNumeroLineas() {
+        return numLineas;
+    }
+
+    /**
+     * Obtiene el número total de apariciones indexadas.
+     *
+     * @return Número de apariciones
+     */
+    public long getTotalApariciones() {
+        return totalApariciones;
+    }
+
+    /**
+     * Obtiene el número de palabras distintas indexadas.
+     *
+     * @return Número de palabras distintas
+     */
+    public int getPalabrasIndexadas() {
+        return listas.tamano();
+    }
+
+    /**
+     * Obtiene los bytes usados por las apariciones codificadas y los
+     * puntos de salto, sin contar las palabras ni la tabla. Dividido por
+     * {@link #getTotalApariciones()} da el costo medio de una aparición.
+     *
+     * @return Bytes usados por las listas de apariciones
+     */
+    public long getBytesApariciones() {
+        long total = 0;
+        for (int i = 0; i < listas.tamano(); i++) {
+            Postings lista = listas.obtenerDe(i);
+            total += lista.largo + 12L * lista.saltos;
+        }
+        return total;
+    }
+
+    /**
+     * Ajusta la memoria de las listas a su tamaño exacto. Conviene
+     * llamarlo al terminar de indexar un texto.
+     */
+    public void compactar() {
+        for (int i = 0; i < listas.tamano(); i++) {
+            listas.obtenerDe(i).compactar();
+        }
+    }
+
+    /**
+     * Obtiene el número de líneas en las que aparece una palabra.
+     *
+     * @param palabra Palabra a buscar; se normaliza y analiza
+     * @return Número de líneas distintas con la palabra
+     */
+    public int contarLineas(String palabra) {
+        Postings lista = postings.get(normalizar(palabra));
+        return lista != null ? lista.lineas : 0;
+    }
+
+    /**
+     * Obtiene el análisis léxico del índice.
+     *
+     * @return Análisis léxico, o null
+     */
+    public AnalisisLexico getAnalisis() {
+        return analisis;
+    }
+
+    /**
+     * Lleva una palabra de una consulta a la forma con que se indexó.
+     *
+     * @param palabra Palabra de la consulta
+     * @return Forma indexada; cadena vacía si es una palabra vacía
+     */
+    private String normalizar(String palabra) {
+        String normalizada = ProcesadorTexto.normalizarPalabra(palabra);
+        if (analisis == null || !ProcesadorTexto.esPalabraValida(normalizada)) return normalizada;
+        String analizada = analisis.analizar(normalizada);
+        return analizada != null ? analizada : "";
+    }
+
+    /**
+     * Obtiene las líneas que cumplen una consulta booleana.
+     *
+     * @param consulta Consulta con palabras, frases entre comillas,
+     *                 AND, OR, NOT y paréntesis
+     * @return Números de línea en orden creciente
+     * @throws IllegalArgumentException si la consulta está mal formada
+     */
+    public Lista<Integer> consultar(String consulta) {
+        return consultar(consulta, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene las primeras líneas que cumplen una consulta booleana. Las
+     * listas se recorren en forma perezosa, de modo que sólo se decodifica
+     * lo necesario para encontrar esas líneas.
+     *
+     * @param consulta Consulta con palabras, frases entre comillas,
+     *                 AND, OR, NOT y paréntesis
+     * @param limite Número máximo de líneas a devolver
+     * @return Números de línea en orden creciente
+     * @throws IllegalArgumentException si la consulta está mal formada
+     */
+    public Lista<Integer> consultar(String consulta, int limite) {
+        Cursor cursor = new Analizador(consulta).analizar();
+        Lista<Integer> resultado = new Lista<>(10);
+        while (resultado.tamano() < limite && cursor.siguiente()) {
+            resultado.agregarAlFinal(cursor.linea);
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorrido ordenado de las líneas que cumplen una parte de la consulta.
+     * Antes de la primera llamada a {@link #siguiente()} la línea es 0, y al
+     * terminar es {@link #FIN}.
+     */
+    private abstract static class Cursor {
+        /**
+         * Valor de la línea cuando no quedan más.
+         */
+        static final int FIN = Integer.MAX_VALUE;
+        /**
+         * Línea actual.
+         */
+        int linea;
+
+        /**
+         * Avanza a la siguiente línea.
+         *
+         * @return true si existe
+         */
+        abstract boolean siguiente();
+
+        /**
+         * Avanza hasta la primera línea mayor o igual que la dada. Si la
+         * línea actual ya lo es, no se mueve.
+         *
+         * @param objetivo Línea buscada
+         * @return true si existe una línea mayor o igual
+         */
+        boolean avanzarHasta(int objetivo) {
+            while (linea < objetivo) {
+                if (!siguiente()) return false;
+            }
+            return linea != FIN;
+        }
+    }
+
+    /**
+     * Cursor sin líneas.
+     */
+    private static class CursorVacio extends Cursor {
+        @Override
+        boolean siguiente() {
+            linea = FIN;
+            return false;
+        }
+    }
+
+    /**
+     * Cursor sobre la lista de apariciones de una palabra. Al llegar a una
+     * línea decodifica también las posiciones de la palabra en ella.
+     */
+    private static class CursorPalabra extends Cursor {
+        /**
+         * Lista recorrida.
+         */
+        private final Postings lista;
+        /**
+         * Posición de lectura en el arreglo de bytes.
+         */
+        private int offset;
+        /**
+         * Índice del siguiente punto de salto no usado.
+         */
+        private int salto;
+        /**
+         * Posiciones de la palabra en la línea actual.
+         */
+        int[] posiciones = new int[4];
+        /**
+         * Número de posiciones en la línea actual.
+         */
+        int cantidadPosiciones;
+
+        /**
+         * Constructor del cursor.
+         *
+         * @param lista Lista de apariciones de la palabra
+         */
+        CursorPalabra(Postings lista) {
+            this.lista = lista;
+        }
+
+        /**
+         * Lee un varint y avanza.
+         *
+         * @return Valor leído
+         */
+        private int leer() {
+            int valor = 0, desplazamiento = 0;
+            byte b;
+            do {
+                b = lista.datos[offset++];
+                valor |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            return valor;
+        }
+
+        @Override
+        boolean siguiente() {
+            if (offset >= lista.largo) {
+                linea = FIN;
+                return false;
+            }
+            linea += leer();
+            int posicion = leer();
+            posiciones[0] = posicion;
+            cantidadPosiciones = 1;
+            // Apariciones adicionales en la misma línea: diferencia de línea 0
+            while (offset < lista.largo && lista.datos[offset] == 0) {
+                offset++;
+                posicion += leer();
+                if (cantidadPosiciones == posiciones.length) {
+                    posiciones = java.util.Arrays.copyOf(posiciones, cantidadPosiciones * 2);
+                }
+                posiciones[cantidadPosiciones++] = posicion;
+            }
+            return true;
+        }
+
+        @Override
+        boolean avanzarHasta(int objetivo) {
+            if (linea >= objetivo) return linea != FIN;
+            // Último punto de salto con línea <= objetivo
+            int inicio = salto, fin = lista.saltos - 1, elegido = -1;
+            while (inicio <= fin) {
+                int medio = (inicio + fin) >>> 1;
+                if (lista.saltoLinea[medio] <= objetivo) {
+                    elegido = medio;
+                    inicio = medio + 1;
+                } else {
+                    fin = medio - 1;
+                }
+            }
+            if (elegido >= 0 && lista.saltoOffset[elegido] > offset) {
+                offset = lista.saltoOffset[elegido];
+                linea = lista.saltoBase[elegido];
+                salto = elegido + 1;
+            }
+            return super.avanzarHasta(objetivo);
+        }
+    }
+
+    /**
+     * Intersección de dos cursores: cada uno avanza hasta la línea del otro.
+     */
+    private static class CursorY extends Cursor {
+        /**
+         * Cursores intersectados.
+         */
+        private final Cursor a, b;
+
+        /**
+         * Constructor de la intersección.
+         *
+         * @param a Primer cursor
+         * @param b Segundo cursor
+         */
+        CursorY(Cursor a, Cursor b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        boolean siguiente() {
+            return alinear(a.siguiente());
+        }
+
+        @Override
+        boolean avanzarHasta(int objetivo) {
+            if (linea >= objetivo) return linea != FIN;
+            return alinear(a.avanzarHasta(objetivo));
+        }
+
+        /**
+         * Avanza alternadamente los cursores hasta que coincidan.
+         *
+         * @param hayA Resultado del último avance del primer cursor
+         * @return true si se encontró una línea común
+         */
+        private boolean alinear(boolean hayA) {
+            while (hayA) {
+                if (!b.avanzarHasta(a.linea)) break;
+                if (b.linea == a.linea) {
+                    linea = a.linea;
+                    return true;
+                }
+                hayA = a.avanzarHasta(b.linea);
+            }
+            linea = FIN;
+            return false;
+        }
+    }
+
+    /**
+     * Unión de dos cursores.
+     */
+    private static class CursorO extends Cursor {
+        /**
+         * Cursores unidos.
+         */
+        private final Cursor a, b;
+        /**
+         * Indica si los cursores ya se posicionaron en su primera línea.
+         */
+        private boolean iniciado;
+
+        /**
+         * Constructor de la unión.
+         *
+         * @param a Primer cursor
+         * @param b Segundo cursor
+         */
+        CursorO(Cursor a, Cursor b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        boolean siguiente() {
+            if (!iniciado) {
+                a.siguiente();
+                b.siguiente();
+                iniciado = true;
+            } else {
+                if (a.linea == linea) a.siguiente();
+                if (b.linea == linea) b.siguiente();
+            }
+            linea = Math.min(a.linea, b.linea);
+            return linea != FIN;
+        }
+
+        @Override
+        boolean avanzarHasta(int objetivo) {
+            if (iniciado && linea >= objetivo) return linea != FIN;
+            iniciado = true;
+            a.avanzarHasta(objetivo);
+            b.avanzarHasta(objetivo);
+            linea = Math.min(a.linea, b.linea);
+            return linea != FIN;
+        }
+    }
+
+    /**
+     * Diferencia de dos cursores: líneas del primero que no están en el
+     * segundo. El segundo sólo avanza hasta la línea actual del primero.
+     */
+    private static class CursorDiferencia extends Cursor {
+        /**
+         * Cursor de las líneas incluidas.
+         */
+        private final Cursor incluidas;
+        /**
+         * Cursor de las líneas excluidas.
+         */
+        private final Cursor excluidas;
+
+        /**
+         * Constructor de la diferencia.
+         *
+         * @param incluidas Cursor de las líneas incluidas
+         * @param excluidas Cursor de las líneas excluidas
+         */
+        CursorDiferencia(Cursor incluidas, Cursor excluidas) {
+            this.incluidas = incluidas;
+            this.excluidas = excluidas;
+        }
+
+        @Override
+        boolean siguiente() {
+            return filtrar(incluidas.siguiente());
+        }
+
+        @Override
+        boolean avanzarHasta(int objetivo) {
+            if (linea >= objetivo) return linea != FIN;
+            return filtrar(incluidas.avanzarHasta(objetivo));
+        }
+
+        /**
+         * Salta las líneas incluidas que también están excluidas.
+         *
+         * @param hay Resultado del último avance del cursor de incluidas
+         * @return true si se encontró una línea
+         */
+        private boolean filtrar(boolean hay) {
+            while (hay) {
+                excluidas.avanzarHasta(incluidas.linea);
+                if (excluidas.linea != incluidas.linea) {
+                    linea = incluidas.linea;
+                    return true;
+                }
+                hay = incluidas.siguiente();
+            }
+            linea = FIN;
+            return false;
+        }
+    }
+
+    /**
+     * Complemento de un cursor respecto de todas las líneas indexadas.
+     */
+    private static class CursorNo extends Cursor {
+        /**
+         * Cursor negado.
+         */
+        final Cursor negado;
+        /**
+         * Número de líneas indexadas.
+         */
+        private final int total;
+
+        /**
+         * Constructor del complemento.
+         *
+         * @param negado Cursor negado
+         * @param total Número de líneas indexadas
+         */
+        CursorNo(Cursor negado, int total) {
+            this.negado = negado;
+            this.total = total;
+        }
+
+        @Override
+        boolean siguiente() {
+            return avanzarHasta(linea + 1);
+        }
+
+        @Override
+        boolean avanzarHasta(int objetivo) {
+            if (linea >= objetivo) return linea != FIN;
+            int candidata = objetivo;
+            while (candidata <= total) {
+                negado.avanzarHasta(candidata);
+                if (negado.linea != candidata) {
+                    linea = candidata;
+                    return true;
+                }
+                candidata++;
+            }
+            linea = FIN;
+            return false;
+        }
+    }
+
+    /**
+     * Cursor de una frase: líneas donde las palabras aparecen en posiciones
+     * consecutivas. Intersecta las líneas y luego compara las posiciones.
+     */
+    private static class CursorFrase extends Cursor {
+        /**
+         * Cursores de las palabras de la frase, en orden.
+         */
+        private final CursorPalabra[] palabras;
+        /**
+         * Intersección de las líneas de todas las palabras.
+         */
+        private final Cursor lineas;
+
+        /**
+         * Constructor del cursor de frase.
+         *
+         * @param palabras Cursores de las palabras de la frase, al menos dos
+         */
+        CursorFrase(CursorPalabra[] palabras) {
+            this.palabras = palabras;
+            Cursor interseccion = palabras[0];
+            for (int i = 1; i < palabras.length; i++) {
+                interseccion = new CursorY(interseccion, palabras[i]);
+            }
+            this.lineas = interseccion;
+        }
+
+        @Override
+        boolean siguiente() {
+            return filtrar(lineas.siguiente());
+        }
+
+        @Override
+        boolean avanzarHasta(int objetivo) {
+            if (linea >= objetivo) return linea != FIN;
+            return filtrar(lineas.avanzarHasta(objetivo));
+        }
+
+        /**
+         * Salta las líneas en las que las palabras no son consecutivas.
+         *
+         * @param hay Resultado del último avance de la intersección
+         * @return true si se encontró una línea con la frase
+         */
+        private boolean filtrar(boolean hay) {
+            while (hay) {
+                if (contieneFrase()) {
+                    linea = lineas.linea;
+                    return true;
+                }
+                hay = lineas.siguiente();
+            }
+            linea = FIN;
+            return false;
+        }
+
+        /**
+         * Verifica si en la línea actual las palabras son consecutivas.
+         *
+         * @return true si la frase aparece en la línea actual
+         */
+        private boolean contieneFrase() {
+            CursorPalabra primera = palabras[0];
+            for (int i = 0; i < primera.cantidadPosiciones; i++) {
+                int inicio = primera.posiciones[i];
+                boolean completa = true;
+                for (int j = 1; j < palabras.length && completa; j++) {
+                    completa = contiene(palabras[j], inicio + j);
+                }
+                if (completa) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Busca una posición en las posiciones de la línea actual de una palabra.
+         *
+         * @param cursor Cursor de la palabra
+         * @param posicion Posición buscada
+         * @return true si la palabra está en esa posición
+         */
+        private static boolean contiene(CursorPalabra cursor, int posicion) {
+            return java.util.Arrays.binarySearch(cursor.posiciones, 0, cursor.cantidadPosiciones, posicion) >= 0;
+        }
+    }
+
+    /**
+     * Marca de un término que no restringe la consulta, como una palabra
+     * vacía. El analizador la descarta al combinar y nunca la recorre.
+     */
+    private static final Cursor NEUTRO = new CursorVacio();
+
+    /**
+     * Analizador sintáctico descendente de las consultas.
+     */
+    private class Analizador {
+        /**
+         * Consulta a analizar.
+         */
+        private final String consulta;
+        /**
+         * Posición actual en la consulta.
+         */
+        private int posicion;
+
+        /**
+         * Constructor del analizador.
+         *
+         * @param consulta Consulta a analizar
+         */
+        Analizador(String consulta) {
+            this.consulta = consulta != null ? consulta : "";
+        }
+
+        /**
+         * Analiza la consulta completa.
+         *
+         * @return Cursor de las líneas que cumplen la consulta
+         * @throws IllegalArgumentException si la consulta está mal formada
+         */
+        Cursor analizar() {
+            if (siguienteToken() == null) throw new IllegalArgumentException("Consulta vacía");
+            Cursor cursor = disyuncion();
+            if (siguienteToken() != null) {
+                throw new IllegalArgumentException("Texto inesperado en la consulta: " + siguienteToken());
+            }
+            return cursor != NEUTRO ? cursor : new CursorVacio();
+        }
+
+        /**
+         * disyuncion := conjuncion ("OR" conjuncion)*
+         *
+         * @return Cursor de la disyunción
+         */
+        private Cursor disyuncion() {
+            Cursor cursor = conjuncion();
+            boolean alternativas = false;
+            while ("OR".equals(siguienteToken())) {
+                consumir();
+                alternativas = true;
+                Cursor otro = conjuncion();
+                if (otro == NEUTRO) continue;
+                cursor = cursor == NEUTRO ? otro : new CursorO(cursor, otro);
+            }
+            return alternativas && cursor == NEUTRO ? new CursorVacio() : cursor;
+        }
+
+        /**
+         * conjuncion := negacion (["AND"] negacion)*
+         *
+         * @return Cursor de la conjunción
+         */
+        private Cursor conjuncion() {
+            Cursor cursor = negacion();
+            while (true) {
+                String token = siguienteToken();
+                if (token == null || token.equals("OR") || token.equals(")")) return cursor;
+                if (token.equals("AND")) consumir();
+                Cursor otro = negacion();
+                if (otro == NEUTRO) continue;
+                if (cursor == NEUTRO) {
+                    cursor = otro;
+                } else if (otro instanceof CursorNo) {
+                    cursor = new CursorDiferencia(cursor, ((CursorNo) otro).negado);
+                } else if (cursor instanceof CursorNo) {
+                    cursor = new CursorDiferencia(otro, ((CursorNo) cursor).negado);
+                } else {
+                    cursor = new CursorY(cursor, otro);
+                }
+            }
+        }
+
+        /**
+         * negacion := "NOT" negacion | termino
+         *
+         * @return Cursor de la negación
+         */
+        private Cursor negacion() {
+            if ("NOT".equals(siguienteToken())) {
+                consumir();
+                Cursor negado = negacion();
+                if (negado == NEUTRO) return NEUTRO;
+                if (negado instanceof CursorNo) return ((CursorNo) negado).negado;
+                return new CursorNo(negado, numLineas);
+            }
+            return termino();
+        }
+
+        /**
+         * termino := "(" disyuncion ")" | frase | palabra
+         *
+         * @return Cursor del término; {@link #NEUTRO} si es una palabra vacía
+         */
+        private Cursor termino() {
+            String token = siguienteToken();
+            if (token == null || token.equals(")") || token.equals("AND") || token.equals("OR")) {
+                throw new IllegalArgumentException("Se esperaba una palabra en la consulta");
+            }
+            consumir();
+            if (token.equals("(")) {
+                Cursor cursor = disyuncion();
+                if (!")".equals(siguienteToken())) {
+                    throw new IllegalArgumentException("Falta cerrar un paréntesis en la consulta");
+                }
+                consumir();
+                return cursor;
+            }
+            if (token.startsWith("\"")) {
+                return frase(token.substring(1));
+            }
+            String palabra = normalizar(token);
+            if (palabra.isEmpty()) return NEUTRO;
+            Postings lista = postings.get(palabra);
+            return lista != null ? new CursorPalabra(lista) : new CursorVacio();
+        }
+
+        /**
+         * Construye el cursor de una frase, separando sus palabras igual
+         * que al indexar.
+         *
+         * @param texto Texto de la frase sin comillas
+         * @return Cursor de la frase
+         */
+        private Cursor frase(String texto) {
+            Tokenizador separador = new Tokenizador(analisis);
+            separador.reiniciar(texto);
+            Lista<CursorPalabra> cursores = new Lista<>(4);
+            String palabra;
+            while ((palabra = separador.siguiente()) != null) {
+                Postings lista = postings.get(palabra);
+                if (lista == null) return new CursorVacio();
+                cursores.agregarAlFinal(new CursorPalabra(lista));
+            }
+            if (cursores.tamano() == 0) return new CursorVacio();
+            if (cursores.tamano() == 1) return cursores.obtenerDe(0);
+            CursorPalabra[] arreglo = new CursorPalabra[cursores.tamano()];
+            for (int i = 0; i < arreglo.length; i++) arreglo[i] = cursores.obtenerDe(i);
+            return new CursorFrase(arreglo);
+        }
+
+        /**
+         * Obtiene el siguiente token sin consumirlo: un paréntesis, una
+         * frase (con la comilla inicial) o una secuencia sin espacios.
+         *
+         * @return Token, o null al final de la consulta
+         */
+        private String siguienteToken() {
+            while (posicion < consulta.length() && ProcesadorTexto.esSeparador(consulta.charAt(posicion))) {
+                posicion++;
+            }
+            if (posicion >= consulta.length()) return null;
+            char c = consulta.charAt(posicion);
+            if (c == '(' || c == ')') return String.valueOf(c);
+            if (c == '"') {
+                int cierre = consulta.indexOf('"', posicion + 1);
+                if (cierre < 0) throw new IllegalArgumentException("Falta cerrar una comilla en la consulta");
+                return consulta.substring(posicion, cierre);
+            }
+            return consulta.substring(posicion, finPalabra());
+        }
+
+        /**
+         * Consume el token actual.
+         */
+        private void consumir() {
+            char c = consulta.charAt(posicion);
+            if (c == '(' || c == ')') {
+                posicion++;
+            } else if (c == '"') {
+                posicion = consulta.indexOf('"', posicion + 1) + 1;
+            } else {
+                posicion = finPalabra();
+            }
+        }
+
+        /**
+         * Obtiene el final de la palabra que empieza en la posición actual.
+         *
+         * @return Posición siguiente al último carácter de la palabra
+         */
+        private int finPalabra() {
+            int fin = posicion;
+            while (fin < consulta.length()) {
+                char c = consulta.charAt(fin);
+                if (ProcesadorTexto.esSeparador(c) || c == '(' || c == ')' || c == '"') break;
+                fin++;
+            }
+            return fin;
+        }
+    }
+}
@@ -0,0 +1,855 @@
+package modelo;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import util.ProcesadorTexto;
+
+/**
+ * Instantánea binaria y compacta del estado de un {@link AnalizadorBiblia}.
+ *
+ * <p>Permite guardar el resultado de analizar un texto y volver a abrirlo
+ * sin leer ni tokenizar el texto otra vez. El archivo se abre mapeado en
+ * memoria y las consultas ({@link #obtenerRepeticiones(String)},
+ * {@link #palabrasConPrefijo(String, int, int)}, {@link #rank(String)},
+ * {@link #select(int)}) se responden leyendo directamente el mapeo, sin
+ * construir la tabla en el heap.
+ *
+ * <p>Formato (enteros en big-endian):
+ * <pre>
+ *   0  int   magia "ABIB"
+ *   4  int   versión
+ *   8  long  CRC32 del archivo de texto de origen
+ *  16  long  tamaño del archivo de origen en bytes
+ *  24  long  fecha de modificación del archivo de origen (ms)
+ *  32  long  total de palabras
+ *  40  int   palabras únicas
+ *  44  int   repeticiones de la palabra más repetida
+ *  48  int   palabras por bloque
+ *  52  int   número de bloques
+ *  56  int   posición del índice de bloques
+ *  60  int   posición de los datos
+ *  64  varint + ASCII: nombre de la codificación del archivo de origen
+ *      varint + UTF-8: palabra más repetida (largo 0 si no hay)
+ *  índice: posición de cada bloque, relativa a los datos (int)
+ *  datos:  bloques de palabras en orden alfabético
+ * </pre>
+ *
+ * <p>El diccionario usa codificación frontal por bloques: cada palabra se
+ * guarda como (bytes compartidos con la anterior, largo del sufijo,
+ * sufijo en UTF-8, repeticiones), todos los números en varint. La primera
+ * palabra de cada bloque no comparte bytes, y el índice permite hacer
+ * búsqueda binaria sobre ellas y luego recorrer un único bloque.
+ *
+ * <p>El tamaño y la fecha de modificación del origen permiten saber si la
+ * instantánea está vigente sin leer el texto
+ * ({@link #esVigente(String, Charset)}); el CRC32 sólo se calcula si el
+ * tamaño coincide y la fecha no. Una instantánea sólo está vigente para
+ * la misma codificación con que se leyó el texto, porque con otra las
+ * palabras y sus conteos cambian.
+ * {@link #esVigente(String, String, Charset)} hace la misma comprobación leyendo
+ * sólo la cabecera, sin mapear el archivo: una instantánea desactualizada
+ * no queda mapeada y {@link #guardar(AnalizadorBiblia, String, String, Charset)}
+ * puede reemplazarla también en sistemas que no permiten reemplazar un
+ * archivo mapeado, como Windows.
+ *
+ * <p>Las lecturas usan posiciones absolutas sobre el buffer, por lo que
+ * varios hilos pueden consultar la misma instancia.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class Instantanea {
+
+    /**
+     * Extensión de los archivos de instantánea.
+     */
+    public static final String EXTENSION = ".abib";
+
+    /**
+     * Número mágico al inicio del archivo ("ABIB").
+     */
+    private static final int MAGIA = 0x41424942;
+
+    /**
+     * Versión del formato.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * Tamaño de la cabecera fija en bytes.
+     */
+    private static final int TAMANO_CABECERA = 64;
+
+    /**
+     * Largo máximo del nombre de la codificación, para que su largo ocupe
+     * un único byte y la cabecera se pueda leer con una sola lectura.
+     */
+    private static final int MAX_NOMBRE_CODIFICACION = 0x7F;
+
+    /**
+     * Número de palabras por bloque de codificación frontal.
+     */
+    private static final int PALABRAS_POR_BLOQUE = 16;
+
+    /**
+     * Contenido del archivo mapeado en memoria.
+     */
+    private final ByteBuffer datos;
+    /**
+     * CRC32 del texto de origen.
+     */
+    private final long checksumFuente;
+    /**
+     * Tamaño en bytes del texto de origen.
+     */
+    private final long tamanoFuente;
+    /**
+     * Fecha de modificación del texto de origen, en milisegundos.
+     */
+    private final long modificacionFuente;
+    /**
+     * Nombre de la codificación con que se leyó el texto de origen.
+     */
+    private final String codificacionFuente;
+    /**
+     * Total de palabras procesadas.
+     */
+    private final long totalPalabras;
+    /**
+     * Número de palabras únicas.
+     */
+    private final int palabrasUnicas;
+    /**
+     * Repeticiones de la palabra más repetida.
+     */
+    private final int maxRepeticiones;
+    /**
+     * Palabra más repetida, o null si no hay palabras.
+     */
+    private final String palabraMasRepetida;
+    /**
+     * Palabras por bloque.
+     */
+    private final int tamanoBloque;
+    /**
+     * Número de bloques.
+     */
+    private final int numBloques;
+    /**
+     * Posición del índice de bloques.
+     */
+    private final int inicioIndice;
+    /**
+     * Posición del primer bloque.
+     */
+    private final int inicioDatos;
+
+    /**
+     * Constructor que interpreta la cabecera de un archivo ya mapeado.
+     *
+     * @param datos Contenido del archivo
+     * @throws IOException si el archivo no es una instantánea válida
+     */
+    private Instantanea(ByteBuffer datos) throws IOException {
+        validarCabecera(datos);
+        this.datos = datos;
+        this.checksumFuente = datos.getLong(8);
+        this.tamanoFuente = datos.getLong(16);
+        this.modificacionFuente = datos.getLong(24);
+        this.totalPalabras = datos.getLong(32);
+        this.palabrasUnicas = datos.getInt(40);
+        this.maxRepeticiones = datos.getInt(44);
+        this.tamanoBloque = datos.getInt(48);
+        this.numBloques = datos.getInt(52);
+        this.inicioIndice = datos.getInt(56);
+        this.inicioDatos = datos.getInt(60);
+
+        Lector lector = new Lector(TAMANO_CABECERA);
+        int largoCodificacion = lector.varint();
+        this.codificacionFuente = new String(lector.bytes(largoCodificacion), 0, largoCodificacion,
+                                             StandardCharsets.US_ASCII);
+        int largo = lector.varint();
+        this.palabraMasRepetida = largo == 0 ? null
+                : new String(lector.bytes(largo), 0, largo, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Abre una instantánea mapeándola en memoria.
+     *
+     * @param ruta Ruta del archivo de instantánea
+     * @return Instantánea lista para consultar
+     * @throws IOException si el archivo no se puede leer o no es válido
+     */
+    public static Instantanea abrir(String ruta) throws IOException {
+        try (FileChannel canal = FileChannel.open(Paths.get(ruta), StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Instantánea demasiado grande: " + canal.size() + " bytes");
+            }
+            MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return new Instantanea(mapeo);
+        }
+    }
+
+    /**
+     * Lee una instantánea completa en el heap, sin mapearla. Conviene
+     * cuando su contenido se va a copiar a un analizador con
+     * {@link AnalizadorBiblia#cargarInstantanea(Instantanea)}: el archivo
+     * no queda mapeado y se puede reemplazar después.
+     *
+     * @param ruta Ruta del archivo de instantánea
+     * @return Instantánea lista para consultar
+     * @throws IOException si el archivo no se puede leer o no es válido
+     */
+    public static Instantanea leer(String ruta) throws IOException {
+        return new Instantanea(ByteBuffer.wrap(Files.readAllBytes(Paths.get(ruta))));
+    }
+
+    /**
+     * Indica si una instantánea corresponde al contenido actual de un
+     * texto, igual que {@link #esVigente(String, Charset)}, pero leyendo sólo la
+     * cabecera del archivo con una lectura normal, sin mapearlo.
+     *
+     * @param ruta Ruta del archivo de instantánea
+     * @param rutaFuente Ruta del archivo de texto de origen
+     * @param codificacion Codificación con que se va a leer el texto
+     * @return true si el texto no cambió desde que se guardó la
+     *         instantánea y se guardó con la misma codificación
+     * @throws IOException si algún archivo no se puede leer o la
+     *                     instantánea no es válida
+     */
+    public static boolean esVigente(String ruta, String rutaFuente, Charset codificacion) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA + 1 + MAX_NOMBRE_CODIFICACION);
+        try (FileChannel canal = FileChannel.open(Paths.get(ruta), StandardOpenOption.READ)) {
+            while (cabecera.hasRemaining() && canal.read(cabecera) >= 0) {
+                // Leer hasta completar la cabecera o llegar al final
+            }
+        }
+        cabecera.flip();
+        validarCabecera(cabecera);
+        int largo = cabecera.limit() > TAMANO_CABECERA ? cabecera.get(TAMANO_CABECERA) : -1;
+        if (largo < 0 || TAMANO_CABECERA + 1 + largo > cabecera.limit()) {
+            throw new IOException("El archivo no es una instantánea del analizador");
+        }
+        byte[] nombre = new byte[largo];
+        cabecera.position(TAMANO_CABECERA + 1);
+        cabecera.get(nombre);
+        if (!codificacion.name().equals(new String(nombre, StandardCharsets.US_ASCII))) return false;
+        return vigente(cabecera.getLong(16), cabecera.getLong(24), cabecera.getLong(8), rutaFuente);
+    }
+
+    /**
+     * Verifica el número mágico y la versión de una cabecera.
+     *
+     * @param datos Contenido del archivo, al menos la cabecera
+     * @throws IOException si el archivo no es una instantánea válida
+     */
+    private static void validarCabecera(ByteBuffer datos) throws IOException {
+        if (datos.limit() < TAMANO_CABECERA || datos.getInt(0) != MAGIA) {
+            throw new IOException("El archivo no es una instantánea del analizador");
+        }
+        if (datos.getInt(4) != VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + datos.getInt(4));
+        }
+    }
+
+    /**
+     * Guarda el estado de un analizador como instantánea. El archivo se
+     * escribe primero con un nombre temporal y luego se renombra, de modo
+     * que un lector nunca ve una instantánea a medio escribir. Guarda el
+     * tamaño, la fecha de modificación y el CRC32 del texto de origen, y
+     * la codificación con que se leyó. La instantánea anterior no debe estar mapeada por
+     * {@link #abrir(String)}: en Windows no se puede reemplazar.
+     *
+     * @param analizador Analizador a guardar
+     * @param ruta Ruta del archivo de instantánea
+     * @param rutaFuente Ruta del texto de origen
+     * @param codificacion Codificación con que se leyó el texto de origen
+     * @throws IOException si ocurre un error al escribir o al leer el origen
+     */
+    public static void guardar(AnalizadorBiblia analizador, String ruta, String rutaFuente,
+                               Charset codificacion) throws IOException {
+        byte[] nombreCodificacion = codificacion.name().getBytes(StandardCharsets.US_ASCII);
+        if (nombreCodificacion.length > MAX_NOMBRE_CODIFICACION) {
+            throw new IOException("Nombre de codificación demasiado largo: " + codificacion.name());
+        }
+
+        // El tamaño y la fecha se leen antes del CRC32: si el texto cambia
+        // mientras tanto, la fecha guardada ya no coincide
+        Path fuente = Paths.get(rutaFuente);
+        long tamanoFuente = Files.size(fuente);
+        long modificacionFuente = Files.getLastModifiedTime(fuente).toMillis();
+        long checksumFuente = calcularChecksum(rutaFuente);
+
+        // Diccionario e índice en memoria, para conocer las posiciones antes de escribir
+        ByteArrayOutputStream diccionario = new ByteArrayOutputStream();
+        int unicas = analizador.getPalabrasUnicas();
+        int[] indice = new int[(unicas + PALABRAS_POR_BLOQUE - 1) / PALABRAS_POR_BLOQUE];
+        byte[] anterior = new byte[0];
+        int n = 0;
+        for (TablaOrdenada.Entrada<String, Integer> entrada : analizador.entradas()) {
+            byte[] actual = entrada.getClave().getBytes(StandardCharsets.UTF_8);
+            int comun = 0;
+            if (n % PALABRAS_POR_BLOQUE == 0) {
+                indice[n / PALABRAS_POR_BLOQUE] = diccionario.size();
+            } else {
+                int maximo = Math.min(anterior.length, actual.length);
+                while (comun < maximo && anterior[comun] == actual[comun]) comun++;
+            }
+            escribirVarint(diccionario, comun);
+            escribirVarint(diccionario, actual.length - comun);
+            diccionario.write(actual, comun, actual.length - comun);
+            escribirVarint(diccionario, entrada.getValor());
+            anterior = actual;
+            n++;
+        }
+
+        ByteArrayOutputStream cabeceraVariable = new ByteArrayOutputStream();
+        escribirVarint(cabeceraVariable, nombreCodificacion.length);
+        cabeceraVariable.write(nombreCodificacion, 0, nombreCodificacion.length);
+        String masRepetida = analizador.getPalabraMasRepetidaSola();
+        byte[] bytesMasRepetida = masRepetida == null ? new byte[0] : masRepetida.getBytes(StandardCharsets.UTF_8);
+        escribirVarint(cabeceraVariable, bytesMasRepetida.length);
+        cabeceraVariable.write(bytesMasRepetida, 0, bytesMasRepetida.length);
+
+        long inicioIndice = TAMANO_CABECERA + cabeceraVariable.size();
+        long inicioDatos = inicioIndice + 4L * indice.length;
+        if (inicioDatos + diccionario.size() > Integer.MAX_VALUE) {
+            throw new IOException("Vocabulario demasiado grande para una instantánea");
+        }
+
+        Path destino = Paths.get(ruta);
+        Path temporal = Paths.get(ruta + ".tmp");
+        try (DataOutputStream salida = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeLong(checksumFuente);
+            salida.writeLong(tamanoFuente);
+            salida.writeLong(modificacionFuente);
+            salida.writeLong(analizador.getTotalPalabras());
+            salida.writeInt(unicas);
+            salida.writeInt(analizador.getMaxRepeticiones());
+            salida.writeInt(PALABRAS_POR_BLOQUE);
+            salida.writeInt(indice.length);
+            salida.writeInt((int) inicioIndice);
+            salida.writeInt((int) inicioDatos);
+            cabeceraVariable.writeTo(salida);
+            for (int posicion : indice) {
+                salida.writeInt(posicion);
+            }
+            diccionario.writeTo(salida);
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Calcula el CRC32 de un archivo, usado para saber si una instantánea
+     * corresponde a la versión actual del texto.
+     *
+     * @param ruta Ruta del archivo
+     * @return CRC32 del contenido del archivo
+     * @throws IOException si el archivo no se puede leer
+     */
+    public static long calcularChecksum(String ruta) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel canal = FileChannel.open(Paths.get(ruta), StandardOpenOption.READ)) {
+            long posicion = 0;
+            long tamano = canal.size();
+            while (posicion < tamano) {
+                long largo = Math.min(tamano - posicion, 1L << 30);
+                crc.update(canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo));
+                posicion += largo;
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Escribe un entero no negativo en formato varint (7 bits por byte,
+     * el bit alto indica que siguen más bytes).
+     *
+     * @param salida Flujo de salida
+     * @param valor Valor a escribir, no negativo
+     */
+    private static void escribirVarint(OutputStream salida, int valor) {
+        try {
+            while ((valor & ~0x7F) != 0) {
+                salida.write((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            salida.write(valor);
+        } catch (IOException e) {
+            // ByteArrayOutputStream no lanza IOException
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Indica si la instantánea corresponde al contenido actual de un texto
+     * leído con una codificación. Con otra codificación no está vigente.
+     * Si el tamaño difiere, tampoco; si el tamaño y la fecha de
+     * modificación coinciden, lo está. Sólo en otro caso se lee el archivo
+     * para comparar su CRC32.
+     *
+     * @param rutaFuente Ruta del archivo de texto de origen
+     * @param codificacion Codificación con que se va a leer el texto
+     * @return true si el archivo no cambió desde que se guardó la
+     *         instantánea y se guardó con la misma codificación
+     * @throws IOException si el archivo no se puede leer
+     */
+    public boolean esVigente(String rutaFuente, Charset codificacion) throws IOException {
+        if (!codificacion.name().equals(codificacionFuente)) return false;
+        return vigente(tamanoFuente, modificacionFuente, checksumFuente, rutaFuente);
+    }
+
+    /**
+     * Compara los datos guardados del texto de origen con el archivo actual.
+     *
+     * @param tamano Tamaño guardado en bytes
+     * @param modificacion Fecha de modificación guardada, en milisegundos
+     * @param checksum CRC32 guardado
+     * @param rutaFuente Ruta del archivo de texto de origen
+     * @return true si el archivo no cambió
+     * @throws IOException si el archivo no se puede leer
+     */
+    private static boolean vigente(long tamano, long modificacion, long checksum, String rutaFuente)
+            throws IOException {
+        Path fuente = Paths.get(rutaFuente);
+        if (Files.size(fuente) != tamano) return false;
+        if (Files.getLastModifiedTime(fuente).toMillis() == modificacion) return true;
+        return calcularChecksum(rutaFuente) == checksum;
+    }
+
+    /**
+     * Obtiene el CRC32 del texto a partir del cual se generó la instantánea.
+     *
+     * @return CRC32 del texto de origen
+     */
+    public long getChecksumFuente() {
+        return checksumFuente;
+    }
+
+    /**
+     * Obtiene el nombre de la codificación con que se leyó el texto de origen.
+     *
+     * @return Nombre canónico de la codificación
+     */
+    public String getCodificacionFuente() {
+        return codificacionFuente;
+    }
+
+    /**
+     * Obtiene el total de palabras procesadas incluyendo repeticiones.
+     *
+     * @return Número total de palabras procesadas
+     */
+    public long getTotalPalabras() {
+        return totalPalabras;
+    }
+
+    /**
+     * Obtiene el número de palabras únicas.
+     *
+     * @return Número de palabras únicas
+     */
+    public int getPalabrasUnicas() {
+        return palabrasUnicas;
+    }
+
+    /**
+     * Obtiene la palabra más repetida, en el mismo formato que
+     * {@link AnalizadorBiblia#getPalabraMasRepetida()}.
+     *
+     * @return String con la palabra más repetida y su frecuencia
+     */
+    public String getPalabraMasRepetida() {
+        return palabraMasRepetida != null ?
+               String.format("%s (%d repeticiones)", palabraMasRepetida, maxRepeticiones) :
+               "No hay palabras procesadas";
+    }
+
+    /**
+     * Obtiene la palabra más repetida sin formato.
+     *
+     * @return Palabra más repetida, o null si no hay palabras
+     */
+    String getPalabraMasRepetidaSola() {
+        return palabraMasRepetida;
+    }
+
+    /**
+     * Obtiene el número de repeticiones de la palabra más repetida.
+     *
+     * @return Repeticiones de la palabra más repetida
+     */
+    int getMaxRepeticiones() {
+        return maxRepeticiones;
+    }
+
+    /**
+     * Obtiene el número de repeticiones de una palabra.
+     *
+     * @param palabra Palabra a buscar; se normaliza igual que al analizar
+     * @return Número de veces que aparece la palabra, 0 si no existe
+     */
+    public int obtenerRepeticiones(String palabra) {
+        palabra = ProcesadorTexto.normalizarPalabra(palabra);
+        if (palabra.isEmpty()) return 0;
+        Lector lector = buscar(palabra);
+        return lector.actual && lector.compararCon(palabra) == 0 ? lector.repeticiones : 0;
+    }
+
+    /**
+     * Obtiene el número de palabras menores que la dada.
+     *
+     * @param palabra Palabra ya normalizada
+     * @return Número de palabras menores que la dada
+     */
+    public int rank(String palabra) {
+        Lector lector = buscar(palabra);
+        return lector.actual ? lector.numero - 1 : palabrasUnicas;
+    }
+
+    /**
+     * Obtiene la palabra en la posición k-ésima del orden alfabético.
+     *
+     * @param k Posición de la palabra (0-indexada)
+     * @return Palabra en la posición k
+     * @throws IllegalArgumentException si k está fuera de rango
+     */
+    public String select(int k) {
+        if (k < 0 || k >= palabrasUnicas) throw new IllegalArgumentException();
+        int bloque = k / tamanoBloque;
+        Lector lector = new Lector(inicioBloque(bloque));
+        lector.numero = bloque * tamanoBloque;
+        while (lector.numero <= k) lector.siguiente();
+        return lector.palabra();
+    }
+
+    /**
+     * Busca todas las palabras que comienzan con un prefijo, junto con
+     * su número de repeticiones, en orden alfabético.
+     *
+     * @param prefijo Prefijo a buscar; se normaliza igual que las palabras
+     * @return Lista de pares palabra-repeticiones con el prefijo dado
+     */
+    public Lista<Frecuencia> palabrasConPrefijo(String prefijo) {
+        return palabrasConPrefijo(prefijo, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene una página de las palabras que comienzan con un prefijo,
+     * recorriendo el diccionario desde la primera coincidencia.
+     *
+     * @param prefijo Prefijo a buscar; se normaliza igual que las palabras
+     * @param desde Número de palabras del rango a omitir
+     * @param limite Número máximo de palabras a devolver
+     * @return Lista de pares palabra-repeticiones con el prefijo dado
+     * @throws IllegalArgumentException si desde o limite son negativos
+     */
+    public Lista<Frecuencia> palabrasConPrefijo(String prefijo, int desde, int limite) {
+        if (desde < 0 || limite < 0) throw new IllegalArgumentException("Paginación inválida");
+        Lista<Frecuencia> resultado = new Lista<>(10);
+        prefijo = ProcesadorTexto.normalizarPalabra(prefijo);
+        if (palabrasUnicas == 0) return resultado;
+
+        byte[] bytesPrefijo = prefijo.getBytes(StandardCharsets.UTF_8);
+        Lector lector = buscar(prefijo);
+        int omitidas = 0;
+        while (lector.actual && resultado.tamano() < limite && lector.empiezaCon(bytesPrefijo)) {
+            if (omitidas < desde) {
+                omitidas++;
+            } else {
+                resultado.agregarAlFinal(new Frecuencia(lector.palabra(), lector.repeticiones));
+            }
+            lector.avanzar();
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta las palabras que comienzan con un prefijo, con dos búsquedas
+     * en el diccionario y sin recorrer el rango.
+     *
+     * @param prefijo Prefijo a buscar; se normaliza igual que las palabras
+     * @return Número de palabras con el prefijo
+     */
+    public int contarPalabrasConPrefijo(String prefijo) {
+        prefijo = ProcesadorTexto.normalizarPalabra(prefijo);
+        // Igual que en AnalizadorBiblia, el fin del rango es el rank del
+        // sucesor del prefijo
+        int i = prefijo.length() - 1;
+        while (i >= 0 && prefijo.charAt(i) == Character.MAX_VALUE) i--;
+        int fin = i < 0 ? palabrasUnicas : rank(prefijo.substring(0, i) + (char) (prefijo.charAt(i) + 1));
+        return fin - rank(prefijo);
+    }
+
+    /**
+     * Recorre todas las palabras de la instantánea en orden alfabético.
+     *
+     * @return Iterable con los pares palabra-repeticiones
+     */
+    public Iterable<Frecuencia> frecuencias() {
+        return () -> new Iterator<Frecuencia>() {
+            private final Lector lector = new Lector(inicioDatos);
+
+            @Override
+            public boolean hasNext() {
+                return lector.haySiguiente();
+            }
+
+            @Override
+            public Frecuencia next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                lector.siguiente();
+                return new Frecuencia(lector.palabra(), lector.repeticiones);
+            }
+        };
+    }
+
+    /**
+     * Obtiene la posición absoluta de un bloque.
+     *
+     * @param bloque Número de bloque
+     * @return Posición del bloque en el archivo
+     */
+    private int inicioBloque(int bloque) {
+        return inicioDatos + datos.getInt(inicioIndice + 4 * bloque);
+    }
+
+    /**
+     * Busca la primera palabra mayor o igual que la dada: primero el último
+     * bloque cuya primera palabra es menor o igual, con búsqueda binaria
+     * sobre el índice, y luego se recorre desde ese bloque.
+     *
+     * @param palabra Palabra ya normalizada
+     * @return Lector cuya palabra actual es la encontrada; si todas las
+     *         palabras son menores, el lector queda sin palabra actual
+     */
+    private Lector buscar(String palabra) {
+        int inicio = 0, fin = numBloques - 1, bloque = 0;
+        while (inicio <= fin) {
+            int medio = (inicio + fin) >>> 1;
+            Lector primera = new Lector(inicioBloque(medio));
+            primera.siguiente();
+            if (primera.compararCon(palabra) <= 0) {
+                bloque = medio;
+                inicio = medio + 1;
+            } else {
+                fin = medio - 1;
+            }
+        }
+
+        Lector lector = new Lector(numBloques == 0 ? inicioDatos : inicioBloque(bloque));
+        lector.numero = bloque * tamanoBloque;
+        lector.avanzar();
+        while (lector.actual && lector.compararCon(palabra) < 0) {
+            lector.avanzar();
+        }
+        return lector;
+    }
+
+    /**
+     * Cursor sobre el diccionario. Decodifica las palabras una a una en un
+     * buffer reutilizable, aprovechando el prefijo compartido con la
+     * anterior. Cada consulta usa su propio lector.
+     */
+    private class Lector {
+        /**
+         * Posición de la siguiente palabra a decodificar.
+         */
+        int posicion;
+        /**
+         * Número de palabras decodificadas desde el inicio del diccionario.
+         */
+        int numero;
+        /**
+         * Bytes UTF-8 de la palabra actual.
+         */
+        byte[] buffer = new byte[64];
+        /**
+         * Largo de la palabra actual en bytes.
+         */
+        int largo;
+        /**
+         * Repeticiones de la palabra actual.
+         */
+        int repeticiones;
+        /**
+         * Indica si el lector tiene una palabra actual decodificada.
+         */
+        boolean actual;
+
+        /**
+         * Constructor del lector.
+         *
+         * @param posicion Posición inicial en el archivo
+         */
+        Lector(int posicion) {
+            this.posicion = posicion;
+        }
+
+        /**
+         * Lee un varint en la posición actual y avanza.
+         *
+         * @return Valor leído
+         */
+        int varint() {
+            int valor = 0, desplazamiento = 0;
+            byte b;
+            do {
+                b = datos.get(posicion++);
+                valor |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            return valor;
+        }
+
+        /**
+         * Lee bytes en la posición actual hacia el inicio del buffer.
+         *
+         * @param n Número de bytes a leer
+         * @return Buffer con los bytes leídos
+         */
+        byte[] bytes(int n) {
+            asegurarCapacidad(n);
+            for (int i = 0; i < n; i++) buffer[i] = datos.get(posicion++);
+            return buffer;
+        }
+
+        /**
+         * Amplía el buffer si es necesario.
+         *
+         * @param n Capacidad mínima
+         */
+        void asegurarCapacidad(int n) {
+            if (buffer.length < n) {
+                byte[] nuevo = new byte[Math.max(n, buffer.length * 2)];
+                System.arraycopy(buffer, 0, nuevo, 0, largo);
+                buffer = nuevo;
+            }
+        }
+
+        /**
+         * Indica si quedan palabras por decodificar.
+         *
+         * @return true si hay una palabra siguiente
+         */
+        boolean haySiguiente() {
+            return numero < palabrasUnicas;
+        }
+
+        /**
+         * Decodifica la siguiente palabra. Las palabras de un bloque
+         * reutilizan el prefijo que ya está en el buffer.
+         */
+        void siguiente() {
+            int comun = varint();
+            int sufijo = varint();
+            asegurarCapacidad(comun + sufijo);
+            for (int i = 0; i < sufijo; i++) buffer[comun + i] = datos.get(posicion++);
+            largo = comun + sufijo;
+            repeticiones = varint();
+            numero++;
+            actual = true;
+        }
+
+        /**
+         * Avanza a la siguiente palabra si existe; si no, el lector queda
+         * sin palabra actual.
+         */
+        void avanzar() {
+            if (haySiguiente()) {
+                siguiente();
+            } else {
+                actual = false;
+            }
+        }
+
+        /**
+         * Obtiene la palabra actual como String.
+         *
+         * @return Palabra actual
+         */
+        String palabra() {
+            return new String(buffer, 0, largo, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Indica si la palabra actual empieza con un prefijo.
+         *
+         * @param prefijo Bytes UTF-8 del prefijo
+         * @return true si la palabra actual empieza con el prefijo
+         */
+        boolean empiezaCon(byte[] prefijo) {
+            if (largo < prefijo.length) return false;
+            for (int i = 0; i < prefijo.length; i++) {
+                if (buffer[i] != prefijo[i]) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Compara la palabra actual con una clave en el orden de
+         * {@link String#compareTo(String)}, decodificando el UTF-8 sin
+         * crear objetos.
+         *
+         * @param clave Clave a comparar
+         * @return Negativo, cero o positivo si la palabra actual es menor,
+         *         igual o mayor que la clave
+         */
+        int compararCon(String clave) {
+            int i = 0, p = 0;
+            while (i < clave.length() && p < largo) {
+                int b = buffer[p] & 0xFF;
+                int puntoCodigo, n;
+                if (b < 0x80) {
+                    puntoCodigo = b;
+                    n = 1;
+                } else if (b < 0xE0) {
+                    puntoCodigo = ((b & 0x1F) << 6) | (buffer[p + 1] & 0x3F);
+                    n = 2;
+                } else if (b < 0xF0) {
+                    puntoCodigo = ((b & 0x0F) << 12) | ((buffer[p + 1] & 0x3F) << 6) | (buffer[p + 2] & 0x3F);
+                    n = 3;
+                } else {
+                    puntoCodigo = ((b & 0x07) << 18) | ((buffer[p + 1] & 0x3F) << 12)
+                                  | ((buffer[p + 2] & 0x3F) << 6) | (buffer[p + 3] & 0x3F);
+                    n = 4;
+                }
+                p += n;
+
+                if (puntoCodigo < 0x10000) {
+                    int cmp = (char) puntoCodigo - clave.charAt(i++);
+                    if (cmp != 0) return cmp;
+                } else {
+                    int cmp = Character.highSurrogate(puntoCodigo) - clave.charAt(i++);
+                    if (cmp != 0) return cmp;
+                    if (i == clave.length()) return 1;
+                    cmp = Character.lowSurrogate(puntoCodigo) - clave.charAt(i++);
+                    if (cmp != 0) return cmp;
+                }
+            }
+            if (p < largo) return 1;
+            if (i < clave.length()) return -1;
+            return 0;
+        }
+    }
+}
@@ -172,6 +172,19 @@ public class Lista<Item> implements Iterable<Item> {
         return elementos[posicion];
     }
 
+    /**
+     * Crea una copia de la lista con los mismos elementos, copiando el
+     * arreglo interno de una vez. Los elementos no se copian.
+     * 
+     * @return Nueva lista con los mismos elementos en el mismo orden
+     */
+    public Lista<Item> copia() {
+        Lista<Item> copia = new Lista<>(Math.max(1, cantidad));
+        System.arraycopy(elementos, 0, copia.elementos, 0, cantidad);
+        copia.cantidad = cantidad;
+        return copia;
+    }
+
     /**
      * Verifica si la lista está vacía.
      * 
@@ -0,0 +1,285 @@
+package modelo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Copia inmutable de las métricas de carga de un {@link AnalizadorBiblia}:
+ * cuánto texto se leyó, cuántas palabras se aceptaron y rechazaron, y en
+ * qué etapa se gastó el tiempo.
+ *
+ * <p>Los contadores de texto (líneas, palabras, rechazadas, distintas) se
+ * llevan en toda carga. Los bytes, los tiempos por etapa y la memoria
+ * asignada sólo los registran {@link CargadorPorEtapas} y
+ * {@link CargadorParalelo}; llamar directamente a
+ * {@link AnalizadorBiblia#procesarTexto(String)} no mide tiempos para no
+ * agregar costo por línea.
+ *
+ * <p>Los tiempos de cada etapa son la suma de los tiempos de sus hilos,
+ * por lo que con varios hilos pueden superar al tiempo total. La
+ * tokenización incluye la normalización, que el {@link util.Tokenizador}
+ * hace en la misma pasada.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class MetricasCarga {
+
+    /**
+     * Bytes leídos del archivo.
+     */
+    private final long bytesLeidos;
+    /**
+     * Líneas procesadas.
+     */
+    private final long lineas;
+    /**
+     * Palabras válidas procesadas, con repeticiones.
+     */
+    private final long palabras;
+    /**
+     * Palabras omitidas por no ser válidas.
+     */
+    private final long palabrasRechazadas;
+    /**
+     * Palabras distintas en el analizador.
+     */
+    private final int palabrasDistintas;
+    /**
+     * Nanosegundos de lectura y decodificación del archivo.
+     */
+    private final long nanosLectura;
+    /**
+     * Nanosegundos de separación y normalización de palabras.
+     */
+    private final long nanosTokenizacion;
+    /**
+     * Nanosegundos de inserción de las palabras en el analizador.
+     */
+    private final long nanosInsercion;
+    /**
+     * Nanosegundos transcurridos en las cargas, de principio a fin.
+     */
+    private final long nanosTotal;
+    /**
+     * Bytes de memoria asignados por los hilos de carga, o -1 si la JVM
+     * no permitió medirlos en ningún hilo.
+     */
+    private final long bytesAsignados;
+
+    /**
+     * Constructor de la copia.
+     *
+     * @param acumulador Métricas acumuladas
+     * @param lineas Líneas procesadas directamente por el analizador
+     * @param palabras Palabras válidas procesadas
+     * @param rechazadas Palabras rechazadas por el tokenizador del analizador
+     * @param palabrasDistintas Palabras distintas en el analizador
+     */
+    MetricasCarga(Acumulador acumulador, long lineas, long palabras, long rechazadas, int palabrasDistintas) {
+        this.bytesLeidos = acumulador.bytesLeidos.sum();
+        this.lineas = lineas + acumulador.lineas.sum();
+        this.palabras = palabras;
+        this.palabrasRechazadas = rechazadas + acumulador.palabrasRechazadas.sum();
+        this.palabrasDistintas = palabrasDistintas;
+        this.nanosLectura = acumulador.nanosLectura.sum();
+        this.nanosTokenizacion = acumulador.nanosTokenizacion.sum();
+        this.nanosInsercion = acumulador.nanosInsercion.sum();
+        this.nanosTotal = acumulador.nanosTotal.sum();
+        this.bytesAsignados = acumulador.asignacionMedida ? acumulador.bytesAsignados.sum() : -1;
+    }
+
+    /**
+     * Obtiene los bytes leídos del archivo.
+     *
+     * @return Bytes leídos, 0 si el texto no se cargó desde un archivo
+     */
+    public long getBytesLeidos() {
+        return bytesLeidos;
+    }
+
+    /**
+     * Obtiene el número de líneas procesadas.
+     *
+     * @return Número de líneas
+     */
+    public long getLineas() {
+        return lineas;
+    }
+
+    /**
+     * Obtiene el número de palabras válidas procesadas, con repeticiones.
+     *
+     * @return Número de palabras
+     */
+    public long getPalabras() {
+        return palabras;
+    }
+
+    /**
+     * Obtiene el número de palabras omitidas por quedar vacías o sin
+     * letras tras normalizarse.
+     *
+     * @return Número de palabras rechazadas
+     */
+    public long getPalabrasRechazadas() {
+        return palabrasRechazadas;
+    }
+
+    /**
+     * Obtiene el número de palabras distintas.
+     *
+     * @return Número de palabras distintas
+     */
+    public int getPalabrasDistintas() {
+        return palabrasDistintas;
+    }
+
+    /**
+     * Obtiene el tiempo de lectura y decodificación del archivo.
+     *
+     * @return Tiempo en nanosegundos
+     */
+    public long getNanosLectura() {
+        return nanosLectura;
+    }
+
+    /**
+     * Obtiene el tiempo de separación y normalización de palabras.
+     *
+     * @return Tiempo en nanosegundos
+     */
+    public long getNanosTokenizacion() {
+        return nanosTokenizacion;
+    }
+
+    /**
+     * Obtiene el tiempo de inserción de las palabras en el analizador.
+     *
+     * @return Tiempo en nanosegundos
+     */
+    public long getNanosInsercion() {
+        return nanosInsercion;
+    }
+
+    /**
+     * Obtiene el tiempo transcurrido en las cargas, de principio a fin.
+     *
+     * @return Tiempo en nanosegundos
+     */
+    public long getNanosTotal() {
+        return nanosTotal;
+    }
+
+    /**
+     * Obtiene una estimación de la memoria asignada por los hilos de carga.
+     * Omite los hilos en los que la JVM no la mide, como los virtuales.
+     *
+     * @return Bytes asignados, o -1 si no se pudo medir en ningún hilo
+     */
+    public long getBytesAsignados() {
+        return bytesAsignados;
+    }
+
+    /**
+     * Devuelve un resumen legible de las métricas.
+     *
+     * @return Resumen en varias líneas
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        double segundos = nanosTotal / 1e9;
+        sb.append(String.format("- Bytes leídos: %d%n", bytesLeidos));
+        sb.append(String.format("- Líneas: %d%n", lineas));
+        sb.append(String.format("- Palabras: %d (%d rechazadas, %d distintas)%n",
+                palabras, palabrasRechazadas, palabrasDistintas));
+        if (nanosTotal > 0) {
+            sb.append(String.format("- Tiempo total: %.3f s (%.1f MB/s, %.0f palabras/s)%n",
+                    segundos, bytesLeidos / 1e6 / segundos, palabras / segundos));
+            sb.append(String.format("- Lectura: %.3f s, tokenización: %.3f s, inserción: %.3f s%n",
+                    nanosLectura / 1e9, nanosTokenizacion / 1e9, nanosInsercion / 1e9));
+        }
+        if (bytesAsignados >= 0) {
+            sb.append(String.format("- Memoria asignada: %.1f MB%n", bytesAsignados / 1e6));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Métricas que los cargadores acumulan durante la carga. Los
+     * contadores admiten sumas desde varios hilos a la vez; cada etapa
+     * suma una vez por lote o por bloque, no por palabra.
+     */
+    static class Acumulador {
+        /**
+         * Bytes leídos del archivo.
+         */
+        final LongAdder bytesLeidos = new LongAdder();
+        /**
+         * Líneas procesadas por los cargadores.
+         */
+        final LongAdder lineas = new LongAdder();
+        /**
+         * Palabras rechazadas por los tokenizadores de los cargadores.
+         */
+        final LongAdder palabrasRechazadas = new LongAdder();
+        /**
+         * Nanosegundos de lectura.
+         */
+        final LongAdder nanosLectura = new LongAdder();
+        /**
+         * Nanosegundos de tokenización.
+         */
+        final LongAdder nanosTokenizacion = new LongAdder();
+        /**
+         * Nanosegundos de inserción.
+         */
+        final LongAdder nanosInsercion = new LongAdder();
+        /**
+         * Nanosegundos totales de las cargas.
+         */
+        final LongAdder nanosTotal = new LongAdder();
+        /**
+         * Bytes asignados por los hilos de carga.
+         */
+        final LongAdder bytesAsignados = new LongAdder();
+        /**
+         * Indica si la memoria asignada se pudo medir en algún hilo.
+         */
+        volatile boolean asignacionMedida;
+
+        /**
+         * Suma la memoria asignada por el hilo actual desde una medición
+         * anterior, si ambas mediciones fueron posibles.
+         *
+         * @param inicio Valor de {@link #bytesAsignadosHiloActual()} al empezar
+         */
+        void sumarAsignados(long inicio) {
+            long fin = bytesAsignadosHiloActual();
+            if (inicio >= 0 && fin >= 0) {
+                bytesAsignados.add(fin - inicio);
+                asignacionMedida = true;
+            }
+        }
+    }
+
+    /**
+     * Obtiene los bytes asignados hasta ahora por el hilo actual, si la
+     * JVM lo permite (HotSpot lo permite para hilos de plataforma).
+     *
+     * @return Bytes asignados, o -1 si no se pueden medir
+     */
+    static long bytesAsignadosHiloActual() {
+        ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        if (hilos instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean medidor = (com.sun.management.ThreadMXBean) hilos;
+            if (medidor.isThreadAllocatedMemorySupported() && medidor.isThreadAllocatedMemoryEnabled()) {
+                return medidor.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+}
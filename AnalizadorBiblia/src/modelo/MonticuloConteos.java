@@ -0,0 +1,221 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Montículo de mínimos de contadores de palabras, con un índice hash
+ * que permite localizar el contador de una palabra en O(1).
+ *
+ * <p>En la raíz está siempre el "peor" contador: el de menos repeticiones
+ * y, a igualdad de repeticiones, el de palabra alfabéticamente mayor.
+ * Es la estructura común de {@link TopKExacto} y {@link TopKAproximado}.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+class MonticuloConteos {
+
+    /**
+     * Contador de una palabra dentro del montículo.
+     */
+    static class Contador {
+        /**
+         * Palabra contada.
+         */
+        String palabra;
+        /**
+         * Número de repeticiones (exacto o estimado).
+         */
+        int repeticiones;
+        /**
+         * Sobreestimación máxima de las repeticiones (0 si es exacto).
+         */
+        int error;
+        /**
+         * Posición del contador en el arreglo del montículo.
+         */
+        int posicion;
+    }
+
+    /**
+     * Contadores organizados como montículo binario de mínimos.
+     */
+    private final Contador[] monticulo;
+    /**
+     * Número de contadores en el montículo.
+     */
+    private int cantidad;
+    /**
+     * Índice de los contadores por palabra.
+     */
+    private final TablaHash<String, Contador> indice;
+
+    /**
+     * Constructor de un montículo vacío con capacidad fija.
+     *
+     * @param capacidad Número máximo de contadores
+     */
+    MonticuloConteos(int capacidad) {
+        monticulo = new Contador[capacidad];
+        indice = new TablaHash<>(capacidad);
+        cantidad = 0;
+    }
+
+    /**
+     * Indica si el montículo alcanzó su capacidad.
+     *
+     * @return true si no admite más contadores
+     */
+    boolean lleno() {
+        return cantidad == monticulo.length;
+    }
+
+    /**
+     * Obtiene el contador de la raíz, el peor del montículo.
+     *
+     * @return Contador mínimo, o null si está vacío
+     */
+    Contador minimo() {
+        return cantidad == 0 ? null : monticulo[0];
+    }
+
+    /**
+     * Busca el contador de una palabra.
+     *
+     * @param palabra Palabra a buscar
+     * @return Contador de la palabra, o null si no está en el montículo
+     */
+    Contador buscar(String palabra) {
+        return indice.get(palabra);
+    }
+
+    /**
+     * Agrega un contador nuevo. El montículo no debe estar lleno.
+     *
+     * @param palabra Palabra contada
+     * @param repeticiones Repeticiones iniciales
+     * @param error Sobreestimación máxima inicial
+     */
+    void insertar(String palabra, int repeticiones, int error) {
+        Contador c = new Contador();
+        c.palabra = palabra;
+        c.repeticiones = repeticiones;
+        c.error = error;
+        c.posicion = cantidad;
+        monticulo[cantidad++] = c;
+        indice.put(palabra, c);
+        flotar(c.posicion);
+    }
+
+    /**
+     * Aumenta las repeticiones de un contador y lo reubica.
+     *
+     * @param c Contador del montículo
+     * @param repeticiones Nuevas repeticiones, mayores o iguales a las actuales
+     */
+    void aumentar(Contador c, int repeticiones) {
+        c.repeticiones = repeticiones;
+        hundir(c.posicion);
+    }
+
+    /**
+     * Reemplaza la palabra del contador mínimo por otra.
+     *
+     * @param palabra Nueva palabra
+     * @param repeticiones Repeticiones de la nueva palabra
+     * @param error Sobreestimación máxima de la nueva palabra
+     */
+    void reemplazarMinimo(String palabra, int repeticiones, int error) {
+        Contador c = monticulo[0];
+        indice.delete(c.palabra);
+        c.palabra = palabra;
+        c.repeticiones = repeticiones;
+        c.error = error;
+        indice.put(palabra, c);
+        hundir(0);
+    }
+
+    /**
+     * Indica si un par (repeticiones, palabra) es peor que otro: tiene
+     * menos repeticiones o, con las mismas, va después alfabéticamente.
+     *
+     * @param repeticiones Repeticiones del primer par
+     * @param palabra Palabra del primer par
+     * @param otrasRepeticiones Repeticiones del segundo par
+     * @param otraPalabra Palabra del segundo par
+     * @return true si el primer par queda por debajo del segundo
+     */
+    static boolean peor(int repeticiones, String palabra, int otrasRepeticiones, String otraPalabra) {
+        if (repeticiones != otrasRepeticiones) return repeticiones < otrasRepeticiones;
+        return palabra.compareTo(otraPalabra) > 0;
+    }
+
+    /**
+     * Indica si el contador en la posición i es peor que el de la j.
+     *
+     * @param i Posición del primer contador
+     * @param j Posición del segundo contador
+     * @return true si el primero queda por debajo del segundo
+     */
+    private boolean peor(int i, int j) {
+        return peor(monticulo[i].repeticiones, monticulo[i].palabra,
+                    monticulo[j].repeticiones, monticulo[j].palabra);
+    }
+
+    /**
+     * Obtiene los contadores ordenados de mejor a peor.
+     *
+     * @return Copia ordenada de los contadores
+     */
+    Contador[] ordenados() {
+        Contador[] copia = Arrays.copyOf(monticulo, cantidad);
+        Arrays.sort(copia, (a, b) -> a.repeticiones != b.repeticiones
+                                     ? Integer.compare(b.repeticiones, a.repeticiones)
+                                     : a.palabra.compareTo(b.palabra));
+        return copia;
+    }
+
+    /**
+     * Sube un contador mientras sea peor que su padre.
+     *
+     * @param k Posición del contador
+     */
+    private void flotar(int k) {
+        while (k > 0) {
+            int padre = (k - 1) / 2;
+            if (!peor(k, padre)) break;
+            intercambiar(k, padre);
+            k = padre;
+        }
+    }
+
+    /**
+     * Baja un contador mientras alguno de sus hijos sea peor que él.
+     *
+     * @param k Posición del contador
+     */
+    private void hundir(int k) {
+        while (2 * k + 1 < cantidad) {
+            int hijo = 2 * k + 1;
+            if (hijo + 1 < cantidad && peor(hijo + 1, hijo)) hijo++;
+            if (!peor(hijo, k)) break;
+            intercambiar(k, hijo);
+            k = hijo;
+        }
+    }
+
+    /**
+     * Intercambia dos contadores y actualiza sus posiciones.
+     *
+     * @param i Posición del primer contador
+     * @param j Posición del segundo contador
+     */
+    private void intercambiar(int i, int j) {
+        Contador t = monticulo[i];
+        monticulo[i] = monticulo[j];
+        monticulo[j] = t;
+        monticulo[i].posicion = i;
+        monticulo[j].posicion = j;
+    }
+}
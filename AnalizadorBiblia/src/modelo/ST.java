@@ -1,5 +1,6 @@
 package modelo;
 
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -7,17 +8,35 @@ import java.util.NoSuchElementException;
  * Implementación de una Tabla de Símbolos (Symbol Table) ordenada
  * basada en un arreglo de pares clave-valor.
  * 
- * <p>Esta implementación mantiene las claves ordenadas y utiliza
- * búsqueda binaria para operaciones eficientes. Soporta todas las
- * operaciones estándar de una tabla de símbolos ordenada.
+ * <p>Los pares se indexan en una {@link TablaHash}, de modo que
+ * {@code get} y {@code put} no dependen del orden de las claves.
+ * El arreglo ordenado se construye de forma diferida: las claves nuevas
+ * se acumulan como pendientes y sólo se ordenan e intercalan con el
+ * arreglo existente cuando se ejecuta la primera operación ordenada
+ * ({@code rank}, {@code select}, {@code floor}, {@code ceiling},
+ * {@code keys}, etc.). Así, llenar la tabla con muchas claves nuevas
+ * no desplaza el arreglo en cada inserción.
  * 
  * <p>Complejidades de tiempo:
  * <ul>
- *   <li>Búsqueda: O(log n)</li>
- *   <li>Inserción: O(n) en el peor caso</li>
+ *   <li>Búsqueda: O(1) esperado</li>
+ *   <li>Inserción: O(1) esperado</li>
+ *   <li>Primera operación ordenada tras p inserciones: O(n + p log p)</li>
+ *   <li>Operaciones ordenadas siguientes: O(log n)</li>
  *   <li>Eliminación: O(n) en el peor caso</li>
  * </ul>
  * 
+ * <p>Los recorridos ({@code keys}, {@code descendingKeys}, {@code entries}
+ * y el iterador de la tabla) son vistas sobre el arreglo ordenado: no
+ * copian las claves y no usan memoria proporcional al tamaño de la tabla.
+ * Si la tabla se modifica estructuralmente (se agrega o elimina una clave)
+ * durante un recorrido, el iterador lanza
+ * {@link ConcurrentModificationException}.
+ * 
+ * <p>Para cargas con muchas eliminaciones conviene {@link STRojoNegro},
+ * que implementa la misma interfaz {@link TablaOrdenada} con todas las
+ * operaciones en O(log n).
+ * 
  * @param <Key> Tipo de las claves, debe implementar Comparable
  * @param <Value> Tipo de los valores asociados a las claves
  * 
@@ -25,16 +44,33 @@ import java.util.NoSuchElementException;
  * @author Juan
  * @author Rodrigo
  */
-public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
+public class ST<Key extends Comparable<Key>, Value> implements TablaOrdenada<Key, Value> {
     /**
      * Lista que almacena los pares clave-valor ordenados por clave.
+     * No incluye los pares que aún están pendientes de ordenar.
+     */
+    private Lista<ParClaveValor> elementos;
+    
+    /**
+     * Pares insertados desde el último ordenamiento, en orden de llegada.
+     */
+    private Lista<ParClaveValor> pendientes;
+    
+    /**
+     * Índice hash que localiza el par de cada clave sin búsqueda binaria.
      */
-    private final Lista<ParClaveValor> elementos;
+    private final TablaHash<Key, ParClaveValor> indice;
+    
+    /**
+     * Número de modificaciones estructurales (claves agregadas o
+     * eliminadas), usado por los iteradores para detectar cambios.
+     */
+    private int modificaciones;
     
     /**
      * Clase interna que representa un par clave-valor.
      */
-    private class ParClaveValor {
+    private class ParClaveValor implements Entrada<Key, Value> {
         /**
          * Clave del par (inmutable una vez asignada).
          */
@@ -54,6 +90,16 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
             this.clave = clave;
             this.valor = valor;
         }
+
+        @Override
+        public Key getClave() {
+            return clave;
+        }
+
+        @Override
+        public Value getValor() {
+            return valor;
+        }
     }
 
     /**
@@ -61,6 +107,72 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      */
     public ST() {
         elementos = new Lista<>(16);
+        pendientes = new Lista<>(16);
+        indice = new TablaHash<>();
+    }
+
+    /**
+     * Incorpora los pares pendientes al arreglo ordenado.
+     * Ordena los pendientes por mezcla y los intercala con los
+     * elementos ya ordenados en una sola pasada.
+     */
+    @SuppressWarnings("unchecked")
+    private void asegurarOrden() {
+        int p = pendientes.tamano();
+        if (p == 0) return;
+        
+        Object[] nuevos = new Object[p];
+        for (int i = 0; i < p; i++) {
+            nuevos[i] = pendientes.obtenerDe(i);
+        }
+        ordenar(nuevos, new Object[p], 0, p);
+        
+        int n = elementos.tamano();
+        Lista<ParClaveValor> mezcla = new Lista<>(Math.max(16, n + p));
+        int i = 0, j = 0;
+        while (i < n && j < p) {
+            ParClaveValor a = elementos.obtenerDe(i);
+            ParClaveValor b = (ParClaveValor) nuevos[j];
+            if (a.clave.compareTo(b.clave) <= 0) {
+                mezcla.agregarAlFinal(a);
+                i++;
+            } else {
+                mezcla.agregarAlFinal(b);
+                j++;
+            }
+        }
+        while (i < n) mezcla.agregarAlFinal(elementos.obtenerDe(i++));
+        while (j < p) mezcla.agregarAlFinal((ParClaveValor) nuevos[j++]);
+        
+        elementos = mezcla;
+        pendientes = new Lista<>(16);
+    }
+
+    /**
+     * Ordena por mezcla el tramo [inicio, fin) de un arreglo de pares.
+     * 
+     * @param pares Arreglo de pares a ordenar
+     * @param aux Arreglo auxiliar del mismo tamaño
+     * @param inicio Primera posición del tramo (inclusiva)
+     * @param fin Última posición del tramo (exclusiva)
+     */
+    @SuppressWarnings("unchecked")
+    private void ordenar(Object[] pares, Object[] aux, int inicio, int fin) {
+        if (fin - inicio < 2) return;
+        int medio = inicio + (fin - inicio) / 2;
+        ordenar(pares, aux, inicio, medio);
+        ordenar(pares, aux, medio, fin);
+        
+        for (int k = inicio; k < fin; k++) {
+            aux[k] = pares[k];
+        }
+        int i = inicio, j = medio;
+        for (int k = inicio; k < fin; k++) {
+            if (i >= medio) pares[k] = aux[j++];
+            else if (j >= fin) pares[k] = aux[i++];
+            else if (((ParClaveValor) aux[j]).clave.compareTo(((ParClaveValor) aux[i]).clave) < 0) pares[k] = aux[j++];
+            else pares[k] = aux[i++];
+        }
     }
 
     /**
@@ -79,12 +191,15 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
             return;
         }
         
-        int pos = rank(clave);
+        ParClaveValor par = indice.get(clave);
         
-        if (pos < elementos.tamano() && elementos.obtenerDe(pos).clave.compareTo(clave) == 0) {
-            elementos.obtenerDe(pos).valor = valor;
+        if (par != null) {
+            par.valor = valor;
         } else {
-            elementos.insertarEn(pos, new ParClaveValor(clave, valor));
+            par = new ParClaveValor(clave, valor);
+            indice.put(clave, par);
+            pendientes.agregarAlFinal(par);
+            modificaciones++;
         }
     }
 
@@ -96,11 +211,8 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      */
     public Value get(Key clave) {
         if (clave == null) return null;
-        int pos = rank(clave);
-        if (pos < elementos.tamano() && elementos.obtenerDe(pos).clave.compareTo(clave) == 0) {
-            return elementos.obtenerDe(pos).valor;
-        }
-        return null;
+        ParClaveValor par = indice.get(clave);
+        return par != null ? par.valor : null;
     }
 
     /**
@@ -109,11 +221,11 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      * @param clave Clave a eliminar
      */
     public void delete(Key clave) {
-        if (clave == null) return;
+        if (clave == null || !indice.contains(clave)) return;
         int pos = rank(clave);
-        if (pos < elementos.tamano() && elementos.obtenerDe(pos).clave.compareTo(clave) == 0) {
-            elementos.eliminarDe(pos);
-        }
+        elementos.eliminarDe(pos);
+        indice.delete(clave);
+        modificaciones++;
     }
 
     /**
@@ -132,7 +244,7 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      * @return true si no contiene elementos, false en caso contrario
      */
     public boolean isEmpty() {
-        return elementos.estaVacia();
+        return indice.isEmpty();
     }
 
     /**
@@ -141,7 +253,7 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      * @return Tamaño de la tabla
      */
     public int size() {
-        return elementos.tamano();
+        return indice.size();
     }
 
     /**
@@ -152,6 +264,7 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      */
     public Key min() {
         if (isEmpty()) throw new NoSuchElementException();
+        asegurarOrden();
         return elementos.obtenerDe(0).clave;
     }
 
@@ -163,6 +276,7 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      */
     public Key max() {
         if (isEmpty()) throw new NoSuchElementException();
+        asegurarOrden();
         return elementos.obtenerDe(elementos.tamano() - 1).clave;
     }
 
@@ -201,6 +315,7 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      * @return Número de claves menores que la clave dada
      */
     public int rank(Key clave) {
+        asegurarOrden();
         int inicio = 0, fin = elementos.tamano() - 1;
         while (inicio <= fin) {
             int medio = inicio + (fin - inicio) / 2;
@@ -221,6 +336,7 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      */
     public Key select(int k) {
         if (k < 0 || k >= size()) throw new IllegalArgumentException();
+        asegurarOrden();
         return elementos.obtenerDe(k).clave;
     }
 
@@ -231,7 +347,9 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      */
     public void deleteMin() {
         if (isEmpty()) throw new NoSuchElementException();
-        elementos.eliminarDe(0);
+        asegurarOrden();
+        indice.delete(elementos.eliminarDe(0).clave);
+        modificaciones++;
     }
 
     /**
@@ -241,7 +359,9 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
      */
     public void deleteMax() {
         if (isEmpty()) throw new NoSuchElementException();
-        elementos.eliminarDe(elementos.tamano() - 1);
+        asegurarOrden();
+        indice.delete(elementos.eliminarDe(elementos.tamano() - 1).clave);
+        modificaciones++;
     }
 
     /**
@@ -257,33 +377,187 @@ public class ST<Key extends Comparable<Key>, Value> implements Iterable<Key> {
     }
 
     /**
-     * Obtiene todas las claves en el rango [lo, hi].
+     * Obtiene todas las claves de la tabla en orden ascendente.
+     * 
+     * @return Iterable con todas las claves, sin copiarlas
+     */
+    public Iterable<Key> keys() {
+        return () -> new RecorridoClaves(0, size(), false);
+    }
+
+    /**
+     * Obtiene todas las claves en el rango [lo, hi] en orden ascendente.
+     * El rango se calcula al crear cada iterador.
      * 
      * @param lo Límite inferior del rango
      * @param hi Límite superior del rango
-     * @return Iterable con las claves en el rango especificado
+     * @return Iterable con las claves en el rango especificado, sin copiarlas
      */
     public Iterable<Key> keys(Key lo, Key hi) {
-        Lista<Key> lista = new Lista<>(size());
-        int inicio = rank(lo);
-        int fin = rank(hi);
-        
-        for (int i = inicio; i < fin; i++) {
-            lista.agregarAlFinal(elementos.obtenerDe(i).clave);
-        }
-        if (contains(hi)) {
-            lista.agregarAlFinal(elementos.obtenerDe(fin).clave);
-        }
-        return lista;
+        return () -> new RecorridoClaves(rank(lo), finRango(lo, hi), false);
+    }
+
+    /**
+     * Obtiene todas las claves de la tabla en orden descendente.
+     * 
+     * @return Iterable con todas las claves, de mayor a menor
+     */
+    public Iterable<Key> descendingKeys() {
+        return () -> new RecorridoClaves(0, size(), true);
+    }
+
+    /**
+     * Obtiene todas las claves en el rango [lo, hi] en orden descendente.
+     * 
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Iterable con las claves en el rango, de mayor a menor
+     */
+    public Iterable<Key> descendingKeys(Key lo, Key hi) {
+        return () -> new RecorridoClaves(rank(lo), finRango(lo, hi), true);
+    }
+
+    /**
+     * Obtiene todos los pares clave-valor de la tabla en orden ascendente.
+     * Los pares devueltos son los de la propia tabla, por lo que no se
+     * crea ningún objeto por elemento.
+     * 
+     * @return Iterable con los pares de la tabla
+     */
+    public Iterable<Entrada<Key, Value>> entries() {
+        return () -> new RecorridoEntradas(0, size(), false);
+    }
+
+    /**
+     * Obtiene los pares clave-valor cuyas claves están en el rango [lo, hi],
+     * en orden ascendente.
+     * 
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Iterable con los pares en el rango especificado
+     */
+    public Iterable<Entrada<Key, Value>> entries(Key lo, Key hi) {
+        return () -> new RecorridoEntradas(rank(lo), finRango(lo, hi), false);
     }
 
     /**
      * Proporciona un iterador para recorrer todas las claves en orden.
+     * Sobre una tabla vacía devuelve un iterador sin elementos.
      * 
      * @return Iterator para recorrer las claves ordenadamente
      */
     @Override
     public Iterator<Key> iterator() {
-        return keys(min(), max()).iterator();
+        return new RecorridoClaves(0, size(), false);
+    }
+
+    /**
+     * Obtiene la posición siguiente a la última clave menor o igual a hi.
+     * Si lo es mayor que hi el rango es vacío.
+     * 
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Posición final (exclusiva) del rango
+     */
+    private int finRango(Key lo, Key hi) {
+        if (lo.compareTo(hi) > 0) return rank(lo);
+        int pos = rank(hi);
+        if (pos < elementos.tamano() && elementos.obtenerDe(pos).clave.compareTo(hi) == 0) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Iterador sobre un tramo [inicio, fin) del arreglo ordenado, en
+     * sentido ascendente o descendente. Lee directamente el arreglo de la
+     * tabla y verifica en cada paso que no haya habido modificaciones
+     * estructurales desde su creación.
+     * 
+     * @param <T> Tipo de los elementos devueltos
+     */
+    private abstract class Recorrido<T> implements Iterator<T> {
+        /**
+         * Posición del siguiente par a devolver.
+         */
+        private int posicion;
+        /**
+         * Número de pares que quedan por devolver.
+         */
+        private int restantes;
+        /**
+         * Indica si el recorrido va de mayor a menor.
+         */
+        private final boolean descendente;
+        /**
+         * Valor del contador de modificaciones al crear el iterador.
+         */
+        private final int modificacionesEsperadas;
+
+        /**
+         * Constructor del recorrido.
+         * 
+         * @param inicio Primera posición del tramo (inclusiva)
+         * @param fin Última posición del tramo (exclusiva)
+         * @param descendente true para recorrer de mayor a menor
+         */
+        Recorrido(int inicio, int fin, boolean descendente) {
+            asegurarOrden();
+            this.descendente = descendente;
+            this.restantes = Math.max(0, fin - inicio);
+            this.posicion = descendente ? fin - 1 : inicio;
+            this.modificacionesEsperadas = modificaciones;
+        }
+
+        /**
+         * Obtiene el elemento a devolver a partir de un par de la tabla.
+         * 
+         * @param par Par de la tabla
+         * @return Elemento a devolver
+         */
+        abstract T extraer(ParClaveValor par);
+
+        @Override
+        public boolean hasNext() {
+            return restantes > 0;
+        }
+
+        @Override
+        public T next() {
+            if (modificaciones != modificacionesEsperadas) throw new ConcurrentModificationException();
+            if (restantes == 0) throw new NoSuchElementException();
+            ParClaveValor par = elementos.obtenerDe(posicion);
+            posicion += descendente ? -1 : 1;
+            restantes--;
+            return extraer(par);
+        }
+    }
+
+    /**
+     * Recorrido que devuelve las claves de la tabla.
+     */
+    private class RecorridoClaves extends Recorrido<Key> {
+        RecorridoClaves(int inicio, int fin, boolean descendente) {
+            super(inicio, fin, descendente);
+        }
+
+        @Override
+        Key extraer(ParClaveValor par) {
+            return par.clave;
+        }
+    }
+
+    /**
+     * Recorrido que devuelve los pares clave-valor de la tabla.
+     */
+    private class RecorridoEntradas extends Recorrido<Entrada<Key, Value>> {
+        RecorridoEntradas(int inicio, int fin, boolean descendente) {
+            super(inicio, fin, descendente);
+        }
+
+        @Override
+        Entrada<Key, Value> extraer(ParClaveValor par) {
+            return par;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,702 @@
+package modelo;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementación de una Tabla de Símbolos ordenada basada en un árbol
+ * rojo-negro inclinado a la izquierda (left-leaning red-black BST).
+ *
+ * <p>Cada nodo guarda el tamaño de su subárbol, lo que permite resolver
+ * {@code rank} y {@code select} recorriendo un solo camino de la raíz a
+ * una hoja. El árbol se mantiene balanceado con rotaciones y cambios de
+ * color, por lo que su altura nunca supera 2 lg n.
+ *
+ * <p>Complejidades de tiempo (peor caso):
+ * <ul>
+ *   <li>Búsqueda: O(log n)</li>
+ *   <li>Inserción: O(log n)</li>
+ *   <li>Eliminación: O(log n)</li>
+ *   <li>rank, select, floor, ceiling: O(log n)</li>
+ * </ul>
+ *
+ * <p>Los recorridos usan una pila con los nodos del camino actual, de
+ * tamaño O(log n), y lanzan {@link ConcurrentModificationException} si
+ * el árbol se modifica estructuralmente mientras se recorren.
+ *
+ * @param <Key> Tipo de las claves, debe implementar Comparable
+ * @param <Value> Tipo de los valores asociados a las claves
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class STRojoNegro<Key extends Comparable<Key>, Value> implements TablaOrdenada<Key, Value> {
+    /**
+     * Color de los enlaces rojos.
+     */
+    private static final boolean ROJO = true;
+    /**
+     * Color de los enlaces negros.
+     */
+    private static final boolean NEGRO = false;
+
+    /**
+     * Raíz del árbol, null si está vacío.
+     */
+    private Nodo raiz;
+
+    /**
+     * Número de modificaciones estructurales, usado por los iteradores.
+     */
+    private int modificaciones;
+
+    /**
+     * Nodo del árbol. El color es el del enlace que llega desde su padre.
+     */
+    private class Nodo implements Entrada<Key, Value> {
+        /**
+         * Clave del nodo.
+         */
+        Key clave;
+        /**
+         * Valor asociado a la clave.
+         */
+        Value valor;
+        /**
+         * Subárboles izquierdo y derecho.
+         */
+        Nodo izq, der;
+        /**
+         * Color del enlace desde el padre.
+         */
+        boolean color;
+        /**
+         * Número de nodos en el subárbol con raíz en este nodo.
+         */
+        int tamano;
+
+        /**
+         * Constructor de un nodo hoja.
+         *
+         * @param clave Clave del nodo
+         * @param valor Valor asociado
+         * @param color Color del enlace desde el padre
+         */
+        Nodo(Key clave, Value valor, boolean color) {
+            this.clave = clave;
+            this.valor = valor;
+            this.color = color;
+            this.tamano = 1;
+        }
+
+        @Override
+        public Key getClave() {
+            return clave;
+        }
+
+        @Override
+        public Value getValor() {
+            return valor;
+        }
+    }
+
+    /**
+     * Constructor que inicializa una tabla de símbolos vacía.
+     */
+    public STRojoNegro() {
+        raiz = null;
+    }
+
+    /**
+     * Indica si el enlace que llega a un nodo es rojo; los enlaces nulos son negros.
+     */
+    private boolean esRojo(Nodo x) {
+        return x != null && x.color == ROJO;
+    }
+
+    /**
+     * Obtiene el tamaño del subárbol de un nodo, 0 si es null.
+     */
+    private int tamano(Nodo x) {
+        return x == null ? 0 : x.tamano;
+    }
+
+    /**
+     * Obtiene el número de pares clave-valor en la tabla.
+     *
+     * @return Tamaño de la tabla
+     */
+    public int size() {
+        return tamano(raiz);
+    }
+
+    /**
+     * Verifica si la tabla está vacía.
+     *
+     * @return true si no contiene elementos, false en caso contrario
+     */
+    public boolean isEmpty() {
+        return raiz == null;
+    }
+
+    /**
+     * Obtiene el valor asociado a una clave específica.
+     *
+     * @param clave Clave a buscar
+     * @return Valor asociado a la clave, o null si no existe
+     */
+    public Value get(Key clave) {
+        if (clave == null) return null;
+        Nodo x = raiz;
+        while (x != null) {
+            int cmp = clave.compareTo(x.clave);
+            if (cmp < 0) x = x.izq;
+            else if (cmp > 0) x = x.der;
+            else return x.valor;
+        }
+        return null;
+    }
+
+    /**
+     * Verifica si la tabla contiene una clave específica.
+     *
+     * @param clave Clave a verificar
+     * @return true si la clave existe en la tabla, false en caso contrario
+     */
+    public boolean contains(Key clave) {
+        return get(clave) != null;
+    }
+
+    /**
+     * Inserta o actualiza un par clave-valor en la tabla.
+     * Si la clave ya existe, actualiza su valor.
+     * Si el valor es null, elimina la clave de la tabla.
+     *
+     * @param clave Clave a insertar o actualizar
+     * @param valor Valor a asociar con la clave
+     * @throws IllegalArgumentException si la clave es null
+     */
+    public void put(Key clave, Value valor) {
+        if (clave == null) throw new IllegalArgumentException("Clave no puede ser null");
+        if (valor == null) {
+            delete(clave);
+            return;
+        }
+        raiz = put(raiz, clave, valor);
+        raiz.color = NEGRO;
+    }
+
+    /**
+     * Inserta recursivamente en el subárbol de h y lo rebalancea al volver.
+     */
+    private Nodo put(Nodo h, Key clave, Value valor) {
+        if (h == null) {
+            modificaciones++;
+            return new Nodo(clave, valor, ROJO);
+        }
+
+        int cmp = clave.compareTo(h.clave);
+        if (cmp < 0) h.izq = put(h.izq, clave, valor);
+        else if (cmp > 0) h.der = put(h.der, clave, valor);
+        else h.valor = valor;
+
+        // Corregir enlaces rojos inclinados a la derecha y dobles rojos
+        if (esRojo(h.der) && !esRojo(h.izq)) h = rotarIzquierda(h);
+        if (esRojo(h.izq) && esRojo(h.izq.izq)) h = rotarDerecha(h);
+        if (esRojo(h.izq) && esRojo(h.der)) invertirColores(h);
+        h.tamano = tamano(h.izq) + tamano(h.der) + 1;
+        return h;
+    }
+
+    /**
+     * Elimina la clave más pequeña de la tabla.
+     *
+     * @throws NoSuchElementException si la tabla está vacía
+     */
+    public void deleteMin() {
+        if (isEmpty()) throw new NoSuchElementException();
+        if (!esRojo(raiz.izq) && !esRojo(raiz.der)) raiz.color = ROJO;
+        raiz = deleteMin(raiz);
+        if (!isEmpty()) raiz.color = NEGRO;
+        modificaciones++;
+    }
+
+    /**
+     * Elimina el mínimo del subárbol de h, manteniendo un enlace rojo en el camino.
+     */
+    private Nodo deleteMin(Nodo h) {
+        if (h.izq == null) return null;
+        if (!esRojo(h.izq) && !esRojo(h.izq.izq)) h = moverRojoIzquierda(h);
+        h.izq = deleteMin(h.izq);
+        return balancear(h);
+    }
+
+    /**
+     * Elimina la clave más grande de la tabla.
+     *
+     * @throws NoSuchElementException si la tabla está vacía
+     */
+    public void deleteMax() {
+        if (isEmpty()) throw new NoSuchElementException();
+        if (!esRojo(raiz.izq) && !esRojo(raiz.der)) raiz.color = ROJO;
+        raiz = deleteMax(raiz);
+        if (!isEmpty()) raiz.color = NEGRO;
+        modificaciones++;
+    }
+
+    /**
+     * Elimina el máximo del subárbol de h, manteniendo un enlace rojo en el camino.
+     */
+    private Nodo deleteMax(Nodo h) {
+        if (esRojo(h.izq)) h = rotarDerecha(h);
+        if (h.der == null) return null;
+        if (!esRojo(h.der) && !esRojo(h.der.izq)) h = moverRojoDerecha(h);
+        h.der = deleteMax(h.der);
+        return balancear(h);
+    }
+
+    /**
+     * Elimina una clave y su valor asociado de la tabla.
+     *
+     * @param clave Clave a eliminar
+     */
+    public void delete(Key clave) {
+        if (clave == null || !contains(clave)) return;
+        if (!esRojo(raiz.izq) && !esRojo(raiz.der)) raiz.color = ROJO;
+        raiz = delete(raiz, clave);
+        if (!isEmpty()) raiz.color = NEGRO;
+        modificaciones++;
+    }
+
+    /**
+     * Elimina recursivamente una clave existente del subárbol de h.
+     */
+    private Nodo delete(Nodo h, Key clave) {
+        if (clave.compareTo(h.clave) < 0) {
+            if (!esRojo(h.izq) && !esRojo(h.izq.izq)) h = moverRojoIzquierda(h);
+            h.izq = delete(h.izq, clave);
+        } else {
+            if (esRojo(h.izq)) h = rotarDerecha(h);
+            if (clave.compareTo(h.clave) == 0 && h.der == null) return null;
+            if (!esRojo(h.der) && !esRojo(h.der.izq)) h = moverRojoDerecha(h);
+            if (clave.compareTo(h.clave) == 0) {
+                // Reemplazar por el sucesor y eliminar el sucesor
+                Nodo sucesor = min(h.der);
+                h.clave = sucesor.clave;
+                h.valor = sucesor.valor;
+                h.der = deleteMin(h.der);
+            } else {
+                h.der = delete(h.der, clave);
+            }
+        }
+        return balancear(h);
+    }
+
+    /**
+     * Convierte un enlace rojo izquierdo de h en uno derecho.
+     */
+    private Nodo rotarDerecha(Nodo h) {
+        Nodo x = h.izq;
+        h.izq = x.der;
+        x.der = h;
+        x.color = h.color;
+        h.color = ROJO;
+        x.tamano = h.tamano;
+        h.tamano = tamano(h.izq) + tamano(h.der) + 1;
+        return x;
+    }
+
+    /**
+     * Convierte un enlace rojo derecho de h en uno izquierdo.
+     */
+    private Nodo rotarIzquierda(Nodo h) {
+        Nodo x = h.der;
+        h.der = x.izq;
+        x.izq = h;
+        x.color = h.color;
+        h.color = ROJO;
+        x.tamano = h.tamano;
+        h.tamano = tamano(h.izq) + tamano(h.der) + 1;
+        return x;
+    }
+
+    /**
+     * Invierte los colores de un nodo y de sus dos hijos.
+     */
+    private void invertirColores(Nodo h) {
+        h.color = !h.color;
+        h.izq.color = !h.izq.color;
+        h.der.color = !h.der.color;
+    }
+
+    /**
+     * Hace rojo h.izq o uno de sus hijos, suponiendo h rojo y h.izq, h.izq.izq negros.
+     */
+    private Nodo moverRojoIzquierda(Nodo h) {
+        invertirColores(h);
+        if (esRojo(h.der.izq)) {
+            h.der = rotarDerecha(h.der);
+            h = rotarIzquierda(h);
+            invertirColores(h);
+        }
+        return h;
+    }
+
+    /**
+     * Hace rojo h.der o uno de sus hijos, suponiendo h rojo y h.der, h.der.izq negros.
+     */
+    private Nodo moverRojoDerecha(Nodo h) {
+        invertirColores(h);
+        if (esRojo(h.izq.izq)) {
+            h = rotarDerecha(h);
+            invertirColores(h);
+        }
+        return h;
+    }
+
+    /**
+     * Restablece las invariantes del árbol rojo-negro en h y actualiza su tamaño.
+     */
+    private Nodo balancear(Nodo h) {
+        if (esRojo(h.der) && !esRojo(h.izq)) h = rotarIzquierda(h);
+        if (esRojo(h.izq) && esRojo(h.izq.izq)) h = rotarDerecha(h);
+        if (esRojo(h.izq) && esRojo(h.der)) invertirColores(h);
+        h.tamano = tamano(h.izq) + tamano(h.der) + 1;
+        return h;
+    }
+
+    /**
+     * Obtiene la clave más pequeña en la tabla.
+     *
+     * @return Clave mínima
+     * @throws NoSuchElementException si la tabla está vacía
+     */
+    public Key min() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return min(raiz).clave;
+    }
+
+    /**
+     * Obtiene el nodo con la clave mínima del subárbol de x.
+     */
+    private Nodo min(Nodo x) {
+        while (x.izq != null) x = x.izq;
+        return x;
+    }
+
+    /**
+     * Obtiene la clave más grande en la tabla.
+     *
+     * @return Clave máxima
+     * @throws NoSuchElementException si la tabla está vacía
+     */
+    public Key max() {
+        if (isEmpty()) throw new NoSuchElementException();
+        Nodo x = raiz;
+        while (x.der != null) x = x.der;
+        return x.clave;
+    }
+
+    /**
+     * Encuentra la clave más grande que es menor o igual a la clave dada.
+     *
+     * @param clave Clave de referencia
+     * @return Clave floor o null si no existe
+     */
+    public Key floor(Key clave) {
+        Key resultado = null;
+        Nodo x = raiz;
+        while (x != null) {
+            int cmp = clave.compareTo(x.clave);
+            if (cmp == 0) return x.clave;
+            if (cmp < 0) {
+                x = x.izq;
+            } else {
+                resultado = x.clave;
+                x = x.der;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Encuentra la clave más pequeña que es mayor o igual a la clave dada.
+     *
+     * @param clave Clave de referencia
+     * @return Clave ceiling o null si no existe
+     */
+    public Key ceiling(Key clave) {
+        Key resultado = null;
+        Nodo x = raiz;
+        while (x != null) {
+            int cmp = clave.compareTo(x.clave);
+            if (cmp == 0) return x.clave;
+            if (cmp > 0) {
+                x = x.der;
+            } else {
+                resultado = x.clave;
+                x = x.izq;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene el número de claves menores que la clave dada.
+     *
+     * @param clave Clave de referencia
+     * @return Número de claves menores que la clave dada
+     */
+    public int rank(Key clave) {
+        int menores = 0;
+        Nodo x = raiz;
+        while (x != null) {
+            int cmp = clave.compareTo(x.clave);
+            if (cmp < 0) {
+                x = x.izq;
+            } else if (cmp > 0) {
+                menores += tamano(x.izq) + 1;
+                x = x.der;
+            } else {
+                return menores + tamano(x.izq);
+            }
+        }
+        return menores;
+    }
+
+    /**
+     * Obtiene la clave en la posición k-ésima (0-indexada).
+     *
+     * @param k Posición de la clave a obtener
+     * @return Clave en la posición k
+     * @throws IllegalArgumentException si k está fuera de rango
+     */
+    public Key select(int k) {
+        if (k < 0 || k >= size()) throw new IllegalArgumentException();
+        Nodo x = raiz;
+        while (true) {
+            int t = tamano(x.izq);
+            if (k < t) {
+                x = x.izq;
+            } else if (k > t) {
+                k -= t + 1;
+                x = x.der;
+            } else {
+                return x.clave;
+            }
+        }
+    }
+
+    /**
+     * Cuenta el número de claves en el rango [lo, hi].
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Número de claves en el rango especificado
+     */
+    public int size(Key lo, Key hi) {
+        if (lo.compareTo(hi) > 0) return 0;
+        return rank(hi) - rank(lo) + (contains(hi) ? 1 : 0);
+    }
+
+    /**
+     * Obtiene todas las claves de la tabla en orden ascendente.
+     *
+     * @return Iterable con todas las claves, sin copiarlas
+     */
+    public Iterable<Key> keys() {
+        return () -> new RecorridoClaves(null, null, false);
+    }
+
+    /**
+     * Obtiene todas las claves en el rango [lo, hi] en orden ascendente.
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Iterable con las claves en el rango especificado, sin copiarlas
+     */
+    public Iterable<Key> keys(Key lo, Key hi) {
+        return () -> new RecorridoClaves(lo, hi, false);
+    }
+
+    /**
+     * Obtiene todas las claves de la tabla en orden descendente.
+     *
+     * @return Iterable con todas las claves, de mayor a menor
+     */
+    public Iterable<Key> descendingKeys() {
+        return () -> new RecorridoClaves(null, null, true);
+    }
+
+    /**
+     * Obtiene todas las claves en el rango [lo, hi] en orden descendente.
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Iterable con las claves en el rango, de mayor a menor
+     */
+    public Iterable<Key> descendingKeys(Key lo, Key hi) {
+        return () -> new RecorridoClaves(lo, hi, true);
+    }
+
+    /**
+     * Obtiene todos los pares clave-valor de la tabla en orden ascendente.
+     * Los pares devueltos son los nodos del árbol.
+     *
+     * @return Iterable con los pares de la tabla
+     */
+    public Iterable<Entrada<Key, Value>> entries() {
+        return () -> new RecorridoEntradas(null, null);
+    }
+
+    /**
+     * Obtiene los pares clave-valor cuyas claves están en el rango [lo, hi],
+     * en orden ascendente.
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Iterable con los pares en el rango especificado
+     */
+    public Iterable<Entrada<Key, Value>> entries(Key lo, Key hi) {
+        return () -> new RecorridoEntradas(lo, hi);
+    }
+
+    /**
+     * Proporciona un iterador para recorrer todas las claves en orden.
+     *
+     * @return Iterator para recorrer las claves ordenadamente
+     */
+    @Override
+    public Iterator<Key> iterator() {
+        return new RecorridoClaves(null, null, false);
+    }
+
+    /**
+     * Recorrido en orden (o en orden inverso) de los nodos con clave en
+     * [lo, hi]. La pila contiene los ancestros pendientes del siguiente
+     * nodo, por lo que su tamaño está acotado por la altura del árbol.
+     *
+     * @param <T> Tipo de los elementos devueltos
+     */
+    private abstract class Recorrido<T> implements Iterator<T> {
+        /**
+         * Nodos pendientes; el tope es el siguiente a devolver.
+         */
+        private final Lista<Nodo> pila = new Lista<>(16);
+        /**
+         * Límite inferior del rango, o null si no hay límite.
+         */
+        private final Key lo;
+        /**
+         * Límite superior del rango, o null si no hay límite.
+         */
+        private final Key hi;
+        /**
+         * Indica si el recorrido va de mayor a menor.
+         */
+        private final boolean descendente;
+        /**
+         * Valor del contador de modificaciones al crear el iterador.
+         */
+        private final int modificacionesEsperadas;
+
+        /**
+         * Constructor del recorrido.
+         *
+         * @param lo Límite inferior (inclusivo), o null
+         * @param hi Límite superior (inclusivo), o null
+         * @param descendente true para recorrer de mayor a menor
+         */
+        Recorrido(Key lo, Key hi, boolean descendente) {
+            this.lo = lo;
+            this.hi = hi;
+            this.descendente = descendente;
+            this.modificacionesEsperadas = modificaciones;
+            if (lo == null || hi == null || lo.compareTo(hi) <= 0) {
+                apilar(raiz);
+            }
+        }
+
+        /**
+         * Apila el camino desde un nodo hasta el primer nodo del rango en
+         * el sentido del recorrido, descartando los subárboles que quedan
+         * fuera del límite de inicio.
+         *
+         * @param x Raíz del subárbol a explorar
+         */
+        private void apilar(Nodo x) {
+            while (x != null) {
+                if (!descendente) {
+                    if (lo == null || x.clave.compareTo(lo) >= 0) {
+                        pila.agregarAlFinal(x);
+                        x = x.izq;
+                    } else {
+                        x = x.der;
+                    }
+                } else {
+                    if (hi == null || x.clave.compareTo(hi) <= 0) {
+                        pila.agregarAlFinal(x);
+                        x = x.der;
+                    } else {
+                        x = x.izq;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Obtiene el elemento a devolver a partir de un nodo del árbol.
+         *
+         * @param nodo Nodo del árbol
+         * @return Elemento a devolver
+         */
+        abstract T extraer(Nodo nodo);
+
+        @Override
+        public boolean hasNext() {
+            if (pila.estaVacia()) return false;
+            Key siguiente = pila.obtenerDe(pila.tamano() - 1).clave;
+            if (!descendente) return hi == null || siguiente.compareTo(hi) <= 0;
+            return lo == null || siguiente.compareTo(lo) >= 0;
+        }
+
+        @Override
+        public T next() {
+            if (modificaciones != modificacionesEsperadas) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            Nodo x = pila.eliminarDe(pila.tamano() - 1);
+            apilar(descendente ? x.izq : x.der);
+            return extraer(x);
+        }
+    }
+
+    /**
+     * Recorrido que devuelve las claves del árbol.
+     */
+    private class RecorridoClaves extends Recorrido<Key> {
+        RecorridoClaves(Key lo, Key hi, boolean descendente) {
+            super(lo, hi, descendente);
+        }
+
+        @Override
+        Key extraer(Nodo nodo) {
+            return nodo.clave;
+        }
+    }
+
+    /**
+     * Recorrido que devuelve los pares clave-valor del árbol.
+     */
+    private class RecorridoEntradas extends Recorrido<Entrada<Key, Value>> {
+        RecorridoEntradas(Key lo, Key hi) {
+            super(lo, hi, false);
+        }
+
+        @Override
+        Entrada<Key, Value> extraer(Nodo nodo) {
+            return nodo;
+        }
+    }
+}
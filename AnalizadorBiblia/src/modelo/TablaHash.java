@@ -0,0 +1,223 @@
+package modelo;
+
+/**
+ * Implementación de una tabla hash con direccionamiento abierto
+ * y sondeo lineal.
+ *
+ * <p>Las claves y los valores se guardan en dos arreglos paralelos cuya
+ * capacidad es siempre una potencia de dos, de modo que la posición
+ * inicial de una clave se obtiene con una máscara en lugar de un módulo.
+ * La tabla se duplica cuando supera la mitad de su capacidad, lo que
+ * mantiene cortas las secuencias de sondeo.
+ *
+ * <p>Complejidades de tiempo (esperadas):
+ * <ul>
+ *   <li>Búsqueda: O(1)</li>
+ *   <li>Inserción: O(1) amortizado</li>
+ *   <li>Eliminación: O(1)</li>
+ * </ul>
+ *
+ * <p>A diferencia de {@link ST}, esta tabla no mantiene ningún orden
+ * entre sus claves.
+ *
+ * @param <Key> Tipo de las claves, debe implementar equals y hashCode
+ * @param <Value> Tipo de los valores asociados a las claves
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class TablaHash<Key, Value> {
+    /**
+     * Capacidad mínima de los arreglos internos.
+     */
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    /**
+     * Arreglo de claves; una posición null indica una casilla libre.
+     */
+    private Key[] claves;
+    /**
+     * Arreglo de valores, paralelo al arreglo de claves.
+     */
+    private Value[] valores;
+    /**
+     * Número de pares clave-valor almacenados.
+     */
+    private int cantidad;
+
+    /**
+     * Constructor que inicializa una tabla vacía con la capacidad mínima.
+     */
+    public TablaHash() {
+        this(CAPACIDAD_MINIMA);
+    }
+
+    /**
+     * Constructor que inicializa una tabla vacía preparada para recibir
+     * el número de claves indicado sin redimensionarse.
+     *
+     * @param capacidadEsperada Número de claves que se espera almacenar
+     */
+    @SuppressWarnings("unchecked")
+    public TablaHash(int capacidadEsperada) {
+        int capacidad = CAPACIDAD_MINIMA;
+        while (capacidad < 2 * capacidadEsperada) {
+            capacidad *= 2;
+        }
+        claves = (Key[]) new Object[capacidad];
+        valores = (Value[]) new Object[capacidad];
+        cantidad = 0;
+    }
+
+    /**
+     * Calcula la posición inicial de una clave en los arreglos internos.
+     * Mezcla los bits altos del hashCode para que la máscara no descarte
+     * la información que aportan.
+     *
+     * @param clave Clave a ubicar
+     * @return Posición inicial de sondeo
+     */
+    private int posicion(Object clave) {
+        int h = clave.hashCode();
+        h ^= (h >>> 16);
+        return h & (claves.length - 1);
+    }
+
+    /**
+     * Redimensiona los arreglos internos y reubica todas las claves.
+     *
+     * @param nuevaCapacidad Nueva capacidad, debe ser potencia de dos
+     */
+    @SuppressWarnings("unchecked")
+    private void redimensionar(int nuevaCapacidad) {
+        Key[] viejasClaves = claves;
+        Value[] viejosValores = valores;
+        claves = (Key[]) new Object[nuevaCapacidad];
+        valores = (Value[]) new Object[nuevaCapacidad];
+        for (int i = 0; i < viejasClaves.length; i++) {
+            if (viejasClaves[i] != null) {
+                int j = posicion(viejasClaves[i]);
+                while (claves[j] != null) {
+                    j = (j + 1) & (claves.length - 1);
+                }
+                claves[j] = viejasClaves[i];
+                valores[j] = viejosValores[i];
+            }
+        }
+    }
+
+    /**
+     * Inserta o actualiza un par clave-valor en la tabla.
+     * Si el valor es null, elimina la clave de la tabla.
+     *
+     * @param clave Clave a insertar o actualizar
+     * @param valor Valor a asociar con la clave
+     * @throws IllegalArgumentException si la clave es null
+     */
+    public void put(Key clave, Value valor) {
+        if (clave == null) throw new IllegalArgumentException("Clave no puede ser null");
+        if (valor == null) {
+            delete(clave);
+            return;
+        }
+        if (2 * (cantidad + 1) > claves.length) {
+            redimensionar(claves.length * 2);
+        }
+
+        int i = posicion(clave);
+        while (claves[i] != null) {
+            if (claves[i].equals(clave)) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & (claves.length - 1);
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        cantidad++;
+    }
+
+    /**
+     * Obtiene el valor asociado a una clave específica.
+     *
+     * @param clave Clave a buscar
+     * @return Valor asociado a la clave, o null si no existe
+     */
+    public Value get(Key clave) {
+        if (clave == null) return null;
+        int i = posicion(clave);
+        while (claves[i] != null) {
+            if (claves[i].equals(clave)) {
+                return valores[i];
+            }
+            i = (i + 1) & (claves.length - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Elimina una clave y su valor asociado de la tabla.
+     * Las claves que seguían a la eliminada en la misma secuencia de
+     * sondeo se desplazan hacia atrás, sin dejar marcas de borrado.
+     *
+     * @param clave Clave a eliminar
+     */
+    public void delete(Key clave) {
+        if (clave == null) return;
+        int mascara = claves.length - 1;
+        int i = posicion(clave);
+        while (claves[i] != null && !claves[i].equals(clave)) {
+            i = (i + 1) & mascara;
+        }
+        if (claves[i] == null) return;
+
+        claves[i] = null;
+        valores[i] = null;
+        cantidad--;
+
+        int j = (i + 1) & mascara;
+        while (claves[j] != null) {
+            int inicio = posicion(claves[j]);
+            // La clave en j puede ocupar el hueco i si su posición inicial
+            // no está en el tramo circular (i, j]
+            boolean enTramo = (i <= j) ? (i < inicio && inicio <= j) : (i < inicio || inicio <= j);
+            if (!enTramo) {
+                claves[i] = claves[j];
+                valores[i] = valores[j];
+                claves[j] = null;
+                valores[j] = null;
+                i = j;
+            }
+            j = (j + 1) & mascara;
+        }
+    }
+
+    /**
+     * Verifica si la tabla contiene una clave específica.
+     *
+     * @param clave Clave a verificar
+     * @return true si la clave existe en la tabla, false en caso contrario
+     */
+    public boolean contains(Key clave) {
+        return get(clave) != null;
+    }
+
+    /**
+     * Verifica si la tabla está vacía.
+     *
+     * @return true si no contiene elementos, false en caso contrario
+     */
+    public boolean isEmpty() {
+        return cantidad == 0;
+    }
+
+    /**
+     * Obtiene el número de pares clave-valor en la tabla.
+     *
+     * @return Tamaño de la tabla
+     */
+    public int size() {
+        return cantidad;
+    }
+}
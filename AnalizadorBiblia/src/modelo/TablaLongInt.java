@@ -0,0 +1,161 @@
+package modelo;
+
+/**
+ * Tabla hash de claves {@code long} a contadores {@code int}, con
+ * direccionamiento abierto y sondeo lineal sobre arreglos primitivos.
+ *
+ * <p>A diferencia de {@link TablaHash}, no guarda objetos: cada par ocupa
+ * 12 bytes en los arreglos y sumar a un contador no crea ningún objeto.
+ * Como los contadores sólo acumulan valores positivos, una casilla con
+ * valor 0 se considera libre y no hace falta una clave reservada.
+ *
+ * <p>La capacidad es siempre una potencia de dos y la tabla se duplica
+ * cuando supera la mitad de su capacidad, igual que {@link TablaHash}.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class TablaLongInt {
+    /**
+     * Capacidad mínima de los arreglos internos.
+     */
+    private static final int CAPACIDAD_MINIMA = 16;
+
+    /**
+     * Arreglo de claves.
+     */
+    private long[] claves;
+    /**
+     * Arreglo de contadores; un 0 indica una casilla libre.
+     */
+    private int[] valores;
+    /**
+     * Número de claves almacenadas.
+     */
+    private int cantidad;
+
+    /**
+     * Constructor que inicializa una tabla vacía con la capacidad mínima.
+     */
+    public TablaLongInt() {
+        claves = new long[CAPACIDAD_MINIMA];
+        valores = new int[CAPACIDAD_MINIMA];
+        cantidad = 0;
+    }
+
+    /**
+     * Calcula la posición inicial de una clave mezclando todos sus bits,
+     * ya que las claves empaquetadas suelen diferir sólo en algunos.
+     *
+     * @param clave Clave a ubicar
+     * @return Posición inicial de sondeo
+     */
+    private int posicion(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (claves.length - 1);
+    }
+
+    /**
+     * Suma una cantidad al contador de una clave, creándolo si no existe.
+     *
+     * @param clave Clave del contador
+     * @param cantidad Cantidad a sumar, mayor que cero
+     * @return Valor del contador después de sumar
+     */
+    public int sumar(long clave, int cantidad) {
+        int i = posicion(clave);
+        int mascara = claves.length - 1;
+        while (valores[i] != 0) {
+            if (claves[i] == clave) {
+                return valores[i] += cantidad;
+            }
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        valores[i] = cantidad;
+        this.cantidad++;
+        if (2 * this.cantidad > claves.length) {
+            redimensionar(claves.length * 2);
+        }
+        return cantidad;
+    }
+
+    /**
+     * Obtiene el contador de una clave.
+     *
+     * @param clave Clave a buscar
+     * @return Valor del contador, 0 si la clave no existe
+     */
+    public int get(long clave) {
+        int i = posicion(clave);
+        int mascara = claves.length - 1;
+        while (valores[i] != 0) {
+            if (claves[i] == clave) return valores[i];
+            i = (i + 1) & mascara;
+        }
+        return 0;
+    }
+
+    /**
+     * Obtiene el número de claves almacenadas.
+     *
+     * @return Tamaño de la tabla
+     */
+    public int size() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene el número de casillas de la tabla, para recorrerla con
+     * {@link #claveEn(int)} y {@link #valorEn(int)}.
+     *
+     * @return Número de casillas
+     */
+    int capacidad() {
+        return claves.length;
+    }
+
+    /**
+     * Obtiene la clave de una casilla.
+     *
+     * @param i Número de casilla
+     * @return Clave guardada en la casilla
+     */
+    long claveEn(int i) {
+        return claves[i];
+    }
+
+    /**
+     * Obtiene el contador de una casilla.
+     *
+     * @param i Número de casilla
+     * @return Contador de la casilla, 0 si está libre
+     */
+    int valorEn(int i) {
+        return valores[i];
+    }
+
+    /**
+     * Redimensiona los arreglos y reubica las claves existentes.
+     *
+     * @param nuevaCapacidad Nueva capacidad, debe ser potencia de dos
+     */
+    private void redimensionar(int nuevaCapacidad) {
+        long[] viejasClaves = claves;
+        int[] viejosValores = valores;
+        claves = new long[nuevaCapacidad];
+        valores = new int[nuevaCapacidad];
+        int mascara = nuevaCapacidad - 1;
+        for (int i = 0; i < viejasClaves.length; i++) {
+            if (viejosValores[i] != 0) {
+                int j = posicion(viejasClaves[i]);
+                while (valores[j] != 0) {
+                    j = (j + 1) & mascara;
+                }
+                claves[j] = viejasClaves[i];
+                valores[j] = viejosValores[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package modelo;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Operaciones de una Tabla de Símbolos ordenada.
+ *
+ * <p>Define la interfaz común de las implementaciones de tabla que puede
+ * usar {@link AnalizadorBiblia}:
+ * <ul>
+ *   <li>{@link ST}: arreglo ordenado con índice hash; búsquedas e
+ *       inserciones O(1) y eliminaciones O(n)</li>
+ *   <li>{@link STRojoNegro}: árbol rojo-negro inclinado a la izquierda;
+ *       todas las operaciones en O(log n)</li>
+ *   <li>{@link TablaVocabulario}: arreglo ordenado de identificadores de
+ *       un vocabulario con las palabras fuera del heap</li>
+ * </ul>
+ *
+ * <p>Los recorridos ({@code keys}, {@code descendingKeys}, {@code entries}
+ * y el iterador) no copian las claves y lanzan
+ * {@link java.util.ConcurrentModificationException} si la tabla se
+ * modifica estructuralmente mientras se recorren.
+ *
+ * @param <Key> Tipo de las claves, debe implementar Comparable
+ * @param <Value> Tipo de los valores asociados a las claves
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public interface TablaOrdenada<Key extends Comparable<Key>, Value> extends Iterable<Key> {
+
+    /**
+     * Vista de solo lectura de un par clave-valor de la tabla.
+     *
+     * @param <Key> Tipo de la clave
+     * @param <Value> Tipo del valor
+     */
+    interface Entrada<Key, Value> {
+        /**
+         * Obtiene la clave del par.
+         *
+         * @return Clave del par
+         */
+        Key getClave();
+
+        /**
+         * Obtiene el valor asociado a la clave.
+         *
+         * @return Valor del par
+         */
+        Value getValor();
+    }
+
+    /**
+     * Inserta o actualiza un par clave-valor en la tabla.
+     * Si el valor es null, elimina la clave de la tabla.
+     *
+     * @param clave Clave a insertar o actualizar
+     * @param valor Valor a asociar con la clave
+     * @throws IllegalArgumentException si la clave es null
+     */
+    void put(Key clave, Value valor);
+
+    /**
+     * Obtiene el valor asociado a una clave específica.
+     *
+     * @param clave Clave a buscar
+     * @return Valor asociado a la clave, o null si no existe
+     */
+    Value get(Key clave);
+
+    /**
+     * Elimina una clave y su valor asociado de la tabla.
+     *
+     * @param clave Clave a eliminar
+     */
+    void delete(Key clave);
+
+    /**
+     * Verifica si la tabla contiene una clave específica.
+     *
+     * @param clave Clave a verificar
+     * @return true si la clave existe en la tabla, false en caso contrario
+     */
+    boolean contains(Key clave);
+
+    /**
+     * Verifica si la tabla está vacía.
+     *
+     * @return true si no contiene elementos, false en caso contrario
+     */
+    boolean isEmpty();
+
+    /**
+     * Obtiene el número de pares clave-valor en la tabla.
+     *
+     * @return Tamaño de la tabla
+     */
+    int size();
+
+    /**
+     * Obtiene la clave más pequeña en la tabla.
+     *
+     * @return Clave mínima
+     * @throws NoSuchElementException si la tabla está vacía
+     */
+    Key min();
+
+    /**
+     * Obtiene la clave más grande en la tabla.
+     *
+     * @return Clave máxima
+     * @throws NoSuchElementException si la tabla está vacía
+     */
+    Key max();
+
+    /**
+     * Encuentra la clave más grande que es menor o igual a la clave dada.
+     *
+     * @param clave Clave de referencia
+     * @return Clave floor o null si no existe
+     */
+    Key floor(Key clave);
+
+    /**
+     * Encuentra la clave más pequeña que es mayor o igual a la clave dada.
+     *
+     * @param clave Clave de referencia
+     * @return Clave ceiling o null si no existe
+     */
+    Key ceiling(Key clave);
+
+    /**
+     * Obtiene el número de claves menores que la clave dada.
+     *
+     * @param clave Clave de referencia
+     * @return Número de claves menores que la clave dada
+     */
+    int rank(Key clave);
+
+    /**
+     * Obtiene la clave en la posición k-ésima (0-indexada).
+     *
+     * @param k Posición de la clave a obtener
+     * @return Clave en la posición k
+     * @throws IllegalArgumentException si k está fuera de rango
+     */
+    Key select(int k);
+
+    /**
+     * Elimina la clave más pequeña de la tabla.
+     *
+     * @throws NoSuchElementException si la tabla está vacía
+     */
+    void deleteMin();
+
+    /**
+     * Elimina la clave más grande de la tabla.
+     *
+     * @throws NoSuchElementException si la tabla está vacía
+     */
+    void deleteMax();
+
+    /**
+     * Cuenta el número de claves en el rango [lo, hi].
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Número de claves en el rango especificado
+     */
+    int size(Key lo, Key hi);
+
+    /**
+     * Obtiene todas las claves de la tabla en orden ascendente.
+     *
+     * @return Iterable con todas las claves
+     */
+    Iterable<Key> keys();
+
+    /**
+     * Obtiene todas las claves en el rango [lo, hi] en orden ascendente.
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Iterable con las claves en el rango especificado
+     */
+    Iterable<Key> keys(Key lo, Key hi);
+
+    /**
+     * Obtiene todas las claves de la tabla en orden descendente.
+     *
+     * @return Iterable con todas las claves, de mayor a menor
+     */
+    Iterable<Key> descendingKeys();
+
+    /**
+     * Obtiene todas las claves en el rango [lo, hi] en orden descendente.
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Iterable con las claves en el rango, de mayor a menor
+     */
+    Iterable<Key> descendingKeys(Key lo, Key hi);
+
+    /**
+     * Obtiene todos los pares clave-valor de la tabla en orden ascendente.
+     *
+     * @return Iterable con los pares de la tabla
+     */
+    Iterable<Entrada<Key, Value>> entries();
+
+    /**
+     * Obtiene los pares clave-valor cuyas claves están en el rango [lo, hi],
+     * en orden ascendente.
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Iterable con los pares en el rango especificado
+     */
+    Iterable<Entrada<Key, Value>> entries(Key lo, Key hi);
+}
@@ -0,0 +1,491 @@
+package modelo;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Tabla ordenada de palabras a identificadores que no guarda las palabras:
+ * sólo un arreglo de identificadores de un {@link Vocabulario}, ordenado
+ * por la palabra de cada uno. Es la tabla por defecto de
+ * {@link AnalizadorBiblia}: cada palabra se guarda una sola vez, en el
+ * vocabulario, y la tabla no crea objetos por palabra. Si el vocabulario
+ * guarda las palabras en una {@link ArenaPalabras}, ninguna de las dos
+ * estructuras tiene un objeto por palabra.
+ *
+ * <p>Sólo admite las palabras del vocabulario, cada una con su propio
+ * identificador como valor. Como en {@link ST}, las claves nuevas quedan
+ * pendientes y se ordenan e intercalan en la primera operación ordenada;
+ * las comparaciones se hacen con {@link Vocabulario#comparar(int, int)}
+ * sin decodificar las palabras.
+ *
+ * <p>Complejidades de tiempo:
+ * <ul>
+ *   <li>Búsqueda: O(1) esperado, con el índice del vocabulario</li>
+ *   <li>Inserción: O(1) amortizado</li>
+ *   <li>Primera operación ordenada tras p inserciones: O(n + p log p)</li>
+ *   <li>Operaciones ordenadas siguientes: O(log n)</li>
+ *   <li>Eliminación: O(n) en el peor caso</li>
+ * </ul>
+ *
+ * <p>Las claves que devuelven los recorridos y {@code select} se obtienen
+ * del vocabulario; con una arena, se decodifican en cada llamada.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+class TablaVocabulario implements TablaOrdenada<String, Integer> {
+    /**
+     * Vocabulario al que pertenecen los identificadores.
+     */
+    private final Vocabulario vocabulario;
+    /**
+     * Identificadores ordenados por palabra, sin los pendientes.
+     */
+    private int[] ordenados;
+    /**
+     * Número de identificadores ordenados.
+     */
+    private int cantidadOrdenados;
+    /**
+     * Identificadores agregados desde el último ordenamiento.
+     */
+    private int[] pendientes;
+    /**
+     * Número de identificadores pendientes.
+     */
+    private int cantidadPendientes;
+    /**
+     * Indica, por identificador, si la palabra está en la tabla.
+     */
+    private boolean[] presentes;
+    /**
+     * Número de modificaciones estructurales, usado por los iteradores
+     * para detectar cambios.
+     */
+    private int modificaciones;
+
+    /**
+     * Constructor que inicializa una tabla vacía sobre un vocabulario.
+     *
+     * @param vocabulario Vocabulario de las palabras
+     */
+    TablaVocabulario(Vocabulario vocabulario) {
+        this.vocabulario = vocabulario;
+        ordenados = new int[16];
+        pendientes = new int[16];
+        presentes = new boolean[16];
+    }
+
+    /**
+     * Indica si un identificador está en la tabla.
+     *
+     * @param id Identificador
+     * @return true si su palabra está en la tabla
+     */
+    private boolean presente(int id) {
+        return id >= 0 && id < presentes.length && presentes[id];
+    }
+
+    /**
+     * Incorpora los identificadores pendientes al arreglo ordenado.
+     * Los ordena por mezcla y los intercala con los ya ordenados en una
+     * sola pasada.
+     */
+    private void asegurarOrden() {
+        int p = cantidadPendientes;
+        if (p == 0) return;
+        ordenar(pendientes, new int[p], 0, p);
+
+        int n = cantidadOrdenados;
+        int[] mezcla = new int[Math.max(16, n + p)];
+        int i = 0, j = 0, k = 0;
+        while (i < n && j < p) {
+            if (vocabulario.comparar(ordenados[i], pendientes[j]) <= 0) {
+                mezcla[k++] = ordenados[i++];
+            } else {
+                mezcla[k++] = pendientes[j++];
+            }
+        }
+        while (i < n) mezcla[k++] = ordenados[i++];
+        while (j < p) mezcla[k++] = pendientes[j++];
+
+        ordenados = mezcla;
+        cantidadOrdenados = k;
+        pendientes = new int[16];
+        cantidadPendientes = 0;
+    }
+
+    /**
+     * Ordena por mezcla el tramo [inicio, fin) de un arreglo de identificadores.
+     *
+     * @param ids Arreglo a ordenar
+     * @param aux Arreglo auxiliar del mismo tamaño
+     * @param inicio Primera posición del tramo (inclusiva)
+     * @param fin Última posición del tramo (exclusiva)
+     */
+    private void ordenar(int[] ids, int[] aux, int inicio, int fin) {
+        if (fin - inicio < 2) return;
+        int medio = inicio + (fin - inicio) / 2;
+        ordenar(ids, aux, inicio, medio);
+        ordenar(ids, aux, medio, fin);
+
+        System.arraycopy(ids, inicio, aux, inicio, fin - inicio);
+        int i = inicio, j = medio;
+        for (int k = inicio; k < fin; k++) {
+            if (i >= medio) ids[k] = aux[j++];
+            else if (j >= fin) ids[k] = aux[i++];
+            else if (vocabulario.comparar(aux[j], aux[i]) < 0) ids[k] = aux[j++];
+            else ids[k] = aux[i++];
+        }
+    }
+
+    /**
+     * Agrega una palabra del vocabulario a la tabla.
+     * Si el valor es null, elimina la palabra de la tabla.
+     *
+     * @param clave Palabra del vocabulario
+     * @param valor Identificador de la palabra en el vocabulario
+     * @throws IllegalArgumentException si la clave es null o el valor no es
+     *                                  su identificador en el vocabulario
+     */
+    @Override
+    public void put(String clave, Integer valor) {
+        if (clave == null) throw new IllegalArgumentException("Clave no puede ser null");
+        if (valor == null) {
+            delete(clave);
+            return;
+        }
+        int id = vocabulario.id(clave);
+        if (id < 0 || id != valor) {
+            throw new IllegalArgumentException("La tabla sólo guarda palabras del vocabulario con su identificador");
+        }
+        if (presente(id)) return;
+
+        if (id >= presentes.length) {
+            presentes = java.util.Arrays.copyOf(presentes, Math.max(id + 1, presentes.length * 2));
+        }
+        presentes[id] = true;
+        if (cantidadPendientes == pendientes.length) {
+            pendientes = java.util.Arrays.copyOf(pendientes, cantidadPendientes * 2);
+        }
+        pendientes[cantidadPendientes++] = id;
+        modificaciones++;
+    }
+
+    /**
+     * Traduce los identificadores de la tabla después de
+     * {@link Vocabulario#compactar()}. Como la compactación conserva el
+     * orden relativo de los identificadores y las palabras no cambian, el
+     * arreglo ordenado sigue ordenado y los pendientes se ordenarán igual.
+     *
+     * @param traduccion Nuevo identificador de cada identificador
+     *                   anterior, o -1 si se descartó
+     */
+    void traducir(int[] traduccion) {
+        boolean[] nuevos = new boolean[presentes.length];
+        int k = 0;
+        for (int i = 0; i < cantidadOrdenados; i++) {
+            int id = traduccion[ordenados[i]];
+            if (id >= 0) {
+                ordenados[k++] = id;
+                nuevos[id] = true;
+            }
+        }
+        cantidadOrdenados = k;
+        k = 0;
+        for (int i = 0; i < cantidadPendientes; i++) {
+            int id = traduccion[pendientes[i]];
+            if (id >= 0) {
+                pendientes[k++] = id;
+                nuevos[id] = true;
+            }
+        }
+        cantidadPendientes = k;
+        presentes = nuevos;
+        modificaciones++;
+    }
+
+    @Override
+    public Integer get(String clave) {
+        if (clave == null) return null;
+        int id = vocabulario.id(clave);
+        return presente(id) ? id : null;
+    }
+
+    @Override
+    public void delete(String clave) {
+        if (clave == null) return;
+        int id = vocabulario.id(clave);
+        if (!presente(id)) return;
+        eliminarEn(rank(clave));
+    }
+
+    /**
+     * Elimina el identificador de una posición del arreglo ordenado.
+     *
+     * @param posicion Posición a eliminar
+     */
+    private void eliminarEn(int posicion) {
+        presentes[ordenados[posicion]] = false;
+        System.arraycopy(ordenados, posicion + 1, ordenados, posicion, cantidadOrdenados - posicion - 1);
+        cantidadOrdenados--;
+        modificaciones++;
+    }
+
+    @Override
+    public boolean contains(String clave) {
+        return get(clave) != null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int size() {
+        return cantidadOrdenados + cantidadPendientes;
+    }
+
+    @Override
+    public String min() {
+        if (isEmpty()) throw new NoSuchElementException();
+        asegurarOrden();
+        return vocabulario.palabra(ordenados[0]);
+    }
+
+    @Override
+    public String max() {
+        if (isEmpty()) throw new NoSuchElementException();
+        asegurarOrden();
+        return vocabulario.palabra(ordenados[cantidadOrdenados - 1]);
+    }
+
+    @Override
+    public String floor(String clave) {
+        int pos = rank(clave);
+        if (pos < cantidadOrdenados && vocabulario.comparar(ordenados[pos], clave) == 0) {
+            return vocabulario.palabra(ordenados[pos]);
+        }
+        if (pos == 0) return null;
+        return vocabulario.palabra(ordenados[pos - 1]);
+    }
+
+    @Override
+    public String ceiling(String clave) {
+        int pos = rank(clave);
+        if (pos == cantidadOrdenados) return null;
+        return vocabulario.palabra(ordenados[pos]);
+    }
+
+    /**
+     * Obtiene el número de claves menores que la clave dada, con una
+     * búsqueda binaria que compara contra las palabras del vocabulario.
+     *
+     * @param clave Clave de referencia
+     * @return Número de claves menores que la clave dada
+     */
+    @Override
+    public int rank(String clave) {
+        asegurarOrden();
+        int inicio = 0, fin = cantidadOrdenados - 1;
+        while (inicio <= fin) {
+            int medio = inicio + (fin - inicio) / 2;
+            int cmp = vocabulario.comparar(ordenados[medio], clave);
+            if (cmp > 0) fin = medio - 1;
+            else if (cmp < 0) inicio = medio + 1;
+            else return medio;
+        }
+        return inicio;
+    }
+
+    @Override
+    public String select(int k) {
+        if (k < 0 || k >= size()) throw new IllegalArgumentException();
+        asegurarOrden();
+        return vocabulario.palabra(ordenados[k]);
+    }
+
+    @Override
+    public void deleteMin() {
+        if (isEmpty()) throw new NoSuchElementException();
+        asegurarOrden();
+        eliminarEn(0);
+    }
+
+    @Override
+    public void deleteMax() {
+        if (isEmpty()) throw new NoSuchElementException();
+        asegurarOrden();
+        eliminarEn(cantidadOrdenados - 1);
+    }
+
+    @Override
+    public int size(String lo, String hi) {
+        if (lo.compareTo(hi) > 0) return 0;
+        return rank(hi) - rank(lo) + (contains(hi) ? 1 : 0);
+    }
+
+    @Override
+    public Iterable<String> keys() {
+        return () -> new RecorridoClaves(0, size(), false);
+    }
+
+    @Override
+    public Iterable<String> keys(String lo, String hi) {
+        return () -> new RecorridoClaves(rank(lo), finRango(lo, hi), false);
+    }
+
+    @Override
+    public Iterable<String> descendingKeys() {
+        return () -> new RecorridoClaves(0, size(), true);
+    }
+
+    @Override
+    public Iterable<String> descendingKeys(String lo, String hi) {
+        return () -> new RecorridoClaves(rank(lo), finRango(lo, hi), true);
+    }
+
+    /**
+     * Obtiene los pares palabra-identificador en orden ascendente. Cada
+     * par se crea al recorrerlo.
+     *
+     * @return Iterable con los pares de la tabla
+     */
+    @Override
+    public Iterable<Entrada<String, Integer>> entries() {
+        return () -> new RecorridoEntradas(0, size(), false);
+    }
+
+    @Override
+    public Iterable<Entrada<String, Integer>> entries(String lo, String hi) {
+        return () -> new RecorridoEntradas(rank(lo), finRango(lo, hi), false);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new RecorridoClaves(0, size(), false);
+    }
+
+    /**
+     * Obtiene la posición siguiente a la última clave menor o igual a hi.
+     * Si lo es mayor que hi el rango es vacío.
+     *
+     * @param lo Límite inferior del rango
+     * @param hi Límite superior del rango
+     * @return Posición final (exclusiva) del rango
+     */
+    private int finRango(String lo, String hi) {
+        if (lo.compareTo(hi) > 0) return rank(lo);
+        int pos = rank(hi);
+        if (pos < cantidadOrdenados && vocabulario.comparar(ordenados[pos], hi) == 0) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Iterador sobre un tramo [inicio, fin) del arreglo ordenado, en
+     * sentido ascendente o descendente, que detecta las modificaciones
+     * estructurales hechas desde su creación.
+     *
+     * @param <T> Tipo de los elementos devueltos
+     */
+    private abstract class Recorrido<T> implements Iterator<T> {
+        /**
+         * Posición del siguiente identificador a devolver.
+         */
+        private int posicion;
+        /**
+         * Número de identificadores que quedan por devolver.
+         */
+        private int restantes;
+        /**
+         * Indica si el recorrido va de mayor a menor.
+         */
+        private final boolean descendente;
+        /**
+         * Valor del contador de modificaciones al crear el iterador.
+         */
+        private final int modificacionesEsperadas;
+
+        /**
+         * Constructor del recorrido.
+         *
+         * @param inicio Primera posición del tramo (inclusiva)
+         * @param fin Última posición del tramo (exclusiva)
+         * @param descendente true para recorrer de mayor a menor
+         */
+        Recorrido(int inicio, int fin, boolean descendente) {
+            asegurarOrden();
+            this.descendente = descendente;
+            this.restantes = Math.max(0, fin - inicio);
+            this.posicion = descendente ? fin - 1 : inicio;
+            this.modificacionesEsperadas = modificaciones;
+        }
+
+        /**
+         * Obtiene el elemento a devolver a partir de un identificador.
+         *
+         * @param id Identificador de la tabla
+         * @return Elemento a devolver
+         */
+        abstract T extraer(int id);
+
+        @Override
+        public boolean hasNext() {
+            return restantes > 0;
+        }
+
+        @Override
+        public T next() {
+            if (modificaciones != modificacionesEsperadas) throw new ConcurrentModificationException();
+            if (restantes == 0) throw new NoSuchElementException();
+            int id = ordenados[posicion];
+            posicion += descendente ? -1 : 1;
+            restantes--;
+            return extraer(id);
+        }
+    }
+
+    /**
+     * Recorrido que devuelve las palabras de la tabla.
+     */
+    private class RecorridoClaves extends Recorrido<String> {
+        RecorridoClaves(int inicio, int fin, boolean descendente) {
+            super(inicio, fin, descendente);
+        }
+
+        @Override
+        String extraer(int id) {
+            return vocabulario.palabra(id);
+        }
+    }
+
+    /**
+     * Recorrido que devuelve los pares palabra-identificador de la tabla.
+     */
+    private class RecorridoEntradas extends Recorrido<Entrada<String, Integer>> {
+        RecorridoEntradas(int inicio, int fin, boolean descendente) {
+            super(inicio, fin, descendente);
+        }
+
+        @Override
+        Entrada<String, Integer> extraer(int id) {
+            String palabra = vocabulario.palabra(id);
+            return new Entrada<String, Integer>() {
+                @Override
+                public String getClave() {
+                    return palabra;
+                }
+
+                @Override
+                public Integer getValor() {
+                    return id;
+                }
+            };
+        }
+    }
+}
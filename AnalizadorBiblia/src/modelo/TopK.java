@@ -0,0 +1,56 @@
+package modelo;
+
+/**
+ * Seguimiento incremental de las K palabras más frecuentes.
+ *
+ * <p>El analizador informa cada cambio en el conteo de una palabra con
+ * {@link #registrar(String, int, int)} y la estructura mantiene las K
+ * mejores sin recorrer el vocabulario. Los empates en repeticiones se
+ * resuelven en orden alfabético, de modo que el resultado no depende del
+ * orden en que se cargaron los textos.
+ *
+ * <p>Implementaciones:
+ * <ul>
+ *   <li>{@link TopKExacto}: resultado exacto; usa los conteos del analizador</li>
+ *   <li>{@link TopKAproximado}: Space-Saving con memoria acotada; cuenta por
+ *       su cuenta, sirve para flujos cuyo vocabulario no cabe en memoria y
+ *       se puede fusionar con otro</li>
+ * </ul>
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public interface TopK {
+
+    /**
+     * Registra nuevas apariciones de una palabra.
+     *
+     * @param palabra Palabra normalizada
+     * @param incremento Número de apariciones nuevas
+     * @param total Repeticiones totales de la palabra después del incremento
+     */
+    void registrar(String palabra, int incremento, int total);
+
+    /**
+     * Obtiene las K palabras más frecuentes, de mayor a menor frecuencia
+     * y, a igual frecuencia, en orden alfabético.
+     *
+     * @return Lista con hasta K pares palabra-repeticiones
+     */
+    Lista<Frecuencia> getTopK();
+
+    /**
+     * Descarta todas las palabras registradas. Se usa cuando los conteos
+     * disminuyen, por ejemplo al quitar un documento de un {@link Corpus},
+     * para volver a registrar los conteos vigentes.
+     */
+    void reiniciar();
+
+    /**
+     * Obtiene el número de palabras que se mantienen.
+     *
+     * @return Valor de K
+     */
+    int getK();
+}
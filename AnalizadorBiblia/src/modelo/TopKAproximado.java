@@ -0,0 +1,201 @@
+package modelo;
+
+/**
+ * Top-K aproximado con el algoritmo Space-Saving (Metwally et al.).
+ *
+ * <p>Mantiene un número fijo m de contadores, independiente del tamaño
+ * del vocabulario. Una palabra vigilada incrementa su contador; una
+ * palabra nueva ocupa un contador libre o, si no hay, reemplaza al
+ * contador mínimo heredando su valor como error. Garantías, siendo N el
+ * total de apariciones registradas:
+ * <ul>
+ *   <li>Cada estimación sobreestima: real &le; estimado &le; real + error,
+ *       y error &le; N / m</li>
+ *   <li>Toda palabra con más de N / m apariciones está vigilada</li>
+ * </ul>
+ *
+ * <p>Dos top-K aproximados con el mismo número de contadores se fusionan
+ * con {@link #fusionar(TopKAproximado)}, por ejemplo los de varios hilos o
+ * los de ejecuciones separadas. La fusión sigue el esquema de
+ * Agarwal et al. (<i>Mergeable summaries</i>): resta a cada contador el
+ * mínimo de su resumen, suma los restos, descarta todo lo que no supere
+ * al contador m + 1 y vuelve a sumar el error acumulado. Las dos
+ * garantías anteriores se mantienen para el total fusionado, tras
+ * cualquier número de fusiones.
+ *
+ * <p>Ignora los conteos totales que le informa el analizador y cuenta
+ * sólo los incrementos, por lo que puede alimentarse con un flujo de
+ * palabras que no se guardan en ninguna otra tabla, como hace
+ * {@link AnalizadorAproximado}. Dentro de un {@link AnalizadorBiblia} no
+ * ahorra memoria de vocabulario, porque el analizador guarda igualmente
+ * todas las palabras.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class TopKAproximado implements TopK {
+    /**
+     * Montículo con los m contadores vigilados.
+     */
+    private MonticuloConteos monticulo;
+    /**
+     * Número de palabras que se informan.
+     */
+    private final int k;
+    /**
+     * Número de contadores vigilados.
+     */
+    private final int contadores;
+    /**
+     * Apariciones que puede tener, como máximo, una palabra que no está
+     * vigilada mientras queden contadores libres. Es 0 salvo después de
+     * una fusión.
+     */
+    private int base;
+
+    /**
+     * Constructor de un top-K aproximado vacío.
+     *
+     * @param k Número de palabras a informar
+     * @param contadores Número de contadores vigilados; a mayor número,
+     *                   menor error. Debe ser al menos k
+     * @throws IllegalArgumentException si k no es positivo o contadores &lt; k
+     */
+    public TopKAproximado(int k, int contadores) {
+        if (k <= 0 || contadores < k) {
+            throw new IllegalArgumentException("Se requiere 0 < k <= contadores");
+        }
+        this.k = k;
+        this.contadores = contadores;
+        this.monticulo = new MonticuloConteos(contadores);
+    }
+
+    @Override
+    public void registrar(String palabra, int incremento, int total) {
+        MonticuloConteos.Contador c = monticulo.buscar(palabra);
+        if (c != null) {
+            monticulo.aumentar(c, c.repeticiones + incremento);
+        } else if (!monticulo.lleno()) {
+            monticulo.insertar(palabra, base + incremento, base);
+        } else {
+            int minimo = monticulo.minimo().repeticiones;
+            monticulo.reemplazarMinimo(palabra, minimo + incremento, minimo);
+        }
+    }
+
+    /**
+     * Obtiene la sobreestimación máxima del conteo de una palabra.
+     * Para una palabra no vigilada devuelve el mínimo de los contadores,
+     * que acota sus apariciones reales.
+     *
+     * @param palabra Palabra normalizada
+     * @return Error máximo de la estimación
+     */
+    public int getErrorMaximo(String palabra) {
+        MonticuloConteos.Contador c = monticulo.buscar(palabra);
+        if (c != null) return c.error;
+        return piso();
+    }
+
+    /**
+     * Obtiene la cota de las apariciones de una palabra no vigilada: el
+     * mínimo de los contadores si no quedan libres, o la base si quedan.
+     *
+     * @return Apariciones máximas de una palabra no vigilada
+     */
+    private int piso() {
+        return monticulo.lleno() ? monticulo.minimo().repeticiones : base;
+    }
+
+    /**
+     * Suma a este top-K las palabras de otro, sin modificar el otro. Cada
+     * contador se estima como la suma de lo que cada resumen sabe de la
+     * palabra por encima de su {@link #piso()}, menos el contador m + 1 de
+     * esa suma, más el error total; así el resultado nunca subestima y su
+     * error no supera N / m, con N el total de ambos.
+     *
+     * @param otro Top-K aproximado con el mismo número de contadores
+     * @throws IllegalArgumentException si el número de contadores difiere
+     */
+    public void fusionar(TopKAproximado otro) {
+        if (otro.contadores != contadores) {
+            throw new IllegalArgumentException("Sólo se fusionan top-K con el mismo número de contadores");
+        }
+        int pisoPropio = piso();
+        int pisoOtro = otro.piso();
+        MonticuloConteos.Contador[] propios = monticulo.ordenados();
+        MonticuloConteos.Contador[] ajenos = otro.monticulo.ordenados();
+
+        // Restos por encima del piso de cada resumen, sumados por palabra
+        MonticuloConteos.Contador[] restos = new MonticuloConteos.Contador[propios.length + ajenos.length];
+        int n = 0;
+        for (MonticuloConteos.Contador c : propios) {
+            MonticuloConteos.Contador ajeno = otro.monticulo.buscar(c.palabra);
+            restos[n++] = resto(c.palabra, c.repeticiones - pisoPropio
+                                + (ajeno != null ? ajeno.repeticiones - pisoOtro : 0));
+        }
+        for (MonticuloConteos.Contador c : ajenos) {
+            if (monticulo.buscar(c.palabra) == null) {
+                restos[n++] = resto(c.palabra, c.repeticiones - pisoOtro);
+            }
+        }
+        java.util.Arrays.sort(restos, 0, n, (a, b) -> a.repeticiones != b.repeticiones
+                                                     ? Integer.compare(b.repeticiones, a.repeticiones)
+                                                     : a.palabra.compareTo(b.palabra));
+
+        int corte = n > contadores ? restos[contadores].repeticiones : 0;
+        int error = pisoPropio + pisoOtro + corte;
+        monticulo = new MonticuloConteos(contadores);
+        for (int i = 0; i < Math.min(n, contadores) && restos[i].repeticiones > corte; i++) {
+            monticulo.insertar(restos[i].palabra, restos[i].repeticiones - corte + error, error);
+        }
+        base = error;
+    }
+
+    /**
+     * Crea un contador suelto con la parte de una palabra por encima del
+     * piso, para ordenarlo durante una fusión.
+     *
+     * @param palabra Palabra contada
+     * @param repeticiones Repeticiones por encima del piso
+     * @return Contador fuera de cualquier montículo
+     */
+    private static MonticuloConteos.Contador resto(String palabra, int repeticiones) {
+        MonticuloConteos.Contador c = new MonticuloConteos.Contador();
+        c.palabra = palabra;
+        c.repeticiones = repeticiones;
+        return c;
+    }
+
+    @Override
+    public Lista<Frecuencia> getTopK() {
+        MonticuloConteos.Contador[] ordenados = monticulo.ordenados();
+        int n = Math.min(k, ordenados.length);
+        Lista<Frecuencia> resultado = new Lista<>(Math.max(1, n));
+        for (int i = 0; i < n; i++) {
+            resultado.agregarAlFinal(new Frecuencia(ordenados[i].palabra, ordenados[i].repeticiones));
+        }
+        return resultado;
+    }
+
+    @Override
+    public void reiniciar() {
+        monticulo = new MonticuloConteos(contadores);
+        base = 0;
+    }
+
+    @Override
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Obtiene el número de contadores vigilados.
+     *
+     * @return Número de contadores (m)
+     */
+    public int getContadores() {
+        return contadores;
+    }
+}
@@ -0,0 +1,73 @@
+package modelo;
+
+/**
+ * Top-K exacto mantenido con un montículo de mínimos de tamaño K.
+ *
+ * <p>Como los conteos sólo crecen, una palabra que no está en el
+ * montículo únicamente puede entrar cuando supera al peor de los K
+ * actuales. Si sus repeticiones totales son menores que las del mínimo,
+ * no puede estar en el montículo ni entrar en él, y la actualización
+ * termina sin ninguna búsqueda; es el caso de casi todas las palabras
+ * poco frecuentes. En los demás casos el costo es O(log K).
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class TopKExacto implements TopK {
+    /**
+     * Montículo con las K mejores palabras.
+     */
+    private MonticuloConteos monticulo;
+    /**
+     * Número de palabras que se mantienen.
+     */
+    private final int k;
+
+    /**
+     * Constructor de un top-K exacto vacío.
+     *
+     * @param k Número de palabras a mantener
+     * @throws IllegalArgumentException si k no es positivo
+     */
+    public TopKExacto(int k) {
+        if (k <= 0) throw new IllegalArgumentException("K debe ser positivo");
+        this.k = k;
+        this.monticulo = new MonticuloConteos(k);
+    }
+
+    @Override
+    public void registrar(String palabra, int incremento, int total) {
+        MonticuloConteos.Contador minimo = monticulo.minimo();
+        if (monticulo.lleno() && total < minimo.repeticiones) return;
+
+        MonticuloConteos.Contador c = monticulo.buscar(palabra);
+        if (c != null) {
+            monticulo.aumentar(c, total);
+        } else if (!monticulo.lleno()) {
+            monticulo.insertar(palabra, total, 0);
+        } else if (MonticuloConteos.peor(minimo.repeticiones, minimo.palabra, total, palabra)) {
+            monticulo.reemplazarMinimo(palabra, total, 0);
+        }
+    }
+
+    @Override
+    public Lista<Frecuencia> getTopK() {
+        MonticuloConteos.Contador[] ordenados = monticulo.ordenados();
+        Lista<Frecuencia> resultado = new Lista<>(Math.max(1, ordenados.length));
+        for (MonticuloConteos.Contador c : ordenados) {
+            resultado.agregarAlFinal(new Frecuencia(c.palabra, c.repeticiones));
+        }
+        return resultado;
+    }
+
+    @Override
+    public void reiniciar() {
+        monticulo = new MonticuloConteos(k);
+    }
+
+    @Override
+    public int getK() {
+        return k;
+    }
+}
@@ -0,0 +1,310 @@
+package modelo;
+
+/**
+ * Vocabulario codificado como diccionario: cada palabra distinta recibe
+ * un identificador entero denso (0, 1, 2, ...) y sus estadísticas se
+ * guardan en arreglos primitivos indexados por ese identificador.
+ *
+ * <p>La búsqueda de una palabra usa una tabla de direccionamiento abierto
+ * de enteros que guarda identificadores, y compara contra el arreglo de
+ * palabras. Contar una palabra ya conocida no crea objetos: no hay pares
+ * clave-valor ni {@code Integer} por incremento.
+ *
+ * <p>Los identificadores no se reutilizan: una palabra cuyo conteo vuelve
+ * a 0 conserva su identificador y lo recupera si aparece de nuevo. Si se
+ * restan muchas palabras, {@link #compactar()} descarta esos
+ * identificadores y renumera los demás.
+ *
+ * <p>Con una {@link ArenaPalabras}, las palabras no se guardan como String
+ * sino en la arena, fuera del heap, y el vocabulario sólo conserva la
+ * referencia entera de cada una. Las búsquedas comparan el hash y los
+ * bytes guardados; {@link #palabra(int)} decodifica la palabra cada vez.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class Vocabulario {
+    /**
+     * Capacidad inicial de los arreglos.
+     */
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    /**
+     * Palabras por identificador, o null si se guardan en la arena.
+     */
+    private String[] palabras;
+    /**
+     * Arena donde se guardan las palabras, o null si se guardan como String.
+     */
+    private final ArenaPalabras arena;
+    /**
+     * Referencia en la arena de cada identificador, o null sin arena.
+     */
+    private int[] referencias;
+    /**
+     * Repeticiones por identificador.
+     */
+    private int[] repeticiones;
+    /**
+     * Número de identificadores asignados.
+     */
+    private int cantidad;
+    /**
+     * Tabla hash de identificadores más uno; un 0 indica una casilla libre.
+     */
+    private int[] indice;
+
+    /**
+     * Constructor que inicializa un vocabulario vacío.
+     */
+    public Vocabulario() {
+        this(null);
+    }
+
+    /**
+     * Constructor que inicializa un vocabulario vacío que guarda las
+     * palabras en una arena fuera del heap.
+     *
+     * @param arena Arena de las palabras, o null para guardarlas como String
+     */
+    public Vocabulario(ArenaPalabras arena) {
+        this.arena = arena;
+        if (arena == null) {
+            palabras = new String[CAPACIDAD_INICIAL];
+        } else {
+            referencias = new int[CAPACIDAD_INICIAL];
+        }
+        repeticiones = new int[CAPACIDAD_INICIAL];
+        indice = new int[2 * CAPACIDAD_INICIAL];
+        cantidad = 0;
+    }
+
+    /**
+     * Calcula la posición inicial de una palabra en la tabla hash.
+     *
+     * @param hash Código hash de la palabra
+     * @return Posición inicial de sondeo
+     */
+    private int posicion(int hash) {
+        return (hash ^ (hash >>> 16)) & (indice.length - 1);
+    }
+
+    /**
+     * Obtiene el identificador de una palabra.
+     *
+     * @param palabra Palabra normalizada
+     * @return Identificador de la palabra, o -1 si no está en el vocabulario
+     */
+    public int id(String palabra) {
+        int hash = palabra.hashCode();
+        int mascara = indice.length - 1;
+        if (arena != null) {
+            for (int i = posicion(hash); indice[i] != 0; i = (i + 1) & mascara) {
+                int referencia = referencias[indice[i] - 1];
+                if (arena.hash(referencia) == hash && arena.igual(referencia, palabra)) {
+                    return indice[i] - 1;
+                }
+            }
+            return -1;
+        }
+        for (int i = posicion(hash); indice[i] != 0; i = (i + 1) & mascara) {
+            String existente = palabras[indice[i] - 1];
+            if (existente == palabra || (existente.hashCode() == hash && existente.equals(palabra))) {
+                return indice[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene el identificador de una palabra, asignándole uno nuevo con
+     * 0 repeticiones si no está en el vocabulario.
+     *
+     * @param palabra Palabra normalizada
+     * @return Identificador de la palabra
+     */
+    int agregar(String palabra) {
+        int id = id(palabra);
+        if (id >= 0) return id;
+
+        if (cantidad == repeticiones.length) {
+            if (arena == null) {
+                palabras = java.util.Arrays.copyOf(palabras, cantidad * 2);
+            } else {
+                referencias = java.util.Arrays.copyOf(referencias, cantidad * 2);
+            }
+            repeticiones = java.util.Arrays.copyOf(repeticiones, cantidad * 2);
+        }
+        id = cantidad++;
+        if (arena == null) {
+            palabras[id] = palabra;
+        } else {
+            referencias[id] = arena.agregar(palabra);
+        }
+        if (2 * cantidad > indice.length) {
+            redimensionar(indice.length * 2);
+        } else {
+            ubicar(id);
+        }
+        return id;
+    }
+
+    /**
+     * Ubica un identificador en la primera casilla libre de su secuencia.
+     *
+     * @param id Identificador a ubicar
+     */
+    private void ubicar(int id) {
+        int mascara = indice.length - 1;
+        int i = posicion(arena == null ? palabras[id].hashCode() : arena.hash(referencias[id]));
+        while (indice[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        indice[i] = id + 1;
+    }
+
+    /**
+     * Redimensiona la tabla hash y reubica todos los identificadores.
+     *
+     * @param nuevaCapacidad Nueva capacidad, debe ser potencia de dos
+     */
+    private void redimensionar(int nuevaCapacidad) {
+        indice = new int[nuevaCapacidad];
+        for (int id = 0; id < cantidad; id++) {
+            ubicar(id);
+        }
+    }
+
+    /**
+     * Descarta los identificadores de las palabras sin repeticiones y
+     * renumera las demás de forma densa, en el mismo orden relativo, de
+     * modo que un arreglo ordenado de identificadores sigue ordenado al
+     * traducirlo. Con arena, las palabras descartadas siguen ocupando su
+     * lugar en la arena.
+     *
+     * @return Nuevo identificador de cada identificador anterior, o -1
+     *         si se descartó
+     */
+    int[] compactar() {
+        int[] traduccion = new int[cantidad];
+        int vivos = 0;
+        for (int id = 0; id < cantidad; id++) {
+            if (repeticiones[id] == 0) {
+                traduccion[id] = -1;
+                continue;
+            }
+            if (arena == null) {
+                palabras[vivos] = palabras[id];
+            } else {
+                referencias[vivos] = referencias[id];
+            }
+            repeticiones[vivos] = repeticiones[id];
+            traduccion[id] = vivos++;
+        }
+
+        int capacidad = CAPACIDAD_INICIAL;
+        while (capacidad < vivos) {
+            capacidad *= 2;
+        }
+        if (arena == null) {
+            palabras = java.util.Arrays.copyOf(palabras, capacidad);
+            java.util.Arrays.fill(palabras, vivos, capacidad, null);
+        } else {
+            referencias = java.util.Arrays.copyOf(referencias, capacidad);
+        }
+        repeticiones = java.util.Arrays.copyOf(repeticiones, capacidad);
+        java.util.Arrays.fill(repeticiones, vivos, capacidad, 0);
+        cantidad = vivos;
+        redimensionar(2 * capacidad);
+        return traduccion;
+    }
+
+    /**
+     * Suma repeticiones a una palabra.
+     *
+     * @param id Identificador de la palabra
+     * @param cantidad Repeticiones a sumar
+     * @return Repeticiones de la palabra después de sumar
+     */
+    int sumar(int id, int cantidad) {
+        return repeticiones[id] += cantidad;
+    }
+
+    /**
+     * Resta repeticiones a una palabra.
+     *
+     * @param id Identificador de la palabra
+     * @param cantidad Repeticiones a restar, como máximo las actuales
+     * @return Repeticiones de la palabra después de restar
+     */
+    int restar(int id, int cantidad) {
+        return repeticiones[id] -= cantidad;
+    }
+
+    /**
+     * Obtiene la palabra de un identificador. Con arena, cada llamada
+     * decodifica un String nuevo.
+     *
+     * @param id Identificador de la palabra
+     * @return Palabra normalizada
+     */
+    public String palabra(int id) {
+        return arena == null ? palabras[id] : arena.palabra(referencias[id]);
+    }
+
+    /**
+     * Compara las palabras de dos identificadores en orden alfabético,
+     * sin decodificarlas si están en la arena.
+     *
+     * @param a Identificador de la primera palabra
+     * @param b Identificador de la segunda palabra
+     * @return Negativo, cero o positivo según {@link String#compareTo(String)}
+     */
+    public int comparar(int a, int b) {
+        return arena == null ? palabras[a].compareTo(palabras[b])
+                             : arena.comparar(referencias[a], referencias[b]);
+    }
+
+    /**
+     * Compara la palabra de un identificador con otra palabra en orden
+     * alfabético, sin decodificarla si está en la arena.
+     *
+     * @param id Identificador de la palabra
+     * @param palabra Palabra a comparar
+     * @return Negativo, cero o positivo según {@link String#compareTo(String)}
+     */
+    public int comparar(int id, String palabra) {
+        return arena == null ? palabras[id].compareTo(palabra)
+                             : arena.comparar(referencias[id], palabra);
+    }
+
+    /**
+     * Obtiene la arena donde se guardan las palabras.
+     *
+     * @return Arena, o null si las palabras se guardan como String
+     */
+    public ArenaPalabras getArena() {
+        return arena;
+    }
+
+    /**
+     * Obtiene las repeticiones de una palabra.
+     *
+     * @param id Identificador de la palabra
+     * @return Repeticiones de la palabra
+     */
+    public int repeticiones(int id) {
+        return repeticiones[id];
+    }
+
+    /**
+     * Obtiene el número de identificadores asignados, incluidas las
+     * palabras cuyo conteo volvió a 0.
+     *
+     * @return Número de identificadores
+     */
+    public int size() {
+        return cantidad;
+    }
+}
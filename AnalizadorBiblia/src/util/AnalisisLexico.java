@@ -0,0 +1,94 @@
+package util;
+
+/**
+ * Etapa opcional de análisis que se aplica a cada palabra después de
+ * {@link ProcesadorTexto#normalizarPalabra(String)}: descarta las
+ * {@link PalabrasVacias} y reduce las demás a su raíz con un
+ * {@link ExtractorRaices}.
+ *
+ * <p>Es inmutable y puede compartirse entre hilos. El {@link Tokenizador}
+ * guarda el resultado junto a cada forma normalizada que ya conoce, de
+ * modo que el análisis sólo se calcula en la primera aparición de cada
+ * forma y no en cada palabra del texto.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public final class AnalisisLexico {
+
+    /**
+     * Palabras que se descartan, o null para no descartar ninguna.
+     */
+    private final PalabrasVacias vacias;
+
+    /**
+     * Extractor de raíces, o null para dejar las palabras como están.
+     */
+    private final ExtractorRaices raices;
+
+    /**
+     * Constructor que combina las palabras vacías y el extractor de raíces.
+     *
+     * @param vacias Palabras que se descartan, o null
+     * @param raices Extractor de raíces, o null
+     */
+    public AnalisisLexico(PalabrasVacias vacias, ExtractorRaices raices) {
+        this.vacias = vacias;
+        this.raices = raices;
+    }
+
+    /**
+     * Obtiene el análisis del español: palabras vacías y raíces del español.
+     *
+     * @return Análisis del español
+     */
+    public static AnalisisLexico espanol() {
+        return new AnalisisLexico(PalabrasVacias.espanol(), new RaicesEspanol());
+    }
+
+    /**
+     * Obtiene el análisis del inglés: palabras vacías y raíces del inglés.
+     *
+     * @return Análisis del inglés
+     */
+    public static AnalisisLexico ingles() {
+        return new AnalisisLexico(PalabrasVacias.ingles(), new RaicesIngles());
+    }
+
+    /**
+     * Analiza una palabra.
+     *
+     * @param palabra Palabra normalizada y válida
+     * @return Raíz de la palabra, o null si es una palabra vacía
+     */
+    public String analizar(String palabra) {
+        if (vacias != null && vacias.contiene(palabra)) return null;
+        return raices != null ? raices.raiz(palabra) : palabra;
+    }
+
+    /**
+     * Obtiene las palabras vacías.
+     *
+     * @return Palabras vacías, o null si no se descartan
+     */
+    public PalabrasVacias getPalabrasVacias() {
+        return vacias;
+    }
+
+    /**
+     * Obtiene el extractor de raíces.
+     *
+     * @return Extractor de raíces, o null si no se usa
+     */
+    public ExtractorRaices getRaices() {
+        return raices;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Análisis léxico: %s palabras vacías, raíces %s",
+                vacias != null ? Integer.toString(vacias.tamano()) : "sin",
+                raices != null ? raices.getClass().getSimpleName() : "no");
+    }
+}
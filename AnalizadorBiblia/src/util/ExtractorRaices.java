@@ -0,0 +1,26 @@
+package util;
+
+/**
+ * Reduce una palabra a su raíz quitándole los sufijos de flexión y
+ * derivación, de modo que formas como "bendijo", "bendijeron" y
+ * "bendecir" se cuenten juntas.
+ *
+ * <p>La raíz no tiene por qué ser una palabra del idioma; sólo se espera
+ * que las formas de una misma palabra compartan raíz. Las
+ * implementaciones no guardan estado y pueden usarse desde varios hilos.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public interface ExtractorRaices {
+
+    /**
+     * Obtiene la raíz de una palabra.
+     *
+     * @param palabra Palabra normalizada con
+     *                {@link ProcesadorTexto#normalizarPalabra(String)}
+     * @return Raíz de la palabra; la misma instancia si no cambia
+     */
+    String raiz(String palabra);
+}
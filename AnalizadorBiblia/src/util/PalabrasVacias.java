@@ -0,0 +1,189 @@
+package util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Conjunto inmutable de palabras vacías (artículos, preposiciones,
+ * conjunciones, pronombres...) que se omiten al contar.
+ *
+ * <p>Las palabras se guardan ya normalizadas con
+ * {@link ProcesadorTexto#normalizarPalabra(String)} en una tabla de
+ * direccionamiento abierto con sondeo lineal, ocupada a lo sumo hasta la
+ * mitad. Buscar una palabra cuesta, en promedio, menos de dos
+ * comparaciones y no crea objetos. Como el conjunto no cambia después de
+ * construirse, puede compartirse entre hilos.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public final class PalabrasVacias {
+
+    /**
+     * Palabras vacías del español, sin acentos.
+     */
+    private static final String[] ESPANOL = {
+        "a", "al", "algo", "algun", "alguna", "algunas", "alguno", "algunos", "ante", "antes",
+        "aquel", "aquella", "aquellas", "aquello", "aquellos", "asi", "aun", "cada", "como",
+        "con", "contra", "cual", "cuales", "cuando", "cuyo", "cuya", "de", "del", "desde",
+        "donde", "dos", "durante", "e", "el", "ella", "ellas", "ello", "ellos", "en", "entre",
+        "era", "eran", "es", "esa", "esas", "ese", "eso", "esos", "esta", "estaba", "estan",
+        "estas", "este", "esto", "estos", "fue", "fueron", "ha", "habia", "han", "hasta", "hay",
+        "he", "la", "las", "le", "les", "lo", "los", "me", "mi", "mis", "mucho", "muchos", "muy",
+        "nada", "ni", "no", "nos", "nosotros", "nuestra", "nuestras", "nuestro", "nuestros",
+        "o", "os", "otra", "otras", "otro", "otros", "para", "pero", "poco", "por", "porque",
+        "pues", "que", "quien", "quienes", "se", "sea", "sean", "ser", "si", "sin", "sino",
+        "sobre", "son", "su", "sus", "suya", "suyas", "suyo", "suyos", "tambien", "tan",
+        "tanto", "te", "ti", "toda", "todas", "todo", "todos", "tu", "tus", "u", "un", "una",
+        "unas", "uno", "unos", "vosotros", "vuestra", "vuestras", "vuestro", "vuestros", "y",
+        "ya", "yo"
+    };
+
+    /**
+     * Palabras vacías del inglés, sin apóstrofos.
+     */
+    private static final String[] INGLES = {
+        "a", "about", "above", "after", "again", "against", "all", "am", "an", "and", "any",
+        "are", "as", "at", "be", "because", "been", "before", "being", "below", "between",
+        "both", "but", "by", "could", "did", "do", "does", "doing", "down", "during", "each",
+        "few", "for", "from", "further", "had", "has", "have", "having", "he", "her", "here",
+        "hers", "herself", "him", "himself", "his", "how", "i", "if", "in", "into", "is", "it",
+        "its", "itself", "me", "more", "most", "my", "myself", "no", "nor", "not", "of", "off",
+        "on", "once", "only", "or", "other", "ought", "our", "ours", "ourselves", "out", "over",
+        "own", "same", "she", "should", "so", "some", "such", "than", "that", "the", "their",
+        "theirs", "them", "themselves", "then", "there", "these", "they", "this", "those",
+        "through", "to", "too", "under", "until", "up", "very", "was", "we", "were", "what",
+        "when", "where", "which", "while", "who", "whom", "why", "with", "would", "you", "your",
+        "yours", "yourself", "yourselves", "thee", "thou", "thy", "unto", "ye"
+    };
+
+    /**
+     * Tabla de direccionamiento abierto; las posiciones libres son null.
+     */
+    private final String[] tabla;
+
+    /**
+     * Número de palabras del conjunto.
+     */
+    private final int tamano;
+
+    /**
+     * Construye el conjunto a partir de una lista de palabras. Cada palabra
+     * se normaliza; las que quedan vacías o sin letras se omiten.
+     *
+     * @param palabras Palabras del conjunto, pueden repetirse
+     */
+    private PalabrasVacias(String[] palabras) {
+        int capacidad = 16;
+        while (capacidad < 2 * palabras.length) {
+            capacidad <<= 1;
+        }
+        tabla = new String[capacidad];
+        int n = 0;
+        for (String palabra : palabras) {
+            String normalizada = ProcesadorTexto.normalizarPalabra(palabra);
+            if (!ProcesadorTexto.esPalabraValida(normalizada)) continue;
+            int i = posicion(normalizada);
+            if (tabla[i] == null) {
+                tabla[i] = normalizada;
+                n++;
+            }
+        }
+        tamano = n;
+    }
+
+    /**
+     * Obtiene el conjunto de palabras vacías del español.
+     *
+     * @return Palabras vacías del español
+     */
+    public static PalabrasVacias espanol() {
+        return new PalabrasVacias(ESPANOL);
+    }
+
+    /**
+     * Obtiene el conjunto de palabras vacías del inglés.
+     *
+     * @return Palabras vacías del inglés
+     */
+    public static PalabrasVacias ingles() {
+        return new PalabrasVacias(INGLES);
+    }
+
+    /**
+     * Crea un conjunto con las palabras indicadas.
+     *
+     * @param palabras Palabras del conjunto; se normalizan
+     * @return Conjunto de palabras vacías
+     * @throws IllegalArgumentException si la lista es null
+     */
+    public static PalabrasVacias de(String... palabras) {
+        if (palabras == null) {
+            throw new IllegalArgumentException("La lista de palabras no puede ser null");
+        }
+        return new PalabrasVacias(palabras.clone());
+    }
+
+    /**
+     * Lee un conjunto de un archivo de texto con las palabras separadas
+     * por espacios o saltos de línea. Lo que sigue a un '#' en una línea
+     * es un comentario.
+     *
+     * @param ruta Ruta del archivo
+     * @param codificacion Codificación del archivo
+     * @return Conjunto de palabras vacías
+     * @throws IOException Si ocurre un error al leer el archivo
+     */
+    public static PalabrasVacias leer(String ruta, Charset codificacion) throws IOException {
+        StringBuilder texto = new StringBuilder();
+        try (BufferedReader lector = Files.newBufferedReader(Paths.get(ruta), codificacion)) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                int comentario = linea.indexOf('#');
+                texto.append(comentario >= 0 ? linea.substring(0, comentario) : linea).append(' ');
+            }
+        }
+        String contenido = texto.toString().trim();
+        return new PalabrasVacias(contenido.isEmpty() ? new String[0] : contenido.split("\\s+"));
+    }
+
+    /**
+     * Indica si una palabra ya normalizada es una palabra vacía.
+     *
+     * @param palabra Palabra normalizada
+     * @return true si la palabra pertenece al conjunto
+     */
+    public boolean contiene(String palabra) {
+        return palabra != null && tabla[posicion(palabra)] != null;
+    }
+
+    /**
+     * Obtiene el número de palabras del conjunto.
+     *
+     * @return Número de palabras
+     */
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Busca la posición de una palabra en la tabla: la que ya ocupa, o la
+     * posición libre donde debería insertarse.
+     *
+     * @param palabra Palabra normalizada
+     * @return Posición en la tabla
+     */
+    private int posicion(String palabra) {
+        int mascara = tabla.length - 1;
+        int h = palabra.hashCode();
+        int i = (h ^ (h >>> 16)) & mascara;
+        while (tabla[i] != null && !tabla[i].equals(palabra)) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+}
@@ -14,12 +14,56 @@ import java.text.Normalizer;
  *   <li>Validación de palabras según criterios específicos</li>
  * </ul>
  * 
+ * <p>Para los caracteres latinos (hasta U+036F) la normalización se hace
+ * con una tabla precalculada que asigna a cada carácter su forma en
+ * minúscula y sin diacríticos, o la marca de descarte. La tabla se
+ * construye al cargar la clase aplicando la normalización completa
+ * (expresiones regulares y NFD) a cada carácter, por lo que ambos
+ * caminos producen exactamente el mismo resultado. Las palabras con
+ * caracteres fuera de ese rango usan la normalización completa.
+ * 
  * @author Camilo
  * @author Juan
  * @author Rodrigo
  */
 public class ProcesadorTexto {
     
+    /**
+     * Primer carácter que no está cubierto por la tabla de plegado.
+     * Se detiene antes del griego, cuya sigma final depende del contexto.
+     */
+    static final int LIMITE_TABLA = 0x0370;
+    
+    /**
+     * Valor de la tabla para caracteres que se eliminan al normalizar.
+     */
+    static final char DESCARTAR = '\u0000';
+    
+    /**
+     * Valor de la tabla para caracteres cuya normalización no es un único
+     * carácter y requieren el camino completo.
+     */
+    static final char SIN_TABLA = '\uFFFF';
+    
+    /**
+     * Tabla de plegado: para cada carácter menor que {@link #LIMITE_TABLA},
+     * su forma normalizada, {@link #DESCARTAR} o {@link #SIN_TABLA}.
+     */
+    static final char[] TABLA_PLEGADO = new char[LIMITE_TABLA];
+    
+    static {
+        for (int c = 0; c < LIMITE_TABLA; c++) {
+            String plegado = normalizarCompleto(String.valueOf((char) c));
+            if (plegado.isEmpty()) {
+                TABLA_PLEGADO[c] = DESCARTAR;
+            } else if (plegado.length() == 1 && plegado.charAt(0) != SIN_TABLA) {
+                TABLA_PLEGADO[c] = plegado.charAt(0);
+            } else {
+                TABLA_PLEGADO[c] = SIN_TABLA;
+            }
+        }
+    }
+    
      /**
      * Normaliza una palabra eliminando caracteres especiales, acentos
      * y convirtiéndola a minúsculas.
@@ -37,6 +81,32 @@ public class ProcesadorTexto {
     public static String normalizarPalabra(String palabra) {
         if (palabra == null || palabra.isEmpty()) return "";
         
+        char[] buffer = null;
+        int largo = 0;
+        for (int i = 0; i < palabra.length(); i++) {
+            char c = palabra.charAt(i);
+            char plegado = c < LIMITE_TABLA ? TABLA_PLEGADO[c] : SIN_TABLA;
+            if (plegado == SIN_TABLA) return normalizarCompleto(palabra);
+            if (buffer == null && (plegado != c || plegado == DESCARTAR)) {
+                // Primer carácter que cambia: copiar lo ya recorrido
+                buffer = new char[palabra.length()];
+                palabra.getChars(0, i, buffer, 0);
+                largo = i;
+            }
+            if (buffer != null && plegado != DESCARTAR) buffer[largo++] = plegado;
+        }
+        return buffer == null ? palabra : new String(buffer, 0, largo);
+    }
+    
+    /**
+     * Normaliza una palabra con expresiones regulares y descomposición NFD.
+     * Es la definición de referencia de la normalización y se usa para
+     * construir la tabla de plegado y para los caracteres que ésta no cubre.
+     * 
+     * @param palabra Palabra a normalizar, no null
+     * @return Palabra normalizada
+     */
+    private static String normalizarCompleto(String palabra) {
         palabra = palabra.toLowerCase()
                       .replaceAll("[^\\p{IsAlphabetic}]", "");
         palabra = Normalizer.normalize(palabra, Normalizer.Form.NFD)
@@ -54,6 +124,33 @@ public class ProcesadorTexto {
      * @return true si la palabra es válida, false en caso contrario
      */
     public static boolean esPalabraValida(String palabra) {
-        return palabra != null && !palabra.isEmpty() && palabra.matches(".*[a-z].*");
+        if (palabra == null) return false;
+        for (int i = 0; i < palabra.length(); i++) {
+            if (esLetraBasica(palabra.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indica si un carácter es una letra minúscula sin acento (a-z),
+     * el criterio que usa {@link #esPalabraValida(String)}.
+     * 
+     * @param c Carácter a verificar
+     * @return true si el carácter está entre 'a' y 'z'
+     */
+    static boolean esLetraBasica(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    /**
+     * Indica si un carácter separa palabras. Coincide con la clase
+     * {@code \s} de las expresiones regulares de Java: espacio,
+     * tabulaciones, saltos de línea, avance de página y retorno de carro.
+     * 
+     * @param c Carácter a verificar
+     * @return true si el carácter es un separador
+     */
+    public static boolean esSeparador(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
\ No newline at end of file
@@ -0,0 +1,348 @@
+package util;
+
+/**
+ * Extractor de raíces del español, según el algoritmo de Snowball para
+ * el español.
+ *
+ * <p>El algoritmo delimita tres regiones al final de la palabra (RV, R1
+ * y R2) y quita, en este orden y sólo dentro de la región que exige cada
+ * sufijo:
+ * <ol>
+ *   <li>Los pronombres átonos unidos a un gerundio o infinitivo
+ *       ("diciendole" → "diciendo").</li>
+ *   <li>Un sufijo de derivación ("-amiento", "-idad", "-mente"...) o, si
+ *       no hay ninguno, una terminación verbal ("-aron", "-iendo",
+ *       "-ieran"...).</li>
+ *   <li>Una vocal final residual ("-os", "-a", "-o", "-e"...).</li>
+ * </ol>
+ *
+ * <p>Como las palabras llegan ya sin acentos, las terminaciones acentuadas
+ * del algoritmo original ("-ación", "-arían"...) se buscan sin acento y
+ * el paso final que quita los acentos no es necesario.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public final class RaicesEspanol implements ExtractorRaices {
+
+    /**
+     * Pronombres átonos que pueden ir unidos al verbo.
+     */
+    private static final TablaSufijos PRONOMBRES = new TablaSufijos(
+        "selas", "selos", "sela", "selo", "las", "les", "los", "nos", "me", "se", "la", "le", "lo"
+    );
+
+    /**
+     * Terminaciones verbales que pueden preceder a un pronombre.
+     */
+    private static final TablaSufijos ANTES_DE_PRONOMBRE = new TablaSufijos(
+        "iendo", "yendo", "ando", "ar", "er", "ir"
+    );
+
+    /**
+     * Sufijos de derivación del paso 1.
+     */
+    private static final TablaSufijos DERIVACION = new TablaSufijos(
+        "amientos", "imientos", "aciones", "amiento", "imiento", "uciones", "adoras", "adores",
+        "ancias", "logias", "encias", "amente", "idades", "acion", "ucion", "adora", "ancia",
+        "logia", "encia", "mente", "istas", "ismos", "ables", "ibles", "anzas", "antes",
+        "anza", "icos", "icas", "ismo", "able", "ible", "ista", "osos", "osas", "ador", "ante",
+        "idad", "ivas", "ivos", "ico", "ica", "oso", "osa", "iva", "ivo"
+    );
+
+    /**
+     * Terminaciones verbales que empiezan con 'y' (paso 2a).
+     */
+    private static final TablaSufijos VERBALES_Y = new TablaSufijos(
+        "yeron", "yendo", "yamos", "yais", "yan", "yen", "yas", "yes", "ya", "ye", "yo"
+    );
+
+    /**
+     * Terminaciones verbales del paso 2b.
+     */
+    private static final TablaSufijos VERBALES = new TablaSufijos(
+        "iesemos", "ieramos", "iriamos", "eriamos", "ariamos", "asemos", "aramos", "abamos",
+        "ieseis", "ierais", "isteis", "asteis", "aseis", "arais", "iriais", "eriais", "ariais",
+        "iamos", "iremos", "eremos", "aremos", "ieses", "ieras", "ieron", "iendo", "iesen",
+        "ieran", "abais", "emos", "imos", "amos", "idos", "ados", "iais", "ases", "aras",
+        "idas", "adas", "abas", "aron", "ando", "asen", "aban", "iese", "iera", "irian",
+        "irias", "erian", "erias", "arian", "arias", "ireis", "ereis", "areis", "iria", "eria",
+        "aria", "iran", "iras", "eran", "eras", "aran", "aste", "iste", "eis", "ais",
+        "ias", "ian", "ido", "ado", "ase", "ara", "ida", "ada", "aba", "ira", "ire", "era",
+        "ere", "are", "en", "es", "is", "as", "ar", "er", "ir", "io", "an", "ia", "ad", "ed",
+        "id"
+    );
+
+    /**
+     * Vocales residuales del paso 3.
+     */
+    private static final TablaSufijos RESIDUALES = new TablaSufijos("os", "a", "o", "i", "e");
+
+    /**
+     * Obtiene la raíz de una palabra en español.
+     *
+     * @param palabra Palabra normalizada
+     * @return Raíz de la palabra; la misma instancia si no cambia
+     */
+    @Override
+    public String raiz(String palabra) {
+        int largo = palabra.length();
+        if (largo < 3) return palabra;
+        char[] p = palabra.toCharArray();
+        int rv = regionRV(p, largo);
+        int r1 = regionR(p, largo, 0);
+        int r2 = regionR(p, largo, r1);
+
+        int n = pronombre(p, largo, rv);
+        int paso1 = derivacion(p, n, r1, r2);
+        if (paso1 >= 0) {
+            n = paso1;
+        } else {
+            int paso2 = verbalY(p, n, rv);
+            n = paso2 >= 0 ? paso2 : verbal(p, n, rv);
+        }
+        n = residual(p, n, rv);
+        return n == largo ? palabra : new String(p, 0, n);
+    }
+
+    /**
+     * Paso 0: quita un pronombre átono que sigue a "-iendo", "-ando",
+     * "-ar", "-er", "-ir" o "u-yendo" dentro de RV.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param rv Inicio de la región RV
+     * @return Nuevo largo
+     */
+    private static int pronombre(char[] p, int n, int rv) {
+        String sufijo = masLargo(p, n, 0, PRONOMBRES);
+        if (sufijo == null) return n;
+        int inicio = n - sufijo.length();
+        String verbo = masLargo(p, inicio, 0, ANTES_DE_PRONOMBRE);
+        if (verbo == null) return n;
+        int inicioVerbo = inicio - verbo.length();
+        if (inicioVerbo < rv) return n;
+        if (verbo.equals("yendo") && (inicioVerbo == 0 || p[inicioVerbo - 1] != 'u')) return n;
+        return inicio;
+    }
+
+    /**
+     * Paso 1: quita el sufijo de derivación más largo, si está en la
+     * región que le corresponde.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param r1 Inicio de la región R1
+     * @param r2 Inicio de la región R2
+     * @return Nuevo largo, o -1 si no se quitó ningún sufijo
+     */
+    private static int derivacion(char[] p, int n, int r1, int r2) {
+        String sufijo = masLargo(p, n, 0, DERIVACION);
+        if (sufijo == null) return -1;
+        int inicio = n - sufijo.length();
+        switch (sufijo) {
+            case "adora": case "ador": case "acion": case "adoras": case "adores": case "aciones":
+            case "ante": case "antes": case "ancia": case "ancias":
+                if (inicio < r2) return -1;
+                return quitarSiEnRegion(p, inicio, "ic", r2);
+            case "logia": case "logias":
+                if (inicio < r2) return -1;
+                return reemplazar(p, inicio, "log");
+            case "ucion": case "uciones":
+                if (inicio < r2) return -1;
+                return reemplazar(p, inicio, "u");
+            case "encia": case "encias":
+                if (inicio < r2) return -1;
+                return reemplazar(p, inicio, "ente");
+            case "amente":
+                if (inicio < r1) return -1;
+                if (termina(p, inicio, "iv") && inicio - 2 >= r2) {
+                    return quitarSiEnRegion(p, inicio - 2, "at", r2);
+                }
+                if ((termina(p, inicio, "os") || termina(p, inicio, "ic") || termina(p, inicio, "ad"))
+                        && inicio - 2 >= r2) {
+                    return inicio - 2;
+                }
+                return inicio;
+            case "mente":
+                if (inicio < r2) return -1;
+                if (termina(p, inicio, "ante") || termina(p, inicio, "able") || termina(p, inicio, "ible")) {
+                    return inicio - 4 >= r2 ? inicio - 4 : inicio;
+                }
+                return inicio;
+            case "idad": case "idades":
+                if (inicio < r2) return -1;
+                if (termina(p, inicio, "abil")) return inicio - 4 >= r2 ? inicio - 4 : inicio;
+                if (termina(p, inicio, "ic") || termina(p, inicio, "iv")) {
+                    return inicio - 2 >= r2 ? inicio - 2 : inicio;
+                }
+                return inicio;
+            case "iva": case "ivo": case "ivas": case "ivos":
+                if (inicio < r2) return -1;
+                return quitarSiEnRegion(p, inicio, "at", r2);
+            default:
+                return inicio >= r2 ? inicio : -1;
+        }
+    }
+
+    /**
+     * Paso 2a: quita una terminación verbal que empieza con 'y' dentro de
+     * RV, si va precedida de 'u'.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param rv Inicio de la región RV
+     * @return Nuevo largo, o -1 si no se quitó ninguna terminación
+     */
+    private static int verbalY(char[] p, int n, int rv) {
+        String sufijo = masLargo(p, n, rv, VERBALES_Y);
+        if (sufijo == null) return -1;
+        int inicio = n - sufijo.length();
+        return inicio > 0 && p[inicio - 1] == 'u' ? inicio : -1;
+    }
+
+    /**
+     * Paso 2b: quita la terminación verbal más larga dentro de RV. Tras
+     * "-en", "-es", "-eis" y "-emos" se quita también la 'u' de "gu".
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param rv Inicio de la región RV
+     * @return Nuevo largo
+     */
+    private static int verbal(char[] p, int n, int rv) {
+        String sufijo = masLargo(p, n, rv, VERBALES);
+        if (sufijo == null) return n;
+        int inicio = n - sufijo.length();
+        switch (sufijo) {
+            case "en": case "es": case "eis": case "emos":
+                return termina(p, inicio, "gu") ? inicio - 1 : inicio;
+            default:
+                return inicio;
+        }
+    }
+
+    /**
+     * Paso 3: quita una vocal final dentro de RV. Tras la 'e' se quita
+     * también la 'u' de "gu" si está en RV.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param rv Inicio de la región RV
+     * @return Nuevo largo
+     */
+    private static int residual(char[] p, int n, int rv) {
+        String sufijo = masLargo(p, n, 0, RESIDUALES);
+        if (sufijo == null) return n;
+        int inicio = n - sufijo.length();
+        if (inicio < rv) return n;
+        if (sufijo.equals("e") && termina(p, inicio, "gu") && inicio - 1 >= rv) {
+            return inicio - 1;
+        }
+        return inicio;
+    }
+
+    /**
+     * Quita una terminación que precede a la posición indicada si empieza
+     * dentro de la región.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param sufijo Terminación a quitar
+     * @param region Inicio de la región
+     * @return Nuevo largo
+     */
+    private static int quitarSiEnRegion(char[] p, int n, String sufijo, int region) {
+        return termina(p, n, sufijo) && n - sufijo.length() >= region ? n - sufijo.length() : n;
+    }
+
+    /**
+     * Escribe un reemplazo a partir de una posición.
+     *
+     * @param p Caracteres de la palabra
+     * @param inicio Posición donde empieza el reemplazo
+     * @param reemplazo Texto a escribir; no más largo que lo que sustituye
+     * @return Nuevo largo
+     */
+    private static int reemplazar(char[] p, int inicio, String reemplazo) {
+        reemplazo.getChars(0, reemplazo.length(), p, inicio);
+        return inicio + reemplazo.length();
+    }
+
+    /**
+     * Busca la terminación más larga de una tabla que empiece en la
+     * región indicada.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param limite Posición mínima donde puede empezar la terminación
+     * @param sufijos Tabla de terminaciones
+     * @return Terminación encontrada, o null
+     */
+    private static String masLargo(char[] p, int n, int limite, TablaSufijos sufijos) {
+        int i = sufijos.buscar(p, n, limite);
+        return i >= 0 ? sufijos.sufijo(i) : null;
+    }
+
+    /**
+     * Indica si los primeros {@code n} caracteres terminan en un sufijo.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo considerado
+     * @param sufijo Sufijo a comparar
+     * @return true si terminan en el sufijo
+     */
+    private static boolean termina(char[] p, int n, String sufijo) {
+        return TablaSufijos.termina(p, n, sufijo);
+    }
+
+    /**
+     * Calcula el inicio de RV: si la segunda letra es consonante, tras la
+     * siguiente vocal; si las dos primeras son vocales, tras la siguiente
+     * consonante; si no, tras la tercera letra.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo de la palabra
+     * @return Inicio de la región, n si está vacía
+     */
+    private static int regionRV(char[] p, int n) {
+        if (n < 2) return n;
+        int i = 2;
+        if (!vocal(p[1])) {
+            while (i < n && !vocal(p[i])) i++;
+        } else if (vocal(p[0])) {
+            while (i < n && vocal(p[i])) i++;
+        } else {
+            return Math.min(3, n);
+        }
+        return i < n ? i + 1 : n;
+    }
+
+    /**
+     * Calcula el inicio de la región que sigue a la primera consonante
+     * precedida de vocal a partir de una posición (R1 desde 0, R2 desde R1).
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo de la palabra
+     * @param desde Posición donde empieza la búsqueda
+     * @return Inicio de la región, n si está vacía
+     */
+    private static int regionR(char[] p, int n, int desde) {
+        for (int i = desde + 1; i < n; i++) {
+            if (!vocal(p[i]) && vocal(p[i - 1])) return i + 1;
+        }
+        return n;
+    }
+
+    /**
+     * Indica si un carácter es vocal. Las palabras normalizadas no tienen
+     * acentos.
+     *
+     * @param c Carácter a verificar
+     * @return true si es a, e, i, o o u
+     */
+    private static boolean vocal(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
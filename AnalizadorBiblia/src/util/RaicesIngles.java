@@ -0,0 +1,439 @@
+package util;
+
+/**
+ * Extractor de raíces del inglés, según el algoritmo de Snowball para el
+ * inglés (Porter2).
+ *
+ * <p>Tras las excepciones fijas ("dying" → "die", "news"...), marca como
+ * consonante la 'y' inicial o que sigue a una vocal, delimita las
+ * regiones R1 y R2 y aplica los cinco pasos del algoritmo: plurales y
+ * formas en "-ed"/"-ing" (pasos 1a a 1c), sufijos de derivación dobles y
+ * simples dentro de R1 (pasos 2 y 3), sufijos dentro de R2 (paso 4) y la
+ * 'e' o 'l' final (paso 5).
+ *
+ * <p>El paso 0 del algoritmo original, que quita los apóstrofos del
+ * genitivo, no es necesario: la normalización ya los eliminó.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public final class RaicesIngles implements ExtractorRaices {
+
+    /**
+     * Palabras con raíz fija, como pares palabra y raíz.
+     */
+    private static final String[][] EXCEPCIONES = {
+        {"skis", "ski"}, {"skies", "sky"}, {"dying", "die"}, {"lying", "lie"}, {"tying", "tie"},
+        {"idly", "idl"}, {"gently", "gentl"}, {"ugly", "ugli"}, {"early", "earli"}, {"only", "onli"},
+        {"singly", "singl"}, {"sky", "sky"}, {"news", "news"}, {"howe", "howe"}, {"atlas", "atlas"},
+        {"cosmos", "cosmos"}, {"bias", "bias"}, {"andes", "andes"}
+    };
+
+    /**
+     * Palabras que no cambian después del paso 1a.
+     */
+    private static final String[] INVARIANTES_1A = {
+        "inning", "outing", "canning", "herring", "earring", "proceed", "exceed", "succeed"
+    };
+
+    /**
+     * Prefijos tras los cuales empieza R1, en lugar de la regla general.
+     */
+    private static final String[] PREFIJOS_R1 = {"gener", "commun", "arsen"};
+
+    /**
+     * Sufijos del paso 1b.
+     */
+    private static final String[][] PASO_1B = {
+        {"eedly", "ee"}, {"eed", "ee"}, {"ed", ""}, {"edly", ""}, {"ing", ""}, {"ingly", ""}
+    };
+
+    /**
+     * Sufijos del paso 1b agrupados para buscarlos.
+     */
+    private static final TablaSufijos INDICE_1B = indice(PASO_1B);
+
+    /**
+     * Sufijos del paso 2 y su reemplazo.
+     */
+    private static final String[][] PASO_2 = {
+        {"tional", "tion"}, {"enci", "ence"}, {"anci", "ance"}, {"abli", "able"}, {"entli", "ent"},
+        {"izer", "ize"}, {"ization", "ize"}, {"ational", "ate"}, {"ation", "ate"}, {"ator", "ate"},
+        {"alism", "al"}, {"aliti", "al"}, {"alli", "al"}, {"fulness", "ful"}, {"ousli", "ous"},
+        {"ousness", "ous"}, {"iveness", "ive"}, {"iviti", "ive"}, {"biliti", "ble"}, {"bli", "ble"},
+        {"ogi", "og"}, {"fulli", "ful"}, {"lessli", "less"}, {"li", ""}
+    };
+
+    /**
+     * Sufijos del paso 2 agrupados para buscarlos.
+     */
+    private static final TablaSufijos INDICE_2 = indice(PASO_2);
+
+    /**
+     * Sufijos del paso 3 y su reemplazo.
+     */
+    private static final String[][] PASO_3 = {
+        {"tional", "tion"}, {"ational", "ate"}, {"alize", "al"}, {"icate", "ic"}, {"iciti", "ic"},
+        {"ical", "ic"}, {"ful", ""}, {"ness", ""}, {"ative", ""}
+    };
+
+    /**
+     * Sufijos del paso 3 agrupados para buscarlos.
+     */
+    private static final TablaSufijos INDICE_3 = indice(PASO_3);
+
+    /**
+     * Sufijos del paso 4.
+     */
+    private static final String[][] PASO_4 = {
+        {"al", ""}, {"ance", ""}, {"ence", ""}, {"er", ""}, {"ic", ""}, {"able", ""}, {"ible", ""},
+        {"ant", ""}, {"ement", ""}, {"ment", ""}, {"ent", ""}, {"ism", ""}, {"ate", ""}, {"iti", ""},
+        {"ous", ""}, {"ive", ""}, {"ize", ""}, {"ion", ""}
+    };
+
+    /**
+     * Sufijos del paso 4 agrupados para buscarlos.
+     */
+    private static final TablaSufijos INDICE_4 = indice(PASO_4);
+
+    /**
+     * Obtiene la raíz de una palabra en inglés.
+     *
+     * @param palabra Palabra normalizada
+     * @return Raíz de la palabra; la misma instancia si no cambia
+     */
+    @Override
+    public String raiz(String palabra) {
+        int largo = palabra.length();
+        if (largo <= 2) return palabra;
+        for (String[] excepcion : EXCEPCIONES) {
+            if (excepcion[0].equals(palabra)) return excepcion[1];
+        }
+
+        char[] p = palabra.toCharArray();
+        boolean conY = false;
+        for (int i = 0; i < largo; i++) {
+            if (p[i] == 'y' && (i == 0 || vocal(p[i - 1]))) {
+                p[i] = 'Y';
+                conY = true;
+            }
+        }
+        int r1 = regionR1(p, largo);
+        int r2 = regionR(p, largo, r1);
+
+        int n = paso1a(p, largo);
+        for (String invariante : INVARIANTES_1A) {
+            if (n == invariante.length() && termina(p, n, invariante)) return invariante;
+        }
+        n = paso1b(p, n, r1);
+        n = paso1c(p, n);
+        n = paso2(p, n, r1);
+        n = paso3(p, n, r1, r2);
+        n = paso4(p, n, r2);
+        n = paso5(p, n, r1, r2);
+
+        if (conY) {
+            for (int i = 0; i < n; i++) {
+                if (p[i] == 'Y') p[i] = 'y';
+            }
+        }
+        String raiz = new String(p, 0, n);
+        return raiz.equals(palabra) ? palabra : raiz;
+    }
+
+    /**
+     * Paso 1a: plurales ("-sses", "-ies", "-s").
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @return Nuevo largo
+     */
+    private static int paso1a(char[] p, int n) {
+        if (termina(p, n, "sses")) return n - 2;
+        if (termina(p, n, "ied") || termina(p, n, "ies")) {
+            // "ties" → "tie", pero "cries" → "cri"
+            return n - 3 > 1 ? n - 2 : n - 1;
+        }
+        if (termina(p, n, "us") || termina(p, n, "ss")) return n;
+        if (termina(p, n, "s") && tieneVocal(p, n - 2)) return n - 1;
+        return n;
+    }
+
+    /**
+     * Paso 1b: "-eed" dentro de R1 pasa a "-ee"; "-ed" e "-ing" se quitan
+     * si lo que queda tiene vocal, y entonces se restituye la 'e' o se
+     * simplifica la consonante doble ("hopping" → "hop").
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param r1 Inicio de la región R1
+     * @return Nuevo largo
+     */
+    private static int paso1b(char[] p, int n, int r1) {
+        String[] sufijo = buscar(p, n, PASO_1B, INDICE_1B);
+        if (sufijo == null) return n;
+        int inicio = n - sufijo[0].length();
+        if (sufijo[1].equals("ee")) {
+            return inicio >= r1 ? reemplazar(p, inicio, "ee") : n;
+        }
+        if (!tieneVocal(p, inicio)) return n;
+        n = inicio;
+        if (termina(p, n, "at") || termina(p, n, "bl") || termina(p, n, "iz")) {
+            p[n] = 'e';
+            return n + 1;
+        }
+        if (dobleConsonante(p, n)) return n - 1;
+        if (r1 >= n && silabaCorta(p, n)) {
+            p[n] = 'e';
+            return n + 1;
+        }
+        return n;
+    }
+
+    /**
+     * Paso 1c: la 'y' final precedida de consonante (que no sea la
+     * primera letra) pasa a 'i'.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @return Nuevo largo
+     */
+    private static int paso1c(char[] p, int n) {
+        if (n > 2 && (p[n - 1] == 'y' || p[n - 1] == 'Y') && !vocal(p[n - 2])) {
+            p[n - 1] = 'i';
+        }
+        return n;
+    }
+
+    /**
+     * Paso 2: reemplaza un sufijo doble dentro de R1 ("-ational" → "-ate").
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param r1 Inicio de la región R1
+     * @return Nuevo largo
+     */
+    private static int paso2(char[] p, int n, int r1) {
+        String[] sufijo = buscar(p, n, PASO_2, INDICE_2);
+        if (sufijo == null) return n;
+        int inicio = n - sufijo[0].length();
+        if (inicio < r1) return n;
+        if (sufijo[0].equals("ogi") && (inicio == 0 || p[inicio - 1] != 'l')) return n;
+        if (sufijo[0].equals("li") && (inicio == 0 || !terminacionLi(p[inicio - 1]))) return n;
+        return reemplazar(p, inicio, sufijo[1]);
+    }
+
+    /**
+     * Paso 3: reemplaza un sufijo dentro de R1 ("-icate" → "-ic"); "-ative"
+     * debe estar además en R2.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param r1 Inicio de la región R1
+     * @param r2 Inicio de la región R2
+     * @return Nuevo largo
+     */
+    private static int paso3(char[] p, int n, int r1, int r2) {
+        String[] sufijo = buscar(p, n, PASO_3, INDICE_3);
+        if (sufijo == null) return n;
+        int inicio = n - sufijo[0].length();
+        if (inicio < r1) return n;
+        if (sufijo[0].equals("ative") && inicio < r2) return n;
+        return reemplazar(p, inicio, sufijo[1]);
+    }
+
+    /**
+     * Paso 4: quita un sufijo dentro de R2; "-ion" sólo tras 's' o 't'.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param r2 Inicio de la región R2
+     * @return Nuevo largo
+     */
+    private static int paso4(char[] p, int n, int r2) {
+        String[] sufijo = buscar(p, n, PASO_4, INDICE_4);
+        if (sufijo == null) return n;
+        int inicio = n - sufijo[0].length();
+        if (inicio < r2) return n;
+        if (sufijo[0].equals("ion") && (inicio == 0 || (p[inicio - 1] != 's' && p[inicio - 1] != 't'))) {
+            return n;
+        }
+        return inicio;
+    }
+
+    /**
+     * Paso 5: quita la 'e' final dentro de R2, o dentro de R1 si no sigue
+     * a una sílaba corta, y la 'l' final de "-ll" dentro de R2.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param r1 Inicio de la región R1
+     * @param r2 Inicio de la región R2
+     * @return Nuevo largo
+     */
+    private static int paso5(char[] p, int n, int r1, int r2) {
+        if (n == 0) return n;
+        int inicio = n - 1;
+        if (p[inicio] == 'e') {
+            if (inicio >= r2 || (inicio >= r1 && !silabaCorta(p, inicio))) return inicio;
+        } else if (p[inicio] == 'l') {
+            if (inicio >= r2 && inicio > 0 && p[inicio - 1] == 'l') return inicio;
+        }
+        return n;
+    }
+
+    /**
+     * Indica si los primeros {@code n} caracteres terminan en una sílaba
+     * corta: consonante, vocal y consonante distinta de 'w', 'x' e 'Y', o
+     * vocal y consonante al comienzo de la palabra.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo considerado
+     * @return true si terminan en sílaba corta
+     */
+    private static boolean silabaCorta(char[] p, int n) {
+        if (n == 2) return vocal(p[0]) && !vocal(p[1]);
+        if (n < 3) return false;
+        char c = p[n - 1];
+        return !vocal(p[n - 3]) && vocal(p[n - 2]) && !vocal(c) && c != 'w' && c != 'x' && c != 'Y';
+    }
+
+    /**
+     * Indica si los primeros {@code n} caracteres terminan en una de las
+     * consonantes dobles bb, dd, ff, gg, mm, nn, pp, rr o tt.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo considerado
+     * @return true si terminan en consonante doble
+     */
+    private static boolean dobleConsonante(char[] p, int n) {
+        if (n < 2 || p[n - 1] != p[n - 2]) return false;
+        switch (p[n - 1]) {
+            case 'b': case 'd': case 'f': case 'g': case 'm': case 'n': case 'p': case 'r': case 't':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Indica si un carácter puede preceder al sufijo "-li" del paso 2.
+     *
+     * @param c Carácter anterior al sufijo
+     * @return true si es c, d, e, g, h, k, m, n, r o t
+     */
+    private static boolean terminacionLi(char c) {
+        return "cdeghkmnrt".indexOf(c) >= 0;
+    }
+
+    /**
+     * Indica si hay alguna vocal entre los primeros {@code n} caracteres.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo considerado
+     * @return true si hay una vocal
+     */
+    private static boolean tieneVocal(char[] p, int n) {
+        for (int i = 0; i < n; i++) {
+            if (vocal(p[i])) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Calcula el inicio de R1, que para algunos prefijos se fija justo
+     * después de ellos.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo de la palabra
+     * @return Inicio de la región, n si está vacía
+     */
+    private static int regionR1(char[] p, int n) {
+        for (String prefijo : PREFIJOS_R1) {
+            int k = prefijo.length();
+            if (n >= k && termina(p, k, prefijo)) return k;
+        }
+        return regionR(p, n, 0);
+    }
+
+    /**
+     * Calcula el inicio de la región que sigue a la primera consonante
+     * precedida de vocal a partir de una posición.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo de la palabra
+     * @param desde Posición donde empieza la búsqueda
+     * @return Inicio de la región, n si está vacía
+     */
+    private static int regionR(char[] p, int n, int desde) {
+        for (int i = desde + 1; i < n; i++) {
+            if (!vocal(p[i]) && vocal(p[i - 1])) return i + 1;
+        }
+        return n;
+    }
+
+    /**
+     * Busca el sufijo más largo de una tabla.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo actual
+     * @param tabla Pares sufijo y reemplazo
+     * @param indice Sufijos de la tabla agrupados con {@link #indice(String[][])}
+     * @return Par encontrado, o null
+     */
+    private static String[] buscar(char[] p, int n, String[][] tabla, TablaSufijos indice) {
+        int i = indice.buscar(p, n, 0);
+        return i >= 0 ? tabla[i] : null;
+    }
+
+    /**
+     * Escribe un reemplazo a partir de una posición.
+     *
+     * @param p Caracteres de la palabra
+     * @param inicio Posición donde empieza el reemplazo
+     * @param reemplazo Texto a escribir; no más largo que lo que sustituye
+     * @return Nuevo largo
+     */
+    private static int reemplazar(char[] p, int inicio, String reemplazo) {
+        reemplazo.getChars(0, reemplazo.length(), p, inicio);
+        return inicio + reemplazo.length();
+    }
+
+    /**
+     * Indica si los primeros {@code n} caracteres terminan en un sufijo.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo considerado
+     * @param sufijo Sufijo a comparar
+     * @return true si terminan en el sufijo
+     */
+    private static boolean termina(char[] p, int n, String sufijo) {
+        return TablaSufijos.termina(p, n, sufijo);
+    }
+
+    /**
+     * Agrupa los sufijos de una tabla por su última letra.
+     *
+     * @param tabla Pares sufijo y reemplazo
+     * @return Sufijos de la tabla, en el mismo orden
+     */
+    private static TablaSufijos indice(String[][] tabla) {
+        String[] sufijos = new String[tabla.length];
+        for (int i = 0; i < tabla.length; i++) {
+            sufijos[i] = tabla[i][0];
+        }
+        return new TablaSufijos(sufijos);
+    }
+
+    /**
+     * Indica si un carácter es vocal. La 'Y' mayúscula marca una 'y' que
+     * actúa como consonante.
+     *
+     * @param c Carácter a verificar
+     * @return true si es a, e, i, o, u o y
+     */
+    private static boolean vocal(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y';
+    }
+}
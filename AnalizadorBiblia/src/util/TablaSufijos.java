@@ -0,0 +1,99 @@
+package util;
+
+/**
+ * Conjunto fijo de sufijos en el que se busca el más largo con que
+ * termina una palabra, como lo necesitan los extractores de raíces.
+ *
+ * <p>Los sufijos se agrupan por su última letra y, dentro de cada grupo,
+ * de mayor a menor largo. Una búsqueda sólo compara la palabra con los
+ * sufijos que terminan en su misma letra, y el primero que coincide es
+ * el más largo.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+final class TablaSufijos {
+
+    /**
+     * Sufijos en el orden en que se dieron.
+     */
+    private final String[] sufijos;
+
+    /**
+     * Para cada letra final (a-z), las posiciones de sus sufijos de mayor
+     * a menor largo, o null si ninguno termina en ella.
+     */
+    private final int[][] porFinal;
+
+    /**
+     * Constructor que agrupa los sufijos.
+     *
+     * @param sufijos Sufijos no vacíos formados por letras de la 'a' a la 'z'
+     */
+    TablaSufijos(String... sufijos) {
+        this.sufijos = sufijos;
+        porFinal = new int[26][];
+        for (int i = 0; i < sufijos.length; i++) {
+            int letra = sufijos[i].charAt(sufijos[i].length() - 1) - 'a';
+            int[] grupo = porFinal[letra];
+            int[] nuevo = new int[grupo == null ? 1 : grupo.length + 1];
+            // Inserción ordenada por largo, de mayor a menor
+            int j = nuevo.length - 1;
+            while (j > 0 && sufijos[grupo[j - 1]].length() < sufijos[i].length()) {
+                nuevo[j] = grupo[j - 1];
+                j--;
+            }
+            nuevo[j] = i;
+            if (grupo != null) System.arraycopy(grupo, 0, nuevo, 0, j);
+            porFinal[letra] = nuevo;
+        }
+    }
+
+    /**
+     * Busca el sufijo más largo con que terminan los primeros {@code n}
+     * caracteres y que empieza en la posición {@code limite} o después.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo considerado
+     * @param limite Posición mínima donde puede empezar el sufijo
+     * @return Posición del sufijo en la lista del constructor, o -1
+     */
+    int buscar(char[] p, int n, int limite) {
+        if (n == 0) return -1;
+        int letra = p[n - 1] - 'a';
+        if (letra < 0 || letra >= 26 || porFinal[letra] == null) return -1;
+        for (int i : porFinal[letra]) {
+            String sufijo = sufijos[i];
+            if (n - sufijo.length() >= limite && termina(p, n, sufijo)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene un sufijo por su posición.
+     *
+     * @param i Posición en la lista del constructor
+     * @return Sufijo
+     */
+    String sufijo(int i) {
+        return sufijos[i];
+    }
+
+    /**
+     * Indica si los primeros {@code n} caracteres terminan en un sufijo.
+     *
+     * @param p Caracteres de la palabra
+     * @param n Largo considerado
+     * @param sufijo Sufijo a comparar
+     * @return true si terminan en el sufijo
+     */
+    static boolean termina(char[] p, int n, String sufijo) {
+        int k = sufijo.length();
+        if (k > n) return false;
+        for (int i = k - 1, j = n - 1; i >= 0; i--, j--) {
+            if (p[j] != sufijo.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,291 @@
+package util;
+
+/**
+ * Tokenizador de una sola pasada que separa, normaliza y valida las
+ * palabras de una línea de texto.
+ *
+ * <p>Recorre la línea carácter por carácter con una pequeña máquina de
+ * estados (separador / dentro de palabra). Cada carácter de la palabra se
+ * pliega con la tabla de {@link ProcesadorTexto}, que lo pasa a minúscula,
+ * le quita los diacríticos o lo descarta, y el resultado se acumula en un
+ * buffer reutilizable. El resultado es idéntico a aplicar
+ * {@code split("\\s+")}, {@link ProcesadorTexto#normalizarPalabra(String)}
+ * y {@link ProcesadorTexto#esPalabraValida(String)} a cada palabra.
+ *
+ * <p>Las formas normalizadas ya vistas se guardan en una tabla interna,
+ * de modo que una palabra repetida devuelve la misma instancia de
+ * String sin crear objetos nuevos. Sólo la primera aparición de cada
+ * forma reserva memoria. La tabla guarda a lo sumo {@link #MAX_FORMAS}
+ * formas: al llenarse se vacía y vuelve a llenarse con las que siguen
+ * apareciendo, de modo que un vocabulario muy grande no la hace crecer
+ * sin límite.
+ *
+ * <p>Si se indica un {@link AnalisisLexico}, cada palabra pasa además por
+ * él: las palabras vacías se omiten y las demás se devuelven reducidas a
+ * su raíz. El resultado se guarda en la tabla junto a la forma, así que
+ * cada forma distinta se analiza una sola vez.
+ *
+ * <p>Uso típico:
+ * <pre>
+ *     tokenizador.reiniciar(linea);
+ *     String palabra;
+ *     while ((palabra = tokenizador.siguiente()) != null) {
+ *         ...
+ *     }
+ * </pre>
+ *
+ * <p>Esta clase no es segura para uso concurrente; cada hilo debe usar
+ * su propia instancia.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public class Tokenizador {
+    /**
+     * Marca en {@link #analizadas} de una palabra vacía.
+     */
+    private static final String VACIA = new String();
+    /**
+     * Número máximo de formas en la tabla antes de vaciarla.
+     */
+    public static final int MAX_FORMAS = 1 << 16;
+    /**
+     * Texto que se está recorriendo.
+     */
+    private String texto;
+    /**
+     * Posición del siguiente carácter a leer en el texto.
+     */
+    private int posicion;
+    /**
+     * Buffer donde se acumula la forma normalizada de la palabra actual.
+     */
+    private char[] buffer;
+    /**
+     * Tabla de direccionamiento abierto con las formas normalizadas ya vistas.
+     */
+    private String[] formas;
+    /**
+     * Resultado del análisis de cada forma de la tabla, en la misma
+     * posición: null si aún no se analizó y {@link #VACIA} si es una
+     * palabra vacía. Es null si no se aplica análisis léxico.
+     */
+    private String[] analizadas;
+    /**
+     * Número de formas almacenadas en la tabla.
+     */
+    private int cantidadFormas;
+    /**
+     * Palabras omitidas por quedar vacías o sin letras tras normalizarse,
+     * o por ser palabras vacías del análisis.
+     */
+    private long rechazadas;
+    /**
+     * Análisis léxico que se aplica a cada palabra, o null.
+     */
+    private final AnalisisLexico analisis;
+
+    /**
+     * Constructor que inicializa un tokenizador sin texto ni análisis léxico.
+     */
+    public Tokenizador() {
+        this(null);
+    }
+
+    /**
+     * Constructor que inicializa un tokenizador sin texto que aplica un
+     * análisis léxico a cada palabra.
+     *
+     * @param analisis Análisis léxico, o null para devolver las palabras
+     *                 sólo normalizadas
+     */
+    public Tokenizador(AnalisisLexico analisis) {
+        this.analisis = analisis;
+        texto = "";
+        posicion = 0;
+        buffer = new char[32];
+        formas = new String[1024];
+        analizadas = analisis != null ? new String[1024] : null;
+        cantidadFormas = 0;
+        rechazadas = 0;
+    }
+
+    /**
+     * Prepara el tokenizador para recorrer un nuevo texto.
+     *
+     * @param texto Línea de texto a recorrer
+     */
+    public void reiniciar(String texto) {
+        this.texto = texto != null ? texto : "";
+        this.posicion = 0;
+    }
+
+    /**
+     * Obtiene la siguiente palabra válida del texto, ya normalizada y, si
+     * hay análisis léxico, reducida a su raíz. Las palabras que quedan
+     * vacías o sin letras tras normalizarse, y las palabras vacías del
+     * análisis, se omiten.
+     *
+     * @return Siguiente palabra normalizada, o null si no quedan más
+     */
+    public String siguiente() {
+        final String t = texto;
+        final int n = t.length();
+
+        while (posicion < n) {
+            // Estado separador: saltar espacios
+            while (posicion < n && ProcesadorTexto.esSeparador(t.charAt(posicion))) {
+                posicion++;
+            }
+            if (posicion >= n) break;
+
+            // Estado palabra: plegar caracteres hasta el próximo separador
+            int inicio = posicion;
+            int largo = 0;
+            int hash = 0;
+            boolean valida = false;
+            boolean completa = false;
+            while (posicion < n) {
+                char c = t.charAt(posicion);
+                if (ProcesadorTexto.esSeparador(c)) break;
+                posicion++;
+                if (completa) continue;
+
+                char plegado = c < ProcesadorTexto.LIMITE_TABLA
+                               ? ProcesadorTexto.TABLA_PLEGADO[c] : ProcesadorTexto.SIN_TABLA;
+                if (plegado == ProcesadorTexto.SIN_TABLA) {
+                    completa = true;
+                } else if (plegado != ProcesadorTexto.DESCARTAR) {
+                    if (largo == buffer.length) {
+                        char[] nuevo = new char[buffer.length * 2];
+                        System.arraycopy(buffer, 0, nuevo, 0, largo);
+                        buffer = nuevo;
+                    }
+                    buffer[largo++] = plegado;
+                    hash = 31 * hash + plegado;
+                    valida |= ProcesadorTexto.esLetraBasica(plegado);
+                }
+            }
+
+            String palabra = null;
+            if (completa) {
+                // Caracteres fuera de la tabla: normalización completa
+                String normalizada = ProcesadorTexto.normalizarPalabra(t.substring(inicio, posicion));
+                if (ProcesadorTexto.esPalabraValida(normalizada)) {
+                    palabra = analisis != null ? analisis.analizar(normalizada) : normalizada;
+                }
+            } else if (valida) {
+                palabra = analizada(forma(largo, hash));
+            }
+            if (palabra != null) return palabra;
+            rechazadas++;
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene el número de palabras omitidas desde que se creó el
+     * tokenizador porque no eran válidas según
+     * {@link ProcesadorTexto#esPalabraValida(String)} o porque el análisis
+     * léxico las descartó.
+     *
+     * @return Número de palabras rechazadas
+     */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * Busca en la tabla de formas la palabra contenida en el buffer.
+     * Si no existe, crea el String y lo agrega a la tabla.
+     *
+     * @param largo Número de caracteres válidos en el buffer
+     * @param hash Código hash de la palabra, calculado como String.hashCode
+     * @return Posición de la instancia única de la palabra en la tabla
+     */
+    private int forma(int largo, int hash) {
+        if (2 * (cantidadFormas + 1) > formas.length && cantidadFormas < MAX_FORMAS) {
+            redimensionar(formas.length * 2);
+        }
+        int mascara = formas.length - 1;
+        int i = (hash ^ (hash >>> 16)) & mascara;
+        while (formas[i] != null) {
+            String existente = formas[i];
+            if (existente.hashCode() == hash && coincide(existente, largo)) {
+                return i;
+            }
+            i = (i + 1) & mascara;
+        }
+
+        if (cantidadFormas == MAX_FORMAS) {
+            // Tabla llena: se descartan las formas vistas, incluido su análisis
+            java.util.Arrays.fill(formas, null);
+            if (analizadas != null) java.util.Arrays.fill(analizadas, null);
+            cantidadFormas = 0;
+            i = (hash ^ (hash >>> 16)) & mascara;
+        }
+        formas[i] = new String(buffer, 0, largo);
+        cantidadFormas++;
+        return i;
+    }
+
+    /**
+     * Obtiene el resultado del análisis léxico de una forma de la tabla,
+     * calculándolo la primera vez.
+     *
+     * @param i Posición de la forma en la tabla
+     * @return Forma analizada, la forma misma si no hay análisis, o null
+     *         si es una palabra vacía
+     */
+    private String analizada(int i) {
+        if (analizadas == null) return formas[i];
+        String analizada = analizadas[i];
+        if (analizada == null) {
+            analizada = analisis.analizar(formas[i]);
+            analizadas[i] = analizada != null ? analizada : VACIA;
+        }
+        return analizada != VACIA ? analizada : null;
+    }
+
+    /**
+     * Compara una forma almacenada con el contenido del buffer.
+     *
+     * @param forma Forma almacenada en la tabla
+     * @param largo Número de caracteres válidos en el buffer
+     * @return true si ambas contienen los mismos caracteres
+     */
+    private boolean coincide(String forma, int largo) {
+        if (forma.length() != largo) return false;
+        for (int i = 0; i < largo; i++) {
+            if (forma.charAt(i) != buffer[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Redimensiona la tabla de formas y reubica las existentes, junto con
+     * su análisis.
+     *
+     * @param nuevaCapacidad Nueva capacidad, debe ser potencia de dos
+     */
+    private void redimensionar(int nuevaCapacidad) {
+        String[] viejas = formas;
+        String[] viejasAnalizadas = analizadas;
+        formas = new String[nuevaCapacidad];
+        if (viejasAnalizadas != null) analizadas = new String[nuevaCapacidad];
+        int mascara = nuevaCapacidad - 1;
+        for (int j = 0; j < viejas.length; j++) {
+            String forma = viejas[j];
+            if (forma != null) {
+                int h = forma.hashCode();
+                int i = (h ^ (h >>> 16)) & mascara;
+                while (formas[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                formas[i] = forma;
+                if (viejasAnalizadas != null) analizadas[i] = viejasAnalizadas[j];
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import modelo.AnalizadorBiblia;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.AnalisisLexico;
+
+/**
+ * Benchmarks de extremo a extremo de {@link AnalizadorBiblia#procesarTexto(String)}
+ * sobre el texto de muestra incluido en el módulo.
+ *
+ * <p>{@code cargarMuestra} procesa la muestra completa con un analizador
+ * nuevo, de modo que incluye la creación del vocabulario.
+ * {@code procesarMuestra} la procesa sobre un analizador que ya conoce
+ * todas las palabras, y mide sólo el conteo. Ambos se miden sin análisis
+ * léxico y con el análisis del español, para conocer el costo de las
+ * raíces y las palabras vacías, y con y sin el conteo de bigramas y
+ * trigramas de {@link AnalizadorBiblia#activarNGramas()}.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dfile.encoding=UTF-8"})
+@State(Scope.Benchmark)
+public class AnalizadorBibliaBenchmark {
+
+    /**
+     * Análisis léxico de las palabras: "ninguno" o "espanol".
+     */
+    @Param({"ninguno", "espanol"})
+    String analisis;
+
+    /**
+     * Indica si los analizadores cuentan bigramas y trigramas.
+     */
+    @Param({"false", "true"})
+    boolean ngramas;
+
+    /**
+     * Análisis léxico correspondiente al parámetro, o null.
+     */
+    private AnalisisLexico lexico;
+
+    /**
+     * Líneas del texto de muestra.
+     */
+    private String[] lineas;
+
+    /**
+     * Analizador que ya procesó la muestra una vez.
+     */
+    private AnalizadorBiblia analizador;
+
+    @Setup
+    public void preparar() {
+        lineas = Datos.lineasMuestra();
+        lexico = analisis.equals("espanol") ? AnalisisLexico.espanol() : null;
+        analizador = new AnalizadorBiblia();
+        analizador.setAnalisis(lexico);
+        if (ngramas) {
+            analizador.activarNGramas();
+        }
+        for (String linea : lineas) {
+            analizador.procesarTexto(linea);
+        }
+    }
+
+    @Benchmark
+    public int cargarMuestra() {
+        AnalizadorBiblia nuevo = new AnalizadorBiblia();
+        nuevo.setAnalisis(lexico);
+        if (ngramas) {
+            nuevo.activarNGramas();
+        }
+        for (String linea : lineas) {
+            nuevo.procesarTexto(linea);
+        }
+        return nuevo.getPalabrasUnicas();
+    }
+
+    @Benchmark
+    public int procesarMuestra() {
+        for (String linea : lineas) {
+            analizador.procesarTexto(linea);
+        }
+        return analizador.getTotalPalabras();
+    }
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import modelo.AnalizadorConcurrente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de {@link AnalizadorConcurrente} con un analizador compartido
+ * por todos los hilos de JMH. La escalabilidad se mide ejecutando con
+ * distinto número de hilos, por ejemplo {@code -t 1}, {@code -t 4} y
+ * {@code -t max}.
+ *
+ * <p>{@code procesarLineas} carga la muestra completa con un productor
+ * temporal por llamada; {@code procesarTexto} la carga línea por línea con
+ * el productor de cada hilo de JMH, que vuelca cada
+ * {@code TAMANO_LOTE} palabras, y {@code procesarTextoCompartido} con
+ * {@link AnalizadorConcurrente#procesarTexto(String)}, que hace visible
+ * cada línea al volver con una operación atómica por palabra.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dfile.encoding=UTF-8"})
+@State(Scope.Benchmark)
+public class AnalizadorConcurrenteBenchmark {
+
+    /**
+     * Líneas del texto de muestra.
+     */
+    private List<String> lineas;
+
+    /**
+     * Analizador compartido que ya procesó la muestra una vez.
+     */
+    private AnalizadorConcurrente analizador;
+
+    /**
+     * Productor propio de cada hilo de JMH.
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        /**
+         * Productor del hilo sobre el analizador compartido.
+         */
+        private AnalizadorConcurrente.Productor productor;
+
+        @Setup
+        public void preparar(AnalizadorConcurrenteBenchmark estado) {
+            productor = estado.analizador.productor();
+        }
+
+        @TearDown
+        public void cerrar() {
+            productor.close();
+        }
+    }
+
+    @Setup
+    public void preparar() {
+        lineas = Arrays.asList(Datos.lineasMuestra());
+        analizador = new AnalizadorConcurrente();
+        analizador.procesarLineas(lineas);
+    }
+
+    @Benchmark
+    public long procesarLineas() {
+        analizador.procesarLineas(lineas);
+        return analizador.getTotalPalabras();
+    }
+
+    @Benchmark
+    public long procesarTexto(Hilo hilo) {
+        for (String linea : lineas) {
+            hilo.productor.procesarTexto(linea);
+        }
+        return analizador.getTotalPalabras();
+    }
+
+    @Benchmark
+    public long procesarTextoCompartido() {
+        for (String linea : lineas) {
+            analizador.procesarTexto(linea);
+        }
+        return analizador.getTotalPalabras();
+    }
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import modelo.AnalizadorBiblia;
+import modelo.BuscadorAproximado;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de la búsqueda por distancia de edición de
+ * {@link BuscadorAproximado} sobre un vocabulario sintético.
+ *
+ * <p>{@code buscar} responde una consulta por invocación, recorriendo una
+ * secuencia fija de consultas: la mitad son palabras del vocabulario con
+ * una letra cambiada y la otra mitad palabras ausentes. {@code construir}
+ * mide la creación del buscador a partir del analizador.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dfile.encoding=UTF-8"})
+@State(Scope.Benchmark)
+public class BuscadorAproximadoBenchmark {
+
+    /**
+     * Número de palabras distintas del vocabulario.
+     */
+    @Param({"20000"})
+    int tamano;
+
+    /**
+     * Distancia de edición máxima.
+     */
+    @Param({"1", "2"})
+    int k;
+
+    /**
+     * Analizador con el vocabulario.
+     */
+    private AnalizadorBiblia analizador;
+
+    /**
+     * Buscador construido una vez.
+     */
+    private BuscadorAproximado buscador;
+
+    /**
+     * Consultas a responder.
+     */
+    private String[] consultas;
+
+    /**
+     * Posición de la próxima consulta.
+     */
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        String[] palabras = Datos.vocabulario(tamano, Datos.SEMILLA);
+        analizador = new AnalizadorBiblia();
+        for (String palabra : palabras) {
+            analizador.procesarTexto(palabra);
+        }
+        buscador = new BuscadorAproximado(analizador);
+        consultas = Datos.consultas(palabras, 1024, Datos.SEMILLA);
+        for (int i = 0; i < consultas.length; i += 2) {
+            char[] letras = consultas[i].toCharArray();
+            letras[i % letras.length] = 'x';
+            consultas[i] = new String(letras);
+        }
+        siguiente = 0;
+    }
+
+    @Benchmark
+    public int buscar() {
+        String consulta = consultas[siguiente];
+        siguiente = (siguiente + 1) & (consultas.length - 1);
+        return buscador.buscar(consulta, k).tamano();
+    }
+
+    @Benchmark
+    public int construir() {
+        return new BuscadorAproximado(analizador).size();
+    }
+}
@@ -0,0 +1,127 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Datos de entrada compartidos por los benchmarks.
+ *
+ * <p>Todos los datos son deterministas: el texto de muestra viene
+ * incluido como recurso y los vocabularios sintéticos se generan con
+ * una semilla fija, de modo que dos ejecuciones miden exactamente
+ * el mismo trabajo.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+final class Datos {
+
+    /**
+     * Semilla fija para todos los generadores aleatorios.
+     */
+    static final long SEMILLA = 20240917L;
+
+    /**
+     * Recurso con el texto de muestra (Génesis 1 en RV1909 y KJV).
+     */
+    private static final String RECURSO_MUESTRA = "/muestra.txt";
+
+    /**
+     * Sílabas con las que se forman las palabras sintéticas.
+     */
+    private static final String[] SILABAS = {
+        "la", "le", "lo", "ma", "me", "mi", "sa", "se", "so", "ra", "re", "ri",
+        "ta", "te", "to", "da", "de", "di", "ca", "co", "cu", "pa", "pe", "po",
+        "na", "ne", "no", "ba", "be", "bi", "que", "cion", "dor", "mos", "ron"
+    };
+
+    private Datos() {
+    }
+
+    /**
+     * Lee las líneas del texto de muestra incluido en el módulo.
+     *
+     * @return Líneas del texto de muestra
+     */
+    static String[] lineasMuestra() {
+        try (InputStream entrada = Datos.class.getResourceAsStream(RECURSO_MUESTRA);
+             BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            List<String> lineas = new ArrayList<>();
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                lineas.add(linea);
+            }
+            return lineas.toArray(new String[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Obtiene las palabras del texto de muestra, sin normalizar.
+     *
+     * @return Palabras del texto de muestra en orden de aparición
+     */
+    static String[] palabrasMuestra() {
+        List<String> palabras = new ArrayList<>();
+        for (String linea : lineasMuestra()) {
+            for (String palabra : linea.split("\\s+")) {
+                if (!palabra.isEmpty()) palabras.add(palabra);
+            }
+        }
+        return palabras.toArray(new String[0]);
+    }
+
+    /**
+     * Genera un vocabulario de palabras distintas ya normalizadas.
+     *
+     * @param cantidad Número de palabras a generar
+     * @param semilla Semilla del generador
+     * @return Palabras distintas en orden aleatorio
+     */
+    static String[] vocabulario(int cantidad, long semilla) {
+        Random aleatorio = new Random(semilla);
+        Set<String> palabras = new LinkedHashSet<>();
+        StringBuilder sb = new StringBuilder();
+        while (palabras.size() < cantidad) {
+            sb.setLength(0);
+            int silabas = 2 + aleatorio.nextInt(4);
+            for (int i = 0; i < silabas; i++) {
+                sb.append(SILABAS[aleatorio.nextInt(SILABAS.length)]);
+            }
+            palabras.add(sb.toString());
+        }
+        return palabras.toArray(new String[0]);
+    }
+
+    /**
+     * Genera una secuencia de consultas sobre un vocabulario: la mitad
+     * son palabras existentes y la otra mitad palabras ausentes.
+     *
+     * @param vocabulario Palabras existentes
+     * @param cantidad Número de consultas, debe ser potencia de dos
+     * @param semilla Semilla del generador
+     * @return Consultas en orden aleatorio
+     */
+    static String[] consultas(String[] vocabulario, int cantidad, long semilla) {
+        Random aleatorio = new Random(semilla);
+        String[] ausentes = vocabulario(cantidad, semilla + 1);
+        String[] consultas = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            consultas[i] = aleatorio.nextBoolean()
+                           ? vocabulario[aleatorio.nextInt(vocabulario.length)]
+                           : ausentes[i] + "x";
+        }
+        return consultas;
+    }
+}
@@ -0,0 +1,254 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import modelo.AnalizadorBiblia;
+import modelo.AnalizadorConcurrente;
+
+/**
+ * Prueba de estrés y de escalabilidad de {@link AnalizadorConcurrente}.
+ *
+ * <p>Para 1, 2, 4, ... hilos productores (hasta el número de núcleos)
+ * carga el mismo texto repartido entre los hilos, mientras un hilo lector
+ * consulta continuamente y verifica que los conteos, el total y la palabra
+ * más repetida nunca retroceden. Al terminar cada carga compara el
+ * resultado con {@link AnalizadorBiblia} secuencial y muestra el
+ * rendimiento y la aceleración respecto de un hilo. Termina con código 1
+ * si encuentra alguna diferencia.
+ *
+ * <p>Por último repite la carga con el máximo de hilos llamando
+ * directamente a {@link AnalizadorConcurrente#procesarTexto(String)}, sin
+ * productores, y la verifica igual.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar benchmarks.EstresConcurrente [archivo] [maxHilos]
+ * </pre>
+ *
+ * <p>Sin archivo usa el texto de muestra repetido {@value #REPETICIONES_MUESTRA} veces.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public final class EstresConcurrente {
+
+    /**
+     * Veces que se repite el texto de muestra cuando no se indica archivo.
+     */
+    private static final int REPETICIONES_MUESTRA = 4000;
+
+    /**
+     * Líneas que cada productor entrega por llamada a procesarLineas.
+     */
+    private static final int LINEAS_POR_LLAMADA = 512;
+
+    private EstresConcurrente() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> lineas = args.length > 0 ? leer(args[0]) : muestraRepetida();
+        int maxHilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        AnalizadorBiblia referencia = new AnalizadorBiblia();
+        for (String linea : lineas) {
+            referencia.procesarTexto(linea);
+        }
+        System.out.printf("%d líneas, %d palabras, %d únicas%n",
+                lineas.size(), referencia.getTotalPalabras(), referencia.getPalabrasUnicas());
+        System.out.printf("%6s %10s %14s %12s%n", "hilos", "ms", "palabras/s", "aceleración");
+
+        boolean correcto = true;
+        double base = 0;
+        List<Integer> hilos = new ArrayList<>();
+        for (int h = 1; h < maxHilos; h *= 2) hilos.add(h);
+        hilos.add(maxHilos);
+        for (int h : hilos) {
+            // Una pasada de calentamiento y una medida
+            cargar(lineas, h, false, new AnalizadorConcurrente(), new AtomicReference<>());
+            AtomicReference<String> error = new AtomicReference<>();
+            AnalizadorConcurrente analizador = new AnalizadorConcurrente();
+            long nanos = cargar(lineas, h, false, analizador, error);
+            double porSegundo = referencia.getTotalPalabras() / (nanos / 1e9);
+            if (h == 1) base = porSegundo;
+            System.out.printf("%6d %10.1f %14.0f %11.2fx%n", h, nanos / 1e6, porSegundo, porSegundo / base);
+
+            String diferencia = error.get() != null ? error.get() : comparar(referencia, analizador);
+            if (diferencia != null) {
+                System.out.println("  ERROR con " + h + " hilos: " + diferencia);
+                correcto = false;
+            }
+        }
+
+        AtomicReference<String> error = new AtomicReference<>();
+        AnalizadorConcurrente compartido = new AnalizadorConcurrente();
+        long nanos = cargar(lineas, maxHilos, true, compartido, error);
+        System.out.printf("procesarTexto con %d hilos: %.1f ms, %.0f palabras/s%n",
+                maxHilos, nanos / 1e6, referencia.getTotalPalabras() / (nanos / 1e9));
+        String diferencia = error.get() != null ? error.get() : comparar(referencia, compartido);
+        if (diferencia != null) {
+            System.out.println("  ERROR con procesarTexto: " + diferencia);
+            correcto = false;
+        }
+        if (!correcto) System.exit(1);
+        System.out.println("Resultados idénticos a la carga secuencial.");
+    }
+
+    /**
+     * Carga las líneas repartidas en bloques contiguos entre varios hilos,
+     * con un hilo lector que verifica que nada retrocede.
+     *
+     * @param lineas Líneas a cargar
+     * @param hilos Número de hilos productores
+     * @param compartido true para llamar a procesarTexto del analizador
+     *                   en lugar de usar un productor por hilo
+     * @param analizador Analizador vacío
+     * @param error Primer error encontrado por el lector
+     * @return Tiempo de la carga en nanosegundos
+     */
+    private static long cargar(List<String> lineas, int hilos, boolean compartido,
+                               AnalizadorConcurrente analizador, AtomicReference<String> error)
+            throws InterruptedException {
+        CountDownLatch inicio = new CountDownLatch(1);
+        Thread[] productores = new Thread[hilos];
+        for (int i = 0; i < hilos; i++) {
+            List<String> parte = lineas.subList(i * lineas.size() / hilos, (i + 1) * lineas.size() / hilos);
+            productores[i] = new Thread(() -> {
+                esperar(inicio);
+                if (compartido) {
+                    for (String linea : parte) {
+                        analizador.procesarTexto(linea);
+                    }
+                    return;
+                }
+                try (AnalizadorConcurrente.Productor productor = analizador.productor()) {
+                    for (int j = 0; j < parte.size(); j += LINEAS_POR_LLAMADA) {
+                        productor.procesarLineas(parte.subList(j, Math.min(parte.size(), j + LINEAS_POR_LLAMADA)));
+                    }
+                }
+            });
+            productores[i].start();
+        }
+
+        AtomicBoolean terminado = new AtomicBoolean(false);
+        Thread lector = new Thread(() -> leerMientrasCarga(analizador, terminado, error));
+        lector.start();
+
+        long t0 = System.nanoTime();
+        inicio.countDown();
+        for (Thread productor : productores) productor.join();
+        long nanos = System.nanoTime() - t0;
+        terminado.set(true);
+        lector.join();
+        return nanos;
+    }
+
+    /**
+     * Consulta el analizador mientras otros hilos cargan texto y registra
+     * un error si algún valor observado disminuye.
+     *
+     * @param analizador Analizador en carga
+     * @param terminado Indica que la carga terminó
+     * @param error Primer error encontrado
+     */
+    private static void leerMientrasCarga(AnalizadorConcurrente analizador, AtomicBoolean terminado,
+                                          AtomicReference<String> error) {
+        String[] palabras = {"y", "de", "the", "and", "dios", "god", "tierra", "earth"};
+        int[] anteriores = new int[palabras.length];
+        long totalAnterior = 0;
+        int maximoAnterior = 0;
+        while (!terminado.get() && error.get() == null) {
+            for (int i = 0; i < palabras.length; i++) {
+                int actual = analizador.obtenerRepeticiones(palabras[i]);
+                if (actual < anteriores[i]) {
+                    error.compareAndSet(null, "el conteo de " + palabras[i] + " retrocedió");
+                }
+                anteriores[i] = actual;
+            }
+            long total = analizador.getTotalPalabras();
+            if (total < totalAnterior) error.compareAndSet(null, "el total retrocedió");
+            totalAnterior = total;
+
+            int maximo = repeticionesDe(analizador.getPalabraMasRepetida());
+            if (maximo < maximoAnterior) error.compareAndSet(null, "la palabra más repetida retrocedió");
+            maximoAnterior = maximo;
+        }
+    }
+
+    /**
+     * Compara el resultado concurrente con el secuencial.
+     *
+     * @param referencia Analizador secuencial
+     * @param analizador Analizador concurrente
+     * @return Descripción de la primera diferencia, o null si son iguales
+     */
+    private static String comparar(AnalizadorBiblia referencia, AnalizadorConcurrente analizador) {
+        if (referencia.getTotalPalabras() != analizador.getTotalPalabras()) return "total distinto";
+        if (referencia.getPalabrasUnicas() != analizador.getPalabrasUnicas()) return "palabras únicas distintas";
+        for (String palabra : referencia.palabras()) {
+            if (referencia.obtenerRepeticiones(palabra) != analizador.obtenerRepeticiones(palabra)) {
+                return "conteo distinto de " + palabra;
+            }
+        }
+        if (repeticionesDe(referencia.getPalabraMasRepetida()) != repeticionesDe(analizador.getPalabraMasRepetida())) {
+            return "palabra más repetida distinta";
+        }
+        return null;
+    }
+
+    /**
+     * Extrae el número de repeticiones del texto de la palabra más repetida.
+     *
+     * @param texto Texto con el formato "palabra (n repeticiones)"
+     * @return Número de repeticiones, 0 si no hay palabras
+     */
+    private static int repeticionesDe(String texto) {
+        int abre = texto.lastIndexOf('(');
+        if (abre < 0) return 0;
+        return Integer.parseInt(texto.substring(abre + 1, texto.indexOf(' ', abre)));
+    }
+
+    /**
+     * Espera la señal de inicio.
+     *
+     * @param inicio Señal de inicio
+     */
+    private static void esperar(CountDownLatch inicio) {
+        try {
+            inicio.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lee las líneas de un archivo en UTF-8.
+     *
+     * @param ruta Ruta del archivo
+     * @return Líneas del archivo
+     */
+    private static List<String> leer(String ruta) throws IOException {
+        return Files.readAllLines(Paths.get(ruta), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Repite el texto de muestra.
+     *
+     * @return Líneas del texto de muestra repetidas
+     */
+    private static List<String> muestraRepetida() {
+        String[] muestra = Datos.lineasMuestra();
+        List<String> lineas = new ArrayList<>(muestra.length * REPETICIONES_MUESTRA);
+        for (int i = 0; i < REPETICIONES_MUESTRA; i++) {
+            lineas.addAll(Arrays.asList(muestra));
+        }
+        return lineas;
+    }
+}
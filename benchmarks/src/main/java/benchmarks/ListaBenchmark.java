@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import modelo.Lista;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de la lista dinámica {@link Lista}.
+ *
+ * <p>Las inserciones y eliminaciones se miden en pareja (insertar y
+ * luego eliminar en la misma posición) para que el tamaño de la lista
+ * no cambie entre invocaciones.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dfile.encoding=UTF-8"})
+@State(Scope.Benchmark)
+public class ListaBenchmark {
+
+    /**
+     * Número de elementos en la lista.
+     */
+    @Param({"1000", "13000", "100000"})
+    int tamano;
+
+    /**
+     * Lista llena con {@code tamano} elementos.
+     */
+    private Lista<String> lista;
+
+    /**
+     * Elemento que se inserta y elimina.
+     */
+    private String elemento;
+
+    @Setup
+    public void preparar() {
+        String[] palabras = Datos.vocabulario(tamano, Datos.SEMILLA);
+        lista = new Lista<>(16);
+        for (String palabra : palabras) {
+            lista.agregarAlFinal(palabra);
+        }
+        elemento = palabras[0];
+    }
+
+    @Benchmark
+    public String insertarEliminarInicio() {
+        lista.insertarEn(0, elemento);
+        return lista.eliminarDe(0);
+    }
+
+    @Benchmark
+    public String insertarEliminarMedio() {
+        int medio = lista.tamano() / 2;
+        lista.insertarEn(medio, elemento);
+        return lista.eliminarDe(medio);
+    }
+
+    @Benchmark
+    public String insertarEliminarFinal() {
+        int fin = lista.tamano();
+        lista.insertarEn(fin, elemento);
+        return lista.eliminarDe(fin);
+    }
+
+    @Benchmark
+    public void iterar(Blackhole bh) {
+        for (String s : lista) {
+            bh.consume(s);
+        }
+    }
+}
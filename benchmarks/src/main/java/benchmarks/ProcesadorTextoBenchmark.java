@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.ProcesadorTexto;
+
+/**
+ * Benchmarks de la normalización de palabras de {@link ProcesadorTexto}.
+ *
+ * <p>La entrada son las palabras del texto de muestra separadas en dos
+ * grupos: las que sólo tienen caracteres ASCII y las que tienen al menos
+ * un carácter acentuado.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dfile.encoding=UTF-8"})
+@State(Scope.Benchmark)
+public class ProcesadorTextoBenchmark {
+
+    /**
+     * Tipo de entrada: "ascii" o "acentos".
+     */
+    @Param({"ascii", "acentos"})
+    String entrada;
+
+    /**
+     * Palabras de entrada; su longitud es potencia de dos.
+     */
+    private String[] palabras;
+
+    /**
+     * Posición de la siguiente palabra.
+     */
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        boolean acentos = entrada.equals("acentos");
+        List<String> seleccion = new ArrayList<>();
+        for (String palabra : Datos.palabrasMuestra()) {
+            boolean ascii = palabra.chars().allMatch(c -> c < 0x80);
+            if (ascii != acentos) seleccion.add(palabra);
+        }
+        // Repetir hasta la siguiente potencia de dos para indexar con máscara
+        int tamano = Integer.highestOneBit(seleccion.size() - 1) << 1;
+        palabras = new String[tamano];
+        for (int i = 0; i < tamano; i++) {
+            palabras[i] = seleccion.get(i % seleccion.size());
+        }
+    }
+
+    @Benchmark
+    public String normalizarPalabra() {
+        return ProcesadorTexto.normalizarPalabra(palabras[siguiente++ & (palabras.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean normalizarYValidar() {
+        String palabra = ProcesadorTexto.normalizarPalabra(palabras[siguiente++ & (palabras.length - 1)]);
+        return ProcesadorTexto.esPalabraValida(palabra);
+    }
+}
@@ -0,0 +1,147 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import modelo.ST;
+import modelo.STRojoNegro;
+import modelo.TablaOrdenada;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de las tablas de símbolos ordenadas ({@link ST} y
+ * {@link STRojoNegro}) para distintos tamaños de vocabulario.
+ *
+ * <p>{@code put} mide la construcción completa de la tabla con
+ * {@code tamano} claves; {@code putYOrdenar} incluye además la primera
+ * operación ordenada, que es la que paga el ordenamiento diferido.
+ * Las consultas individuales recorren una secuencia fija de claves,
+ * mitad presentes y mitad ausentes. {@code deletePut} elimina una clave
+ * existente y la vuelve a insertar, para medir cargas con podas.
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-Dfile.encoding=UTF-8"})
+@State(Scope.Benchmark)
+public class STBenchmark {
+
+    /**
+     * Número de claves distintas en la tabla.
+     */
+    @Param({"1000", "13000", "100000"})
+    int tamano;
+
+    /**
+     * Implementación de la tabla: "arreglo" ({@link ST}) o
+     * "rojonegro" ({@link STRojoNegro}).
+     */
+    @Param({"arreglo", "rojonegro"})
+    String implementacion;
+
+    /**
+     * Claves de la tabla, en orden de inserción.
+     */
+    private String[] claves;
+
+    /**
+     * Secuencia de consultas; su longitud es potencia de dos.
+     */
+    private String[] consultas;
+
+    /**
+     * Tabla construida y ordenada para los benchmarks de consulta.
+     */
+    private TablaOrdenada<String, Integer> tabla;
+
+    /**
+     * Posición de la siguiente consulta.
+     */
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        claves = Datos.vocabulario(tamano, Datos.SEMILLA);
+        consultas = Datos.consultas(claves, 1 << 14, Datos.SEMILLA);
+        tabla = nuevaTabla();
+        for (int i = 0; i < claves.length; i++) {
+            tabla.put(claves[i], i);
+        }
+        tabla.rank(claves[0]);
+    }
+
+    /**
+     * Crea una tabla vacía de la implementación seleccionada.
+     *
+     * @return Tabla vacía
+     */
+    private TablaOrdenada<String, Integer> nuevaTabla() {
+        return implementacion.equals("rojonegro") ? new STRojoNegro<>() : new ST<>();
+    }
+
+    /**
+     * Obtiene la siguiente consulta de la secuencia.
+     *
+     * @return Clave a consultar
+     */
+    private String consulta() {
+        return consultas[siguiente++ & (consultas.length - 1)];
+    }
+
+    @Benchmark
+    public TablaOrdenada<String, Integer> put() {
+        TablaOrdenada<String, Integer> t = nuevaTabla();
+        for (int i = 0; i < claves.length; i++) {
+            t.put(claves[i], i);
+        }
+        return t;
+    }
+
+    @Benchmark
+    public int putYOrdenar() {
+        TablaOrdenada<String, Integer> t = nuevaTabla();
+        for (int i = 0; i < claves.length; i++) {
+            t.put(claves[i], i);
+        }
+        return t.rank(claves[0]);
+    }
+
+    @Benchmark
+    public Integer get() {
+        return tabla.get(consulta());
+    }
+
+    @Benchmark
+    public int rank() {
+        return tabla.rank(consulta());
+    }
+
+    @Benchmark
+    public int deletePut() {
+        String clave = claves[siguiente++ % claves.length];
+        tabla.delete(clave);
+        tabla.put(clave, 1);
+        return tabla.rank(clave);
+    }
+
+    @Benchmark
+    public void keys(Blackhole bh) {
+        for (String clave : tabla) {
+            bh.consume(clave);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package benchmarks;
+
+import modelo.IndiceInvertido;
+import modelo.Lista;
+import util.AnalisisLexico;
+
+/**
+ * Verificación de las consultas de {@link IndiceInvertido} con palabras
+ * vacías.
+ *
+ * <p>Indexa el texto de muestra con el análisis léxico español y el
+ * inglés y comprueba que agregar palabras vacías a una consulta no cambia
+ * su resultado: cada consulta con palabras vacías debe devolver las mismas
+ * líneas que la misma consulta sin ellas, y un OR formado sólo por
+ * palabras vacías no debe devolver líneas. Termina con código 1 si
+ * encuentra alguna diferencia.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar benchmarks.VerificacionConsultas
+ * </pre>
+ *
+ * @author Camilo
+ * @author Juan
+ * @author Rodrigo
+ */
+public final class VerificacionConsultas {
+
+    /**
+     * Pares de consultas en español: con palabras vacías y sin ellas.
+     */
+    private static final String[][] PARES_ESPANOL = {
+        {"dios y tierra", "dios tierra"},
+        {"dios AND la AND tierra", "dios AND tierra"},
+        {"el dios", "dios"},
+        {"dios NOT la", "dios"},
+        {"dios NOT (la OR el)", "dios"},
+        {"(dios y luz) OR (tierra de)", "(dios luz) OR tierra"},
+        {"dios OR y", "dios"},
+        {"\"la luz\" y dios", "luz dios"},
+        {"y NOT luz", "NOT luz"},
+        {"y la", ""},
+        {"la OR el", ""},
+        {"dios (la OR el)", ""}
+    };
+
+    /**
+     * Pares de consultas en inglés: con palabras vacías y sin ellas.
+     */
+    private static final String[][] PARES_INGLES = {
+        {"god and earth", "god earth"},
+        {"the light NOT (the darkness)", "light NOT darkness"},
+        {"god OR the", "god"},
+        {"the OR and", ""}
+    };
+
+    private VerificacionConsultas() {
+    }
+
+    public static void main(String[] args) {
+        String[] lineas = Datos.lineasMuestra();
+        boolean correcto = verificar("español", new IndiceInvertido(AnalisisLexico.espanol()), lineas, PARES_ESPANOL);
+        correcto &= verificar("inglés", new IndiceInvertido(AnalisisLexico.ingles()), lineas, PARES_INGLES);
+        if (!correcto) System.exit(1);
+        System.out.println("Las palabras vacías no cambian el resultado de las consultas.");
+    }
+
+    /**
+     * Indexa las líneas y compara cada par de consultas.
+     *
+     * @param nombre Nombre del análisis, para los mensajes
+     * @param indice Índice vacío con el análisis léxico
+     * @param lineas Líneas a indexar
+     * @param pares Consultas con palabras vacías y sus equivalentes sin
+     *              ellas; una cadena vacía significa que no hay líneas
+     * @return true si todos los pares coinciden
+     */
+    private static boolean verificar(String nombre, IndiceInvertido indice, String[] lineas, String[][] pares) {
+        for (String linea : lineas) {
+            indice.agregarLinea(linea);
+        }
+        boolean correcto = true;
+        for (String[] par : pares) {
+            Lista<Integer> con = indice.consultar(par[0]);
+            Lista<Integer> sin = par[1].isEmpty() ? new Lista<>(1) : indice.consultar(par[1]);
+            String esperado = texto(sin);
+            String obtenido = texto(con);
+            System.out.printf("%-8s %-30s %s%n", nombre, par[0], obtenido);
+            if (!esperado.equals(obtenido)) {
+                System.out.println("  ERROR: se esperaba " + esperado + " como en '" + par[1] + "'");
+                correcto = false;
+            }
+        }
+        return correcto;
+    }
+
+    /**
+     * Escribe los números de línea de un resultado.
+     *
+     * @param lineas Resultado de una consulta
+     * @return Números separados por comas, entre corchetes
+     */
+    private static String texto(Lista<Integer> lineas) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < lineas.tamano(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(lineas.obtenerDe(i));
+        }
+        return sb.append(']').toString();
+    }
+}